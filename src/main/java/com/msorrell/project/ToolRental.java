@@ -1,29 +1,212 @@
 package com.msorrell.project;
 
-import com.msorrell.project.models.Checkout;
-import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.PricingConfig;
+import com.msorrell.project.pipeline.RentalPipeline;
+import com.msorrell.project.services.DiagnosticQuoteEngine;
+import com.msorrell.project.services.PricingConfigService;
+import com.msorrell.project.services.PricingConfigWatcher;
+import com.msorrell.project.services.QuoteEngine;
 import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.store.ReferenceDataSnapshot;
+import com.msorrell.project.util.ProjectUtils;
+import com.msorrell.project.util.ToolCodeIndex;
+import com.msorrell.project.workload.SessionRecorder;
+import com.msorrell.project.workload.SessionReplayDriver;
 
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 /**
  * Class to rent tools to customers.
  * Generates a Checkout from user input and generate a Rental Agreement
+ *
+ * Run with --pipeline [parseThreads priceThreads renderThreads queueCapacity] to read checkout lines
+ * from standard input and price them in a pipeline instead of prompting for each field.
+ *
+ * Start with --snapshot file to map a reference data snapshot instead of calculating the calendar.
+ * Write one with {@link ReferenceDataSnapshot#main(String[])}.
+ *
+ * Start with --config directory to read the tool catalog, daily rates, and tax rates from the files in a directory.
+ * See {@link PricingConfig#load(Path)}. The directory is watched, and every prompt, line, and quote after a change uses
+ * the reloaded configuration. The catalog can only add tools after the ones already listed.
+ *
+ * Start with --diagnostics to measure the allocation and CPU time of every quote. A summary by tool type and rental
+ * length is written to standard error at the end.
+ *
+ * Start with --record file to append the input of the interactive session, including invalid answers, to a file.
+ * Replay the recorded sessions with {@link SessionReplayDriver#main(String[])}.
  */
 public class ToolRental {
 
-    public static void main(final String[] args) {
+    /**
+     * Argument that selects the pipeline.
+     */
+    private static final String PIPELINE_ARGUMENT = "--pipeline";
+
+    /**
+     * Argument that selects a reference data snapshot.
+     */
+    private static final String SNAPSHOT_ARGUMENT = "--snapshot";
+
+    /**
+     * Argument that selects a pricing configuration directory.
+     */
+    private static final String CONFIG_ARGUMENT = "--config";
+
+    /**
+     * Argument that measures the cost of every quote.
+     */
+    private static final String DIAGNOSTICS_ARGUMENT = "--diagnostics";
+
+    /**
+     * Argument that records the session's input.
+     */
+    private static final String RECORD_ARGUMENT = "--record";
+
+    /**
+     * Default pipeline settings: parse threads, price threads, render threads, queue capacity.
+     */
+    private static final int[] DEFAULT_PIPELINE_SETTINGS = {1, 1, 1, 1024};
+
+    /**
+     * Printed when the pipeline settings are not valid.
+     */
+    private static final String PIPELINE_USAGE = "Usage: " + PIPELINE_ARGUMENT
+            + " [parseThreads priceThreads renderThreads queueCapacity], each a number greater than 0";
+
+    public static void main(final String[] arguments) {
+        DiagnosticQuoteEngine diagnostics = null;
+        PricingConfigWatcher watcher = null;
         try (final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in))) {
-            final ToolRentalService toolRentalService = new ToolRentalService();
-            do {
-                final Checkout checkout = toolRentalService.readInput(reader);
-                final RentalAgreement rentalAgreement = toolRentalService.generateRentalAgreement(checkout);
-                rentalAgreement.printToConsole();
-            } while (toolRentalService.checkoutAgain(reader));
+            String[] args = arguments;
+            Path snapshotFile = null;
+            if (args.length > 1 && SNAPSHOT_ARGUMENT.equals(args[0])) {
+                snapshotFile = Path.of(args[1]);
+                args = Arrays.copyOfRange(args, 2, args.length);
+            }
+            PricingConfigService pricingConfigService = null;
+            if (args.length > 1 && CONFIG_ARGUMENT.equals(args[0])) {
+                pricingConfigService = new PricingConfigService(Path.of(args[1]));
+                watcher = new PricingConfigWatcher(pricingConfigService);
+                args = Arrays.copyOfRange(args, 2, args.length);
+            }
+            final ReferenceDataSnapshot snapshot = snapshotFile == null ? null : openSnapshot(snapshotFile,
+                    pricingConfigService == null ? ProjectUtils.TOOL_CODES : pricingConfigService.getToolCodes());
+            QuoteEngine quoteEngine = pricingConfigService == null ? new QuoteEngine(null, null, snapshot)
+                    : new QuoteEngine(null, snapshot, pricingConfigService);
+            if (args.length > 0 && DIAGNOSTICS_ARGUMENT.equals(args[0])) {
+                diagnostics = new DiagnosticQuoteEngine(quoteEngine);
+                quoteEngine = diagnostics;
+                args = Arrays.copyOfRange(args, 1, args.length);
+            }
+            final ToolRentalService toolRentalService = new ToolRentalService(quoteEngine, System.out);
+            if (args.length > 0 && PIPELINE_ARGUMENT.equals(args[0])) {
+                runPipeline(toolRentalService, reader, args);
+                return;
+            }
+            if (args.length > 1 && RECORD_ARGUMENT.equals(args[0])) {
+                try (SessionRecorder recorder = SessionRecorder.append(reader, Path.of(args[1]))) {
+                    toolRentalService.runSession(recorder);
+                }
+                return;
+            }
+            toolRentalService.runSession(reader);
+        } catch (EOFException | InvalidInputException e) {
+            //The input ended, or the configuration directory could not be loaded
+            System.err.println(e.getMessage());
         } catch (IOException e) {
             e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (diagnostics != null) {
+                diagnostics.printSummary(System.err);
+            }
+            if (watcher != null) {
+                closeWatcher(watcher);
+            }
+        }
+    }
+
+    /**
+     * Stops watching the configuration directory. A failure to close is reported to standard error.
+     * @param watcher Watcher of the configuration directory
+     */
+    private static void closeWatcher(final PricingConfigWatcher watcher) {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    /**
+     * Maps a reference data snapshot.
+     * A snapshot that cannot be used is reported to standard error, and the calendar is calculated instead.
+     * @param file Snapshot file
+     * @param toolCodes Catalog in effect. Must start with the snapshot's catalog
+     * @return snapshot, null if it cannot be used
+     */
+    private static ReferenceDataSnapshot openSnapshot(final Path file, final ToolCodeIndex toolCodes) {
+        try {
+            final ReferenceDataSnapshot snapshot = ReferenceDataSnapshot.open(file);
+            if (toolCodes.startsWith(snapshot.getTools())) {
+                return snapshot;
+            }
+            System.err.println("Reference data snapshot has a different tool catalog: " + file);
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Prices every checkout line from the reader through the pipeline.
+     * The largest queue depth of each stage is reported to standard error for tuning. Settings that are not valid
+     * are reported with the usage message, and nothing is read.
+     * @param toolRentalService ToolRentalService
+     * @param reader BufferedReader
+     * @param args Command line arguments
+     * @throws IOException exception while reading input
+     * @throws InterruptedException interrupted while waiting for the pipeline
+     */
+    private static void runPipeline(final ToolRentalService toolRentalService, final BufferedReader reader,
+                                    final String[] args) throws IOException, InterruptedException {
+        final int[] settings = DEFAULT_PIPELINE_SETTINGS.clone();
+        if (args.length - 1 > settings.length) {
+            System.err.println(PIPELINE_USAGE);
+            return;
+        }
+        for (int i = 1; i < args.length; i++) {
+            settings[i - 1] = parseSetting(args[i]);
+            if (settings[i - 1] < 1) {
+                System.err.println(PIPELINE_USAGE);
+                return;
+            }
+        }
+        final RentalPipeline pipeline = new RentalPipeline(toolRentalService, settings[0], settings[1], settings[2],
+                settings[3]);
+        final long lines = pipeline.run(reader, System.out);
+        System.out.flush();
+        System.err.println("Checkout lines: " + lines);
+        System.err.println("Max queue depths: " + pipeline.getMaxQueueDepths());
+    }
+
+    /**
+     * Parses a pipeline setting.
+     * @param setting Command line argument
+     * @return the setting, 0 if it is not a number
+     */
+    private static int parseSetting(final String setting) {
+        try {
+            return Integer.parseInt(setting);
+        } catch (NumberFormatException e) {
+            return 0;
         }
     }
 }
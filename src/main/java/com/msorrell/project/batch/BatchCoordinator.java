@@ -0,0 +1,396 @@
+package com.msorrell.project.batch;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Properties;
+
+/**
+ * Prices a checkout file in several local worker JVMs and merges their results.
+ *
+ * The input is split into byte ranges that start at the beginning of a line, so planning the shards reads only a
+ * few bytes per shard. Each shard is priced by a {@link BatchWorker} process with its own heap. The sorted shard
+ * outputs are merged into one file sorted by tool code, checkout date, and input position, and the shard totals
+ * are added up.
+ *
+ * Every finished shard leaves a done marker in the work directory. Running the coordinator again with the same
+ * input, shard count, and work directory only prices the shards without a marker, so a failed run resumes from
+ * the shards that did not finish.
+ */
+public class BatchCoordinator {
+
+    /**
+     * Property holding the input file size.
+     */
+    private static final String INPUT_SIZE_PROPERTY = "inputSize";
+
+    /**
+     * Property holding the input file's last modified time.
+     */
+    private static final String INPUT_MODIFIED_PROPERTY = "inputModified";
+
+    /**
+     * Property holding the shard start offset.
+     */
+    private static final String START_PROPERTY = "start";
+
+    /**
+     * Property holding the shard end offset.
+     */
+    private static final String END_PROPERTY = "end";
+
+    /**
+     * Checkout file.
+     */
+    private final Path input;
+
+    /**
+     * Directory holding the shard outputs, reject files, logs, and done markers.
+     */
+    private final Path workDirectory;
+
+    /**
+     * Number of shards.
+     */
+    private final int shards;
+
+    /**
+     * Number of times a shard is started before the run fails.
+     */
+    private final int maxAttempts;
+
+    /**
+     * Number of worker processes started by the last run.
+     */
+    private int workersStarted;
+
+    /**
+     * Constructor.
+     * @param input Checkout file
+     * @param workDirectory Directory holding the shard outputs, reject files, logs, and done markers
+     * @param shards Number of shards, each priced by its own worker process
+     * @param maxAttempts Number of times a shard is started before the run fails
+     */
+    public BatchCoordinator(final Path input, final Path workDirectory, final int shards, final int maxAttempts) {
+        if (shards < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("Shards and attempts must be greater than 0");
+        }
+        this.input = input;
+        this.workDirectory = workDirectory;
+        this.shards = shards;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Prices every shard that is not done, then merges the shard outputs.
+     * The merged agreements are written to the output, the rejected lines to the output with a .rejects suffix,
+     * and the totals to the output with a .totals suffix.
+     * @param output Merged agreement file
+     * @return totals of the whole input
+     * @throws IOException a shard failed on every attempt, or exception while reading or writing files
+     * @throws InterruptedException interrupted while waiting for the workers
+     */
+    public BatchTotals run(final Path output) throws IOException, InterruptedException {
+        Files.createDirectories(workDirectory);
+        final long[] bounds = plan();
+        workersStarted = 0;
+        List<Integer> pending = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            if (!isDone(i, bounds[i], bounds[i + 1])) {
+                pending.add(i);
+            }
+        }
+        for (int attempt = 1; attempt <= maxAttempts && !pending.isEmpty(); attempt++) {
+            final List<Process> processes = new ArrayList<>();
+            for (final int shard : pending) {
+                Files.deleteIfExists(doneMarker(workDirectory, shard));
+                processes.add(startWorker(shard, bounds[shard], bounds[shard + 1]));
+            }
+            final List<Integer> failed = new ArrayList<>();
+            for (int i = 0; i < processes.size(); i++) {
+                final int shard = pending.get(i);
+                if (processes.get(i).waitFor() != 0 || !isDone(shard, bounds[shard], bounds[shard + 1])) {
+                    failed.add(shard);
+                }
+            }
+            pending = failed;
+        }
+        if (!pending.isEmpty()) {
+            throw new IOException("Shards " + pending + " failed after " + maxAttempts
+                    + " attempts. See the logs in " + workDirectory + " and run again to resume.");
+        }
+
+        final BatchTotals totals = new BatchTotals();
+        for (int i = 0; i < shards; i++) {
+            totals.add(BatchTotals.load(readDoneMarker(i)));
+        }
+        merge(output);
+        concatenateRejects(output.resolveSibling(output.getFileName() + ".rejects"));
+        final Properties properties = new Properties();
+        totals.store(properties);
+        try (OutputStream out = Files.newOutputStream(output.resolveSibling(output.getFileName() + ".totals"))) {
+            properties.store(out, "Batch totals");
+        }
+        return totals;
+    }
+
+    /**
+     * Splits the input into shards. Every boundary is moved forward to the start of the next line.
+     * @return shard boundaries: shard i covers bounds[i] up to bounds[i + 1]
+     * @throws IOException exception while reading the input
+     */
+    private long[] plan() throws IOException {
+        final long[] bounds = new long[shards + 1];
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            bounds[shards] = size;
+            final ByteBuffer buffer = ByteBuffer.allocate(256);
+            for (int i = 1; i < shards; i++) {
+                long bound = Math.max(bounds[i - 1], size * i / shards);
+                //A boundary is a line start when the byte before it is a line feed
+                long position = bound - 1;
+                boolean found = bound == 0;
+                while (!found && position < size) {
+                    buffer.clear();
+                    final int read = channel.read(buffer, position);
+                    for (int j = 0; j < read && !found; j++) {
+                        if (buffer.get(j) == '\n') {
+                            bound = position + j + 1;
+                            found = true;
+                        }
+                    }
+                    position += Math.max(read, 0);
+                    if (read <= 0) {
+                        break;
+                    }
+                }
+                bounds[i] = found ? bound : size;
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Number of worker processes started by the last run, including retries.
+     * @return worker processes
+     */
+    public int getWorkersStarted() {
+        return workersStarted;
+    }
+
+    /**
+     * Starts a worker process for a shard. Its output and errors go to the shard's log.
+     * @param shard Shard index
+     * @param start Offset of the shard's first line
+     * @param end Offset just past the shard
+     * @return worker process
+     * @throws IOException exception while starting the process
+     */
+    private Process startWorker(final int shard, final long start, final long end) throws IOException {
+        final List<String> command = List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                BatchWorker.class.getName(),
+                input.toString(), Long.toString(start), Long.toString(end), workDirectory.toString(),
+                Integer.toString(shard));
+        final Path log = workDirectory.resolve("shard-" + shard + ".log");
+        workersStarted++;
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.to(log.toFile()))
+                .start();
+    }
+
+    /**
+     * Determines if a shard is done: its marker exists and was written for this input and byte range.
+     * @param shard Shard index
+     * @param start Offset of the shard's first line
+     * @param end Offset just past the shard
+     * @return true - done, false - the shard needs to be priced
+     * @throws IOException exception while reading the input's attributes
+     */
+    private boolean isDone(final int shard, final long start, final long end) throws IOException {
+        if (!Files.exists(doneMarker(workDirectory, shard)) || !Files.exists(outputFile(workDirectory, shard))) {
+            return false;
+        }
+        final Properties marker = readDoneMarker(shard);
+        final Properties expected = shardProperties(input, start, end);
+        for (final String name : expected.stringPropertyNames()) {
+            if (!expected.getProperty(name).equals(marker.getProperty(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads a shard's done marker.
+     * @param shard Shard index
+     * @return marker properties
+     * @throws IOException exception while reading the marker
+     */
+    private Properties readDoneMarker(final int shard) throws IOException {
+        final Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(doneMarker(workDirectory, shard))) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    /**
+     * Merges the sorted shard outputs. The file is written beside the output and moved into place.
+     * @param output Merged agreement file
+     * @throws IOException exception while reading or writing files
+     */
+    private void merge(final Path output) throws IOException {
+        final List<ShardCursor> cursors = new ArrayList<>();
+        final Path temporary = output.resolveSibling(output.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+            final PriorityQueue<ShardCursor> heads = new PriorityQueue<>(shards,
+                    (first, second) -> BatchWorker.RECORD_ORDER.compare(first.record, second.record));
+            for (int i = 0; i < shards; i++) {
+                final ShardCursor cursor = new ShardCursor(Files.newBufferedReader(outputFile(workDirectory, i),
+                        StandardCharsets.UTF_8));
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    heads.add(cursor);
+                }
+            }
+            while (!heads.isEmpty()) {
+                final ShardCursor head = heads.poll();
+                writer.write(head.record);
+                writer.newLine();
+                if (head.advance()) {
+                    heads.add(head);
+                }
+            }
+        } finally {
+            for (final ShardCursor cursor : cursors) {
+                cursor.reader.close();
+            }
+        }
+        Files.move(temporary, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Concatenates the shard reject files in input order.
+     * @param rejects Merged reject file
+     * @throws IOException exception while reading or writing files
+     */
+    private void concatenateRejects(final Path rejects) throws IOException {
+        try (OutputStream out = Files.newOutputStream(rejects)) {
+            for (int i = 0; i < shards; i++) {
+                Files.copy(rejectFile(workDirectory, i), out);
+            }
+        }
+    }
+
+    /**
+     * Properties that identify a shard: the input's size and last modified time, and the shard's byte range.
+     * @param input Checkout file
+     * @param start Offset of the shard's first line
+     * @param end Offset just past the shard
+     * @return shard properties
+     * @throws IOException exception while reading the input's attributes
+     */
+    static Properties shardProperties(final Path input, final long start, final long end) throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(INPUT_SIZE_PROPERTY, Long.toString(Files.size(input)));
+        properties.setProperty(INPUT_MODIFIED_PROPERTY, Long.toString(Files.getLastModifiedTime(input).toMillis()));
+        properties.setProperty(START_PROPERTY, Long.toString(start));
+        properties.setProperty(END_PROPERTY, Long.toString(end));
+        return properties;
+    }
+
+    /**
+     * Sorted agreement records of a shard.
+     * @param workDirectory Work directory
+     * @param shard Shard index
+     * @return output file
+     */
+    static Path outputFile(final Path workDirectory, final int shard) {
+        return workDirectory.resolve("shard-" + shard + ".csv");
+    }
+
+    /**
+     * Rejected lines of a shard.
+     * @param workDirectory Work directory
+     * @param shard Shard index
+     * @return reject file
+     */
+    static Path rejectFile(final Path workDirectory, final int shard) {
+        return workDirectory.resolve("shard-" + shard + ".rejects");
+    }
+
+    /**
+     * Done marker of a shard.
+     * @param workDirectory Work directory
+     * @param shard Shard index
+     * @return done marker
+     */
+    static Path doneMarker(final Path workDirectory, final int shard) {
+        return workDirectory.resolve("shard-" + shard + ".done");
+    }
+
+    /**
+     * Prices a checkout file.
+     * Arguments: checkout file, merged output file, work directory, shard count, attempts per shard (default 2).
+     * @param args Command line arguments
+     * @throws IOException a shard failed on every attempt, or exception while reading or writing files
+     * @throws InterruptedException interrupted while waiting for the workers
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int maxAttempts = args.length > 4 ? Integer.parseInt(args[4]) : 2;
+        final BatchCoordinator coordinator = new BatchCoordinator(Path.of(args[0]), Path.of(args[2]),
+                Integer.parseInt(args[3]), maxAttempts);
+        final BatchTotals totals = coordinator.run(Path.of(args[1]));
+        System.out.println(totals);
+        System.out.println("Workers started: " + coordinator.getWorkersStarted());
+    }
+
+    /**
+     * Position in a sorted shard output during the merge.
+     */
+    private static final class ShardCursor {
+
+        /**
+         * Reader of the shard output.
+         */
+        private final BufferedReader reader;
+
+        /**
+         * Current record.
+         */
+        private String record;
+
+        /**
+         * Constructor.
+         * @param reader Reader of the shard output
+         */
+        private ShardCursor(final BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        /**
+         * Reads the next record.
+         * @return true - a record was read, false - the shard output is exhausted
+         * @throws IOException exception while reading
+         */
+        private boolean advance() throws IOException {
+            record = reader.readLine();
+            return record != null;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.msorrell.project.batch;
+
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.util.MoneyUtils;
+
+import java.math.BigDecimal;
+import java.util.Properties;
+
+/**
+ * Counts and charge totals of a shard or a whole batch run. Amounts are held in cents.
+ */
+public class BatchTotals {
+
+    /**
+     * Checkout lines read.
+     */
+    private long lines;
+
+    /**
+     * Checkout lines rejected as invalid.
+     */
+    private long rejected;
+
+    /**
+     * Sum of the pre-discount charges, in cents.
+     */
+    private long preDiscountCents;
+
+    /**
+     * Sum of the discount amounts, in cents.
+     */
+    private long discountCents;
+
+    /**
+     * Sum of the final charges, in cents.
+     */
+    private long finalCents;
+
+    /**
+     * Sum of the tax amounts, in cents.
+     */
+    private long taxCents;
+
+    /**
+     * Adds a priced checkout line.
+     * @param rentalAgreement Rental Agreement
+     */
+    public void addAgreement(final RentalAgreement rentalAgreement) {
+        lines++;
+        preDiscountCents += MoneyUtils.toCents(rentalAgreement.getPreDiscountCharge());
+        discountCents += MoneyUtils.toCents(rentalAgreement.getDiscountAmount());
+        finalCents += MoneyUtils.toCents(rentalAgreement.getFinalCharge());
+        if (rentalAgreement.getTaxAmount() != null) {
+            taxCents += MoneyUtils.toCents(rentalAgreement.getTaxAmount());
+        }
+    }
+
+    /**
+     * Adds a rejected checkout line.
+     */
+    public void addRejected() {
+        lines++;
+        rejected++;
+    }
+
+    /**
+     * Adds the totals of a shard.
+     * @param other Totals of a shard
+     */
+    public void add(final BatchTotals other) {
+        lines += other.lines;
+        rejected += other.rejected;
+        preDiscountCents += other.preDiscountCents;
+        discountCents += other.discountCents;
+        finalCents += other.finalCents;
+        taxCents += other.taxCents;
+    }
+
+    /**
+     * Writes the totals into properties.
+     * @param properties Properties
+     */
+    public void store(final Properties properties) {
+        properties.setProperty("lines", Long.toString(lines));
+        properties.setProperty("rejected", Long.toString(rejected));
+        properties.setProperty("preDiscountCents", Long.toString(preDiscountCents));
+        properties.setProperty("discountCents", Long.toString(discountCents));
+        properties.setProperty("finalCents", Long.toString(finalCents));
+        properties.setProperty("taxCents", Long.toString(taxCents));
+    }
+
+    /**
+     * Reads totals written by {@link #store(Properties)}.
+     * @param properties Properties
+     * @return totals
+     * @throws NumberFormatException a total is missing or not a number
+     */
+    public static BatchTotals load(final Properties properties) {
+        final BatchTotals totals = new BatchTotals();
+        totals.lines = Long.parseLong(properties.getProperty("lines"));
+        totals.rejected = Long.parseLong(properties.getProperty("rejected"));
+        totals.preDiscountCents = Long.parseLong(properties.getProperty("preDiscountCents"));
+        totals.discountCents = Long.parseLong(properties.getProperty("discountCents"));
+        totals.finalCents = Long.parseLong(properties.getProperty("finalCents"));
+        totals.taxCents = Long.parseLong(properties.getProperty("taxCents"));
+        return totals;
+    }
+
+    @Override
+    public String toString() {
+        return "Lines: " + lines + ", rejected: " + rejected
+                + ", pre-discount: " + getTotalPreDiscountCharge()
+                + ", discount: " + getTotalDiscountAmount()
+                + ", final: " + getTotalFinalCharge()
+                + ", tax: " + getTotalTaxAmount();
+    }
+
+    public long getLines() {
+        return lines;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public BigDecimal getTotalPreDiscountCharge() {
+        return MoneyUtils.fromCents(preDiscountCents);
+    }
+
+    public BigDecimal getTotalDiscountAmount() {
+        return MoneyUtils.fromCents(discountCents);
+    }
+
+    public BigDecimal getTotalFinalCharge() {
+        return MoneyUtils.fromCents(finalCents);
+    }
+
+    public BigDecimal getTotalTaxAmount() {
+        return MoneyUtils.fromCents(taxCents);
+    }
+}
@@ -0,0 +1,180 @@
+package com.msorrell.project.batch;
+
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.ValidationResult;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Prices one shard of a checkout file. Started as a separate JVM by the {@link BatchCoordinator}.
+ *
+ * A shard is a byte range of the input that starts at the beginning of a line. The worker prices every line that
+ * starts inside the range and writes the agreements sorted by tool code, checkout date, and input position. Lines
+ * that cannot be priced are written to a reject file with every reason they failed. Lines are validated without
+ * throwing, so dirty input is priced nearly as fast as clean input. Once both files are complete, a done marker with
+ * the shard's totals is moved into place, so a shard either has a marker and complete output or is priced again.
+ */
+public final class BatchWorker {
+
+    /**
+     * Order of the agreement records: tool code and checkout date, then the position of the checkout line in the
+     * input. A record is an agreement line followed by the byte offset of its checkout line.
+     */
+    static final Comparator<String> RECORD_ORDER = BatchWorker::compareRecords;
+
+    /**
+     * Initial size of the line buffer.
+     */
+    private static final int LINE_BUFFER_SIZE = 128;
+
+    /**
+     * Prices the lines of a shard.
+     * @param toolRentalService Service used to price the checkouts
+     * @param input Checkout file
+     * @param start Offset of the shard's first line
+     * @param end Offset just past the shard
+     * @param output Agreement records, sorted by {@link #RECORD_ORDER}
+     * @param rejects Rejected lines: offset, line, and reasons, separated by tabs
+     * @return totals of the shard
+     * @throws IOException exception while reading the input or writing the output
+     */
+    public static BatchTotals price(final ToolRentalService toolRentalService, final Path input, final long start,
+                                    final long end, final Path output, final Path rejects) throws IOException {
+        final BatchTotals totals = new BatchTotals();
+        final List<String> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ);
+             InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(start)));
+             BufferedWriter rejectWriter = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8)) {
+            byte[] buffer = new byte[LINE_BUFFER_SIZE];
+            ByteBuffer lineBuffer = ByteBuffer.wrap(buffer);
+            final ValidationResult result = new ValidationResult();
+            final StringBuilder reasons = new StringBuilder();
+            long offset = start;
+            while (offset < end) {
+                int length = 0;
+                int next;
+                while ((next = in.read()) >= 0 && next != '\n') {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, length * 2);
+                        lineBuffer = ByteBuffer.wrap(buffer);
+                    }
+                    buffer[length++] = (byte) next;
+                }
+                final long lineOffset = offset;
+                offset += length + (next < 0 ? 0 : 1);
+                if (length > 0 && buffer[length - 1] == '\r') {
+                    length--;
+                }
+                if (length > 0) {
+                    reasons.setLength(0);
+                    final ToolCodeIndex toolCodes = toolRentalService.getToolCodes();
+                    if (CheckoutLineParser.validate(lineBuffer, 0, length, result, toolCodes)) {
+                        try {
+                            final RentalAgreement rentalAgreement = toolRentalService.generateRentalAgreement(
+                                    result.toCheckout(toolCodes));
+                            totals.addAgreement(rentalAgreement);
+                            records.add(rentalAgreement.toLine() + ',' + lineOffset);
+                        } catch (InvalidInputException e) {
+                            reasons.append(e.getMessage());
+                        }
+                    } else {
+                        result.appendReasons(reasons);
+                    }
+                    if (reasons.length() > 0) {
+                        totals.addRejected();
+                        rejectWriter.write(lineOffset + "\t" + new String(buffer, 0, length, StandardCharsets.UTF_8)
+                                + "\t" + reasons);
+                        rejectWriter.newLine();
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+            }
+        }
+        records.sort(RECORD_ORDER);
+        try (BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (final String record : records) {
+                writer.write(record);
+                writer.newLine();
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Writes a shard's done marker. The marker is written beside its target and moved into place.
+     * @param marker Done marker
+     * @param shard Properties identifying the shard
+     * @param totals Totals of the shard
+     * @throws IOException exception while writing the marker
+     */
+    static void writeDoneMarker(final Path marker, final Properties shard, final BatchTotals totals)
+            throws IOException {
+        final Properties properties = new Properties();
+        properties.putAll(shard);
+        totals.store(properties);
+        final Path temporary = marker.resolveSibling(marker.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            properties.store(out, "Batch shard");
+        }
+        Files.move(temporary, marker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Compares two agreement records.
+     * @param first Record
+     * @param second Record
+     * @return negative, 0, or positive as the first record sorts before, with, or after the second
+     */
+    private static int compareRecords(final String first, final String second) {
+        final int firstKey = first.indexOf(',', first.indexOf(',') + 1);
+        final int secondKey = second.indexOf(',', second.indexOf(',') + 1);
+        final int comparison = CharSequence.compare(first.subSequence(0, firstKey),
+                second.subSequence(0, secondKey));
+        if (comparison != 0) {
+            return comparison;
+        }
+        return Long.compare(Long.parseLong(first, first.lastIndexOf(',') + 1, first.length(), 10),
+                Long.parseLong(second, second.lastIndexOf(',') + 1, second.length(), 10));
+    }
+
+    /**
+     * Prices a shard and writes its done marker.
+     * Arguments: checkout file, shard start offset, shard end offset, work directory, shard index.
+     * @param args Command line arguments
+     * @throws IOException exception while reading the input or writing the output
+     */
+    public static void main(final String[] args) throws IOException {
+        final Path input = Path.of(args[0]);
+        final long start = Long.parseLong(args[1]);
+        final long end = Long.parseLong(args[2]);
+        final Path workDirectory = Path.of(args[3]);
+        final int index = Integer.parseInt(args[4]);
+        final BatchTotals totals = price(new ToolRentalService(), input, start, end,
+                BatchCoordinator.outputFile(workDirectory, index), BatchCoordinator.rejectFile(workDirectory, index));
+        writeDoneMarker(BatchCoordinator.doneMarker(workDirectory, index),
+                BatchCoordinator.shardProperties(input, start, end), totals);
+    }
+}
@@ -0,0 +1,289 @@
+package com.msorrell.project.codec;
+
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+import static com.msorrell.project.codec.BinaryCodec.AGREEMENT;
+import static com.msorrell.project.codec.BinaryCodec.HAS_JURISDICTION;
+import static com.msorrell.project.codec.BinaryCodec.HAS_TAX;
+import static com.msorrell.project.codec.BinaryCodec.checkHeader;
+import static com.msorrell.project.codec.BinaryCodec.decodeString;
+import static com.msorrell.project.codec.BinaryCodec.getVarInt;
+import static com.msorrell.project.codec.BinaryCodec.getVarLong;
+import static com.msorrell.project.codec.BinaryCodec.unzigzag;
+import static com.msorrell.project.util.MoneyUtils.fromCents;
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
+
+/**
+ * Reusable reader of Rental Agreements written by {@link BinaryCodec}.
+ *
+ * Decodes a record into primitive fields straight from the buffer, without moving the buffer's position and without
+ * creating objects per record, so a buffer of records can be scanned by passing the returned offset back in. Varints
+ * are read through a view of the buffer with the same reader {@link BinaryCodec} uses. The jurisdiction is only
+ * decoded into a String when it is asked for. A decoder is not thread safe.
+ */
+public class AgreementDecoder {
+
+    /**
+     * Supplies the catalog tool indexes are looked up in.
+     */
+    private final Supplier<ToolCodeIndex> catalog;
+
+    /**
+     * Catalog the record's tool is looked up in. Taken from the supplier for each record.
+     */
+    private ToolCodeIndex toolCodes;
+
+    /**
+     * Buffer holding the record.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * View of the buffer whose position is the next byte to decode. Created once per buffer.
+     */
+    private ByteBuffer view;
+
+    /**
+     * Flags of the record.
+     */
+    private int flags;
+
+    /**
+     * Tool index.
+     */
+    private int toolIndex;
+
+    /**
+     * Number of rental days.
+     */
+    private int rentalDays;
+
+    /**
+     * Checkout date in epoch days.
+     */
+    private long checkoutEpochDay;
+
+    /**
+     * Due date in epoch days.
+     */
+    private long dueEpochDay;
+
+    /**
+     * Number of charge days.
+     */
+    private int chargeDays;
+
+    /**
+     * Discount percent.
+     */
+    private int discountPercent;
+
+    /**
+     * Daily rental charge in cents.
+     */
+    private long dailyRentalChargeCents;
+
+    /**
+     * Pre-discount charge in cents.
+     */
+    private long preDiscountChargeCents;
+
+    /**
+     * Discount amount in cents.
+     */
+    private long discountAmountCents;
+
+    /**
+     * Final charge in cents.
+     */
+    private long finalChargeCents;
+
+    /**
+     * Tax amount in cents. 0 when the record has no tax.
+     */
+    private long taxAmountCents;
+
+    /**
+     * Total charge in cents. The final charge when the record has no tax.
+     */
+    private long totalChargeCents;
+
+    /**
+     * Offset of the jurisdiction's bytes.
+     */
+    private int jurisdictionOffset;
+
+    /**
+     * Number of bytes in the jurisdiction.
+     */
+    private int jurisdictionLength;
+
+    /**
+     * Constructor. Tool indexes are looked up in the compiled catalog.
+     */
+    public AgreementDecoder() {
+        this(() -> TOOL_CODES);
+    }
+
+    /**
+     * Constructor.
+     * @param catalog Supplies the catalog tool indexes are looked up in, such as the current configuration's
+     */
+    public AgreementDecoder(final Supplier<ToolCodeIndex> catalog) {
+        this.catalog = catalog;
+    }
+
+    /**
+     * Decodes the record at an offset.
+     * @param buffer Buffer holding the record
+     * @param offset Offset of the record
+     * @return offset just past the record
+     * @throws BufferUnderflowException the record is not complete
+     * @throws IllegalArgumentException the record is not a Rental Agreement of a supported version
+     */
+    public int wrap(final ByteBuffer buffer, final int offset) {
+        if (buffer != this.buffer) {
+            this.buffer = buffer;
+            this.view = buffer.duplicate();
+        }
+        view.limit(buffer.limit()).position(offset);
+        checkHeader(view.get(), AGREEMENT);
+        flags = getVarInt(view);
+        toolIndex = getVarInt(view);
+        toolCodes = catalog.get();
+        BinaryCodec.tool(toolIndex, toolCodes);
+        rentalDays = getVarInt(view);
+        checkoutEpochDay = unzigzag(getVarLong(view));
+        dueEpochDay = checkoutEpochDay + unzigzag(getVarLong(view));
+        chargeDays = getVarInt(view);
+        discountPercent = getVarInt(view);
+        dailyRentalChargeCents = unzigzag(getVarLong(view));
+        preDiscountChargeCents = unzigzag(getVarLong(view));
+        discountAmountCents = unzigzag(getVarLong(view));
+        finalChargeCents = unzigzag(getVarLong(view));
+        taxAmountCents = hasTax() ? unzigzag(getVarLong(view)) : 0;
+        totalChargeCents = hasTax() ? unzigzag(getVarLong(view)) : finalChargeCents;
+        jurisdictionLength = hasJurisdiction() ? getVarInt(view) : 0;
+        jurisdictionOffset = view.position();
+        if (jurisdictionLength > view.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        return jurisdictionOffset + jurisdictionLength;
+    }
+
+    /**
+     * Copies the record into a new Rental Agreement.
+     * @return Rental Agreement
+     */
+    public RentalAgreement toRentalAgreement() {
+        final RentalAgreement rentalAgreement = new RentalAgreement();
+        rentalAgreement.setTool(getTool());
+        rentalAgreement.setRentalDays(rentalDays);
+        rentalAgreement.setCheckoutDate(LocalDate.ofEpochDay(checkoutEpochDay));
+        rentalAgreement.setDueDate(LocalDate.ofEpochDay(dueEpochDay));
+        rentalAgreement.setDailyRentalCharge(fromCents(dailyRentalChargeCents));
+        rentalAgreement.setChargeDays(chargeDays);
+        rentalAgreement.setPreDiscountCharge(fromCents(preDiscountChargeCents));
+        rentalAgreement.setDiscountPercent(discountPercent);
+        rentalAgreement.setDiscountAmount(fromCents(discountAmountCents));
+        rentalAgreement.setFinalCharge(fromCents(finalChargeCents));
+        rentalAgreement.setJurisdiction(getJurisdiction());
+        if (hasTax()) {
+            rentalAgreement.setTaxAmount(fromCents(taxAmountCents));
+            rentalAgreement.setTotalCharge(fromCents(totalChargeCents));
+        }
+        return rentalAgreement;
+    }
+
+    public boolean hasTax() {
+        return (flags & HAS_TAX) != 0;
+    }
+
+    public boolean hasJurisdiction() {
+        return (flags & HAS_JURISDICTION) != 0;
+    }
+
+    public int getToolIndex() {
+        return toolIndex;
+    }
+
+    public Tool getTool() {
+        return BinaryCodec.tool(toolIndex, toolCodes);
+    }
+
+    public int getRentalDays() {
+        return rentalDays;
+    }
+
+    public long getCheckoutEpochDay() {
+        return checkoutEpochDay;
+    }
+
+    public long getDueEpochDay() {
+        return dueEpochDay;
+    }
+
+    public int getChargeDays() {
+        return chargeDays;
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    public long getDailyRentalChargeCents() {
+        return dailyRentalChargeCents;
+    }
+
+    public long getPreDiscountChargeCents() {
+        return preDiscountChargeCents;
+    }
+
+    public long getDiscountAmountCents() {
+        return discountAmountCents;
+    }
+
+    public long getFinalChargeCents() {
+        return finalChargeCents;
+    }
+
+    public long getTaxAmountCents() {
+        return taxAmountCents;
+    }
+
+    public long getTotalChargeCents() {
+        return totalChargeCents;
+    }
+
+    /**
+     * Decodes the jurisdiction.
+     * @return jurisdiction, null if the record has none
+     */
+    public String getJurisdiction() {
+        return hasJurisdiction() ? decodeString(buffer, jurisdictionOffset, jurisdictionLength) : null;
+    }
+
+    /**
+     * Retrieves the number of bytes in the jurisdiction.
+     * @return number of UTF-8 bytes, 0 if the record has no jurisdiction
+     */
+    int getJurisdictionLength() {
+        return jurisdictionLength;
+    }
+
+    /**
+     * Reads one byte of the jurisdiction without decoding it.
+     * @param index Index of the byte
+     * @return UTF-8 byte
+     */
+    byte getJurisdictionByte(final int index) {
+        return buffer.get(jurisdictionOffset + index);
+    }
+}
@@ -0,0 +1,321 @@
+package com.msorrell.project.codec;
+
+import com.msorrell.project.models.RentalAgreement;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static com.msorrell.project.util.MoneyUtils.toCents;
+
+/**
+ * Streams Rental Agreements to a byte sink in a text format.
+ *
+ * Records are encoded straight into a reused byte buffer that is written to the sink when it fills. Amounts are
+ * formatted from whole cents and dates from epoch days, so encoding a record creates no Strings. Agreements read
+ * through an {@link AgreementDecoder} are encoded from its primitive fields without creating any objects. Text is
+ * written as UTF-8. A writer is not thread safe.
+ */
+public abstract class AgreementWriter implements Closeable, Flushable {
+
+    /**
+     * Default size of the buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Smallest buffer, large enough for the longest fixed part of a record.
+     */
+    private static final int MIN_BUFFER_SIZE = 256;
+
+    /**
+     * Most bytes written for one number. Ex. -9223372036854775808
+     */
+    private static final int MAX_NUMBER_LENGTH = 21;
+
+    /**
+     * Days from 0000-03-01 to 1970-01-01.
+     */
+    private static final long DAYS_TO_EPOCH = 719_468;
+
+    /**
+     * Days in a 400 year era.
+     */
+    private static final long DAYS_PER_ERA = 146_097;
+
+    /**
+     * Largest year written with four digits.
+     */
+    private static final long MAX_FOUR_DIGIT_YEAR = 9999;
+
+    /**
+     * Sink the records are written to.
+     */
+    private final OutputStream out;
+
+    /**
+     * Bytes not yet written to the sink.
+     */
+    private final byte[] buffer;
+
+    /**
+     * Number of bytes in the buffer.
+     */
+    private int position;
+
+    /**
+     * Number of records written.
+     */
+    private long recordCount;
+
+    /**
+     * Constructor.
+     * @param out Sink the records are written to
+     * @param bufferSize Size of the buffer
+     */
+    protected AgreementWriter(final OutputStream out, final int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[Math.max(bufferSize, MIN_BUFFER_SIZE)];
+    }
+
+    /**
+     * Writes a Rental Agreement.
+     * A missing tax amount is written as 0.00, and a missing total charge as the final charge.
+     * @param rentalAgreement Rental Agreement
+     * @throws IOException exception while writing to the sink
+     */
+    public abstract void write(RentalAgreement rentalAgreement) throws IOException;
+
+    /**
+     * Writes the record a decoder is positioned on.
+     * @param decoder Decoder positioned on a Rental Agreement
+     * @throws IOException exception while writing to the sink
+     */
+    public abstract void write(AgreementDecoder decoder) throws IOException;
+
+    /**
+     * Writes a UTF-8 byte of text, escaped as the format requires.
+     * @param b Byte of text
+     * @throws IOException exception while writing to the sink
+     */
+    abstract void putTextByte(int b) throws IOException;
+
+    /**
+     * Counts a record that has been written.
+     */
+    void recordWritten() {
+        recordCount++;
+    }
+
+    /**
+     * Makes room in the buffer.
+     * @param length Number of bytes that are about to be written. At most the size of the buffer
+     * @throws IOException exception while writing to the sink
+     */
+    private void ensure(final int length) throws IOException {
+        if (buffer.length - position < length) {
+            flushBuffer();
+        }
+    }
+
+    /**
+     * Writes a byte.
+     * @param b Byte
+     * @throws IOException exception while writing to the sink
+     */
+    void putByte(final int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    /**
+     * Writes bytes that fit in the buffer, such as a field name.
+     * @param bytes Bytes
+     * @throws IOException exception while writing to the sink
+     */
+    void putBytes(final byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    /**
+     * Writes a number in decimal.
+     * @param value Number
+     * @throws IOException exception while writing to the sink
+     */
+    void putLong(final long value) throws IOException {
+        ensure(MAX_NUMBER_LENGTH);
+        if (value == Long.MIN_VALUE) {
+            putBytes(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        long rest = value;
+        if (rest < 0) {
+            buffer[position++] = '-';
+            rest = -rest;
+        }
+        int digits = 1;
+        for (long bound = 10; digits < 19 && rest >= bound; bound *= 10) {
+            digits++;
+        }
+        int i = position + digits;
+        position = i;
+        do {
+            buffer[--i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+    }
+
+    /**
+     * Writes an amount in whole cents with 2 decimal places. Ex. 1234 is 12.34
+     * @param cents Amount in cents
+     * @throws IOException exception while writing to the sink
+     */
+    void putCents(final long cents) throws IOException {
+        if (cents < 0 && cents > -100) {
+            //No whole part to carry the sign
+            putByte('-');
+        }
+        putLong(cents / 100);
+        ensure(3);
+        final int fraction = (int) Math.abs(cents % 100);
+        buffer[position++] = '.';
+        buffer[position++] = (byte) ('0' + fraction / 10);
+        buffer[position++] = (byte) ('0' + fraction % 10);
+    }
+
+    /**
+     * Writes an amount of money with 2 decimal places.
+     * @param amount Amount of money, null for 0.00
+     * @throws IOException exception while writing to the sink
+     */
+    void putMoney(final BigDecimal amount) throws IOException {
+        putCents(amount == null ? 0 : toCents(amount));
+    }
+
+    /**
+     * Writes a date formatted yyyy-MM-dd, the same as {@link LocalDate#toString()}.
+     * @param epochDay Date in epoch days
+     * @throws IOException exception while writing to the sink
+     */
+    void putDate(final long epochDay) throws IOException {
+        //Civil date from a day count, with years starting on March 1 so the leap day is the last day of the year
+        final long day = epochDay + DAYS_TO_EPOCH;
+        final long era = (day >= 0 ? day : day - DAYS_PER_ERA + 1) / DAYS_PER_ERA;
+        final long dayOfEra = day - era * DAYS_PER_ERA;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        final int dayOfMonth = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        final int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        if (year < 0 || year > MAX_FOUR_DIGIT_YEAR) {
+            putBytes(LocalDate.ofEpochDay(epochDay).toString().getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        ensure(10);
+        final int y = (int) year;
+        buffer[position++] = (byte) ('0' + y / 1000);
+        buffer[position++] = (byte) ('0' + y / 100 % 10);
+        buffer[position++] = (byte) ('0' + y / 10 % 10);
+        buffer[position++] = (byte) ('0' + y % 10);
+        buffer[position++] = '-';
+        buffer[position++] = (byte) ('0' + month / 10);
+        buffer[position++] = (byte) ('0' + month % 10);
+        buffer[position++] = '-';
+        buffer[position++] = (byte) ('0' + dayOfMonth / 10);
+        buffer[position++] = (byte) ('0' + dayOfMonth % 10);
+    }
+
+    /**
+     * Writes text as UTF-8, passing each byte through {@link #putTextByte(int)}.
+     * @param text Text
+     * @throws IOException exception while writing to the sink
+     */
+    void putText(final CharSequence text) throws IOException {
+        final int length = text.length();
+        for (int i = 0; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c < 0x80) {
+                putTextByte(c);
+            } else if (c < 0x800) {
+                putTextByte(0xC0 | c >> 6);
+                putTextByte(0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                putTextByte(0xF0 | codePoint >> 18);
+                putTextByte(0x80 | codePoint >> 12 & 0x3F);
+                putTextByte(0x80 | codePoint >> 6 & 0x3F);
+                putTextByte(0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                putTextByte('?');
+            } else {
+                putTextByte(0xE0 | c >> 12);
+                putTextByte(0x80 | c >> 6 & 0x3F);
+                putTextByte(0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    /**
+     * Writes the decoder's jurisdiction, copying its UTF-8 bytes through {@link #putTextByte(int)}.
+     * @param decoder Decoder positioned on a Rental Agreement with a jurisdiction
+     * @throws IOException exception while writing to the sink
+     */
+    void putJurisdiction(final AgreementDecoder decoder) throws IOException {
+        final int length = decoder.getJurisdictionLength();
+        for (int i = 0; i < length; i++) {
+            putTextByte(decoder.getJurisdictionByte(i) & 0xFF);
+        }
+    }
+
+    /**
+     * Writes the buffer to the sink.
+     * @throws IOException exception while writing to the sink
+     */
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    /**
+     * Writes the buffer to the sink and flushes the sink.
+     * @throws IOException exception while writing to the sink
+     */
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * Writes the buffer to the sink and closes the sink.
+     * @throws IOException exception while writing to or closing the sink
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Retrieves the number of records written.
+     * @return number of records
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+}
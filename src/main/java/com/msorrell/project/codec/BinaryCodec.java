@@ -0,0 +1,414 @@
+package com.msorrell.project.codec;
+
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static com.msorrell.project.util.MoneyUtils.toCents;
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
+
+/**
+ * Compact, versioned binary encoding of Checkouts and Rental Agreements.
+ *
+ * A record starts with a header byte holding the format version and the record kind. Tools are written as their
+ * tool index, dates as epoch days, amounts as whole cents, and every number as a varint, so a typical agreement
+ * takes about 20 bytes. Signed numbers are zigzag encoded first, and the due date is written as its distance from
+ * the checkout date. Jurisdictions are written as a length and UTF-8 bytes. Tool indexes are looked up in the catalog
+ * passed in, or the compiled catalog; catalogs are append-only, so a record reads back the same tool under any
+ * catalog that was current when it was written or later. See {@link com.msorrell.project.models.PricingConfig}.
+ *
+ * Records are written at the buffer's position and read from it, and the position is moved past the record. If a
+ * record does not fit, or is not complete, the position is left where it was. Records can be read without creating
+ * objects through an {@link AgreementDecoder}.
+ */
+public final class BinaryCodec {
+
+    /**
+     * Version of the format.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * Record kind of a Checkout.
+     */
+    static final int CHECKOUT = 1;
+
+    /**
+     * Record kind of a Rental Agreement.
+     */
+    static final int AGREEMENT = 2;
+
+    /**
+     * Flag set when the record has a jurisdiction.
+     */
+    static final int HAS_JURISDICTION = 1;
+
+    /**
+     * Flag set when the agreement has a tax amount and a total charge.
+     */
+    static final int HAS_TAX = 2;
+
+    /**
+     * Number of bits the version is shifted by in the header byte.
+     */
+    private static final int VERSION_SHIFT = 4;
+
+    /**
+     * Mask of the record kind in the header byte.
+     */
+    private static final int KIND_MASK = (1 << VERSION_SHIFT) - 1;
+
+    /**
+     * Writes a Checkout. The tool is looked up in the compiled catalog.
+     * @param checkout Checkout
+     * @param buffer Buffer written at its position
+     * @throws BufferOverflowException the record does not fit in the buffer
+     * @throws IllegalArgumentException the tool is not in the catalog
+     */
+    public static void writeCheckout(final Checkout checkout, final ByteBuffer buffer) {
+        writeCheckout(checkout, buffer, TOOL_CODES);
+    }
+
+    /**
+     * Writes a Checkout.
+     * @param checkout Checkout
+     * @param buffer Buffer written at its position
+     * @param toolCodes Catalog the tool index is taken from
+     * @throws BufferOverflowException the record does not fit in the buffer
+     * @throws IllegalArgumentException the tool is not in the catalog
+     */
+    public static void writeCheckout(final Checkout checkout, final ByteBuffer buffer, final ToolCodeIndex toolCodes) {
+        final int toolIndex = toolIndex(checkout.getTool(), toolCodes);
+        final int start = buffer.position();
+        try {
+            buffer.put(header(CHECKOUT));
+            putVarInt(buffer, toolIndex);
+            putVarInt(buffer, checkout.getRentalDayCount());
+            putVarInt(buffer, checkout.getDiscountPercent());
+            putVarLong(buffer, zigzag(checkout.getCheckoutDate().toEpochDay()));
+            putVarInt(buffer, checkout.getCustomerTier().ordinal());
+            putVarInt(buffer, checkout.getJurisdiction() == null ? 0 : HAS_JURISDICTION);
+            if (checkout.getJurisdiction() != null) {
+                putString(buffer, checkout.getJurisdiction());
+            }
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a Checkout. The tool is looked up in the compiled catalog.
+     * @param buffer Buffer read at its position
+     * @return Checkout
+     * @throws BufferUnderflowException the record is not complete
+     * @throws IllegalArgumentException the record is not a Checkout of a supported version
+     */
+    public static Checkout readCheckout(final ByteBuffer buffer) {
+        return readCheckout(buffer, TOOL_CODES);
+    }
+
+    /**
+     * Reads a Checkout.
+     * @param buffer Buffer read at its position
+     * @param toolCodes Catalog the tool is looked up in
+     * @return Checkout
+     * @throws BufferUnderflowException the record is not complete
+     * @throws IllegalArgumentException the record is not a Checkout of a supported version
+     */
+    public static Checkout readCheckout(final ByteBuffer buffer, final ToolCodeIndex toolCodes) {
+        final int start = buffer.position();
+        try {
+            checkHeader(buffer.get(), CHECKOUT);
+            final Checkout checkout = new Checkout();
+            checkout.setTool(tool(getVarInt(buffer), toolCodes), toolCodes);
+            checkout.setRentalDayCount(getVarInt(buffer));
+            checkout.setDiscountPercent(getVarInt(buffer));
+            checkout.setCheckoutDate(LocalDate.ofEpochDay(unzigzag(getVarLong(buffer))));
+            checkout.setCustomerTier(customerTier(getVarInt(buffer)));
+            if ((getVarInt(buffer) & HAS_JURISDICTION) != 0) {
+                checkout.setJurisdiction(getString(buffer));
+            }
+            return checkout;
+        } catch (RuntimeException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a Rental Agreement. The tool is looked up in the compiled catalog.
+     * @param rentalAgreement Rental Agreement
+     * @param buffer Buffer written at its position
+     * @throws BufferOverflowException the record does not fit in the buffer
+     * @throws IllegalArgumentException the tool is not in the catalog
+     */
+    public static void writeAgreement(final RentalAgreement rentalAgreement, final ByteBuffer buffer) {
+        writeAgreement(rentalAgreement, buffer, TOOL_CODES);
+    }
+
+    /**
+     * Writes a Rental Agreement.
+     * @param rentalAgreement Rental Agreement
+     * @param buffer Buffer written at its position
+     * @param toolCodes Catalog the tool index is taken from
+     * @throws BufferOverflowException the record does not fit in the buffer
+     * @throws IllegalArgumentException the tool is not in the catalog
+     */
+    public static void writeAgreement(final RentalAgreement rentalAgreement, final ByteBuffer buffer,
+                                      final ToolCodeIndex toolCodes) {
+        final int toolIndex = toolIndex(rentalAgreement.getTool(), toolCodes);
+        final int start = buffer.position();
+        try {
+            final long checkoutDay = rentalAgreement.getCheckoutDate().toEpochDay();
+            final int flags = (rentalAgreement.getJurisdiction() == null ? 0 : HAS_JURISDICTION)
+                    | (rentalAgreement.getTaxAmount() == null ? 0 : HAS_TAX);
+            buffer.put(header(AGREEMENT));
+            putVarInt(buffer, flags);
+            putVarInt(buffer, toolIndex);
+            putVarInt(buffer, rentalAgreement.getRentalDays());
+            putVarLong(buffer, zigzag(checkoutDay));
+            putVarLong(buffer, zigzag(rentalAgreement.getDueDate().toEpochDay() - checkoutDay));
+            putVarInt(buffer, rentalAgreement.getChargeDays());
+            putVarInt(buffer, rentalAgreement.getDiscountPercent());
+            putVarLong(buffer, zigzag(toCents(rentalAgreement.getDailyRentalCharge())));
+            putVarLong(buffer, zigzag(toCents(rentalAgreement.getPreDiscountCharge())));
+            putVarLong(buffer, zigzag(toCents(rentalAgreement.getDiscountAmount())));
+            putVarLong(buffer, zigzag(toCents(rentalAgreement.getFinalCharge())));
+            if ((flags & HAS_TAX) != 0) {
+                putVarLong(buffer, zigzag(toCents(rentalAgreement.getTaxAmount())));
+                putVarLong(buffer, zigzag(toCents(rentalAgreement.getTotalCharge())));
+            }
+            if ((flags & HAS_JURISDICTION) != 0) {
+                putString(buffer, rentalAgreement.getJurisdiction());
+            }
+        } catch (BufferOverflowException e) {
+            buffer.position(start);
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a Rental Agreement. The tool is looked up in the compiled catalog.
+     * @param buffer Buffer read at its position
+     * @return Rental Agreement
+     * @throws BufferUnderflowException the record is not complete
+     * @throws IllegalArgumentException the record is not a Rental Agreement of a supported version
+     */
+    public static RentalAgreement readAgreement(final ByteBuffer buffer) {
+        return readAgreement(buffer, TOOL_CODES);
+    }
+
+    /**
+     * Reads a Rental Agreement.
+     * @param buffer Buffer read at its position
+     * @param toolCodes Catalog the tool is looked up in
+     * @return Rental Agreement
+     * @throws BufferUnderflowException the record is not complete
+     * @throws IllegalArgumentException the record is not a Rental Agreement of a supported version
+     */
+    public static RentalAgreement readAgreement(final ByteBuffer buffer, final ToolCodeIndex toolCodes) {
+        final AgreementDecoder decoder = new AgreementDecoder(() -> toolCodes);
+        buffer.position(decoder.wrap(buffer, buffer.position()));
+        return decoder.toRentalAgreement();
+    }
+
+    /**
+     * Builds the header byte of a record.
+     * @param kind Record kind
+     * @return header byte
+     */
+    private static byte header(final int kind) {
+        return (byte) (VERSION << VERSION_SHIFT | kind);
+    }
+
+    /**
+     * Checks the header byte of a record.
+     * @param header Header byte
+     * @param kind Expected record kind
+     * @throws IllegalArgumentException the record is not of the kind, or its version is not supported
+     */
+    static void checkHeader(final byte header, final int kind) {
+        final int version = (header & 0xFF) >>> VERSION_SHIFT;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported record version: " + version);
+        }
+        if ((header & KIND_MASK) != kind) {
+            throw new IllegalArgumentException("Unexpected record kind: " + (header & KIND_MASK));
+        }
+    }
+
+    /**
+     * Retrieves the tool index of a Tool.
+     * @param tool Tool
+     * @param toolCodes Catalog
+     * @return tool index
+     * @throws IllegalArgumentException the tool is not in the catalog
+     */
+    private static int toolIndex(final Tool tool, final ToolCodeIndex toolCodes) {
+        final int toolIndex = toolCodes.indexOf(tool);
+        if (toolIndex < 0) {
+            throw new IllegalArgumentException("Tool is not in the catalog: " + tool.getCode());
+        }
+        return toolIndex;
+    }
+
+    /**
+     * Retrieves the Tool at a tool index.
+     * @param toolIndex Tool index
+     * @param toolCodes Catalog
+     * @return Tool
+     * @throws IllegalArgumentException the index is not in the catalog
+     */
+    static Tool tool(final int toolIndex, final ToolCodeIndex toolCodes) {
+        if (toolIndex < 0 || toolIndex >= toolCodes.size()) {
+            throw new IllegalArgumentException("No tool with index " + toolIndex);
+        }
+        return toolCodes.getTools().get(toolIndex);
+    }
+
+    /**
+     * Retrieves the Customer Tier with an ordinal.
+     * @param ordinal Ordinal
+     * @return Customer Tier
+     * @throws IllegalArgumentException there is no tier with the ordinal
+     */
+    private static CustomerTier customerTier(final int ordinal) {
+        if (ordinal < 0 || ordinal >= CustomerTier.values().length) {
+            throw new IllegalArgumentException("No customer tier with ordinal " + ordinal);
+        }
+        return CustomerTier.values()[ordinal];
+    }
+
+    /**
+     * Maps a signed number to an unsigned one, so numbers near 0 have short varints.
+     * @param value Signed number
+     * @return zigzag encoded number
+     */
+    static long zigzag(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Reverses {@link #zigzag(long)}.
+     * @param value Zigzag encoded number
+     * @return signed number
+     */
+    static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a non-negative int as a varint: 7 bits per byte, lowest first, with the high bit set on every byte
+     * but the last.
+     * @param buffer Buffer
+     * @param value Value
+     */
+    static void putVarInt(final ByteBuffer buffer, final int value) {
+        putVarLong(buffer, value & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Writes a long as an unsigned varint.
+     * @param buffer Buffer
+     * @param value Value
+     */
+    static void putVarLong(final ByteBuffer buffer, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Reads an int written by {@link #putVarInt(ByteBuffer, int)}.
+     * @param buffer Buffer
+     * @return value
+     * @throws IllegalArgumentException the varint does not fit in an int
+     */
+    static int getVarInt(final ByteBuffer buffer) {
+        final long value = getVarLong(buffer);
+        if (value >>> Integer.SIZE != 0) {
+            throw new IllegalArgumentException("Varint does not fit in an int");
+        }
+        return (int) value;
+    }
+
+    /**
+     * Reads a long written by {@link #putVarLong(ByteBuffer, long)}.
+     * @param buffer Buffer
+     * @return value
+     * @throws IllegalArgumentException the varint is longer than 10 bytes
+     */
+    static long getVarLong(final ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint is too long");
+    }
+
+    /**
+     * Writes a string as its UTF-8 length and bytes. ASCII strings are written without copying them.
+     * @param buffer Buffer
+     * @param value String
+     */
+    private static void putString(final ByteBuffer buffer, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                putVarInt(buffer, bytes.length);
+                buffer.put(bytes);
+                return;
+            }
+        }
+        putVarInt(buffer, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            buffer.put((byte) value.charAt(i));
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #putString(ByteBuffer, String)}.
+     * @param buffer Buffer
+     * @return String
+     */
+    private static String getString(final ByteBuffer buffer) {
+        final int length = getVarInt(buffer);
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final String value = decodeString(buffer, buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * Decodes UTF-8 bytes without moving the buffer's position.
+     * @param buffer Buffer
+     * @param offset Offset of the first byte
+     * @param length Number of bytes
+     * @return String
+     */
+    static String decodeString(final ByteBuffer buffer, final int offset, final int length) {
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
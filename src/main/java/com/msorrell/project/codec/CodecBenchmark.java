@@ -0,0 +1,373 @@
+package com.msorrell.project.codec;
+
+import com.msorrell.project.enums.ToolBrand;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the {@link BinaryCodec} with Java serialization and the text formats of a Rental Agreement.
+ *
+ * Every format encodes the same generated agreements, one record at a time, for a number of rounds after a warm up.
+ * Reports the average size of a record and the time to encode and decode one record in the fastest round. The text
+ * formats have no decoder. The binary format is decoded twice: through a reused {@link AgreementDecoder}, and into
+ * new Rental Agreements. The streaming CSV and JSON Lines writers are timed from the agreements and from the decoder.
+ * The models are not Serializable, so the Java serialization baseline copies each agreement into a serializable form
+ * holding the same fields, and back into a new Rental Agreement when it is read.
+ */
+public class CodecBenchmark {
+
+    /**
+     * Rounds run before the timed rounds.
+     */
+    private static final int WARM_UP_ROUNDS = 5;
+
+    /**
+     * Agreements encoded in each round.
+     */
+    private final List<RentalAgreement> agreements;
+
+    /**
+     * Number of timed rounds.
+     */
+    private final int rounds;
+
+    /**
+     * Keeps the results of the decoders alive, so the work is not optimized away.
+     */
+    private long sink;
+
+    /**
+     * Constructor.
+     * @param agreements Agreements encoded in each round
+     * @param rounds Number of timed rounds
+     */
+    public CodecBenchmark(final List<RentalAgreement> agreements, final int rounds) {
+        this.agreements = agreements;
+        this.rounds = rounds;
+    }
+
+    /**
+     * Runs every format and prints one report line per format.
+     * @throws IOException exception while serializing
+     * @throws ClassNotFoundException exception while deserializing
+     */
+    public void run() throws IOException, ClassNotFoundException {
+        System.out.println("format,bytes_per_record,encode_ns,decode_ns");
+
+        final ByteBuffer binary = ByteBuffer.allocate(agreements.size() * 64);
+        long encode = Long.MAX_VALUE;
+        long decodeView = Long.MAX_VALUE;
+        long decodeObject = Long.MAX_VALUE;
+        for (int round = 0; round < WARM_UP_ROUNDS + rounds; round++) {
+            final boolean timed = round >= WARM_UP_ROUNDS;
+            long start = System.nanoTime();
+            binary.clear();
+            for (final RentalAgreement rentalAgreement : agreements) {
+                BinaryCodec.writeAgreement(rentalAgreement, binary);
+            }
+            binary.flip();
+            encode = timed ? Math.min(encode, System.nanoTime() - start) : encode;
+
+            start = System.nanoTime();
+            final AgreementDecoder decoder = new AgreementDecoder();
+            for (int offset = 0; offset < binary.limit(); ) {
+                offset = decoder.wrap(binary, offset);
+                sink += decoder.getFinalChargeCents();
+            }
+            decodeView = timed ? Math.min(decodeView, System.nanoTime() - start) : decodeView;
+
+            start = System.nanoTime();
+            while (binary.hasRemaining()) {
+                sink += BinaryCodec.readAgreement(binary).getChargeDays();
+            }
+            decodeObject = timed ? Math.min(decodeObject, System.nanoTime() - start) : decodeObject;
+        }
+        report("binary (decoder)", binary.limit(), encode, decodeView);
+        report("binary (objects)", binary.limit(), encode, decodeObject);
+
+        final List<byte[]> serialized = new ArrayList<>(agreements.size());
+        encode = Long.MAX_VALUE;
+        long decode = Long.MAX_VALUE;
+        long bytes = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + rounds; round++) {
+            final boolean timed = round >= WARM_UP_ROUNDS;
+            serialized.clear();
+            bytes = 0;
+            long start = System.nanoTime();
+            for (final RentalAgreement rentalAgreement : agreements) {
+                final ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytesOut)) {
+                    out.writeObject(new SerializedAgreement(rentalAgreement));
+                }
+                serialized.add(bytesOut.toByteArray());
+                bytes += bytesOut.size();
+            }
+            encode = timed ? Math.min(encode, System.nanoTime() - start) : encode;
+
+            start = System.nanoTime();
+            for (final byte[] record : serialized) {
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(record))) {
+                    sink += ((SerializedAgreement) in.readObject()).toRentalAgreement().getChargeDays();
+                }
+            }
+            decode = timed ? Math.min(decode, System.nanoTime() - start) : decode;
+        }
+        report("java serialization", bytes, encode, decode);
+
+        encode = Long.MAX_VALUE;
+        long lineEncode = Long.MAX_VALUE;
+        long lineBytes = 0;
+        for (int round = 0; round < WARM_UP_ROUNDS + rounds; round++) {
+            final boolean timed = round >= WARM_UP_ROUNDS;
+            bytes = 0;
+            long start = System.nanoTime();
+            for (final RentalAgreement rentalAgreement : agreements) {
+                bytes += rentalAgreement.toConsoleString().getBytes(StandardCharsets.UTF_8).length;
+            }
+            encode = timed ? Math.min(encode, System.nanoTime() - start) : encode;
+
+            lineBytes = 0;
+            start = System.nanoTime();
+            for (final RentalAgreement rentalAgreement : agreements) {
+                lineBytes += rentalAgreement.toLine().getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+            lineEncode = timed ? Math.min(lineEncode, System.nanoTime() - start) : lineEncode;
+        }
+        report("console text", bytes, encode, -1);
+        report("agreement line", lineBytes, lineEncode, -1);
+
+        writers(binary);
+        System.out.println("Checksum: " + sink);
+    }
+
+    /**
+     * Times the streaming text writers, writing into a sink that only counts the bytes.
+     * @param binary Buffer holding every agreement in the binary format
+     * @throws IOException exception while writing
+     */
+    private void writers(final ByteBuffer binary) throws IOException {
+        final long[] bytes = new long[1];
+        final OutputStream counter = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                bytes[0]++;
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                bytes[0] += len;
+            }
+        };
+        final AgreementWriter[] writers = {new CsvAgreementWriter(counter, AgreementWriter.DEFAULT_BUFFER_SIZE, false),
+            new JsonLinesAgreementWriter(counter)};
+        final String[] names = {"csv writer", "json lines writer"};
+        final AgreementDecoder decoder = new AgreementDecoder();
+        for (int i = 0; i < writers.length; i++) {
+            long encode = Long.MAX_VALUE;
+            long encodeView = Long.MAX_VALUE;
+            long written = 0;
+            for (int round = 0; round < WARM_UP_ROUNDS + rounds; round++) {
+                final boolean timed = round >= WARM_UP_ROUNDS;
+                bytes[0] = 0;
+                long start = System.nanoTime();
+                for (final RentalAgreement rentalAgreement : agreements) {
+                    writers[i].write(rentalAgreement);
+                }
+                writers[i].flush();
+                encode = timed ? Math.min(encode, System.nanoTime() - start) : encode;
+                written = bytes[0];
+
+                start = System.nanoTime();
+                for (int offset = 0; offset < binary.limit(); ) {
+                    offset = decoder.wrap(binary, offset);
+                    writers[i].write(decoder);
+                }
+                writers[i].flush();
+                encodeView = timed ? Math.min(encodeView, System.nanoTime() - start) : encodeView;
+            }
+            report(names[i] + " (objects)", written, encode, -1);
+            report(names[i] + " (decoder)", written, encodeView, -1);
+        }
+    }
+
+    /**
+     * Prints the report line of a format.
+     * @param format Name of the format
+     * @param bytes Bytes written for every agreement
+     * @param encodeNanos Time to encode every agreement
+     * @param decodeNanos Time to decode every agreement, negative if the format has no decoder
+     */
+    private void report(final String format, final long bytes, final long encodeNanos, final long decodeNanos) {
+        final double records = agreements.size();
+        System.out.printf("%s,%.1f,%.0f,%s%n", format, bytes / records, encodeNanos / records,
+                decodeNanos < 0 ? "" : String.format("%.0f", decodeNanos / records));
+    }
+
+    /**
+     * Runs the benchmark over generated agreements.
+     * Arguments: number of agreements (default 10000), timed rounds (default 20), seed (default 1).
+     * @param args Command line arguments
+     * @throws IOException exception while serializing
+     * @throws ClassNotFoundException exception while deserializing
+     */
+    public static void main(final String[] args) throws IOException, ClassNotFoundException {
+        final int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        final long seed = args.length > 2 ? Long.parseLong(args[2]) : 1;
+        final WorkloadGenerator generator = new WorkloadGenerator(seed, 0, 2015, 2025);
+        final QuoteEngine quoteEngine = new QuoteEngine();
+        final List<RentalAgreement> agreements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            agreements.add(quoteEngine.generateRentalAgreement(CheckoutLineParser.parse(generator.nextLine())));
+        }
+        new CodecBenchmark(agreements, rounds).run();
+    }
+
+    /**
+     * Serializable copy of a Rental Agreement, for the Java serialization baseline.
+     */
+    private static final class SerializedAgreement implements Serializable {
+
+        /**
+         * Version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Tool type.
+         */
+        private final ToolType toolType;
+
+        /**
+         * Tool brand.
+         */
+        private final ToolBrand toolBrand;
+
+        /**
+         * Tool code.
+         */
+        private final String toolCode;
+
+        /**
+         * Number of rental days.
+         */
+        private final int rentalDays;
+
+        /**
+         * Checkout date.
+         */
+        private final LocalDate checkoutDate;
+
+        /**
+         * Due date.
+         */
+        private final LocalDate dueDate;
+
+        /**
+         * Daily rental charge.
+         */
+        private final BigDecimal dailyRentalCharge;
+
+        /**
+         * Number of charge days.
+         */
+        private final int chargeDays;
+
+        /**
+         * Pre-discount charge.
+         */
+        private final BigDecimal preDiscountCharge;
+
+        /**
+         * Discount percent.
+         */
+        private final int discountPercent;
+
+        /**
+         * Discount amount.
+         */
+        private final BigDecimal discountAmount;
+
+        /**
+         * Final charge.
+         */
+        private final BigDecimal finalCharge;
+
+        /**
+         * Tax jurisdiction. Null when no tax is charged.
+         */
+        private final String jurisdiction;
+
+        /**
+         * Tax amount. Null when no tax is charged.
+         */
+        private final BigDecimal taxAmount;
+
+        /**
+         * Total charge. Null when no tax is charged.
+         */
+        private final BigDecimal totalCharge;
+
+        /**
+         * Constructor.
+         * @param rentalAgreement Rental Agreement to copy
+         */
+        private SerializedAgreement(final RentalAgreement rentalAgreement) {
+            this.toolType = rentalAgreement.getTool().getType();
+            this.toolBrand = rentalAgreement.getTool().getBrand();
+            this.toolCode = rentalAgreement.getTool().getCode();
+            this.rentalDays = rentalAgreement.getRentalDays();
+            this.checkoutDate = rentalAgreement.getCheckoutDate();
+            this.dueDate = rentalAgreement.getDueDate();
+            this.dailyRentalCharge = rentalAgreement.getDailyRentalCharge();
+            this.chargeDays = rentalAgreement.getChargeDays();
+            this.preDiscountCharge = rentalAgreement.getPreDiscountCharge();
+            this.discountPercent = rentalAgreement.getDiscountPercent();
+            this.discountAmount = rentalAgreement.getDiscountAmount();
+            this.finalCharge = rentalAgreement.getFinalCharge();
+            this.jurisdiction = rentalAgreement.getJurisdiction();
+            this.taxAmount = rentalAgreement.getTaxAmount();
+            this.totalCharge = rentalAgreement.getTotalCharge();
+        }
+
+        /**
+         * Copies the fields into a new Rental Agreement.
+         * @return Rental Agreement
+         */
+        private RentalAgreement toRentalAgreement() {
+            final RentalAgreement rentalAgreement = new RentalAgreement();
+            rentalAgreement.setTool(new Tool(toolType, toolBrand, toolCode));
+            rentalAgreement.setRentalDays(rentalDays);
+            rentalAgreement.setCheckoutDate(checkoutDate);
+            rentalAgreement.setDueDate(dueDate);
+            rentalAgreement.setDailyRentalCharge(dailyRentalCharge);
+            rentalAgreement.setChargeDays(chargeDays);
+            rentalAgreement.setPreDiscountCharge(preDiscountCharge);
+            rentalAgreement.setDiscountPercent(discountPercent);
+            rentalAgreement.setDiscountAmount(discountAmount);
+            rentalAgreement.setFinalCharge(finalCharge);
+            rentalAgreement.setJurisdiction(jurisdiction);
+            rentalAgreement.setTaxAmount(taxAmount);
+            rentalAgreement.setTotalCharge(totalCharge);
+            return rentalAgreement;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.msorrell.project.codec;
+
+import com.msorrell.project.models.RentalAgreement;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams Rental Agreements as CSV, one record per line.
+ *
+ * The columns are those of {@link RentalAgreement#toLine()}, so a record is the agreement's line. A jurisdiction that
+ * holds a comma, a quote, or a line break is quoted as in RFC 4180. Lines end with \n.
+ */
+public class CsvAgreementWriter extends AgreementWriter {
+
+    /**
+     * Header line, without the line separator.
+     */
+    public static final String HEADER = "toolCode,checkoutDate,dueDate,rentalDays,chargeDays,dailyRentalCharge,"
+            + "preDiscountCharge,discountPercent,discountAmount,finalCharge,taxAmount,totalCharge,jurisdiction";
+
+    /**
+     * Header line, with the line separator.
+     */
+    private static final byte[] HEADER_BYTES = (HEADER + '\n').getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Separator between the columns.
+     */
+    private static final char SEPARATOR = ',';
+
+    /**
+     * Quote around a column that holds special characters.
+     */
+    private static final char QUOTE = '"';
+
+    /**
+     * Constructor. Writes the header line first.
+     * @param out Sink the records are written to
+     * @throws IOException exception while writing the header
+     */
+    public CsvAgreementWriter(final OutputStream out) throws IOException {
+        this(out, DEFAULT_BUFFER_SIZE, true);
+    }
+
+    /**
+     * Constructor.
+     * @param out Sink the records are written to
+     * @param bufferSize Size of the buffer
+     * @param header Write the header line first
+     * @throws IOException exception while writing the header
+     */
+    public CsvAgreementWriter(final OutputStream out, final int bufferSize, final boolean header)
+            throws IOException {
+        super(out, bufferSize);
+        if (header) {
+            putBytes(HEADER_BYTES);
+        }
+    }
+
+    @Override
+    public void write(final RentalAgreement rentalAgreement) throws IOException {
+        putText(rentalAgreement.getTool().getCode());
+        putByte(SEPARATOR);
+        putDate(rentalAgreement.getCheckoutDate().toEpochDay());
+        putByte(SEPARATOR);
+        putDate(rentalAgreement.getDueDate().toEpochDay());
+        putByte(SEPARATOR);
+        putLong(rentalAgreement.getRentalDays());
+        putByte(SEPARATOR);
+        putLong(rentalAgreement.getChargeDays());
+        putByte(SEPARATOR);
+        putMoney(rentalAgreement.getDailyRentalCharge());
+        putByte(SEPARATOR);
+        putMoney(rentalAgreement.getPreDiscountCharge());
+        putByte(SEPARATOR);
+        putLong(rentalAgreement.getDiscountPercent());
+        putByte(SEPARATOR);
+        putMoney(rentalAgreement.getDiscountAmount());
+        putByte(SEPARATOR);
+        putMoney(rentalAgreement.getFinalCharge());
+        putByte(SEPARATOR);
+        putMoney(rentalAgreement.getTaxAmount());
+        putByte(SEPARATOR);
+        putMoney(rentalAgreement.getTotalCharge() == null ? rentalAgreement.getFinalCharge()
+                : rentalAgreement.getTotalCharge());
+        putByte(SEPARATOR);
+        final String jurisdiction = rentalAgreement.getJurisdiction();
+        if (jurisdiction != null) {
+            final boolean quoted = needsQuotes(jurisdiction);
+            if (quoted) {
+                putByte(QUOTE);
+            }
+            putText(jurisdiction);
+            if (quoted) {
+                putByte(QUOTE);
+            }
+        }
+        putByte('\n');
+        recordWritten();
+    }
+
+    @Override
+    public void write(final AgreementDecoder decoder) throws IOException {
+        putText(decoder.getTool().getCode());
+        putByte(SEPARATOR);
+        putDate(decoder.getCheckoutEpochDay());
+        putByte(SEPARATOR);
+        putDate(decoder.getDueEpochDay());
+        putByte(SEPARATOR);
+        putLong(decoder.getRentalDays());
+        putByte(SEPARATOR);
+        putLong(decoder.getChargeDays());
+        putByte(SEPARATOR);
+        putCents(decoder.getDailyRentalChargeCents());
+        putByte(SEPARATOR);
+        putCents(decoder.getPreDiscountChargeCents());
+        putByte(SEPARATOR);
+        putLong(decoder.getDiscountPercent());
+        putByte(SEPARATOR);
+        putCents(decoder.getDiscountAmountCents());
+        putByte(SEPARATOR);
+        putCents(decoder.getFinalChargeCents());
+        putByte(SEPARATOR);
+        putCents(decoder.getTaxAmountCents());
+        putByte(SEPARATOR);
+        putCents(decoder.getTotalChargeCents());
+        putByte(SEPARATOR);
+        if (decoder.hasJurisdiction()) {
+            final boolean quoted = needsQuotes(decoder);
+            if (quoted) {
+                putByte(QUOTE);
+            }
+            putJurisdiction(decoder);
+            if (quoted) {
+                putByte(QUOTE);
+            }
+        }
+        putByte('\n');
+        recordWritten();
+    }
+
+    /**
+     * Writes a byte of text, doubling quotes. Only called inside quotes, or for text without special characters.
+     * @param b Byte of text
+     * @throws IOException exception while writing to the sink
+     */
+    @Override
+    void putTextByte(final int b) throws IOException {
+        if (b == QUOTE) {
+            putByte(QUOTE);
+        }
+        putByte(b);
+    }
+
+    /**
+     * Determines if text has to be quoted.
+     * @param text Text
+     * @return true - the text holds a separator, a quote, or a line break
+     */
+    private static boolean needsQuotes(final CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (isSpecial(text.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if the decoder's jurisdiction has to be quoted.
+     * @param decoder Decoder positioned on a Rental Agreement with a jurisdiction
+     * @return true - the jurisdiction holds a separator, a quote, or a line break
+     */
+    private static boolean needsQuotes(final AgreementDecoder decoder) {
+        for (int i = 0; i < decoder.getJurisdictionLength(); i++) {
+            if (isSpecial(decoder.getJurisdictionByte(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines if a character has to be quoted. Every such character is ASCII, so UTF-8 bytes can be checked too.
+     * @param c Character or byte
+     * @return true - the character is a separator, a quote, or a line break
+     */
+    private static boolean isSpecial(final int c) {
+        return c == SEPARATOR || c == QUOTE || c == '\n' || c == '\r';
+    }
+}
@@ -0,0 +1,222 @@
+package com.msorrell.project.codec;
+
+import com.msorrell.project.models.RentalAgreement;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streams Rental Agreements as JSON Lines, one object per line.
+ *
+ * Amounts are JSON numbers with 2 decimal places, dates are yyyy-MM-dd strings, and a missing jurisdiction is null.
+ * Ex. {"toolCode":"LADW","checkoutDate":"2020-07-02",...,"totalCharge":3.58,"jurisdiction":null}
+ */
+public class JsonLinesAgreementWriter extends AgreementWriter {
+
+    /**
+     * Opens the object and names the tool code.
+     */
+    private static final byte[] TOOL_CODE = ascii("{\"toolCode\":\"");
+
+    /**
+     * Names the checkout date.
+     */
+    private static final byte[] CHECKOUT_DATE = ascii("\",\"checkoutDate\":\"");
+
+    /**
+     * Names the due date.
+     */
+    private static final byte[] DUE_DATE = ascii("\",\"dueDate\":\"");
+
+    /**
+     * Names the rental days.
+     */
+    private static final byte[] RENTAL_DAYS = ascii("\",\"rentalDays\":");
+
+    /**
+     * Names the charge days.
+     */
+    private static final byte[] CHARGE_DAYS = ascii(",\"chargeDays\":");
+
+    /**
+     * Names the daily rental charge.
+     */
+    private static final byte[] DAILY_RENTAL_CHARGE = ascii(",\"dailyRentalCharge\":");
+
+    /**
+     * Names the pre-discount charge.
+     */
+    private static final byte[] PRE_DISCOUNT_CHARGE = ascii(",\"preDiscountCharge\":");
+
+    /**
+     * Names the discount percent.
+     */
+    private static final byte[] DISCOUNT_PERCENT = ascii(",\"discountPercent\":");
+
+    /**
+     * Names the discount amount.
+     */
+    private static final byte[] DISCOUNT_AMOUNT = ascii(",\"discountAmount\":");
+
+    /**
+     * Names the final charge.
+     */
+    private static final byte[] FINAL_CHARGE = ascii(",\"finalCharge\":");
+
+    /**
+     * Names the tax amount.
+     */
+    private static final byte[] TAX_AMOUNT = ascii(",\"taxAmount\":");
+
+    /**
+     * Names the total charge.
+     */
+    private static final byte[] TOTAL_CHARGE = ascii(",\"totalCharge\":");
+
+    /**
+     * Names the jurisdiction.
+     */
+    private static final byte[] JURISDICTION = ascii(",\"jurisdiction\":");
+
+    /**
+     * Missing jurisdiction.
+     */
+    private static final byte[] NULL = ascii("null");
+
+    /**
+     * Closes the object and the line.
+     */
+    private static final byte[] END = ascii("}\n");
+
+    /**
+     * Hex digits of a \\u escape.
+     */
+    private static final byte[] HEX_DIGITS = ascii("0123456789abcdef");
+
+    /**
+     * Constructor.
+     * @param out Sink the records are written to
+     */
+    public JsonLinesAgreementWriter(final OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Constructor.
+     * @param out Sink the records are written to
+     * @param bufferSize Size of the buffer
+     */
+    public JsonLinesAgreementWriter(final OutputStream out, final int bufferSize) {
+        super(out, bufferSize);
+    }
+
+    @Override
+    public void write(final RentalAgreement rentalAgreement) throws IOException {
+        putBytes(TOOL_CODE);
+        putText(rentalAgreement.getTool().getCode());
+        putBytes(CHECKOUT_DATE);
+        putDate(rentalAgreement.getCheckoutDate().toEpochDay());
+        putBytes(DUE_DATE);
+        putDate(rentalAgreement.getDueDate().toEpochDay());
+        putBytes(RENTAL_DAYS);
+        putLong(rentalAgreement.getRentalDays());
+        putBytes(CHARGE_DAYS);
+        putLong(rentalAgreement.getChargeDays());
+        putBytes(DAILY_RENTAL_CHARGE);
+        putMoney(rentalAgreement.getDailyRentalCharge());
+        putBytes(PRE_DISCOUNT_CHARGE);
+        putMoney(rentalAgreement.getPreDiscountCharge());
+        putBytes(DISCOUNT_PERCENT);
+        putLong(rentalAgreement.getDiscountPercent());
+        putBytes(DISCOUNT_AMOUNT);
+        putMoney(rentalAgreement.getDiscountAmount());
+        putBytes(FINAL_CHARGE);
+        putMoney(rentalAgreement.getFinalCharge());
+        putBytes(TAX_AMOUNT);
+        putMoney(rentalAgreement.getTaxAmount());
+        putBytes(TOTAL_CHARGE);
+        putMoney(rentalAgreement.getTotalCharge() == null ? rentalAgreement.getFinalCharge()
+                : rentalAgreement.getTotalCharge());
+        putBytes(JURISDICTION);
+        if (rentalAgreement.getJurisdiction() == null) {
+            putBytes(NULL);
+        } else {
+            putByte('"');
+            putText(rentalAgreement.getJurisdiction());
+            putByte('"');
+        }
+        putBytes(END);
+        recordWritten();
+    }
+
+    @Override
+    public void write(final AgreementDecoder decoder) throws IOException {
+        putBytes(TOOL_CODE);
+        putText(decoder.getTool().getCode());
+        putBytes(CHECKOUT_DATE);
+        putDate(decoder.getCheckoutEpochDay());
+        putBytes(DUE_DATE);
+        putDate(decoder.getDueEpochDay());
+        putBytes(RENTAL_DAYS);
+        putLong(decoder.getRentalDays());
+        putBytes(CHARGE_DAYS);
+        putLong(decoder.getChargeDays());
+        putBytes(DAILY_RENTAL_CHARGE);
+        putCents(decoder.getDailyRentalChargeCents());
+        putBytes(PRE_DISCOUNT_CHARGE);
+        putCents(decoder.getPreDiscountChargeCents());
+        putBytes(DISCOUNT_PERCENT);
+        putLong(decoder.getDiscountPercent());
+        putBytes(DISCOUNT_AMOUNT);
+        putCents(decoder.getDiscountAmountCents());
+        putBytes(FINAL_CHARGE);
+        putCents(decoder.getFinalChargeCents());
+        putBytes(TAX_AMOUNT);
+        putCents(decoder.getTaxAmountCents());
+        putBytes(TOTAL_CHARGE);
+        putCents(decoder.getTotalChargeCents());
+        putBytes(JURISDICTION);
+        if (decoder.hasJurisdiction()) {
+            putByte('"');
+            putJurisdiction(decoder);
+            putByte('"');
+        } else {
+            putBytes(NULL);
+        }
+        putBytes(END);
+        recordWritten();
+    }
+
+    /**
+     * Writes a byte of a JSON string, escaping quotes, backslashes, and control characters.
+     * Bytes of multi-byte UTF-8 characters are written as they are.
+     * @param b Byte of text
+     * @throws IOException exception while writing to the sink
+     */
+    @Override
+    void putTextByte(final int b) throws IOException {
+        if (b == '"' || b == '\\') {
+            putByte('\\');
+            putByte(b);
+        } else if (b < 0x20) {
+            putByte('\\');
+            putByte('u');
+            putByte('0');
+            putByte('0');
+            putByte(HEX_DIGITS[b >> 4]);
+            putByte(HEX_DIGITS[b & 0xF]);
+        } else {
+            putByte(b);
+        }
+    }
+
+    /**
+     * Encodes ASCII text.
+     * @param text Text
+     * @return bytes
+     */
+    private static byte[] ascii(final String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,37 @@
+package com.msorrell.project.enums;
+
+/**
+ * The fields of a checkout. Used to report which field failed validation.
+ */
+public enum CheckoutField {
+
+    /**
+     * Tool code.
+     */
+    TOOL_CODE,
+
+    /**
+     * Rental day count.
+     */
+    RENTAL_DAYS,
+
+    /**
+     * Discount percent.
+     */
+    DISCOUNT_PERCENT,
+
+    /**
+     * Checkout date.
+     */
+    CHECKOUT_DATE,
+
+    /**
+     * Customer tier.
+     */
+    CUSTOMER_TIER,
+
+    /**
+     * Store jurisdiction.
+     */
+    JURISDICTION
+}
@@ -0,0 +1,22 @@
+package com.msorrell.project.enums;
+
+/**
+ * The customer's loyalty tier. Used to select promotional discounts.
+ */
+public enum CustomerTier {
+
+    /**
+     * Standard customer.
+     */
+    STANDARD,
+
+    /**
+     * Contractor account.
+     */
+    CONTRACTOR,
+
+    /**
+     * Preferred contractor account.
+     */
+    PREFERRED
+}
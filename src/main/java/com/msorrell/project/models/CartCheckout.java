@@ -0,0 +1,130 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.exceptions.InvalidInputException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_DATE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CUSTOMER_TIER_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_PERCENT_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_JURISDICTION_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_RENTAL_DAY_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_TOOL_CODE;
+import static com.msorrell.project.validators.InputValidator.validateCheckoutDate;
+import static com.msorrell.project.validators.InputValidator.validateDiscountPercent;
+import static com.msorrell.project.validators.InputValidator.validateRentalDays;
+import static com.msorrell.project.validators.InputValidator.validateTool;
+
+/**
+ * Cart Checkout class.
+ * Contains several tools that share the same rental day count, discount percent, and checkout date.
+ */
+public class CartCheckout {
+
+    /**
+     * Tools in the cart.
+     */
+    private final List<Tool> tools = new ArrayList<>();
+
+    /**
+     * Number of days the tools will be rented.
+     * Must be greater than 0
+     */
+    private int rentalDayCount;
+
+    /**
+     * The amount of discount applied to every tool.
+     * Valid Values: 0 -100
+     */
+    private int discountPercent;
+
+    /**
+     * The date the tools will be checked out.
+     */
+    private LocalDate checkoutDate;
+
+    /**
+     * The customer's tier. Used to select promotional discounts.
+     */
+    private CustomerTier customerTier = CustomerTier.STANDARD;
+
+    /**
+     * The jurisdiction of the store. Selects the tax rates.
+     * Null when no tax is charged.
+     */
+    private String jurisdiction;
+
+    /**
+     * Adds a tool to the cart.
+     * @param tool Tool
+     */
+    public void addTool(final Tool tool) {
+        if (!validateTool(tool)) {
+            throw new InvalidInputException(INVALID_TOOL_CODE);
+        }
+        tools.add(tool);
+    }
+
+    public List<Tool> getTools() {
+        return Collections.unmodifiableList(tools);
+    }
+
+    public int getRentalDayCount() {
+        return rentalDayCount;
+    }
+
+    public void setRentalDayCount(final int rentalDayCount) {
+        if (!validateRentalDays(rentalDayCount)) {
+            throw new InvalidInputException(INVALID_RENTAL_DAY_MESSAGE);
+        }
+        this.rentalDayCount = rentalDayCount;
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    public void setDiscountPercent(final int discountPercent) {
+        if (!validateDiscountPercent(discountPercent)) {
+            throw new InvalidInputException(INVALID_DISCOUNT_PERCENT_MESSAGE);
+        }
+        this.discountPercent = discountPercent;
+    }
+
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    public void setCheckoutDate(final LocalDate checkoutDate) {
+        if (!validateCheckoutDate(checkoutDate)) {
+            throw new InvalidInputException(INVALID_CHECKOUT_DATE_MESSAGE);
+        }
+        this.checkoutDate = checkoutDate;
+    }
+
+    public CustomerTier getCustomerTier() {
+        return customerTier;
+    }
+
+    public void setCustomerTier(final CustomerTier customerTier) {
+        if (customerTier == null) {
+            throw new InvalidInputException(INVALID_CUSTOMER_TIER_MESSAGE);
+        }
+        this.customerTier = customerTier;
+    }
+
+    public String getJurisdiction() {
+        return jurisdiction;
+    }
+
+    public void setJurisdiction(final String jurisdiction) {
+        if (jurisdiction != null && jurisdiction.isBlank()) {
+            throw new InvalidInputException(INVALID_JURISDICTION_MESSAGE);
+        }
+        this.jurisdiction = jurisdiction == null ? null : TaxRateTable.normalize(jurisdiction);
+    }
+}
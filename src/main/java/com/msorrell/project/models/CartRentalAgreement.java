@@ -0,0 +1,147 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.util.ReceiptRenderer;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Cart Rental Agreement.
+ * Generated once a cart checkout has completed. Contains a Rental Agreement for every tool plus the totals.
+ */
+public class CartRentalAgreement {
+
+    /**
+     * The Rental Agreement for each tool in the cart.
+     */
+    private final List<RentalAgreement> lines = new ArrayList<>();
+
+    /**
+     * The checkout date.
+     */
+    private LocalDate checkoutDate;
+
+    /**
+     * The day the tools are due back.
+     */
+    private LocalDate dueDate;
+
+    /**
+     * The breakdown of the days from the day after checkout through and including the due date.
+     * Shared by every line.
+     */
+    private DayBreakdown dayBreakdown;
+
+    /**
+     * The jurisdiction of the store. Null when no tax is charged.
+     */
+    private String jurisdiction;
+
+    /**
+     * The sum of every line's pre-discount charge.
+     */
+    private BigDecimal totalPreDiscountCharge = BigDecimal.ZERO.setScale(2);
+
+    /**
+     * The sum of every line's discount amount.
+     */
+    private BigDecimal totalDiscountAmount = BigDecimal.ZERO.setScale(2);
+
+    /**
+     * The sum of every line's final charge.
+     */
+    private BigDecimal totalFinalCharge = BigDecimal.ZERO.setScale(2);
+
+    /**
+     * The sum of every line's tax amount.
+     */
+    private BigDecimal totalTaxAmount = BigDecimal.ZERO.setScale(2);
+
+    /**
+     * The sum of every line's total charge.
+     */
+    private BigDecimal totalCharge = BigDecimal.ZERO.setScale(2);
+
+    /**
+     * Adds a line to the agreement and adds its charges to the totals.
+     * @param rentalAgreement Rental Agreement for one tool
+     */
+    public void addLine(final RentalAgreement rentalAgreement) {
+        lines.add(rentalAgreement);
+        totalPreDiscountCharge = totalPreDiscountCharge.add(rentalAgreement.getPreDiscountCharge());
+        totalDiscountAmount = totalDiscountAmount.add(rentalAgreement.getDiscountAmount());
+        totalFinalCharge = totalFinalCharge.add(rentalAgreement.getFinalCharge());
+        if (rentalAgreement.getTaxAmount() != null) {
+            totalTaxAmount = totalTaxAmount.add(rentalAgreement.getTaxAmount());
+            totalCharge = totalCharge.add(rentalAgreement.getTotalCharge());
+        } else {
+            totalCharge = totalCharge.add(rentalAgreement.getFinalCharge());
+        }
+    }
+
+    /**
+     * Prints every line and the totals to the console.
+     */
+    public void printToConsole() {
+        System.out.print(ReceiptRenderer.US.render(this));
+    }
+
+    public List<RentalAgreement> getLines() {
+        return Collections.unmodifiableList(lines);
+    }
+
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    public void setCheckoutDate(final LocalDate checkoutDate) {
+        this.checkoutDate = checkoutDate;
+    }
+
+    public LocalDate getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(final LocalDate dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public DayBreakdown getDayBreakdown() {
+        return dayBreakdown;
+    }
+
+    public void setDayBreakdown(final DayBreakdown dayBreakdown) {
+        this.dayBreakdown = dayBreakdown;
+    }
+
+    public String getJurisdiction() {
+        return jurisdiction;
+    }
+
+    public void setJurisdiction(final String jurisdiction) {
+        this.jurisdiction = jurisdiction;
+    }
+
+    public BigDecimal getTotalPreDiscountCharge() {
+        return totalPreDiscountCharge;
+    }
+
+    public BigDecimal getTotalDiscountAmount() {
+        return totalDiscountAmount;
+    }
+
+    public BigDecimal getTotalFinalCharge() {
+        return totalFinalCharge;
+    }
+
+    public BigDecimal getTotalTaxAmount() {
+        return totalTaxAmount;
+    }
+
+    public BigDecimal getTotalCharge() {
+        return totalCharge;
+    }
+}
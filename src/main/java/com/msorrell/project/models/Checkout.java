@@ -1,13 +1,18 @@
 package com.msorrell.project.models;
 
+import com.msorrell.project.enums.CustomerTier;
 import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.util.ToolCodeIndex;
 
 import java.time.LocalDate;
 
 import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_DATE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CUSTOMER_TIER_MESSAGE;
 import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_PERCENT_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_JURISDICTION_MESSAGE;
 import static com.msorrell.project.util.ProjectUtils.INVALID_RENTAL_DAY_MESSAGE;
 import static com.msorrell.project.util.ProjectUtils.INVALID_TOOL_CODE;
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
 import static com.msorrell.project.validators.InputValidator.validateCheckoutDate;
 import static com.msorrell.project.validators.InputValidator.validateDiscountPercent;
 import static com.msorrell.project.validators.InputValidator.validateRentalDays;
@@ -42,12 +47,32 @@ public class Checkout {
      */
     private LocalDate checkoutDate;
 
+    /**
+     * The customer's tier. Used to select promotional discounts.
+     */
+    private CustomerTier customerTier = CustomerTier.STANDARD;
+
+    /**
+     * The jurisdiction of the store. Selects the tax rates.
+     * Null when no tax is charged.
+     */
+    private String jurisdiction;
+
     public Tool getTool() {
         return tool;
     }
 
     public void setTool(final Tool tool) {
-        if (!validateTool(tool)) {
+        setTool(tool, TOOL_CODES);
+    }
+
+    /**
+     * Sets the tool, checking it against a catalog instead of the compiled one.
+     * @param tool Tool
+     * @param toolCodes Catalog the tool needs to be in
+     */
+    public void setTool(final Tool tool, final ToolCodeIndex toolCodes) {
+        if (!validateTool(toolCodes, tool)) {
             throw new InvalidInputException(INVALID_TOOL_CODE);
         }
         this.tool = tool;
@@ -85,4 +110,26 @@ public class Checkout {
         }
         this.checkoutDate = checkoutDate;
     }
+
+    public CustomerTier getCustomerTier() {
+        return customerTier;
+    }
+
+    public void setCustomerTier(final CustomerTier customerTier) {
+        if (customerTier == null) {
+            throw new InvalidInputException(INVALID_CUSTOMER_TIER_MESSAGE);
+        }
+        this.customerTier = customerTier;
+    }
+
+    public String getJurisdiction() {
+        return jurisdiction;
+    }
+
+    public void setJurisdiction(final String jurisdiction) {
+        if (jurisdiction != null && jurisdiction.isBlank()) {
+            throw new InvalidInputException(INVALID_JURISDICTION_MESSAGE);
+        }
+        this.jurisdiction = jurisdiction == null ? null : TaxRateTable.normalize(jurisdiction);
+    }
 }
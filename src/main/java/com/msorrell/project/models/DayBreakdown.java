@@ -0,0 +1,69 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.enums.ToolType;
+
+/**
+ * Day Breakdown.
+ * The number of weekdays, weekend days, and holidays in a date range.
+ * A day can only be a holiday, a weekend, or a weekday. It cannot count more than once.
+ */
+public class DayBreakdown {
+
+    /**
+     * Number of weekdays that are not holidays.
+     */
+    private final int weekdayCount;
+
+    /**
+     * Number of weekend days.
+     */
+    private final int weekendCount;
+
+    /**
+     * Number of holidays.
+     */
+    private final int holidayCount;
+
+    /**
+     * Constructor.
+     * @param weekdayCount Number of weekdays that are not holidays
+     * @param weekendCount Number of weekend days
+     * @param holidayCount Number of holidays
+     */
+    public DayBreakdown(final int weekdayCount, final int weekendCount, final int holidayCount) {
+        this.weekdayCount = weekdayCount;
+        this.weekendCount = weekendCount;
+        this.holidayCount = holidayCount;
+    }
+
+    /**
+     * Calculates the number of chargeable days for the tool type.
+     * @param toolType The type of tool. Used to determine which days count as chargeable
+     * @return number of chargeable days
+     */
+    public int chargeDays(final ToolType toolType) {
+        int chargeDays = 0;
+        if (toolType.isWeekdayCharge()) {
+            chargeDays += weekdayCount;
+        }
+        if (toolType.isWeekendCharge()) {
+            chargeDays += weekendCount;
+        }
+        if (toolType.isHolidayCharge()) {
+            chargeDays += holidayCount;
+        }
+        return chargeDays;
+    }
+
+    public int getWeekdayCount() {
+        return weekdayCount;
+    }
+
+    public int getWeekendCount() {
+        return weekendCount;
+    }
+
+    public int getHolidayCount() {
+        return holidayCount;
+    }
+}
@@ -0,0 +1,112 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.enums.ToolBrand;
+import com.msorrell.project.enums.ToolType;
+
+import java.time.LocalDate;
+
+/**
+ * Discount Rule.
+ * A promotional discount and the checkouts it applies to. A null tool type, brand, customer tier, start date,
+ * or end date matches every checkout.
+ */
+public class DiscountRule {
+
+    /**
+     * The tool type the rule applies to. Null for every tool type.
+     */
+    private final ToolType toolType;
+
+    /**
+     * The tool brand the rule applies to. Null for every brand.
+     */
+    private final ToolBrand toolBrand;
+
+    /**
+     * The customer tier the rule applies to. Null for every tier.
+     */
+    private final CustomerTier customerTier;
+
+    /**
+     * The fewest rental days the rule applies to.
+     */
+    private final int minRentalDays;
+
+    /**
+     * The most rental days the rule applies to.
+     */
+    private final int maxRentalDays;
+
+    /**
+     * The first checkout date the rule applies to. Null for no start.
+     */
+    private final LocalDate startDate;
+
+    /**
+     * The last checkout date the rule applies to. Null for no end.
+     */
+    private final LocalDate endDate;
+
+    /**
+     * The discount percent.
+     * Valid Values: 0 -100
+     */
+    private final int discountPercent;
+
+    /**
+     * Constructor.
+     * @param toolType The tool type the rule applies to. Null for every tool type
+     * @param toolBrand The tool brand the rule applies to. Null for every brand
+     * @param customerTier The customer tier the rule applies to. Null for every tier
+     * @param minRentalDays The fewest rental days the rule applies to
+     * @param maxRentalDays The most rental days the rule applies to
+     * @param startDate The first checkout date the rule applies to. Null for no start
+     * @param endDate The last checkout date the rule applies to. Null for no end
+     * @param discountPercent The discount percent
+     */
+    public DiscountRule(final ToolType toolType, final ToolBrand toolBrand, final CustomerTier customerTier,
+                        final int minRentalDays, final int maxRentalDays, final LocalDate startDate,
+                        final LocalDate endDate, final int discountPercent) {
+        this.toolType = toolType;
+        this.toolBrand = toolBrand;
+        this.customerTier = customerTier;
+        this.minRentalDays = minRentalDays;
+        this.maxRentalDays = maxRentalDays;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.discountPercent = discountPercent;
+    }
+
+    public ToolType getToolType() {
+        return toolType;
+    }
+
+    public ToolBrand getToolBrand() {
+        return toolBrand;
+    }
+
+    public CustomerTier getCustomerTier() {
+        return customerTier;
+    }
+
+    public int getMinRentalDays() {
+        return minRentalDays;
+    }
+
+    public int getMaxRentalDays() {
+        return maxRentalDays;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+}
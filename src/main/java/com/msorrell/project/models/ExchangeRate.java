@@ -0,0 +1,115 @@
+package com.msorrell.project.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * Exchange rate between two currencies.
+ * The rate is held in millionths, and amounts are converted between the currencies' smallest units
+ * (e.g. cents), so a conversion is whole number arithmetic.
+ */
+public class ExchangeRate {
+
+    /**
+     * Millionths in one unit of the rate.
+     */
+    public static final long RATE_SCALE = 1_000_000;
+
+    /**
+     * Currency amounts are converted from.
+     */
+    private final Currency from;
+
+    /**
+     * Currency amounts are converted to.
+     */
+    private final Currency to;
+
+    /**
+     * Units of the target currency for one unit of the source currency, in millionths.
+     */
+    private final long rateMicros;
+
+    /**
+     * Multiplier applied to the product of an amount and the rate.
+     * Accounts for the target currency having more decimal places than the source currency.
+     */
+    private final long multiplier;
+
+    /**
+     * Divisor applied to the product of an amount and the rate.
+     * Accounts for the rate scale and for the source currency having more decimal places than the target currency.
+     */
+    private final long divisor;
+
+    /**
+     * Constructor.
+     * @param from Currency amounts are converted from
+     * @param to Currency amounts are converted to
+     * @param rateMicros Units of the target currency for one unit of the source currency, in millionths
+     * @throws IllegalArgumentException the rate is not positive
+     */
+    public ExchangeRate(final Currency from, final Currency to, final long rateMicros) {
+        if (rateMicros <= 0) {
+            throw new IllegalArgumentException("Exchange rate must be positive: " + rateMicros);
+        }
+        this.from = from;
+        this.to = to;
+        this.rateMicros = rateMicros;
+        final int digits = Math.max(to.getDefaultFractionDigits(), 0) - Math.max(from.getDefaultFractionDigits(), 0);
+        this.multiplier = digits > 0 ? pow10(digits) : 1;
+        this.divisor = digits < 0 ? RATE_SCALE * pow10(-digits) : RATE_SCALE;
+    }
+
+    /**
+     * Creates an exchange rate from a decimal rate. The rate is rounded half up to millionths.
+     * Ex. of(USD, CAD, new BigDecimal("1.3612"))
+     * @param from Currency amounts are converted from
+     * @param to Currency amounts are converted to
+     * @param rate Units of the target currency for one unit of the source currency
+     * @return exchange rate
+     */
+    public static ExchangeRate of(final Currency from, final Currency to, final BigDecimal rate) {
+        return new ExchangeRate(from, to, rate.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    /**
+     * Converts an amount in the source currency's smallest unit to the target currency's smallest unit.
+     * Rounds half up to the nearest unit.
+     * @param amount Amount in the source currency's smallest unit
+     * @return amount in the target currency's smallest unit
+     * @throws ArithmeticException the amount is too large to convert
+     */
+    public long convert(final long amount) {
+        final long product = Math.multiplyExact(Math.multiplyExact(amount, rateMicros), multiplier);
+        final long quotient = product / divisor;
+        final long remainder = product % divisor;
+        return Math.abs(remainder) * 2 >= divisor ? quotient + Long.signum(product) : quotient;
+    }
+
+    public Currency getFrom() {
+        return from;
+    }
+
+    public Currency getTo() {
+        return to;
+    }
+
+    public long getRateMicros() {
+        return rateMicros;
+    }
+
+    /**
+     * Raises 10 to a power.
+     * @param exponent Power
+     * @return 10 to the power
+     */
+    private static long pow10(final int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
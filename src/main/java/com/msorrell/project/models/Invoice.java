@@ -0,0 +1,248 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.util.MoneyUtils;
+
+import java.time.LocalDate;
+
+/**
+ * Invoice.
+ * The charges for one billing cycle of an open-ended rental. The period runs from the day after the previous
+ * cycle ended, or after checkout for the first cycle, through the cycle's last day. Amounts are in cents.
+ */
+public class Invoice {
+
+    /**
+     * Id of the rental.
+     */
+    private int rentalId;
+
+    /**
+     * Number of the billing cycle, starting at 1.
+     */
+    private int cycle;
+
+    /**
+     * The Tool that is rented.
+     */
+    private Tool tool;
+
+    /**
+     * First day of the period, in epoch days.
+     */
+    private long periodStartEpochDay;
+
+    /**
+     * Last day of the period, in epoch days.
+     */
+    private long periodEndEpochDay;
+
+    /**
+     * The number of chargeable days in the period.
+     */
+    private int chargeDays;
+
+    /**
+     * Daily rental charge in effect on the first day of the period.
+     */
+    private long dailyRentalChargeCents;
+
+    /**
+     * Charge for the chargeable days, before the discount.
+     */
+    private long preDiscountChargeCents;
+
+    /**
+     * The discount percent.
+     */
+    private int discountPercent;
+
+    /**
+     * Amount of the discount.
+     */
+    private long discountAmountCents;
+
+    /**
+     * Pre-discount charge less the discount.
+     */
+    private long finalChargeCents;
+
+    /**
+     * Tax on the final charge.
+     */
+    private long taxAmountCents;
+
+    /**
+     * Final charge plus tax.
+     */
+    private long totalChargeCents;
+
+    /**
+     * The store's jurisdiction. Null when no tax is charged.
+     */
+    private String jurisdiction;
+
+    /**
+     * Is this the last invoice of a rental that has been returned.
+     */
+    private boolean closing;
+
+    /**
+     * Formats the invoice as a line of comma separated values.
+     * Columns: rental id, cycle, tool code, period start, period end, charge days, daily rental charge, pre-discount
+     * charge, discount percent, discount amount, final charge, tax amount, total charge, jurisdiction, closing.
+     * @return line of comma separated values
+     */
+    public String toLine() {
+        return rentalId
+                + "," + cycle
+                + ',' + tool.getCode()
+                + ',' + getPeriodStart()
+                + ',' + getPeriodEnd()
+                + ',' + chargeDays
+                + ',' + MoneyUtils.fromCents(dailyRentalChargeCents).toPlainString()
+                + ',' + MoneyUtils.fromCents(preDiscountChargeCents).toPlainString()
+                + ',' + discountPercent
+                + ',' + MoneyUtils.fromCents(discountAmountCents).toPlainString()
+                + ',' + MoneyUtils.fromCents(finalChargeCents).toPlainString()
+                + ',' + MoneyUtils.fromCents(taxAmountCents).toPlainString()
+                + ',' + MoneyUtils.fromCents(totalChargeCents).toPlainString()
+                + ',' + (jurisdiction == null ? "" : jurisdiction)
+                + ',' + closing;
+    }
+
+    /**
+     * Retrieves the first day of the period.
+     * @return first day
+     */
+    public LocalDate getPeriodStart() {
+        return LocalDate.ofEpochDay(periodStartEpochDay);
+    }
+
+    /**
+     * Retrieves the last day of the period.
+     * @return last day
+     */
+    public LocalDate getPeriodEnd() {
+        return LocalDate.ofEpochDay(periodEndEpochDay);
+    }
+
+    public int getRentalId() {
+        return rentalId;
+    }
+
+    public void setRentalId(final int rentalId) {
+        this.rentalId = rentalId;
+    }
+
+    public int getCycle() {
+        return cycle;
+    }
+
+    public void setCycle(final int cycle) {
+        this.cycle = cycle;
+    }
+
+    public Tool getTool() {
+        return tool;
+    }
+
+    public void setTool(final Tool tool) {
+        this.tool = tool;
+    }
+
+    public long getPeriodStartEpochDay() {
+        return periodStartEpochDay;
+    }
+
+    public void setPeriodStartEpochDay(final long periodStartEpochDay) {
+        this.periodStartEpochDay = periodStartEpochDay;
+    }
+
+    public long getPeriodEndEpochDay() {
+        return periodEndEpochDay;
+    }
+
+    public void setPeriodEndEpochDay(final long periodEndEpochDay) {
+        this.periodEndEpochDay = periodEndEpochDay;
+    }
+
+    public int getChargeDays() {
+        return chargeDays;
+    }
+
+    public void setChargeDays(final int chargeDays) {
+        this.chargeDays = chargeDays;
+    }
+
+    public long getDailyRentalChargeCents() {
+        return dailyRentalChargeCents;
+    }
+
+    public void setDailyRentalChargeCents(final long dailyRentalChargeCents) {
+        this.dailyRentalChargeCents = dailyRentalChargeCents;
+    }
+
+    public long getPreDiscountChargeCents() {
+        return preDiscountChargeCents;
+    }
+
+    public void setPreDiscountChargeCents(final long preDiscountChargeCents) {
+        this.preDiscountChargeCents = preDiscountChargeCents;
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    public void setDiscountPercent(final int discountPercent) {
+        this.discountPercent = discountPercent;
+    }
+
+    public long getDiscountAmountCents() {
+        return discountAmountCents;
+    }
+
+    public void setDiscountAmountCents(final long discountAmountCents) {
+        this.discountAmountCents = discountAmountCents;
+    }
+
+    public long getFinalChargeCents() {
+        return finalChargeCents;
+    }
+
+    public void setFinalChargeCents(final long finalChargeCents) {
+        this.finalChargeCents = finalChargeCents;
+    }
+
+    public long getTaxAmountCents() {
+        return taxAmountCents;
+    }
+
+    public void setTaxAmountCents(final long taxAmountCents) {
+        this.taxAmountCents = taxAmountCents;
+    }
+
+    public long getTotalChargeCents() {
+        return totalChargeCents;
+    }
+
+    public void setTotalChargeCents(final long totalChargeCents) {
+        this.totalChargeCents = totalChargeCents;
+    }
+
+    public String getJurisdiction() {
+        return jurisdiction;
+    }
+
+    public void setJurisdiction(final String jurisdiction) {
+        this.jurisdiction = jurisdiction;
+    }
+
+    public boolean isClosing() {
+        return closing;
+    }
+
+    public void setClosing(final boolean closing) {
+        this.closing = closing;
+    }
+}
@@ -0,0 +1,173 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.enums.ToolBrand;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.util.ProjectUtils;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static com.msorrell.project.util.ProjectUtils.CATALOG_CHANGED_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_TOOL_MESSAGE;
+
+/**
+ * Tool catalog and pricing configuration.
+ * A configuration is an immutable snapshot, so it can be shared by any number of threads and replaced as a whole
+ * when its files change. A quote that reads one configuration prices against one consistent catalog, rate schedule,
+ * and tax rate table.
+ *
+ * Tool indexes are kept in stores and binary records, so a catalog is append-only: it starts with the tools in
+ * {@link ProjectUtils#TOOLS}, unchanged and in the same order, and can only add tools after them.
+ */
+public final class PricingConfig {
+
+    /**
+     * Catalog file in a configuration directory.
+     */
+    public static final String TOOLS_FILE = "tools.csv";
+
+    /**
+     * Daily rate file in a configuration directory.
+     */
+    public static final String RATES_FILE = "rates.csv";
+
+    /**
+     * Tax rate file in a configuration directory.
+     */
+    public static final String TAX_RATES_FILE = "tax-rates.csv";
+
+    /**
+     * Configuration compiled into the build: the tools in {@link ProjectUtils#TOOLS}, each tool type's fixed daily
+     * charge, and no tax rates.
+     */
+    public static final PricingConfig DEFAULT = new PricingConfig(ProjectUtils.TOOL_CODES, null, TaxRateTable.EMPTY);
+
+    /**
+     * Number of fields in a catalog file line.
+     */
+    private static final int TOOL_FIELD_COUNT = 3;
+
+    /**
+     * Tool catalog, indexed by tool code.
+     */
+    private final ToolCodeIndex toolCodes;
+
+    /**
+     * Effective-dated daily charges. Null when every tool type has its fixed daily charge.
+     */
+    private final RateSchedule rateSchedule;
+
+    /**
+     * Tax rates.
+     */
+    private final TaxRateTable taxRateTable;
+
+    /**
+     * Constructor.
+     * @param toolCodes Tool catalog, indexed by tool code
+     * @param rateSchedule Effective-dated daily charges. Null when every tool type has its fixed daily charge
+     * @param taxRateTable Tax rates. Null when no jurisdiction has rates
+     * @throws InvalidInputException the catalog does not start with the tools in {@link ProjectUtils#TOOLS}
+     */
+    public PricingConfig(final ToolCodeIndex toolCodes, final RateSchedule rateSchedule,
+                         final TaxRateTable taxRateTable) {
+        if (!toolCodes.startsWith(ProjectUtils.TOOLS)) {
+            throw new InvalidInputException(CATALOG_CHANGED_MESSAGE);
+        }
+        this.toolCodes = toolCodes;
+        this.rateSchedule = rateSchedule;
+        this.taxRateTable = taxRateTable == null ? TaxRateTable.EMPTY : taxRateTable;
+    }
+
+    /**
+     * Loads a configuration directory.
+     * The directory can hold {@link #TOOLS_FILE}, in the format of {@link #parseTools(List)},
+     * {@link #RATES_FILE}, in the format of {@link RateSchedule#load(Path)}, and {@link #TAX_RATES_FILE}, in the
+     * format of {@link TaxRateTable#load(Path)}. A missing file leaves that part of {@link #DEFAULT} in place.
+     * @param directory Configuration directory
+     * @return configuration
+     * @throws IOException exception while reading a file
+     * @throws InvalidInputException one of the lines is not valid, or the catalog is not append-only
+     */
+    public static PricingConfig load(final Path directory) throws IOException {
+        final Path toolsFile = directory.resolve(TOOLS_FILE);
+        final Path ratesFile = directory.resolve(RATES_FILE);
+        final Path taxRatesFile = directory.resolve(TAX_RATES_FILE);
+        return new PricingConfig(
+                Files.exists(toolsFile) ? parseTools(Files.readAllLines(toolsFile, StandardCharsets.UTF_8))
+                        : DEFAULT.getToolCodes(),
+                Files.exists(ratesFile) ? RateSchedule.load(ratesFile) : DEFAULT.getRateSchedule(),
+                Files.exists(taxRatesFile) ? TaxRateTable.load(taxRatesFile) : DEFAULT.getTaxRateTable());
+    }
+
+    /**
+     * Parses the lines of a catalog file.
+     * Each line is: tool code, tool type, tool brand. Tools are listed in tool index order, starting with the tools
+     * in {@link ProjectUtils#TOOLS}.
+     * Blank lines and lines starting with # are skipped.
+     * Ex. LADW,LADDER,WERNER
+     * @param lines Lines of a catalog file
+     * @return catalog
+     * @throws InvalidInputException one of the lines is not valid
+     */
+    public static ToolCodeIndex parseTools(final List<String> lines) {
+        final List<Tool> tools = new ArrayList<>();
+        final boolean[] used = new boolean[ToolCodeIndex.SLOT_COUNT];
+        for (final String line : lines) {
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            final String[] fields = trimmed.split(",", -1);
+            if (fields.length != TOOL_FIELD_COUNT) {
+                throw new InvalidInputException(INVALID_TOOL_MESSAGE + ": " + line);
+            }
+            final String code = fields[0].trim().toUpperCase(Locale.ROOT);
+            final int slot = ToolCodeIndex.encode(code, 0, code.length());
+            final ToolType toolType;
+            final ToolBrand toolBrand;
+            try {
+                toolType = ToolType.valueOf(fields[1].trim());
+                toolBrand = ToolBrand.valueOf(fields[2].trim());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidInputException(INVALID_TOOL_MESSAGE + ": " + line);
+            }
+            if (slot == ToolCodeIndex.NOT_A_CODE || used[slot]) {
+                throw new InvalidInputException(INVALID_TOOL_MESSAGE + ": " + line);
+            }
+            used[slot] = true;
+            tools.add(new Tool(toolType, toolBrand, code));
+        }
+        return new ToolCodeIndex(tools);
+    }
+
+    /**
+     * Checks that this configuration's catalog can replace another one.
+     * @param current Catalog in use
+     * @throws InvalidInputException a tool of the catalog in use was removed, moved, or changed
+     */
+    public void requireExtends(final ToolCodeIndex current) {
+        if (!toolCodes.startsWith(current.getTools())) {
+            throw new InvalidInputException(CATALOG_CHANGED_MESSAGE);
+        }
+    }
+
+    public ToolCodeIndex getToolCodes() {
+        return toolCodes;
+    }
+
+    public RateSchedule getRateSchedule() {
+        return rateSchedule;
+    }
+
+    public TaxRateTable getTaxRateTable() {
+        return taxRateTable;
+    }
+}
@@ -0,0 +1,64 @@
+package com.msorrell.project.models;
+
+import java.util.List;
+
+/**
+ * Quote Result.
+ * Either the Rental Agreement for a quote or the validation errors that prevented it.
+ */
+public class QuoteResult {
+
+    /**
+     * The Rental Agreement. Null if validation failed.
+     */
+    private final RentalAgreement rentalAgreement;
+
+    /**
+     * The validation errors. Empty if validation passed.
+     */
+    private final List<ValidationError> errors;
+
+    /**
+     * Constructor.
+     * @param rentalAgreement The Rental Agreement. Null if validation failed
+     * @param errors The validation errors. Empty if validation passed
+     */
+    private QuoteResult(final RentalAgreement rentalAgreement, final List<ValidationError> errors) {
+        this.rentalAgreement = rentalAgreement;
+        this.errors = errors;
+    }
+
+    /**
+     * Creates the result of a quote that passed validation.
+     * @param rentalAgreement The Rental Agreement
+     * @return Quote Result
+     */
+    public static QuoteResult success(final RentalAgreement rentalAgreement) {
+        return new QuoteResult(rentalAgreement, List.of());
+    }
+
+    /**
+     * Creates the result of a quote that failed validation.
+     * @param errors The validation errors
+     * @return Quote Result
+     */
+    public static QuoteResult failure(final List<ValidationError> errors) {
+        return new QuoteResult(null, List.copyOf(errors));
+    }
+
+    /**
+     * Determines if the quote passed validation.
+     * @return true - has a Rental Agreement, false - has validation errors
+     */
+    public boolean isValid() {
+        return rentalAgreement != null;
+    }
+
+    public RentalAgreement getRentalAgreement() {
+        return rentalAgreement;
+    }
+
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,183 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.util.MoneyUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_DAILY_RATE_MESSAGE;
+
+/**
+ * Daily charges of each tool type with the dates they take effect.
+ *
+ * A rate is in effect from its effective date until the next rate of the same tool type takes effect. Before a tool
+ * type's first effective date, its {@link ToolType#getDailyCharge()} is used. A schedule is immutable and can be
+ * shared by any number of threads.
+ */
+public final class RateSchedule {
+
+    /**
+     * Number of fields in a rate file line.
+     */
+    private static final int RATE_FIELD_COUNT = 3;
+
+    /**
+     * Effective dates of each tool type's rates, in epoch days, indexed by tool type ordinal.
+     * The first date of every tool type is Long.MIN_VALUE, the start of its default rate.
+     */
+    private final long[][] effectiveDays;
+
+    /**
+     * Daily charges of each tool type's rates, in cents, indexed by tool type ordinal.
+     */
+    private final long[][] dailyCharges;
+
+    /**
+     * Constructor.
+     * @param effectiveDays Effective dates of each tool type's rates, in epoch days
+     * @param dailyCharges Daily charges of each tool type's rates, in cents
+     */
+    private RateSchedule(final long[][] effectiveDays, final long[][] dailyCharges) {
+        this.effectiveDays = effectiveDays;
+        this.dailyCharges = dailyCharges;
+    }
+
+    /**
+     * Loads a rate file.
+     * Each line is: tool type, effective date (yyyy-MM-dd), daily charge.
+     * Blank lines and lines starting with # are skipped.
+     * Ex. LADDER,2024-01-01,2.19
+     * @param file Rate file
+     * @return schedule
+     * @throws IOException exception while reading the file
+     * @throws InvalidInputException one of the lines is not valid
+     */
+    public static RateSchedule load(final Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the lines of a rate file.
+     * @param lines Lines of a rate file
+     * @return schedule
+     * @throws InvalidInputException one of the lines is not valid
+     */
+    public static RateSchedule parse(final List<String> lines) {
+        final ToolType[] toolTypes = ToolType.values();
+        final List<TreeMap<Long, Long>> rates = new ArrayList<>(toolTypes.length);
+        for (final ToolType toolType : toolTypes) {
+            final TreeMap<Long, Long> toolTypeRates = new TreeMap<>();
+            toolTypeRates.put(Long.MIN_VALUE, MoneyUtils.toCents(toolType.getDailyCharge()));
+            rates.add(toolTypeRates);
+        }
+        for (final String line : lines) {
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            final String[] fields = trimmed.split(",", -1);
+            if (fields.length != RATE_FIELD_COUNT) {
+                throw new InvalidInputException(INVALID_DAILY_RATE_MESSAGE + ": " + line);
+            }
+            final ToolType toolType;
+            final long effectiveDay;
+            final BigDecimal dailyCharge;
+            try {
+                toolType = ToolType.valueOf(fields[0].trim());
+                effectiveDay = LocalDate.parse(fields[1].trim()).toEpochDay();
+                dailyCharge = new BigDecimal(fields[2].trim());
+            } catch (RuntimeException e) {
+                throw new InvalidInputException(INVALID_DAILY_RATE_MESSAGE + ": " + line);
+            }
+            if (dailyCharge.signum() < 0 || dailyCharge.scale() > MoneyUtils.CENTS_SCALE
+                    || rates.get(toolType.ordinal()).put(effectiveDay, MoneyUtils.toCents(dailyCharge)) != null) {
+                throw new InvalidInputException(INVALID_DAILY_RATE_MESSAGE + ": " + line);
+            }
+        }
+        final long[][] effectiveDays = new long[toolTypes.length][];
+        final long[][] dailyCharges = new long[toolTypes.length][];
+        for (int i = 0; i < toolTypes.length; i++) {
+            effectiveDays[i] = rates.get(i).keySet().stream().mapToLong(Long::longValue).toArray();
+            dailyCharges[i] = rates.get(i).values().stream().mapToLong(Long::longValue).toArray();
+        }
+        return new RateSchedule(effectiveDays, dailyCharges);
+    }
+
+    /**
+     * Finds the daily charge in effect on a day.
+     * @param toolType Tool type
+     * @param day Day
+     * @return daily charge in cents
+     */
+    public long getDailyChargeCents(final ToolType toolType, final LocalDate day) {
+        return dailyCharges[toolType.ordinal()][rateIndex(effectiveDays[toolType.ordinal()], day.toEpochDay())];
+    }
+
+    /**
+     * Calculates the charge for a range of days. Both days are inclusive.
+     *
+     * The range is split wherever a new rate takes effect, and each segment is charged at its own rate for its
+     * chargeable days. The first segment is found with a binary search and each segment's days are counted by the
+     * breakdown, so the cost depends on the number of rate changes in the range, not on its length.
+     *
+     * @param toolType Tool type
+     * @param firstDay First day of the range
+     * @param lastDay Last day of the range
+     * @param chargeDays Chargeable days in the whole range. Used directly when one rate covers the range
+     * @param breakdown Breaks down the days of a segment. Both dates are inclusive
+     * @return charge in cents
+     */
+    public long calculateChargeCents(final ToolType toolType, final LocalDate firstDay, final LocalDate lastDay,
+                                     final int chargeDays,
+                                     final BiFunction<LocalDate, LocalDate, DayBreakdown> breakdown) {
+        final long[] days = effectiveDays[toolType.ordinal()];
+        final long[] charges = dailyCharges[toolType.ordinal()];
+        final long first = firstDay.toEpochDay();
+        final long last = lastDay.toEpochDay();
+        int index = rateIndex(days, first);
+        if (index + 1 >= days.length || days[index + 1] > last) {
+            return charges[index] * chargeDays;
+        }
+        long total = 0;
+        long segmentStart = first;
+        while (segmentStart <= last) {
+            final long segmentEnd = index + 1 < days.length ? Math.min(last, days[index + 1] - 1) : last;
+            total += charges[index] * breakdown.apply(LocalDate.ofEpochDay(segmentStart),
+                    LocalDate.ofEpochDay(segmentEnd)).chargeDays(toolType);
+            segmentStart = segmentEnd + 1;
+            index++;
+        }
+        return total;
+    }
+
+    /**
+     * Number of rates of a tool type, including its default rate.
+     * @param toolType Tool type
+     * @return rate count
+     */
+    public int getRateCount(final ToolType toolType) {
+        return effectiveDays[toolType.ordinal()].length;
+    }
+
+    /**
+     * Finds the rate in effect on a day: the last rate whose effective date is on or before it.
+     * @param days Effective dates, in epoch days
+     * @param day Day, in epoch days
+     * @return rate index
+     */
+    private static int rateIndex(final long[] days, final long day) {
+        final int position = Arrays.binarySearch(days, day);
+        return position >= 0 ? position : -position - 2;
+    }
+}
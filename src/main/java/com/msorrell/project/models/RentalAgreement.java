@@ -1,11 +1,9 @@
 package com.msorrell.project.models;
 
+import com.msorrell.project.util.ReceiptRenderer;
+
 import java.math.BigDecimal;
-import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.util.Locale;
-
-import static com.msorrell.project.util.ProjectUtils.DATE_FORMATTER;
 
 /**
  * Rental Agreement.
@@ -69,27 +67,85 @@ public class RentalAgreement {
      */
     private BigDecimal finalCharge;
 
+    /**
+     * The jurisdiction of the store. Null when no tax is charged.
+     */
+    private String jurisdiction;
+
+    /**
+     * The tax on the final charge.
+     * Calculated by finalCharge X the jurisdiction's rate for the tool type, rounded half up to cents.
+     */
+    private BigDecimal taxAmount;
+
+    /**
+     * The amount owed.
+     * Calculated by finalCharge + taxAmount.
+     */
+    private BigDecimal totalCharge;
+
+    /**
+     * Copies the rental agreement. Amounts and dates are immutable, so they are shared with the copy.
+     * @return copy of the rental agreement
+     */
+    public RentalAgreement copy() {
+        final RentalAgreement copy = new RentalAgreement();
+        copy.tool = tool;
+        copy.rentalDays = rentalDays;
+        copy.checkoutDate = checkoutDate;
+        copy.dueDate = dueDate;
+        copy.dailyRentalCharge = dailyRentalCharge;
+        copy.chargeDays = chargeDays;
+        copy.preDiscountCharge = preDiscountCharge;
+        copy.discountPercent = discountPercent;
+        copy.discountAmount = discountAmount;
+        copy.finalCharge = finalCharge;
+        copy.jurisdiction = jurisdiction;
+        copy.taxAmount = taxAmount;
+        copy.totalCharge = totalCharge;
+        return copy;
+    }
+
     /**
      * Prints the rental agreement to the console.
      */
     public void printToConsole() {
-        final NumberFormat dayFormatter = NumberFormat.getInstance();
-        dayFormatter.setGroupingUsed(true);
-        System.out.println("Tool code: " + getTool().getCode());
-        System.out.println("Tool type: " + getTool().getType());
-        System.out.println("Tool brand: " + getTool().getBrand());
-        System.out.println("Rental days: " + dayFormatter.format(getRentalDays()));
-        System.out.println("Checkout date: " +  getCheckoutDate().format(DATE_FORMATTER));
-        System.out.println("Due date: " + getDueDate().format(DATE_FORMATTER));
-        System.out.println("Daily rental charge: " + NumberFormat.getCurrencyInstance(Locale.US)
-                .format(getDailyRentalCharge()));
-        System.out.println("Charge days: " + dayFormatter.format(getChargeDays()));
-        System.out.println("Pre-discount charge: " + NumberFormat.getCurrencyInstance(Locale.US)
-                .format(getPreDiscountCharge()));
-        System.out.printf("Discount percent: %d%%%n", getDiscountPercent());
-        System.out.println("Discount amount: " + NumberFormat.getCurrencyInstance(Locale.US)
-                .format(getDiscountAmount()));
-        System.out.println("Final charge: " + NumberFormat.getCurrencyInstance(Locale.US).format(getFinalCharge()));
+        System.out.print(toConsoleString());
+    }
+
+    /**
+     * Formats the rental agreement the same way it is printed to the console.
+     * Every line, including the last, ends with the line separator.
+     * Use a {@link ReceiptRenderer} for other locales and currencies.
+     * @return rental agreement as text
+     */
+    public String toConsoleString() {
+        return ReceiptRenderer.US.render(this);
+    }
+
+    /**
+     * Formats the rental agreement as one comma separated line for files read by other systems.
+     * Fields: tool code, checkout date, due date (yyyy-MM-dd), rental days, charge days, daily rental charge,
+     * pre-discount charge, discount percent, discount amount, final charge, tax amount, total charge, jurisdiction.
+     * Amounts are plain decimals. The jurisdiction is empty when no tax is charged.
+     * @return rental agreement as a line, without a line separator
+     */
+    public String toLine() {
+        final BigDecimal tax = getTaxAmount() == null ? BigDecimal.ZERO.setScale(2) : getTaxAmount();
+        final BigDecimal total = getTotalCharge() == null ? getFinalCharge() : getTotalCharge();
+        return getTool().getCode()
+                + ',' + getCheckoutDate()
+                + ',' + getDueDate()
+                + ',' + getRentalDays()
+                + ',' + getChargeDays()
+                + ',' + getDailyRentalCharge().toPlainString()
+                + ',' + getPreDiscountCharge().toPlainString()
+                + ',' + getDiscountPercent()
+                + ',' + getDiscountAmount().toPlainString()
+                + ',' + getFinalCharge().toPlainString()
+                + ',' + tax.toPlainString()
+                + ',' + total.toPlainString()
+                + ',' + (getJurisdiction() == null ? "" : getJurisdiction());
     }
 
     public Tool getTool() {
@@ -171,4 +227,28 @@ public class RentalAgreement {
     public void setFinalCharge(final BigDecimal finalCharge) {
         this.finalCharge = finalCharge;
     }
+
+    public String getJurisdiction() {
+        return jurisdiction;
+    }
+
+    public void setJurisdiction(final String jurisdiction) {
+        this.jurisdiction = jurisdiction;
+    }
+
+    public BigDecimal getTaxAmount() {
+        return taxAmount;
+    }
+
+    public void setTaxAmount(final BigDecimal taxAmount) {
+        this.taxAmount = taxAmount;
+    }
+
+    public BigDecimal getTotalCharge() {
+        return totalCharge;
+    }
+
+    public void setTotalCharge(final BigDecimal totalCharge) {
+        this.totalCharge = totalCharge;
+    }
 }
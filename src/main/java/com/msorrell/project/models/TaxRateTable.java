@@ -0,0 +1,209 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.exceptions.InvalidInputException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_TAX_RATE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.UNKNOWN_JURISDICTION_MESSAGE;
+
+/**
+ * Tax rates by store jurisdiction and tool type.
+ * A table is an immutable snapshot, so it can be shared by any number of threads and replaced as a whole when the
+ * rate file changes. Rates are held in millionths of the taxed amount. Ex. 8.25% is 82,500
+ */
+public final class TaxRateTable {
+
+    /**
+     * Millionths in a whole rate.
+     */
+    public static final long RATE_SCALE = 1_000_000;
+
+    /**
+     * Table without any jurisdictions.
+     */
+    public static final TaxRateTable EMPTY = new TaxRateTable(Collections.emptyMap());
+
+    /**
+     * Wildcard tool type in a rate file.
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * Number of fields in a rate file line.
+     */
+    private static final int RATE_FIELD_COUNT = 3;
+
+    /**
+     * Largest rate, 100%.
+     */
+    private static final BigDecimal MAX_PERCENT = BigDecimal.valueOf(100);
+
+    /**
+     * Rates of each jurisdiction, indexed by tool type ordinal.
+     */
+    private final Map<String, long[]> rates;
+
+    /**
+     * Constructor.
+     * @param rates Rates of each jurisdiction, indexed by tool type ordinal
+     */
+    private TaxRateTable(final Map<String, long[]> rates) {
+        this.rates = rates;
+    }
+
+    /**
+     * Loads a rate file.
+     * Each line is: jurisdiction, tool type, rate percent. Use * for the rate of every tool type that is not listed
+     * on its own line. A tool type without a rate is not taxed in that jurisdiction.
+     * Blank lines and lines starting with # are skipped.
+     * Ex. TX-AUSTIN,*,8.25
+     * @param file Rate file
+     * @return table
+     * @throws IOException exception while reading the file
+     * @throws InvalidInputException one of the lines is not valid
+     */
+    public static TaxRateTable load(final Path file) throws IOException {
+        return parse(Files.readAllLines(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses the lines of a rate file.
+     * @param lines Lines of a rate file
+     * @return table
+     * @throws InvalidInputException one of the lines is not valid
+     */
+    public static TaxRateTable parse(final List<String> lines) {
+        final int toolTypes = ToolType.values().length;
+        final Map<String, long[]> rates = new HashMap<>();
+        final Map<String, Long> defaults = new HashMap<>();
+        for (final String line : lines) {
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            final String[] fields = trimmed.split(",", -1);
+            if (fields.length != RATE_FIELD_COUNT || fields[0].isBlank()) {
+                throw new InvalidInputException(INVALID_TAX_RATE_MESSAGE + ": " + line);
+            }
+            final String jurisdiction = normalize(fields[0]);
+            final long rate;
+            try {
+                rate = toRate(new BigDecimal(fields[2].trim()));
+            } catch (NumberFormatException e) {
+                throw new InvalidInputException(INVALID_TAX_RATE_MESSAGE + ": " + line);
+            }
+            final long[] jurisdictionRates = rates.computeIfAbsent(jurisdiction, key -> {
+                final long[] unset = new long[toolTypes];
+                Arrays.fill(unset, -1);
+                return unset;
+            });
+            final boolean duplicate;
+            if (WILDCARD.equals(fields[1].trim())) {
+                duplicate = defaults.put(jurisdiction, rate) != null;
+            } else {
+                final int toolType;
+                try {
+                    toolType = ToolType.valueOf(fields[1].trim()).ordinal();
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidInputException(INVALID_TAX_RATE_MESSAGE + ": " + line);
+                }
+                duplicate = jurisdictionRates[toolType] >= 0;
+                jurisdictionRates[toolType] = rate;
+            }
+            if (duplicate) {
+                throw new InvalidInputException(INVALID_TAX_RATE_MESSAGE + ": " + line);
+            }
+        }
+        for (final Map.Entry<String, long[]> entry : rates.entrySet()) {
+            final long defaultRate = defaults.getOrDefault(entry.getKey(), 0L);
+            final long[] jurisdictionRates = entry.getValue();
+            for (int i = 0; i < jurisdictionRates.length; i++) {
+                if (jurisdictionRates[i] < 0) {
+                    jurisdictionRates[i] = defaultRate;
+                }
+            }
+        }
+        return new TaxRateTable(Collections.unmodifiableMap(rates));
+    }
+
+    /**
+     * Calculates the tax on an amount. Rounds half up to the nearest cent.
+     * @param jurisdiction Store jurisdiction
+     * @param toolType Tool type
+     * @param cents Taxed amount in cents
+     * @return tax in cents
+     * @throws InvalidInputException the jurisdiction has no rates
+     */
+    public long calculateTaxCents(final String jurisdiction, final ToolType toolType, final long cents) {
+        final long product = Math.multiplyExact(cents, getRate(jurisdiction, toolType));
+        final long quotient = product / RATE_SCALE;
+        return Math.abs(product % RATE_SCALE) * 2 >= RATE_SCALE ? quotient + Long.signum(product) : quotient;
+    }
+
+    /**
+     * Finds the rate of a tool type in a jurisdiction.
+     * @param jurisdiction Store jurisdiction
+     * @param toolType Tool type
+     * @return rate in millionths
+     * @throws InvalidInputException the jurisdiction has no rates
+     */
+    public long getRate(final String jurisdiction, final ToolType toolType) {
+        final long[] jurisdictionRates = rates.get(jurisdiction);
+        if (jurisdictionRates == null) {
+            throw new InvalidInputException(UNKNOWN_JURISDICTION_MESSAGE + ": " + jurisdiction);
+        }
+        return jurisdictionRates[toolType.ordinal()];
+    }
+
+    /**
+     * Determines if the jurisdiction has rates.
+     * @param jurisdiction Store jurisdiction
+     * @return true - has rates, false - unknown
+     */
+    public boolean hasJurisdiction(final String jurisdiction) {
+        return jurisdiction != null && rates.containsKey(jurisdiction);
+    }
+
+    /**
+     * Number of jurisdictions in the table.
+     * @return jurisdiction count
+     */
+    public int size() {
+        return rates.size();
+    }
+
+    /**
+     * Normalizes a jurisdiction code: trimmed and upper case.
+     * @param jurisdiction Jurisdiction code
+     * @return normalized code
+     */
+    public static String normalize(final String jurisdiction) {
+        return jurisdiction.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Converts a rate percent to millionths. Rounds half up.
+     * @param percent Rate percent
+     * @return rate in millionths
+     * @throws InvalidInputException the rate is not between 0 and 100 percent
+     */
+    private static long toRate(final BigDecimal percent) {
+        if (percent.signum() < 0 || percent.compareTo(MAX_PERCENT) > 0) {
+            throw new InvalidInputException(INVALID_TAX_RATE_MESSAGE + ": " + percent);
+        }
+        return percent.movePointRight(4).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+}
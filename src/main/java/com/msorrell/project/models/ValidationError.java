@@ -0,0 +1,43 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.enums.CheckoutField;
+
+/**
+ * Validation Error.
+ * A checkout field that failed validation and the reason it failed.
+ */
+public class ValidationError {
+
+    /**
+     * The field that failed validation.
+     */
+    private final CheckoutField field;
+
+    /**
+     * The reason the field failed validation.
+     */
+    private final String message;
+
+    /**
+     * Constructor.
+     * @param field The field that failed validation
+     * @param message The reason the field failed validation
+     */
+    public ValidationError(final CheckoutField field, final String message) {
+        this.field = field;
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return field + ": " + message;
+    }
+
+    public CheckoutField getField() {
+        return field;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,236 @@
+package com.msorrell.project.models;
+
+import com.msorrell.project.enums.CheckoutField;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
+
+/**
+ * Validation Result.
+ * The parsed fields of one checkout line and the reasons any of them failed validation.
+ *
+ * Filled by {@link com.msorrell.project.services.CheckoutLineParser#validate(CharSequence, ValidationResult)}
+ * instead of throwing, so a rejected line costs no exception. A result is meant to be reused for line after line by
+ * one thread; it is cleared at the start of every validation.
+ */
+public class ValidationResult {
+
+    /**
+     * Separator between the reasons written by {@link #appendReasons(StringBuilder)}.
+     */
+    private static final String REASON_SEPARATOR = "; ";
+
+    /**
+     * Reason each field failed validation, indexed by the field's ordinal. Null for a valid field.
+     */
+    private final String[] fieldMessages = new String[CheckoutField.values().length];
+
+    /**
+     * Reason the line as a whole failed validation. Null if the line has the right number of fields.
+     */
+    private String lineMessage;
+
+    /**
+     * Number of reasons recorded.
+     */
+    private int errorCount;
+
+    /**
+     * Tool. Null if the tool code is not valid.
+     */
+    private Tool tool;
+
+    /**
+     * Number of rental days.
+     */
+    private int rentalDayCount;
+
+    /**
+     * Discount percent.
+     */
+    private int discountPercent;
+
+    /**
+     * Checkout date. Null if the date is not valid.
+     */
+    private LocalDate checkoutDate;
+
+    /**
+     * Clears the result before a line is validated.
+     */
+    public void reset() {
+        for (int i = 0; i < fieldMessages.length; i++) {
+            fieldMessages[i] = null;
+        }
+        lineMessage = null;
+        errorCount = 0;
+        tool = null;
+        rentalDayCount = 0;
+        discountPercent = 0;
+        checkoutDate = null;
+    }
+
+    /**
+     * Records that the line as a whole is not valid.
+     * @param message The reason the line failed validation
+     */
+    public void rejectLine(final String message) {
+        if (lineMessage == null) {
+            errorCount++;
+        }
+        lineMessage = message;
+    }
+
+    /**
+     * Records that a field is not valid.
+     * @param field The field that failed validation
+     * @param message The reason the field failed validation
+     */
+    public void rejectField(final CheckoutField field, final String message) {
+        if (fieldMessages[field.ordinal()] == null) {
+            errorCount++;
+        }
+        fieldMessages[field.ordinal()] = message;
+    }
+
+    /**
+     * Determines if the line passed validation.
+     * @return true - no reasons were recorded, false - the line is not valid
+     */
+    public boolean isValid() {
+        return errorCount == 0;
+    }
+
+    /**
+     * Retrieves the first reason the line failed, in field order.
+     * @return reason, null if the line is valid
+     */
+    public String getFirstMessage() {
+        if (lineMessage != null) {
+            return lineMessage;
+        }
+        for (final String message : fieldMessages) {
+            if (message != null) {
+                return message;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the reason a field failed validation.
+     * @param field Field
+     * @return reason, null if the field is valid
+     */
+    public String getMessage(final CheckoutField field) {
+        return fieldMessages[field.ordinal()];
+    }
+
+    /**
+     * Copies the field errors into a list.
+     * @return Validation Errors, in field order
+     */
+    public List<ValidationError> getErrors() {
+        final List<ValidationError> errors = new ArrayList<>(errorCount);
+        for (final CheckoutField field : CheckoutField.values()) {
+            if (fieldMessages[field.ordinal()] != null) {
+                errors.add(new ValidationError(field, fieldMessages[field.ordinal()]));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Appends every reason the line failed, in field order, formatted like {@link ValidationError#toString()}.
+     * @param builder Builder the reasons are appended to
+     * @return the builder that was passed in
+     */
+    public StringBuilder appendReasons(final StringBuilder builder) {
+        boolean first = true;
+        if (lineMessage != null) {
+            builder.append(lineMessage);
+            first = false;
+        }
+        for (final CheckoutField field : CheckoutField.values()) {
+            if (fieldMessages[field.ordinal()] != null) {
+                if (!first) {
+                    builder.append(REASON_SEPARATOR);
+                }
+                builder.append(field).append(": ").append(fieldMessages[field.ordinal()]);
+                first = false;
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Creates the Checkout of a valid line.
+     * @return Checkout
+     * @throws IllegalStateException the line is not valid
+     */
+    public Checkout toCheckout() {
+        return toCheckout(TOOL_CODES);
+    }
+
+    /**
+     * Creates the Checkout of a line validated against a catalog other than the compiled one.
+     * @param toolCodes Catalog the line was validated against
+     * @return Checkout
+     * @throws IllegalStateException the line is not valid
+     */
+    public Checkout toCheckout(final ToolCodeIndex toolCodes) {
+        if (!isValid()) {
+            throw new IllegalStateException("The line is not valid");
+        }
+        final Checkout checkout = new Checkout();
+        checkout.setTool(tool, toolCodes);
+        checkout.setRentalDayCount(rentalDayCount);
+        checkout.setDiscountPercent(discountPercent);
+        checkout.setCheckoutDate(checkoutDate);
+        return checkout;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    public String getLineMessage() {
+        return lineMessage;
+    }
+
+    public Tool getTool() {
+        return tool;
+    }
+
+    public void setTool(final Tool tool) {
+        this.tool = tool;
+    }
+
+    public int getRentalDayCount() {
+        return rentalDayCount;
+    }
+
+    public void setRentalDayCount(final int rentalDayCount) {
+        this.rentalDayCount = rentalDayCount;
+    }
+
+    public int getDiscountPercent() {
+        return discountPercent;
+    }
+
+    public void setDiscountPercent(final int discountPercent) {
+        this.discountPercent = discountPercent;
+    }
+
+    public LocalDate getCheckoutDate() {
+        return checkoutDate;
+    }
+
+    public void setCheckoutDate(final LocalDate checkoutDate) {
+        this.checkoutDate = checkoutDate;
+    }
+}
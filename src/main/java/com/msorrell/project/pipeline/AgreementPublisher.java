@@ -0,0 +1,214 @@
+package com.msorrell.project.pipeline;
+
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.services.ToolRentalService;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reactive streams publisher that prices a stream of checkouts as its subscriber asks for agreements.
+ *
+ * A checkout is only taken from the source once the subscriber has requested its agreement, so nothing is buffered
+ * ahead of a slow subscriber. Pricing runs on the executor, up to a batch of agreements per task; a task that uses up
+ * its batch while demand remains schedules the next one, so a subscriber asking for everything does not hold a
+ * thread forever. Signals to the subscriber are never concurrent.
+ *
+ * A pricing failure is passed to {@link Flow.Subscriber#onError(Throwable)} and ends the stream. The source can only
+ * be read once, so the publisher accepts a single subscriber.
+ */
+public class AgreementPublisher implements Flow.Publisher<RentalAgreement> {
+
+    /**
+     * Service used to price the checkouts.
+     */
+    private final ToolRentalService toolRentalService;
+
+    /**
+     * Checkouts to price.
+     */
+    private final Iterator<Checkout> source;
+
+    /**
+     * Executor that prices the checkouts and signals the subscriber.
+     */
+    private final Executor executor;
+
+    /**
+     * Most agreements priced by one executor task.
+     */
+    private final int batchSize;
+
+    /**
+     * Set once a subscriber has subscribed.
+     */
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Constructor. Prices up to {@link Flow#defaultBufferSize()} agreements per executor task.
+     * @param toolRentalService Service used to price the checkouts
+     * @param source Checkouts to price
+     * @param executor Executor that prices the checkouts
+     */
+    public AgreementPublisher(final ToolRentalService toolRentalService, final Iterator<Checkout> source,
+                              final Executor executor) {
+        this(toolRentalService, source, executor, Flow.defaultBufferSize());
+    }
+
+    /**
+     * Constructor.
+     * @param toolRentalService Service used to price the checkouts
+     * @param source Checkouts to price
+     * @param executor Executor that prices the checkouts
+     * @param batchSize Most agreements priced by one executor task
+     */
+    public AgreementPublisher(final ToolRentalService toolRentalService, final Iterator<Checkout> source,
+                              final Executor executor, final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be greater than 0");
+        }
+        this.toolRentalService = toolRentalService;
+        this.source = source;
+        this.executor = executor;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super RentalAgreement> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber is null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    //The stream has already ended
+                }
+
+                @Override
+                public void cancel() {
+                    //The stream has already ended
+                }
+            });
+            subscriber.onError(new IllegalStateException("The publisher accepts a single subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new PricingSubscription(subscriber));
+    }
+
+    /**
+     * Subscription that prices the checkouts as they are requested.
+     */
+    private final class PricingSubscription implements Flow.Subscription {
+
+        /**
+         * Subscriber receiving the agreements.
+         */
+        private final Flow.Subscriber<? super RentalAgreement> subscriber;
+
+        /**
+         * Agreements requested and not yet delivered. {@link Long#MAX_VALUE} is unbounded.
+         */
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * Number of times the drain was asked for while it was scheduled or running. The task that raises it from
+         * 0 schedules the drain.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+
+        /**
+         * Set once the stream has completed, failed, or been cancelled.
+         */
+        private volatile boolean done;
+
+        /**
+         * Set when the subscriber requested a count that is not positive.
+         */
+        private volatile boolean invalidRequest;
+
+        /**
+         * Constructor.
+         * @param subscriber Subscriber receiving the agreements
+         */
+        private PricingSubscription(final Flow.Subscriber<? super RentalAgreement> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                invalidRequest = true;
+            } else {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE
+                        : current + added);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        /**
+         * Schedules the drain unless it is already scheduled or running.
+         */
+        private void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Prices and delivers up to a batch of the requested agreements. Runs on the executor, one task at a time.
+         */
+        private void drain() {
+            int missed = 1;
+            while (true) {
+                if (done) {
+                    return;
+                }
+                if (invalidRequest) {
+                    done = true;
+                    subscriber.onError(new IllegalArgumentException("Requested count must be greater than 0"));
+                    return;
+                }
+                final long requested = demand.get();
+                int delivered = 0;
+                try {
+                    while (delivered < requested && delivered < batchSize && !done) {
+                        if (!source.hasNext()) {
+                            done = true;
+                            subscriber.onComplete();
+                            return;
+                        }
+                        subscriber.onNext(toolRentalService.generateRentalAgreement(source.next()));
+                        delivered++;
+                    }
+                } catch (RuntimeException e) {
+                    if (!done) {
+                        done = true;
+                        subscriber.onError(e);
+                    }
+                    return;
+                }
+                final long remaining = requested == Long.MAX_VALUE ? requested : demand.addAndGet(-delivered);
+                if (delivered == batchSize && remaining > 0) {
+                    //Still counted as pending, so no other drain is scheduled before this one
+                    executor.execute(this::drain);
+                    return;
+                }
+                missed = pending.addAndGet(-missed);
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+    }
+}
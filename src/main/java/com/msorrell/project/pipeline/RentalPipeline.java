@@ -0,0 +1,249 @@
+package com.msorrell.project.pipeline;
+
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.ToolRentalService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Function;
+
+/**
+ * Pipeline that reads checkout lines, prices them, and renders the rental agreements.
+ *
+ * The parse, price, and render stages run on their own threads and are connected by bounded queues.
+ * When a queue is full the stage in front of it blocks, so a slow output sink throttles the reader
+ * instead of buffering agreements in memory.
+ *
+ * Output is written in input order only when every stage has a parallelism of 1.
+ * A pipeline runs one input at a time.
+ */
+public class RentalPipeline {
+
+    /**
+     * Names of the stages, in the order items pass through them.
+     */
+    private static final String[] STAGE_NAMES = {"parse", "price", "render"};
+
+    /**
+     * Marker placed on a queue once there is no more input for the stage.
+     */
+    private static final Object END_OF_INPUT = new Object();
+
+    /**
+     * Service used to price the checkouts.
+     */
+    private final ToolRentalService toolRentalService;
+
+    /**
+     * Number of threads for each stage.
+     */
+    private final int[] threads;
+
+    /**
+     * Input queue for each stage.
+     */
+    private final List<BlockingQueue<Object>> queues;
+
+    /**
+     * Largest depth seen on each stage's input queue.
+     */
+    private final AtomicIntegerArray maxQueueDepths;
+
+    /**
+     * Constructor.
+     * @param toolRentalService Service used to price the checkouts
+     * @param parseThreads Number of threads parsing checkout lines
+     * @param priceThreads Number of threads generating rental agreements
+     * @param renderThreads Number of threads rendering rental agreements to the output
+     * @param queueCapacity Capacity of each stage's input queue
+     */
+    public RentalPipeline(final ToolRentalService toolRentalService, final int parseThreads, final int priceThreads,
+                          final int renderThreads, final int queueCapacity) {
+        if (parseThreads < 1 || priceThreads < 1 || renderThreads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Stage parallelism and queue capacity must be greater than 0");
+        }
+        this.toolRentalService = toolRentalService;
+        this.threads = new int[] {parseThreads, priceThreads, renderThreads};
+        this.queues = new ArrayList<>(STAGE_NAMES.length);
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            queues.add(new ArrayBlockingQueue<>(queueCapacity));
+        }
+        this.maxQueueDepths = new AtomicIntegerArray(STAGE_NAMES.length);
+    }
+
+    /**
+     * Reads checkout lines until the end of the input and writes a rental agreement, or the reason the line
+     * was rejected, to the output for each one. Blank lines are skipped.
+     * Returns once every line has been written.
+     * @param reader Checkout lines. Format is described in {@link CheckoutLineParser}
+     * @param out Output sink
+     * @return number of checkout lines read
+     * @throws IOException exception while reading input
+     * @throws InterruptedException interrupted while waiting for the stages
+     */
+    public long run(final BufferedReader reader, final PrintStream out) throws IOException, InterruptedException {
+        final ExecutorService[] executors = new ExecutorService[STAGE_NAMES.length];
+        final List<Function<Object, Object>> tasks = tasks(out);
+        for (int stage = 0; stage < executors.length; stage++) {
+            executors[stage] = Executors.newFixedThreadPool(threads[stage]);
+            final AtomicInteger running = new AtomicInteger(threads[stage]);
+            for (int i = 0; i < threads[stage]; i++) {
+                executors[stage].execute(worker(stage, tasks.get(stage), running));
+            }
+            executors[stage].shutdown();
+        }
+
+        long lines = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    put(0, line);
+                    lines++;
+                }
+            }
+        } finally {
+            //Always release the workers, even when reading fails
+            for (int i = 0; i < threads[0]; i++) {
+                put(0, END_OF_INPUT);
+            }
+            for (final ExecutorService executor : executors) {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Returns the current depth of each stage's input queue, keyed by stage name.
+     * @return current queue depths
+     */
+    public Map<String, Integer> getQueueDepths() {
+        final Map<String, Integer> depths = new LinkedHashMap<>();
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            depths.put(STAGE_NAMES[stage], queues.get(stage).size());
+        }
+        return depths;
+    }
+
+    /**
+     * Returns the largest depth seen on each stage's input queue, keyed by stage name.
+     * A stage whose queue stays near capacity is the bottleneck of the stage in front of it.
+     * @return largest queue depths
+     */
+    public Map<String, Integer> getMaxQueueDepths() {
+        final Map<String, Integer> depths = new LinkedHashMap<>();
+        for (int stage = 0; stage < STAGE_NAMES.length; stage++) {
+            depths.put(STAGE_NAMES[stage], maxQueueDepths.get(stage));
+        }
+        return depths;
+    }
+
+    /**
+     * Creates the work done by each stage.
+     * Rejected lines are passed through the later stages as the exception that rejected them. Every task catches its
+     * own failures, so a worker never stops before the end of input is passed on.
+     * @param out Output sink
+     * @return task for each stage
+     */
+    private List<Function<Object, Object>> tasks(final PrintStream out) {
+        final Function<Object, Object> parse = line -> {
+            try {
+                return CheckoutLineParser.parse((String) line, toolRentalService.getToolCodes());
+            } catch (RuntimeException e) {
+                return e;
+            }
+        };
+        final Function<Object, Object> price = item -> {
+            if (!(item instanceof Checkout)) {
+                return item;
+            }
+            try {
+                return toolRentalService.generateRentalAgreement((Checkout) item);
+            } catch (RuntimeException e) {
+                return e;
+            }
+        };
+        final Function<Object, Object> render = item -> {
+            String text;
+            if (item instanceof RentalAgreement) {
+                try {
+                    text = ((RentalAgreement) item).toConsoleString() + System.lineSeparator();
+                } catch (RuntimeException e) {
+                    text = rejected(e);
+                }
+            } else {
+                text = rejected((RuntimeException) item);
+            }
+            synchronized (out) {
+                out.print(text);
+            }
+            return null;
+        };
+        return List.of(parse, price, render);
+    }
+
+    /**
+     * Formats the reason a checkout line was rejected.
+     * @param rejection Exception that rejected the line
+     * @return rejection as text
+     */
+    private static String rejected(final RuntimeException rejection) {
+        return "Invalid checkout: " + rejection.getMessage() + System.lineSeparator();
+    }
+
+    /**
+     * Creates a worker for a stage.
+     * The last worker of a stage to finish passes the end of input on to every worker of the next stage.
+     * @param stage Index of the stage
+     * @param task Work done for each item
+     * @param running Number of the stage's workers that are still running
+     * @return worker
+     */
+    private Runnable worker(final int stage, final Function<Object, Object> task, final AtomicInteger running) {
+        return () -> {
+            final boolean lastStage = stage == STAGE_NAMES.length - 1;
+            try {
+                Object item;
+                while ((item = queues.get(stage).take()) != END_OF_INPUT) {
+                    final Object result = task.apply(item);
+                    if (!lastStage) {
+                        put(stage + 1, result);
+                    }
+                }
+                if (running.decrementAndGet() == 0 && !lastStage) {
+                    for (int i = 0; i < threads[stage + 1]; i++) {
+                        put(stage + 1, END_OF_INPUT);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    /**
+     * Puts an item on a stage's input queue, waiting for space if the queue is full.
+     * @param stage Index of the stage
+     * @param item Item
+     * @throws InterruptedException interrupted while waiting for space
+     */
+    private void put(final int stage, final Object item) throws InterruptedException {
+        queues.get(stage).put(item);
+        maxQueueDepths.accumulateAndGet(stage, queues.get(stage).size(), Math::max);
+    }
+}
@@ -0,0 +1,266 @@
+package com.msorrell.project.server;
+
+import com.msorrell.project.util.LatencyHistogram;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load generator for the {@link QuoteServer}.
+ *
+ * Opens many connections from a single selector thread. Each connection sends a batch of generated checkout lines
+ * in one write, waits for every response, and sends the next batch, so the number of requests in flight is the
+ * number of connections times the pipeline depth. Reports the throughput, the error responses, and the latency
+ * percentiles of a request, from the write of its batch to the read of its response.
+ */
+public class QuoteBenchmarkClient {
+
+    /**
+     * Nanoseconds in a microsecond.
+     */
+    private static final double NANOS_PER_MICRO = 1_000;
+
+    /**
+     * Size of a connection's read buffer.
+     */
+    private static final int READ_BUFFER_SIZE = 16 * 1024;
+
+    /**
+     * Address of the server.
+     */
+    private final InetSocketAddress address;
+
+    /**
+     * Number of connections.
+     */
+    private final int connections;
+
+    /**
+     * Requests sent in each batch.
+     */
+    private final int pipelineDepth;
+
+    /**
+     * Seed of the generated lines.
+     */
+    private final long seed;
+
+    /**
+     * Share of the generated lines that are invalid.
+     */
+    private final double invalidRate;
+
+    /**
+     * Request latencies.
+     */
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Responses received.
+     */
+    private long responses;
+
+    /**
+     * Error responses received.
+     */
+    private long errors;
+
+    /**
+     * Constructor.
+     * @param address Address of the server
+     * @param connections Number of connections
+     * @param pipelineDepth Requests sent in each batch
+     * @param seed Seed of the generated lines
+     * @param invalidRate Share of the generated lines that are invalid, between 0 and 1
+     */
+    public QuoteBenchmarkClient(final InetSocketAddress address, final int connections, final int pipelineDepth,
+                                final long seed, final double invalidRate) {
+        this.address = address;
+        this.connections = connections;
+        this.pipelineDepth = pipelineDepth;
+        this.seed = seed;
+        this.invalidRate = invalidRate;
+    }
+
+    /**
+     * Runs the benchmark and prints its report.
+     * @param durationSeconds Length of the run
+     * @throws IOException exception while talking to the server
+     */
+    public void run(final long durationSeconds) throws IOException {
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; i++) {
+                final SocketChannel channel = SocketChannel.open(address);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.configureBlocking(false);
+                final ClientConnection connection = new ClientConnection(channel,
+                        new WorkloadGenerator(seed + i, invalidRate, 2015, 2025));
+                connection.sendBatch(channel.register(selector, SelectionKey.OP_READ, connection));
+            }
+            final long start = System.nanoTime();
+            final long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+            while (System.nanoTime() < deadline) {
+                selector.select(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) + 1);
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    final ClientConnection connection = (ClientConnection) key.attachment();
+                    if (key.isWritable()) {
+                        connection.write(key);
+                    }
+                    if (key.isValid() && key.isReadable()) {
+                        connection.read(key);
+                    }
+                }
+            }
+            final double seconds = (System.nanoTime() - start) / 1e9;
+            for (final SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            System.out.println("connections,pipeline_depth,requests_per_s,errors,p50_us,p99_us,p99.9_us,max_us");
+            System.out.printf("%d,%d,%.0f,%d,%.1f,%.1f,%.1f,%.1f%n",
+                    connections,
+                    pipelineDepth,
+                    responses / seconds,
+                    errors,
+                    latencies.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                    latencies.getValueAtPercentile(99) / NANOS_PER_MICRO,
+                    latencies.getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+                    latencies.getMax() / NANOS_PER_MICRO);
+        }
+    }
+
+    /**
+     * State of one benchmark connection.
+     */
+    private final class ClientConnection {
+
+        /**
+         * Connection to the server.
+         */
+        private final SocketChannel channel;
+
+        /**
+         * Generator of the connection's lines.
+         */
+        private final WorkloadGenerator generator;
+
+        /**
+         * Bytes of the batch not yet written.
+         */
+        private final ByteBuffer requests = ByteBuffer.allocate(64 * pipelineDepth);
+
+        /**
+         * Bytes read from the server.
+         */
+        private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /**
+         * Times the requests in flight were sent, oldest first.
+         */
+        private final ArrayDeque<Long> sent = new ArrayDeque<>();
+
+        /**
+         * Set when the next byte read starts a response.
+         */
+        private boolean atResponseStart = true;
+
+        /**
+         * Constructor.
+         * @param channel Connection to the server
+         * @param generator Generator of the connection's lines
+         */
+        private ClientConnection(final SocketChannel channel, final WorkloadGenerator generator) {
+            this.channel = channel;
+            this.generator = generator;
+        }
+
+        /**
+         * Sends the next batch of requests.
+         * @param key Selection key of the connection
+         * @throws IOException exception while writing
+         */
+        private void sendBatch(final SelectionKey key) throws IOException {
+            requests.clear();
+            for (int i = 0; i < pipelineDepth; i++) {
+                requests.put((generator.nextLine() + '\n').getBytes(StandardCharsets.US_ASCII));
+            }
+            requests.flip();
+            final long now = System.nanoTime();
+            for (int i = 0; i < pipelineDepth; i++) {
+                sent.add(now);
+            }
+            write(key);
+        }
+
+        /**
+         * Writes as much of the batch as the socket takes.
+         * @param key Selection key of the connection
+         * @throws IOException exception while writing
+         */
+        private void write(final SelectionKey key) throws IOException {
+            channel.write(requests);
+            key.interestOps(requests.hasRemaining() ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                    : SelectionKey.OP_READ);
+        }
+
+        /**
+         * Reads the waiting responses and sends the next batch once the current one is answered.
+         * @param key Selection key of the connection
+         * @throws IOException exception while reading or writing
+         */
+        private void read(final SelectionKey key) throws IOException {
+            in.clear();
+            if (channel.read(in) < 0) {
+                key.cancel();
+                channel.close();
+                return;
+            }
+            final long now = System.nanoTime();
+            for (int i = 0; i < in.position(); i++) {
+                final byte b = in.get(i);
+                if (atResponseStart && b == 'E') {
+                    errors++;
+                }
+                atResponseStart = b == '\n';
+                if (atResponseStart) {
+                    latencies.record(now - sent.remove());
+                    responses++;
+                }
+            }
+            if (sent.isEmpty()) {
+                sendBatch(key);
+            }
+        }
+    }
+
+    /**
+     * Runs a benchmark against a running quote server.
+     * Arguments: host, port, connections (default 100), pipeline depth (default 16), duration in seconds
+     * (default 10), seed (default 1), invalid rate (default 0.05).
+     * @param args Command line arguments
+     * @throws IOException exception while talking to the server
+     */
+    public static void main(final String[] args) throws IOException {
+        final String host = args[0];
+        final int port = Integer.parseInt(args[1]);
+        final int connections = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        final int pipelineDepth = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        final long durationSeconds = args.length > 4 ? Long.parseLong(args[4]) : 10;
+        final long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+        final double invalidRate = args.length > 6 ? Double.parseDouble(args[6]) : 0.05;
+        new QuoteBenchmarkClient(new InetSocketAddress(host, port), connections, pipelineDepth, seed, invalidRate)
+                .run(durationSeconds);
+    }
+}
@@ -0,0 +1,475 @@
+package com.msorrell.project.server;
+
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.ValidationResult;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_LINE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.PRICING_FAILED_MESSAGE;
+
+/**
+ * Line protocol quote server for the point of sale terminals.
+ *
+ * A client sends checkout lines (see {@link CheckoutLineParser}), each ended by a line feed, and may send any number
+ * of them before reading the responses. Every line is answered in order with either the agreement line
+ * ({@link com.msorrell.project.models.RentalAgreement#toLine()}) or {@code ERROR,} followed by the validation
+ * message. A checkout that cannot be priced is answered with {@code ERROR,} and a fixed message, and the cause is
+ * logged on the server. Blank lines are ignored. A line longer than the read buffer is answered with an error and
+ * the connection is closed once the responses are written.
+ *
+ * Connections are spread over a few I/O threads, each with its own {@link Selector}. Lines are parsed straight from
+ * the read buffer, and the responses to everything read at once are written with a single write. While a client is
+ * not reading its responses, its connection is not read either.
+ */
+public class QuoteServer implements Closeable {
+
+    /**
+     * Size of a connection's read buffer. Also the longest accepted line.
+     */
+    static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Initial size of a connection's write buffer. Grows to fit the pending responses.
+     */
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Prefix of an error response.
+     */
+    private static final byte[] ERROR_PREFIX = "ERROR,".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Logs the checkouts that could not be priced.
+     */
+    private static final Logger LOGGER = Logger.getLogger(QuoteServer.class.getName());
+
+    /**
+     * Service used to price the checkouts.
+     */
+    private final ToolRentalService toolRentalService;
+
+    /**
+     * Channel that accepts the connections.
+     */
+    private final ServerSocketChannel serverChannel;
+
+    /**
+     * I/O loops. The first one also accepts the connections.
+     */
+    private final IoLoop[] loops;
+
+    /**
+     * Threads running the I/O loops.
+     */
+    private final Thread[] threads;
+
+    /**
+     * Requests answered since the server started.
+     */
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * Loop that receives the next accepted connection.
+     */
+    private int nextLoop;
+
+    /**
+     * Cleared when the server is closed.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * Constructor. Binds the server; connections are served once it is started.
+     * @param toolRentalService Service used to price the checkouts
+     * @param address Address to listen on. Port 0 picks a free port.
+     * @param ioThreads Number of I/O threads
+     * @throws IOException exception while binding the server
+     */
+    public QuoteServer(final ToolRentalService toolRentalService, final InetSocketAddress address,
+                       final int ioThreads) throws IOException {
+        if (ioThreads < 1) {
+            throw new IllegalArgumentException("At least one I/O thread is needed");
+        }
+        this.toolRentalService = toolRentalService;
+        this.serverChannel = ServerSocketChannel.open();
+        this.loops = new IoLoop[ioThreads];
+        this.threads = new Thread[ioThreads];
+        try {
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(address);
+            for (int i = 0; i < ioThreads; i++) {
+                loops[i] = new IoLoop(Selector.open());
+            }
+            serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Starts the I/O threads.
+     */
+    public void start() {
+        for (int i = 0; i < loops.length; i++) {
+            threads[i] = new Thread(loops[i], "quote-io-" + i);
+            threads[i].start();
+        }
+    }
+
+    /**
+     * Stops the I/O threads and closes every connection.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (final IoLoop loop : loops) {
+            if (loop != null) {
+                loop.selector.wakeup();
+            }
+        }
+        for (final Thread thread : threads) {
+            if (thread != null) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        for (final IoLoop loop : loops) {
+            if (loop != null) {
+                loop.closeAll();
+            }
+        }
+        closeQuietly(serverChannel);
+    }
+
+    /**
+     * Retrieves the port the server listens on.
+     * @return port
+     * @throws IOException exception while reading the address
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Retrieves the number of requests answered since the server started.
+     * @return number of requests
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Accepts the waiting connections and hands them to the I/O loops in turn.
+     * @throws IOException exception while accepting a connection
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            loops[nextLoop].add(channel);
+            nextLoop = (nextLoop + 1) % loops.length;
+        }
+    }
+
+    /**
+     * Closes a channel, ignoring any exception.
+     * @param channel Channel
+     */
+    private static void closeQuietly(final Closeable channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            //Nothing left to do with the channel
+        }
+    }
+
+    /**
+     * Selector loop serving a share of the connections.
+     */
+    private final class IoLoop implements Runnable {
+
+        /**
+         * Selector of the loop's channels.
+         */
+        private final Selector selector;
+
+        /**
+         * Connections accepted for this loop and not registered yet.
+         */
+        private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Constructor.
+         * @param selector Selector of the loop's channels
+         */
+        private IoLoop(final Selector selector) {
+            this.selector = selector;
+        }
+
+        /**
+         * Hands an accepted connection to the loop.
+         * @param channel Connection
+         */
+        private void add(final SocketChannel channel) {
+            accepted.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    selector.select();
+                } catch (IOException e) {
+                    break;
+                }
+                SocketChannel channel;
+                while ((channel = accepted.poll()) != null) {
+                    try {
+                        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+                    } catch (IOException e) {
+                        closeQuietly(channel);
+                    }
+                }
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                            continue;
+                        }
+                        final Connection connection = (Connection) key.attachment();
+                        if (key.isWritable()) {
+                            connection.flush(key);
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.read(key);
+                        }
+                    } catch (IOException e) {
+                        key.cancel();
+                        closeQuietly(key.channel());
+                    } catch (RuntimeException e) {
+                        //Only the connection that failed is closed, the loop keeps serving the others
+                        if (key.channel() != serverChannel) {
+                            key.cancel();
+                            closeQuietly(key.channel());
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Closes the loop's connections and selector. Called once the loop has stopped.
+         */
+        private void closeAll() {
+            if (selector.isOpen()) {
+                for (final SelectionKey key : selector.keys()) {
+                    if (key.channel() != serverChannel) {
+                        closeQuietly(key.channel());
+                    }
+                }
+                closeQuietly(selector);
+            }
+            SocketChannel channel;
+            while ((channel = accepted.poll()) != null) {
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    /**
+     * Buffers of a client connection.
+     */
+    private final class Connection {
+
+        /**
+         * Client connection.
+         */
+        private final SocketChannel channel;
+
+        /**
+         * Bytes read and not yet parsed into lines.
+         */
+        private final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_SIZE);
+
+        /**
+         * Responses not yet written.
+         */
+        private ByteBuffer out = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+
+        /**
+         * Validation result reused for every line of the connection.
+         */
+        private final ValidationResult result = new ValidationResult();
+
+        /**
+         * Set once the connection is to be closed after its responses are written.
+         */
+        private boolean closing;
+
+        /**
+         * Constructor.
+         * @param channel Client connection
+         */
+        private Connection(final SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Reads the waiting bytes, answers every complete line, and writes the responses.
+         * @param key Selection key of the connection
+         * @throws IOException exception while reading or writing
+         */
+        private void read(final SelectionKey key) throws IOException {
+            if (channel.read(in) < 0) {
+                key.cancel();
+                channel.close();
+                return;
+            }
+            in.flip();
+            int lineStart = 0;
+            for (int i = 0; i < in.limit(); i++) {
+                if (in.get(i) == '\n') {
+                    answer(lineStart, i > lineStart && in.get(i - 1) == '\r' ? i - 1 : i);
+                    lineStart = i + 1;
+                }
+            }
+            in.position(lineStart);
+            in.compact();
+            if (!in.hasRemaining()) {
+                appendError(INVALID_CHECKOUT_LINE_MESSAGE);
+                closing = true;
+            }
+            flush(key);
+        }
+
+        /**
+         * Prices one line and appends its response.
+         * @param start Index of the line's first byte
+         * @param end Index just past the line's last byte
+         */
+        private void answer(final int start, final int end) {
+            int first = start;
+            while (first < end && (in.get(first) & 0xFF) <= ' ') {
+                first++;
+            }
+            if (first == end) {
+                return;
+            }
+            final ToolCodeIndex toolCodes = toolRentalService.getToolCodes();
+            if (!CheckoutLineParser.validate(in, start, end, result, toolCodes)) {
+                appendError(result.getFirstMessage());
+            } else {
+                try {
+                    append(toolRentalService.generateRentalAgreement(result.toCheckout(toolCodes)).toLine()
+                            .getBytes(StandardCharsets.UTF_8));
+                } catch (InvalidInputException e) {
+                    appendError(e.getMessage());
+                } catch (RuntimeException e) {
+                    //A checkout that cannot be priced fails its own line only. The cause stays on the server
+                    LOGGER.log(Level.WARNING, PRICING_FAILED_MESSAGE, e);
+                    appendError(PRICING_FAILED_MESSAGE);
+                }
+            }
+            requests.increment();
+        }
+
+        /**
+         * Appends an error response.
+         * @param message Validation message
+         */
+        private void appendError(final String message) {
+            ensureCapacity(ERROR_PREFIX.length);
+            out.put(ERROR_PREFIX);
+            append(message.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Appends a response and its line feed.
+         * @param response Response
+         */
+        private void append(final byte[] response) {
+            ensureCapacity(response.length + 1);
+            out.put(response).put((byte) '\n');
+        }
+
+        /**
+         * Grows the write buffer to fit more bytes.
+         * @param length Number of bytes to fit
+         */
+        private void ensureCapacity(final int length) {
+            if (out.remaining() < length) {
+                final ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + length));
+                out.flip();
+                out = larger.put(out);
+            }
+        }
+
+        /**
+         * Writes as much of the pending responses as the socket takes. Reading is paused while responses are
+         * pending.
+         * @param key Selection key of the connection
+         * @throws IOException exception while writing
+         */
+        private void flush(final SelectionKey key) throws IOException {
+            out.flip();
+            if (out.hasRemaining()) {
+                channel.write(out);
+            }
+            out.compact();
+            if (out.position() > 0) {
+                key.interestOps(SelectionKey.OP_WRITE);
+            } else if (closing) {
+                key.cancel();
+                channel.close();
+            } else {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+    }
+
+    /**
+     * Runs a quote server until the process is stopped.
+     * Arguments: port (default 7070), I/O threads (default the number of processors).
+     * @param args Command line arguments
+     * @throws IOException exception while binding the server
+     */
+    public static void main(final String[] args) throws IOException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        final int ioThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        final QuoteServer server = new QuoteServer(new ToolRentalService(), new InetSocketAddress(port), ioThreads);
+        server.start();
+        System.out.println("Quote server listening on port " + server.getPort() + " with " + ioThreads
+                + " I/O threads");
+    }
+}
@@ -0,0 +1,386 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.DayBreakdown;
+import com.msorrell.project.models.Invoice;
+import com.msorrell.project.models.PricingConfig;
+import com.msorrell.project.models.RateSchedule;
+import com.msorrell.project.models.TaxRateTable;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.store.ReferenceDataSnapshot;
+import com.msorrell.project.util.CalendarUtils;
+import com.msorrell.project.util.DayTimerWheel;
+import com.msorrell.project.util.MoneyUtils;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_DATE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_PERCENT_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_JURISDICTION_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_TOOL_CODE;
+import static com.msorrell.project.util.ProjectUtils.UNKNOWN_JURISDICTION_MESSAGE;
+
+/**
+ * Engine that bills open-ended rentals once per monthly billing cycle.
+ *
+ * A rental has no due date. Its cycles end on the checkout day of each following month, or on the last day of a
+ * shorter month, so cycles do not drift. Each rental keeps the last day it was billed through, and an invoice only
+ * breaks down the days after it, so billing a cycle costs the same no matter how long the rental has been open.
+ * Rentals are scheduled in a {@link DayTimerWheel} for the last day of their current cycle, so a nightly run only
+ * touches the rentals whose cycle ended, not every open rental. Returned rentals are removed lazily: they stay in
+ * the wheel and are skipped when they fire.
+ *
+ * Each cycle is priced the way {@link QuoteEngine} prices a checkout over the same days: the rate schedule or the
+ * tool type's daily charge, then the rental's discount, then tax. A run reads the pricing configuration once.
+ *
+ * An engine is not thread safe.
+ */
+public class BillingCycleEngine {
+
+    /**
+     * Number of rentals the arrays are first sized for.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Source of the pricing configuration.
+     */
+    private final PricingConfigService pricingConfigService;
+
+    /**
+     * Precomputed calendar. Null when the days are counted by {@link CalendarUtils}.
+     */
+    private final ReferenceDataSnapshot referenceDataSnapshot;
+
+    /**
+     * Open rentals, by the last day of their current cycle.
+     */
+    private final DayTimerWheel wheel;
+
+    /**
+     * Ids of the rentals that have not been returned.
+     */
+    private final BitSet open = new BitSet();
+
+    /**
+     * Invoice reused for every cycle that is billed.
+     */
+    private final Invoice invoice = new Invoice();
+
+    /**
+     * Tool of each rental, by id.
+     */
+    private Tool[] tools = new Tool[INITIAL_CAPACITY];
+
+    /**
+     * Jurisdiction of each rental, by id. Null when no tax is charged.
+     */
+    private String[] jurisdictions = new String[INITIAL_CAPACITY];
+
+    /**
+     * Discount percent of each rental, by id.
+     */
+    private int[] discountPercents = new int[INITIAL_CAPACITY];
+
+    /**
+     * Checkout day of each rental, in epoch days, by id.
+     */
+    private long[] checkoutDays = new long[INITIAL_CAPACITY];
+
+    /**
+     * Last day each rental has been billed through, in epoch days, by id. The checkout day until the first invoice.
+     */
+    private long[] billedThroughDays = new long[INITIAL_CAPACITY];
+
+    /**
+     * Number of cycles billed for each rental, by id.
+     */
+    private int[] cycles = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of rentals opened. The next rental's id.
+     */
+    private int rentalCount;
+
+    /**
+     * Number of rentals that have not been returned.
+     */
+    private int openCount;
+
+    /**
+     * Constructor. Prices with the compiled catalog and tool type daily charges, without tax rates.
+     * @param today The current date. Cycles that ended before it are billed on the first run
+     */
+    public BillingCycleEngine(final LocalDate today) {
+        this(today, new PricingConfigService(PricingConfig.DEFAULT), null);
+    }
+
+    /**
+     * Constructor.
+     * @param today The current date. Cycles that ended before it are billed on the first run
+     * @param pricingConfigService Source of the rate schedule and tax rates
+     * @param referenceDataSnapshot Precomputed calendar used to count the days. Null to calculate them
+     */
+    public BillingCycleEngine(final LocalDate today, final PricingConfigService pricingConfigService,
+                              final ReferenceDataSnapshot referenceDataSnapshot) {
+        this.pricingConfigService = pricingConfigService;
+        this.referenceDataSnapshot = referenceDataSnapshot;
+        this.wheel = new DayTimerWheel(Math.toIntExact(today.toEpochDay()));
+    }
+
+    /**
+     * Opens a rental. Its first cycle runs from the day after checkout through the same day of the next month.
+     * @param tool The Tool that is rented
+     * @param checkoutDate Day the tool is checked out
+     * @param discountPercent Discount percent applied to every cycle
+     * @param jurisdiction The store's jurisdiction. Used to select tax rates. Null when no tax is charged.
+     *                     Not case sensitive
+     * @return id of the rental
+     * @throws InvalidInputException a parameter is invalid or the jurisdiction has no tax rates
+     */
+    public int open(final Tool tool, final LocalDate checkoutDate, final int discountPercent,
+                    final String jurisdiction) {
+        if (tool == null) {
+            throw new InvalidInputException(INVALID_TOOL_CODE);
+        }
+        if (checkoutDate == null) {
+            throw new InvalidInputException(INVALID_CHECKOUT_DATE_MESSAGE);
+        }
+        if (discountPercent < 0 || discountPercent > 100) {
+            throw new InvalidInputException(INVALID_DISCOUNT_PERCENT_MESSAGE);
+        }
+        final String normalizedJurisdiction = jurisdiction == null ? null : TaxRateTable.normalize(jurisdiction);
+        if (normalizedJurisdiction != null && normalizedJurisdiction.isEmpty()) {
+            throw new InvalidInputException(INVALID_JURISDICTION_MESSAGE);
+        }
+        if (normalizedJurisdiction != null
+                && !pricingConfigService.getConfig().getTaxRateTable().hasJurisdiction(normalizedJurisdiction)) {
+            throw new InvalidInputException(UNKNOWN_JURISDICTION_MESSAGE + ": " + normalizedJurisdiction);
+        }
+        if (rentalCount == tools.length) {
+            grow();
+        }
+        final int id = rentalCount++;
+        tools[id] = tool;
+        jurisdictions[id] = normalizedJurisdiction;
+        discountPercents[id] = discountPercent;
+        checkoutDays[id] = checkoutDate.toEpochDay();
+        billedThroughDays[id] = checkoutDays[id];
+        cycles[id] = 0;
+        open.set(id);
+        openCount++;
+        wheel.schedule(id, Math.toIntExact(cycleEndDay(id)));
+        return id;
+    }
+
+    /**
+     * Advances to the date and bills every cycle of an open rental that ended on or before it. A rental whose cycles
+     * were missed by earlier runs gets an invoice for each of them, in order.
+     * The same invoice is passed for every cycle, so it must not be kept after the consumer returns.
+     *
+     * A rental whose jurisdiction no longer has tax rates, because a reload dropped them, is not billed. Every other
+     * rental is billed, then the run fails. The rental is billed on a later run once its tax rates are loaded again.
+     * @param today The current date
+     * @param consumer Receives each invoice
+     * @return number of invoices
+     * @throws InvalidInputException a rental's jurisdiction has no tax rates
+     */
+    public int bill(final LocalDate today, final Consumer<Invoice> consumer) {
+        final PricingConfig pricingConfig = pricingConfigService.getConfig();
+        final long day = today.toEpochDay();
+        final int[] count = new int[1];
+        final String[] unknownJurisdiction = new String[1];
+        wheel.advanceTo(Math.toIntExact(day), rental -> {
+            final int id = (int) rental;
+            if (!open.get(id)) {
+                return;
+            }
+            long cycleEnd = cycleEndDay(id);
+            if (!hasTaxRates(pricingConfig, id)) {
+                //Fires again on the next run
+                wheel.schedule(id, Math.toIntExact(cycleEnd));
+                unknownJurisdiction[0] = jurisdictions[id];
+                return;
+            }
+            while (cycleEnd <= day) {
+                consumer.accept(invoice(pricingConfig, id, cycleEnd, false));
+                count[0]++;
+                cycleEnd = cycleEndDay(id);
+            }
+            wheel.schedule(id, Math.toIntExact(cycleEnd));
+        });
+        if (unknownJurisdiction[0] != null) {
+            throw new InvalidInputException(UNKNOWN_JURISDICTION_MESSAGE + ": " + unknownJurisdiction[0]);
+        }
+        return count[0];
+    }
+
+    /**
+     * Stops billing a rental. Bills any complete cycles that have not been billed, then the days from the end of the
+     * last cycle through the return date.
+     * The same invoice is passed for every cycle, so it must not be kept after the consumer returns.
+     * @param id Id of the rental
+     * @param returnDate The date the tool was returned
+     * @param consumer Receives each invoice. The last one is marked as closing
+     * @return number of invoices
+     * @throws InvalidInputException the rental's jurisdiction has no tax rates. The rental stays open
+     */
+    public int close(final int id, final LocalDate returnDate, final Consumer<Invoice> consumer) {
+        if (id < 0 || !open.get(id)) {
+            throw new IllegalStateException("Rental " + id + " is not open");
+        }
+        final PricingConfig pricingConfig = pricingConfigService.getConfig();
+        if (!hasTaxRates(pricingConfig, id)) {
+            throw new InvalidInputException(UNKNOWN_JURISDICTION_MESSAGE + ": " + jurisdictions[id]);
+        }
+        final long day = returnDate.toEpochDay();
+        int count = 0;
+        long cycleEnd = cycleEndDay(id);
+        while (cycleEnd < day) {
+            consumer.accept(invoice(pricingConfig, id, cycleEnd, false));
+            count++;
+            cycleEnd = cycleEndDay(id);
+        }
+        if (day > billedThroughDays[id]) {
+            consumer.accept(invoice(pricingConfig, id, day, true));
+            count++;
+        }
+        open.clear(id);
+        openCount--;
+        //Release the references; the slot is never reused
+        tools[id] = null;
+        jurisdictions[id] = null;
+        return count;
+    }
+
+    /**
+     * Determines if a rental is still billed.
+     * @param id Id of the rental
+     * @return true - open, false - returned
+     */
+    public boolean isOpen(final int id) {
+        return id >= 0 && open.get(id);
+    }
+
+    /**
+     * Retrieves the last day a rental has been billed through.
+     * @param id Id of the rental
+     * @return last billed day, the checkout date if no cycle has been billed
+     */
+    public LocalDate getBilledThrough(final int id) {
+        return LocalDate.ofEpochDay(billedThroughDays[id]);
+    }
+
+    /**
+     * Returns the number of rentals that have not been returned.
+     * @return number of open rentals
+     */
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    /**
+     * Calculates the last day of a rental's current cycle: the checkout day, one month later for each cycle.
+     * The months are added to the checkout date, so a cycle ending on a shorter month does not move the later ones.
+     * @param id Id of the rental
+     * @return last day of the cycle, in epoch days
+     */
+    private long cycleEndDay(final int id) {
+        return LocalDate.ofEpochDay(checkoutDays[id]).plusMonths(cycles[id] + 1L).toEpochDay();
+    }
+
+    /**
+     * Determines if a rental can be taxed with a configuration.
+     * @param pricingConfig Configuration holding the tax rates
+     * @param id Id of the rental
+     * @return true - no tax is charged or the jurisdiction has tax rates, false - the jurisdiction has no tax rates
+     */
+    private boolean hasTaxRates(final PricingConfig pricingConfig, final int id) {
+        return jurisdictions[id] == null || pricingConfig.getTaxRateTable().hasJurisdiction(jurisdictions[id]);
+    }
+
+    /**
+     * Prices the days after a rental was last billed through the end of the period, and moves the rental past them.
+     * The rental's jurisdiction, if it has one, must have tax rates in the configuration.
+     * @param pricingConfig Configuration holding the rate schedule and tax rates
+     * @param id Id of the rental
+     * @param periodEnd Last day of the period, in epoch days
+     * @param closing Is this the last invoice of the rental
+     * @return the reused invoice
+     */
+    private Invoice invoice(final PricingConfig pricingConfig, final int id, final long periodEnd,
+                            final boolean closing) {
+        final Tool tool = tools[id];
+        final LocalDate firstDay = LocalDate.ofEpochDay(billedThroughDays[id] + 1);
+        final LocalDate lastDay = LocalDate.ofEpochDay(periodEnd);
+        final int chargeDays = breakdownDays(firstDay, lastDay).chargeDays(tool.getType());
+        final RateSchedule schedule = pricingConfig.getRateSchedule();
+        final long dailyCharge;
+        final long preDiscountCharge;
+        if (schedule == null) {
+            dailyCharge = MoneyUtils.toCents(tool.getType().getDailyCharge());
+            preDiscountCharge = dailyCharge * chargeDays;
+        } else {
+            dailyCharge = schedule.getDailyChargeCents(tool.getType(), firstDay);
+            preDiscountCharge = schedule.calculateChargeCents(tool.getType(), firstDay, lastDay, chargeDays,
+                    this::breakdownDays);
+        }
+        //Round half up to the nearest cent, the same as a quote
+        final long discountAmount = (preDiscountCharge * discountPercents[id] + 50) / 100;
+        final long finalCharge = preDiscountCharge - discountAmount;
+        final String jurisdiction = jurisdictions[id];
+        final TaxRateTable taxRateTable = pricingConfig.getTaxRateTable();
+        final long taxAmount = jurisdiction == null ? 0
+                : taxRateTable.calculateTaxCents(jurisdiction, tool.getType(), finalCharge);
+
+        cycles[id]++;
+        billedThroughDays[id] = periodEnd;
+
+        invoice.setRentalId(id);
+        invoice.setCycle(cycles[id]);
+        invoice.setTool(tool);
+        invoice.setPeriodStartEpochDay(firstDay.toEpochDay());
+        invoice.setPeriodEndEpochDay(periodEnd);
+        invoice.setChargeDays(chargeDays);
+        invoice.setDailyRentalChargeCents(dailyCharge);
+        invoice.setPreDiscountChargeCents(preDiscountCharge);
+        invoice.setDiscountPercent(discountPercents[id]);
+        invoice.setDiscountAmountCents(discountAmount);
+        invoice.setFinalChargeCents(finalCharge);
+        invoice.setTaxAmountCents(taxAmount);
+        invoice.setTotalChargeCents(finalCharge + taxAmount);
+        invoice.setJurisdiction(jurisdiction);
+        invoice.setClosing(closing);
+        return invoice;
+    }
+
+    /**
+     * Breaks down the days of a range. Both dates are inclusive.
+     * Read from the snapshot's calendar when there is one.
+     * @param firstDay First day of the range
+     * @param lastDay Last day of the range
+     * @return breakdown of the range
+     */
+    private DayBreakdown breakdownDays(final LocalDate firstDay, final LocalDate lastDay) {
+        if (referenceDataSnapshot != null) {
+            return referenceDataSnapshot.breakdown(firstDay, lastDay);
+        }
+        return CalendarUtils.breakdown(firstDay, lastDay);
+    }
+
+    /**
+     * Doubles the capacity of the rental arrays.
+     */
+    private void grow() {
+        final int capacity = tools.length * 2;
+        tools = Arrays.copyOf(tools, capacity);
+        jurisdictions = Arrays.copyOf(jurisdictions, capacity);
+        discountPercents = Arrays.copyOf(discountPercents, capacity);
+        checkoutDays = Arrays.copyOf(checkoutDays, capacity);
+        billedThroughDays = Arrays.copyOf(billedThroughDays, capacity);
+        cycles = Arrays.copyOf(cycles, capacity);
+    }
+}
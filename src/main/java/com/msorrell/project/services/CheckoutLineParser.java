@@ -0,0 +1,406 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.enums.CheckoutField;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.models.ValidationResult;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static com.msorrell.project.util.ProjectUtils.CHECKOUT_LINE_SEPARATOR;
+import static com.msorrell.project.util.ProjectUtils.DATE_FORMATTER;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_DATE_FORMAT_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_LINE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_PERCENT_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_RENTAL_DAY_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_TOOL_CODE;
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
+import static com.msorrell.project.validators.InputValidator.findTool;
+import static com.msorrell.project.validators.InputValidator.validateCheckoutDate;
+import static com.msorrell.project.validators.InputValidator.validateDiscountPercent;
+import static com.msorrell.project.validators.InputValidator.validateRentalDays;
+import static com.msorrell.project.validators.InputValidator.validateToolCode;
+
+/**
+ * Parses checkouts from single lines of text.
+ * Format: tool code, rental days, discount percent, checkout date (MM/DD/YY). Ex. JAKR,5,10,09/03/15
+ */
+public final class CheckoutLineParser {
+
+    /**
+     * Number of fields in a checkout line.
+     */
+    private static final int FIELD_COUNT = 4;
+
+    /**
+     * Separator between the fields of a checkout line.
+     */
+    private static final char SEPARATOR = CHECKOUT_LINE_SEPARATOR.charAt(0);
+
+    /**
+     * Length of a checkout date (MM/DD/YY).
+     */
+    private static final int DATE_LENGTH = 8;
+
+    /**
+     * Century added to the two digit year of a checkout date, as done by {@link
+     * com.msorrell.project.util.ProjectUtils#DATE_FORMATTER}.
+     */
+    private static final int BASE_YEAR = 2000;
+
+    /**
+     * Returned by {@link #parseInt(CharSequence, int, int)} when the characters are not an int.
+     */
+    private static final long NOT_AN_INT = Long.MIN_VALUE;
+
+    /**
+     * Parses a checkout line. Tool codes are looked up in the compiled catalog.
+     * @param line Checkout line
+     * @return Checkout
+     * @throws InvalidInputException the line or one of its fields is not valid
+     */
+    public static Checkout parse(final String line) {
+        return parse(line, TOOL_CODES);
+    }
+
+    /**
+     * Parses a checkout line.
+     * @param line Checkout line
+     * @param toolCodes Catalog the tool code is looked up in
+     * @return Checkout
+     * @throws InvalidInputException the line or one of its fields is not valid
+     */
+    public static Checkout parse(final String line, final ToolCodeIndex toolCodes) {
+        if (line == null) {
+            throw new InvalidInputException(INVALID_CHECKOUT_LINE_MESSAGE);
+        }
+        final String[] fields = line.split(CHECKOUT_LINE_SEPARATOR, -1);
+        if (fields.length != FIELD_COUNT) {
+            throw new InvalidInputException(INVALID_CHECKOUT_LINE_MESSAGE);
+        }
+        final String toolCode = fields[0].trim();
+        final String rentalDays = fields[1].trim();
+        final String discount = fields[2].trim();
+        final String checkoutDate = fields[3].trim();
+
+        final Checkout checkout = new Checkout();
+        if (!validateToolCode(toolCodes, toolCode)) {
+            throw new InvalidInputException(INVALID_TOOL_CODE);
+        }
+        checkout.setTool(findTool(toolCodes, toolCode), toolCodes);
+        if (!validateRentalDays(rentalDays)) {
+            throw new InvalidInputException(INVALID_RENTAL_DAY_MESSAGE);
+        }
+        checkout.setRentalDayCount(Integer.parseInt(rentalDays));
+        if (!validateDiscountPercent(discount)) {
+            throw new InvalidInputException(INVALID_DISCOUNT_PERCENT_MESSAGE);
+        }
+        checkout.setDiscountPercent(Integer.parseInt(discount));
+        if (!validateCheckoutDate(checkoutDate)) {
+            throw new InvalidInputException(INVALID_CHECKOUT_DATE_FORMAT_MESSAGE);
+        }
+        checkout.setCheckoutDate(LocalDate.parse(checkoutDate, DATE_FORMATTER));
+        return checkout;
+    }
+
+    /**
+     * Parses a checkout line from bytes, without decoding it into a String first.
+     * Accepts and rejects the same lines as {@link #parse(String)}, with the same messages. The buffer's position
+     * and limit are not changed.
+     * @param buffer Buffer holding the line
+     * @param start Index of the line's first byte
+     * @param end Index just past the line's last byte, not including the line separator
+     * @return Checkout
+     * @throws InvalidInputException the line or one of its fields is not valid
+     */
+    public static Checkout parse(final ByteBuffer buffer, final int start, final int end) {
+        return parse(buffer, start, end, TOOL_CODES);
+    }
+
+    /**
+     * Parses a checkout line from bytes, without decoding it into a String first.
+     * See {@link #parse(ByteBuffer, int, int)}.
+     * @param buffer Buffer holding the line
+     * @param start Index of the line's first byte
+     * @param end Index just past the line's last byte, not including the line separator
+     * @param toolCodes Catalog the tool code is looked up in
+     * @return Checkout
+     * @throws InvalidInputException the line or one of its fields is not valid
+     */
+    public static Checkout parse(final ByteBuffer buffer, final int start, final int end,
+                                 final ToolCodeIndex toolCodes) {
+        final ValidationResult result = new ValidationResult();
+        if (!validate(buffer, start, end, result, toolCodes)) {
+            throw new InvalidInputException(result.getFirstMessage());
+        }
+        return result.toCheckout(toolCodes);
+    }
+
+    /**
+     * Validates a checkout line held as bytes, without throwing and without decoding it into a String.
+     * See {@link #validate(CharSequence, ValidationResult)}. The buffer's position and limit are not changed.
+     * @param buffer Buffer holding the line
+     * @param start Index of the line's first byte
+     * @param end Index just past the line's last byte, not including the line separator
+     * @param result Result to fill. Cleared first
+     * @return true - the line is valid, false - the result holds the reasons it is not
+     */
+    public static boolean validate(final ByteBuffer buffer, final int start, final int end,
+                                   final ValidationResult result) {
+        return validate(buffer, start, end, result, TOOL_CODES);
+    }
+
+    /**
+     * Validates a checkout line held as bytes, without throwing and without decoding it into a String.
+     * See {@link #validate(CharSequence, ValidationResult, ToolCodeIndex)}. The buffer's position and limit are not
+     * changed.
+     * @param buffer Buffer holding the line
+     * @param start Index of the line's first byte
+     * @param end Index just past the line's last byte, not including the line separator
+     * @param result Result to fill. Cleared first
+     * @param toolCodes Catalog the tool code is looked up in
+     * @return true - the line is valid, false - the result holds the reasons it is not
+     */
+    public static boolean validate(final ByteBuffer buffer, final int start, final int end,
+                                   final ValidationResult result, final ToolCodeIndex toolCodes) {
+        return validate(new ByteSequence(buffer, start, end), result, toolCodes);
+    }
+
+    /**
+     * Validates a checkout line without throwing. Tool codes are looked up in the compiled catalog.
+     * Every field is validated, so the result holds all the reasons the line failed. A line accepted here is accepted
+     * by {@link #parse(String)}, and the first reason of a rejected line is the message parse throws. Fields only
+     * accept ASCII characters, so a line can be validated straight from its bytes.
+     * @param line Checkout line
+     * @param result Result to fill. Cleared first
+     * @return true - the line is valid, false - the result holds the reasons it is not
+     */
+    public static boolean validate(final CharSequence line, final ValidationResult result) {
+        return validate(line, result, TOOL_CODES);
+    }
+
+    /**
+     * Validates a checkout line without throwing, looking the tool code up in a catalog.
+     * See {@link #validate(CharSequence, ValidationResult)}.
+     * @param line Checkout line
+     * @param result Result to fill. Cleared first
+     * @param toolCodes Catalog the tool code is looked up in
+     * @return true - the line is valid, false - the result holds the reasons it is not
+     */
+    public static boolean validate(final CharSequence line, final ValidationResult result,
+                                   final ToolCodeIndex toolCodes) {
+        result.reset();
+        if (line == null) {
+            result.rejectLine(INVALID_CHECKOUT_LINE_MESSAGE);
+            return false;
+        }
+        int separators = 0;
+        int toolEnd = 0;
+        int rentalDaysEnd = 0;
+        int discountEnd = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == SEPARATOR) {
+                separators++;
+                if (separators == 1) {
+                    toolEnd = i;
+                } else if (separators == 2) {
+                    rentalDaysEnd = i;
+                } else if (separators == 3) {
+                    discountEnd = i;
+                }
+            }
+        }
+        if (separators != FIELD_COUNT - 1) {
+            result.rejectLine(INVALID_CHECKOUT_LINE_MESSAGE);
+            return false;
+        }
+
+        final Tool tool = toolCodes.find(line, trimStart(line, 0, toolEnd), trimEnd(line, 0, toolEnd));
+        if (tool == null) {
+            result.rejectField(CheckoutField.TOOL_CODE, INVALID_TOOL_CODE);
+        }
+        result.setTool(tool);
+        final long rentalDays = parseInt(line, trimStart(line, toolEnd + 1, rentalDaysEnd),
+                trimEnd(line, toolEnd + 1, rentalDaysEnd));
+        if (rentalDays == NOT_AN_INT || rentalDays <= 0) {
+            result.rejectField(CheckoutField.RENTAL_DAYS, INVALID_RENTAL_DAY_MESSAGE);
+        } else {
+            result.setRentalDayCount((int) rentalDays);
+        }
+        final long discount = parseInt(line, trimStart(line, rentalDaysEnd + 1, discountEnd),
+                trimEnd(line, rentalDaysEnd + 1, discountEnd));
+        if (discount == NOT_AN_INT || discount < 0 || discount > 100) {
+            result.rejectField(CheckoutField.DISCOUNT_PERCENT, INVALID_DISCOUNT_PERCENT_MESSAGE);
+        } else {
+            result.setDiscountPercent((int) discount);
+        }
+        final LocalDate checkoutDate = parseDate(line, trimStart(line, discountEnd + 1, line.length()),
+                trimEnd(line, discountEnd + 1, line.length()));
+        if (checkoutDate == null) {
+            result.rejectField(CheckoutField.CHECKOUT_DATE, INVALID_CHECKOUT_DATE_FORMAT_MESSAGE);
+        }
+        result.setCheckoutDate(checkoutDate);
+        return result.isValid();
+    }
+
+    /**
+     * Skips the leading whitespace of a field, as {@link String#trim()} does.
+     * @param line Line holding the field
+     * @param start Index of the field's first character
+     * @param end Index just past the field's last character
+     * @return index of the first character that is not whitespace, end if there is none
+     */
+    private static int trimStart(final CharSequence line, final int start, final int end) {
+        int i = start;
+        while (i < end && line.charAt(i) <= ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Skips the trailing whitespace of a field, as {@link String#trim()} does.
+     * @param line Line holding the field
+     * @param start Index of the field's first character
+     * @param end Index just past the field's last character
+     * @return index just past the last character that is not whitespace, start if there is none
+     */
+    private static int trimEnd(final CharSequence line, final int start, final int end) {
+        int i = end;
+        while (i > start && line.charAt(i - 1) <= ' ') {
+            i--;
+        }
+        return i;
+    }
+
+    /**
+     * Parses an int written as an optional sign and decimal digits, as {@link Integer#parseInt(String)} does,
+     * without throwing.
+     * @param line Line holding the number
+     * @param start Index of the number's first character
+     * @param end Index just past the number's last character
+     * @return the number, {@link #NOT_AN_INT} if the characters are not an int
+     */
+    private static long parseInt(final CharSequence line, final int start, final int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            return NOT_AN_INT;
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            final int digit = line.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return NOT_AN_INT;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return NOT_AN_INT;
+            }
+        }
+        value = negative ? -value : value;
+        return value > Integer.MAX_VALUE ? NOT_AN_INT : value;
+    }
+
+    /**
+     * Parses a checkout date (MM/DD/YY). A day past the end of its month is moved back to the month's last day,
+     * as {@link com.msorrell.project.util.ProjectUtils#DATE_FORMATTER} does.
+     * @param line Line holding the date
+     * @param start Index of the date's first character
+     * @param end Index just past the date's last character
+     * @return date, null if the characters are not a date in the checkout date format
+     */
+    private static LocalDate parseDate(final CharSequence line, final int start, final int end) {
+        if (end - start != DATE_LENGTH || line.charAt(start + 2) != '/' || line.charAt(start + 5) != '/') {
+            return null;
+        }
+        final int month = parseTwoDigits(line, start);
+        final int day = parseTwoDigits(line, start + 3);
+        final int year = parseTwoDigits(line, start + 6);
+        if (month < 1 || month > 12 || day < 1 || day > 31 || year < 0) {
+            return null;
+        }
+        final YearMonth yearMonth = YearMonth.of(BASE_YEAR + year, month);
+        return yearMonth.atDay(Math.min(day, yearMonth.lengthOfMonth()));
+    }
+
+    /**
+     * Parses two decimal digits.
+     * @param line Line holding the digits
+     * @param index Index of the first digit
+     * @return the number, -1 if either character is not a digit
+     */
+    private static int parseTwoDigits(final CharSequence line, final int index) {
+        final int tens = line.charAt(index) - '0';
+        final int ones = line.charAt(index + 1) - '0';
+        if (tens < 0 || tens > 9 || ones < 0 || ones > 9) {
+            return -1;
+        }
+        return tens * 10 + ones;
+    }
+
+    /**
+     * Bytes of a buffer read as ASCII characters, without copying them.
+     */
+    private static final class ByteSequence implements CharSequence {
+
+        /**
+         * Buffer holding the bytes.
+         */
+        private final ByteBuffer buffer;
+
+        /**
+         * Index of the first byte.
+         */
+        private final int start;
+
+        /**
+         * Index just past the last byte.
+         */
+        private final int end;
+
+        /**
+         * Constructor.
+         * @param buffer Buffer holding the bytes
+         * @param start Index of the first byte
+         * @param end Index just past the last byte
+         */
+        private ByteSequence(final ByteBuffer buffer, final int start, final int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(final int from, final int to) {
+            return new ByteSequence(buffer, start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(length());
+            for (int i = 0; i < length(); i++) {
+                builder.append(charAt(i));
+            }
+            return builder.toString();
+        }
+    }
+}
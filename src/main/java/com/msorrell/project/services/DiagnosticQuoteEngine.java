@@ -0,0 +1,338 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.models.CartCheckout;
+import com.msorrell.project.models.CartRentalAgreement;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.QuoteResult;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Quote engine that measures what each quote costs, for finding the request shapes that make pricing slow.
+ *
+ * Wraps another engine. Around a sample of the calls that price one checkout, it reads the calling thread's
+ * allocated bytes and CPU time from the {@link com.sun.management.ThreadMXBean}. The costs are summed by tool type
+ * and by a range of rental days, and {@link #printSummary(PrintStream)} reports the ranges that cost the most first.
+ * Cart quotes, charge day calculations, and catalog lookups are passed through without being measured.
+ *
+ * A JVM that does not measure allocation or CPU time per thread reports 0 for it. Safe to share between threads.
+ */
+public class DiagnosticQuoteEngine extends QuoteEngine {
+
+    /**
+     * Upper bound of each range of rental days, inclusive.
+     */
+    private static final int[] RANGE_LIMITS = {7, 30, 90, 365, 1825, Integer.MAX_VALUE};
+
+    /**
+     * Nanoseconds in a microsecond.
+     */
+    private static final double NANOS_PER_MICRO = 1_000;
+
+    /**
+     * Engine that prices the checkouts.
+     */
+    private final QuoteEngine quoteEngine;
+
+    /**
+     * One of this many calls is measured.
+     */
+    private final int sampleInterval;
+
+    /**
+     * Reads the per-thread allocation and CPU time.
+     */
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    /**
+     * Is allocation measured.
+     */
+    private final boolean allocationMeasured;
+
+    /**
+     * Is CPU time measured.
+     */
+    private final boolean cpuTimeMeasured;
+
+    /**
+     * Costs of each tool type and range, indexed by tool type ordinal then range.
+     */
+    private final Bucket[][] buckets;
+
+    /**
+     * Constructor. Every call is measured.
+     * @param quoteEngine Engine that prices the checkouts
+     */
+    public DiagnosticQuoteEngine(final QuoteEngine quoteEngine) {
+        this(quoteEngine, 1);
+    }
+
+    /**
+     * Constructor.
+     * @param quoteEngine Engine that prices the checkouts
+     * @param sampleInterval One of this many calls, chosen at random, is measured
+     */
+    public DiagnosticQuoteEngine(final QuoteEngine quoteEngine, final int sampleInterval) {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Sample interval must be at least 1");
+        }
+        this.quoteEngine = quoteEngine;
+        this.sampleInterval = sampleInterval;
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        this.allocationMeasured = threadBean.isThreadAllocatedMemorySupported()
+                && threadBean.isThreadAllocatedMemoryEnabled();
+        this.cpuTimeMeasured = threadBean.isCurrentThreadCpuTimeSupported() && threadBean.isThreadCpuTimeEnabled();
+        final ToolType[] toolTypes = ToolType.values();
+        this.buckets = new Bucket[toolTypes.length][RANGE_LIMITS.length];
+        for (final ToolType toolType : toolTypes) {
+            for (int range = 0; range < RANGE_LIMITS.length; range++) {
+                buckets[toolType.ordinal()][range] = new Bucket(toolType, range);
+            }
+        }
+    }
+
+    @Override
+    public int calculateChargeDays(final LocalDate checkoutDate, final LocalDate dueDate, final ToolType toolType) {
+        return quoteEngine.calculateChargeDays(checkoutDate, dueDate, toolType);
+    }
+
+    /**
+     * Validates the checkout parameters and prices the checkout, measuring valid quotes.
+     * See {@link QuoteEngine#quote(String, int, int, LocalDate, CustomerTier, String)}.
+     * @param toolCode Tool's code
+     * @param rentalDays Number of rental days
+     * @param discountPercent Discount percent
+     * @param checkoutDate Day the tool is checked out
+     * @param customerTier The customer's tier. Used to select promotional discounts
+     * @param jurisdiction The store's jurisdiction. Used to select tax rates. Null when no tax is charged
+     * @return Rental Agreement, or the validation errors
+     */
+    @Override
+    public QuoteResult quote(final String toolCode, final int rentalDays, final int discountPercent,
+                             final LocalDate checkoutDate, final CustomerTier customerTier,
+                             final String jurisdiction) {
+        if (!sampled()) {
+            return quoteEngine.quote(toolCode, rentalDays, discountPercent, checkoutDate, customerTier,
+                    jurisdiction);
+        }
+        final long allocated = allocatedBytes();
+        final long cpuTime = cpuTime();
+        final QuoteResult result = quoteEngine.quote(toolCode, rentalDays, discountPercent, checkoutDate,
+                customerTier, jurisdiction);
+        if (result.isValid()) {
+            record(result.getRentalAgreement().getTool().getType(), rentalDays, allocatedBytes() - allocated,
+                    cpuTime() - cpuTime);
+        }
+        return result;
+    }
+
+    /**
+     * Generates the Rental Agreement from the Checkout, measuring a sample of the calls.
+     * See {@link QuoteEngine#generateRentalAgreement(Checkout)}.
+     * @param checkout Checkout object
+     * @return Rental Agreement
+     */
+    @Override
+    public RentalAgreement generateRentalAgreement(final Checkout checkout) {
+        if (!sampled()) {
+            return quoteEngine.generateRentalAgreement(checkout);
+        }
+        final long allocated = allocatedBytes();
+        final long cpuTime = cpuTime();
+        final RentalAgreement rentalAgreement = quoteEngine.generateRentalAgreement(checkout);
+        record(checkout.getTool().getType(), checkout.getRentalDayCount(), allocatedBytes() - allocated,
+                cpuTime() - cpuTime);
+        return rentalAgreement;
+    }
+
+    @Override
+    public ToolCodeIndex getToolCodes() {
+        return quoteEngine.getToolCodes();
+    }
+
+    @Override
+    public CartRentalAgreement generateCartRentalAgreement(final CartCheckout cartCheckout) {
+        return quoteEngine.generateCartRentalAgreement(cartCheckout);
+    }
+
+    /**
+     * Prints the costs of every tool type and range that was measured, the ranges with the most CPU time first.
+     * Columns: tool type, rental days, samples, average allocated bytes, average and largest CPU time in
+     * microseconds, and the range's share of all the CPU time measured.
+     * @param out Where the summary is written
+     */
+    public void printSummary(final PrintStream out) {
+        final List<Bucket> measured = new ArrayList<>();
+        long totalCpuNanos = 0;
+        for (final Bucket[] toolTypeBuckets : buckets) {
+            for (final Bucket bucket : toolTypeBuckets) {
+                if (bucket.samples.sum() > 0) {
+                    measured.add(bucket);
+                    totalCpuNanos += bucket.cpuNanos.sum();
+                }
+            }
+        }
+        measured.sort(Comparator.comparingLong((Bucket bucket) -> bucket.cpuNanos.sum())
+                .thenComparingLong(bucket -> bucket.allocatedBytes.sum()).reversed());
+        out.println("tool_type,rental_days,samples,avg_alloc_bytes,avg_cpu_us,max_cpu_us,cpu_share");
+        for (final Bucket bucket : measured) {
+            final long samples = bucket.samples.sum();
+            out.printf("%s,%s,%d,%.0f,%.1f,%.1f,%.3f%n", bucket.toolType.name(), rangeLabel(bucket.range), samples,
+                    (double) bucket.allocatedBytes.sum() / samples,
+                    bucket.cpuNanos.sum() / NANOS_PER_MICRO / samples,
+                    bucket.maxCpuNanos.get() / NANOS_PER_MICRO,
+                    totalCpuNanos == 0 ? 0 : (double) bucket.cpuNanos.sum() / totalCpuNanos);
+        }
+    }
+
+    /**
+     * Retrieves the number of calls measured for a tool type and number of rental days.
+     * @param toolType Tool type
+     * @param rentalDays Number of rental days. Selects the range
+     * @return number of samples in the range
+     */
+    public long getSampleCount(final ToolType toolType, final int rentalDays) {
+        return buckets[toolType.ordinal()][range(rentalDays)].samples.sum();
+    }
+
+    /**
+     * Retrieves the bytes allocated by the calls measured for a tool type and number of rental days.
+     * @param toolType Tool type
+     * @param rentalDays Number of rental days. Selects the range
+     * @return allocated bytes in the range
+     */
+    public long getAllocatedBytes(final ToolType toolType, final int rentalDays) {
+        return buckets[toolType.ordinal()][range(rentalDays)].allocatedBytes.sum();
+    }
+
+    /**
+     * Retrieves the CPU time of the calls measured for a tool type and number of rental days.
+     * @param toolType Tool type
+     * @param rentalDays Number of rental days. Selects the range
+     * @return CPU time in nanoseconds in the range
+     */
+    public long getCpuNanos(final ToolType toolType, final int rentalDays) {
+        return buckets[toolType.ordinal()][range(rentalDays)].cpuNanos.sum();
+    }
+
+    /**
+     * Determines if this call is measured.
+     * @return true - measure the call
+     */
+    private boolean sampled() {
+        return sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+    }
+
+    /**
+     * Reads the bytes the calling thread has allocated.
+     * @return allocated bytes, 0 if allocation is not measured
+     */
+    private long allocatedBytes() {
+        return allocationMeasured ? threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    /**
+     * Reads the calling thread's CPU time.
+     * @return CPU time in nanoseconds, 0 if CPU time is not measured
+     */
+    private long cpuTime() {
+        return cpuTimeMeasured ? threadBean.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Records the cost of one call.
+     * @param toolType Tool type of the checkout
+     * @param rentalDays Number of rental days of the checkout
+     * @param allocatedBytes Bytes allocated by the call
+     * @param cpuNanos CPU time of the call
+     */
+    private void record(final ToolType toolType, final int rentalDays, final long allocatedBytes,
+                        final long cpuNanos) {
+        final Bucket bucket = buckets[toolType.ordinal()][range(rentalDays)];
+        bucket.samples.increment();
+        bucket.allocatedBytes.add(Math.max(allocatedBytes, 0));
+        bucket.cpuNanos.add(Math.max(cpuNanos, 0));
+        bucket.maxCpuNanos.accumulate(cpuNanos);
+    }
+
+    /**
+     * Finds the range of a number of rental days.
+     * @param rentalDays Number of rental days
+     * @return index of the range
+     */
+    private static int range(final int rentalDays) {
+        int range = 0;
+        while (rentalDays > RANGE_LIMITS[range]) {
+            range++;
+        }
+        return range;
+    }
+
+    /**
+     * Describes a range of rental days. Ex. 31-90
+     * @param range Index of the range
+     * @return label of the range
+     */
+    private static String rangeLabel(final int range) {
+        final int first = range == 0 ? 1 : RANGE_LIMITS[range - 1] + 1;
+        return RANGE_LIMITS[range] == Integer.MAX_VALUE ? first + "+" : first + "-" + RANGE_LIMITS[range];
+    }
+
+    /**
+     * Costs of the calls for one tool type and range of rental days.
+     */
+    private static final class Bucket {
+
+        /**
+         * Tool type.
+         */
+        private final ToolType toolType;
+
+        /**
+         * Index of the range of rental days.
+         */
+        private final int range;
+
+        /**
+         * Number of calls measured.
+         */
+        private final LongAdder samples = new LongAdder();
+
+        /**
+         * Bytes allocated by the calls.
+         */
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        /**
+         * CPU time of the calls, in nanoseconds.
+         */
+        private final LongAdder cpuNanos = new LongAdder();
+
+        /**
+         * Largest CPU time of a call, in nanoseconds.
+         */
+        private final LongAccumulator maxCpuNanos = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Constructor.
+         * @param toolType Tool type
+         * @param range Index of the range of rental days
+         */
+        private Bucket(final ToolType toolType, final int range) {
+            this.toolType = toolType;
+            this.range = range;
+        }
+    }
+}
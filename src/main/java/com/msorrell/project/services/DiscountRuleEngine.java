@@ -0,0 +1,269 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.enums.ToolBrand;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.DiscountRule;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_RULE_MESSAGE;
+import static com.msorrell.project.validators.InputValidator.validateDiscountPercent;
+
+/**
+ * Engine that finds the best promotional discount for a checkout.
+ *
+ * The rules are compiled once into a decision table. The rental days and checkout dates are split into segments
+ * at every rule boundary, and the table holds the best discount for every combination of tool type, brand,
+ * customer tier, rental day segment, and checkout date segment. Finding the best discount is two binary searches
+ * and one array read, no matter how many rules there are.
+ *
+ * An engine is immutable and can be shared by any number of threads.
+ */
+public class DiscountRuleEngine {
+
+    /**
+     * Largest number of cells in a decision table.
+     */
+    private static final long MAX_TABLE_SIZE = 1 << 26;
+
+    /**
+     * Number of tool brands.
+     */
+    private static final int TOOL_BRANDS = ToolBrand.values().length;
+
+    /**
+     * Number of customer tiers.
+     */
+    private static final int CUSTOMER_TIERS = CustomerTier.values().length;
+
+    /**
+     * Wildcard in a rule file.
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * Number of fields in a rule file line.
+     */
+    private static final int RULE_FIELD_COUNT = 8;
+
+    /**
+     * Sorted rental day boundaries. A boundary starts a new rental day segment.
+     */
+    private final int[] rentalDayBounds;
+
+    /**
+     * Sorted checkout date boundaries, in epoch days. A boundary starts a new date segment.
+     */
+    private final long[] dateBounds;
+
+    /**
+     * Best discount percent for every cell.
+     */
+    private final byte[] table;
+
+    /**
+     * Constructor.
+     * @param rentalDayBounds Sorted rental day boundaries
+     * @param dateBounds Sorted checkout date boundaries, in epoch days
+     * @param table Best discount percent for every cell
+     */
+    private DiscountRuleEngine(final int[] rentalDayBounds, final long[] dateBounds, final byte[] table) {
+        this.rentalDayBounds = rentalDayBounds;
+        this.dateBounds = dateBounds;
+        this.table = table;
+    }
+
+    /**
+     * Compiles the rules into a decision table.
+     * @param rules Discount rules
+     * @return engine
+     * @throws InvalidInputException one of the rules is not valid
+     */
+    public static DiscountRuleEngine compile(final List<DiscountRule> rules) {
+        final TreeSet<Integer> dayBoundSet = new TreeSet<>();
+        final TreeSet<Long> dateBoundSet = new TreeSet<>();
+        for (final DiscountRule rule : rules) {
+            validate(rule);
+            dayBoundSet.add(rule.getMinRentalDays());
+            if (rule.getMaxRentalDays() < Integer.MAX_VALUE) {
+                dayBoundSet.add(rule.getMaxRentalDays() + 1);
+            }
+            if (rule.getStartDate() != null) {
+                dateBoundSet.add(rule.getStartDate().toEpochDay());
+            }
+            if (rule.getEndDate() != null) {
+                dateBoundSet.add(rule.getEndDate().toEpochDay() + 1);
+            }
+        }
+        final int[] rentalDayBounds = dayBoundSet.stream().mapToInt(Integer::intValue).toArray();
+        final long[] dateBounds = dateBoundSet.stream().mapToLong(Long::longValue).toArray();
+        final int daySegments = rentalDayBounds.length + 1;
+        final int dateSegments = dateBounds.length + 1;
+        final long size = (long) ToolType.values().length * TOOL_BRANDS * CUSTOMER_TIERS * daySegments * dateSegments;
+        if (size > MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException("Too many rule boundaries to compile: " + size + " cells");
+        }
+
+        final byte[] table = new byte[(int) size];
+        final DiscountRuleEngine engine = new DiscountRuleEngine(rentalDayBounds, dateBounds, table);
+        for (final DiscountRule rule : rules) {
+            final int firstDaySegment = segment(rentalDayBounds, rule.getMinRentalDays());
+            final int lastDaySegment = segment(rentalDayBounds, rule.getMaxRentalDays());
+            final int firstDateSegment = rule.getStartDate() == null ? 0
+                    : segment(dateBounds, rule.getStartDate().toEpochDay());
+            final int lastDateSegment = rule.getEndDate() == null ? dateSegments - 1
+                    : segment(dateBounds, rule.getEndDate().toEpochDay());
+            for (final ToolType toolType : matching(ToolType.values(), rule.getToolType())) {
+                for (final ToolBrand toolBrand : matching(ToolBrand.values(), rule.getToolBrand())) {
+                    for (final CustomerTier customerTier : matching(CustomerTier.values(), rule.getCustomerTier())) {
+                        for (int day = firstDaySegment; day <= lastDaySegment; day++) {
+                            for (int date = firstDateSegment; date <= lastDateSegment; date++) {
+                                final int cell = engine.cell(toolType, toolBrand, customerTier, day, date);
+                                table[cell] = (byte) Math.max(table[cell], rule.getDiscountPercent());
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return engine;
+    }
+
+    /**
+     * Loads the rules from a file and compiles them.
+     * Each line is: tool type, tool brand, customer tier, min rental days, max rental days, start date,
+     * end date (yyyy-MM-dd), discount percent. Use * for a field that matches every checkout.
+     * Blank lines and lines starting with # are skipped.
+     * Ex. LADDER,*,CONTRACTOR,7,*,2024-06-01,2024-08-31,15
+     * @param file Rule file
+     * @return engine
+     * @throws IOException exception while reading the file
+     * @throws InvalidInputException one of the rules is not valid
+     */
+    public static DiscountRuleEngine load(final Path file) throws IOException {
+        final List<DiscountRule> rules = new ArrayList<>();
+        for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            final String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            final String[] fields = trimmed.split(",", -1);
+            if (fields.length != RULE_FIELD_COUNT) {
+                throw new InvalidInputException(INVALID_DISCOUNT_RULE_MESSAGE + ": " + line);
+            }
+            try {
+                rules.add(new DiscountRule(
+                        isWildcard(fields[0]) ? null : ToolType.valueOf(fields[0].trim()),
+                        isWildcard(fields[1]) ? null : ToolBrand.valueOf(fields[1].trim()),
+                        isWildcard(fields[2]) ? null : CustomerTier.valueOf(fields[2].trim()),
+                        isWildcard(fields[3]) ? 1 : Integer.parseInt(fields[3].trim()),
+                        isWildcard(fields[4]) ? Integer.MAX_VALUE : Integer.parseInt(fields[4].trim()),
+                        isWildcard(fields[5]) ? null : LocalDate.parse(fields[5].trim()),
+                        isWildcard(fields[6]) ? null : LocalDate.parse(fields[6].trim()),
+                        Integer.parseInt(fields[7].trim())));
+            } catch (RuntimeException e) {
+                throw new InvalidInputException(INVALID_DISCOUNT_RULE_MESSAGE + ": " + line);
+            }
+        }
+        return compile(rules);
+    }
+
+    /**
+     * Finds the best promotional discount for a checkout.
+     * @param toolType Tool type
+     * @param toolBrand Tool brand
+     * @param customerTier Customer tier
+     * @param rentalDays Number of rental days
+     * @param checkoutDate Day the tool is checked out
+     * @return best discount percent, 0 if no rule applies
+     */
+    public int findBestDiscount(final ToolType toolType, final ToolBrand toolBrand, final CustomerTier customerTier,
+                                final int rentalDays, final LocalDate checkoutDate) {
+        return table[cell(toolType, toolBrand, customerTier, segment(rentalDayBounds, rentalDays),
+                segment(dateBounds, checkoutDate.toEpochDay()))];
+    }
+
+    /**
+     * Finds the cell of the decision table.
+     * @param toolType Tool type
+     * @param toolBrand Tool brand
+     * @param customerTier Customer tier
+     * @param daySegment Rental day segment
+     * @param dateSegment Checkout date segment
+     * @return cell index
+     */
+    private int cell(final ToolType toolType, final ToolBrand toolBrand, final CustomerTier customerTier,
+                     final int daySegment, final int dateSegment) {
+        int cell = toolType.ordinal();
+        cell = cell * TOOL_BRANDS + toolBrand.ordinal();
+        cell = cell * CUSTOMER_TIERS + customerTier.ordinal();
+        cell = cell * (rentalDayBounds.length + 1) + daySegment;
+        return cell * (dateBounds.length + 1) + dateSegment;
+    }
+
+    /**
+     * Finds the segment holding a value: the number of boundaries that are less than or equal to it.
+     * @param bounds Sorted boundaries
+     * @param value Value
+     * @return segment index
+     */
+    private static int segment(final int[] bounds, final int value) {
+        final int position = Arrays.binarySearch(bounds, value);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    /**
+     * Finds the segment holding a value: the number of boundaries that are less than or equal to it.
+     * @param bounds Sorted boundaries
+     * @param value Value
+     * @return segment index
+     */
+    private static int segment(final long[] bounds, final long value) {
+        final int position = Arrays.binarySearch(bounds, value);
+        return position >= 0 ? position + 1 : -position - 1;
+    }
+
+    /**
+     * Lists the values a rule field matches.
+     * @param values Every value
+     * @param value The rule's value. Null matches every value
+     * @param <T> enum type
+     * @return matching values
+     */
+    private static <T> List<T> matching(final T[] values, final T value) {
+        return value == null ? Arrays.asList(values) : List.of(value);
+    }
+
+    /**
+     * Determines if a rule file field is a wildcard.
+     * @param field Field
+     * @return true - wildcard, false - value
+     */
+    private static boolean isWildcard(final String field) {
+        return field.isBlank() || WILDCARD.equals(field.trim());
+    }
+
+    /**
+     * Validates a rule.
+     * @param rule Discount rule
+     * @throws InvalidInputException the rule is not valid
+     */
+    private static void validate(final DiscountRule rule) {
+        final boolean validDates = rule.getStartDate() == null || rule.getEndDate() == null
+                || !rule.getEndDate().isBefore(rule.getStartDate());
+        if (!validateDiscountPercent(rule.getDiscountPercent()) || rule.getMinRentalDays() < 1
+                || rule.getMaxRentalDays() < rule.getMinRentalDays() || !validDates) {
+            throw new InvalidInputException(INVALID_DISCOUNT_RULE_MESSAGE);
+        }
+    }
+}
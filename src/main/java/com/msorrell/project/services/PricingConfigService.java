@@ -0,0 +1,114 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.PricingConfig;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current tool catalog and pricing configuration.
+ *
+ * A reload reads and parses every configuration file before it replaces the configuration in one step. Quotes take
+ * the configuration once and use it to the end, so they never wait on a reload and never see a mix of old and new
+ * tools, rates, or tax rates. A configuration that fails to load leaves the current one in place.
+ *
+ * The catalog only grows: a new configuration must keep every tool of the current catalog at its tool index, so an
+ * index written to a store or a binary record while one configuration was current reads back the same tool under
+ * every later one.
+ */
+public class PricingConfigService {
+
+    /**
+     * Current tool catalog.
+     * @return catalog of the current configuration
+     */
+    public ToolCodeIndex getToolCodes() {
+        return config.get().getToolCodes();
+    }
+
+    /**
+     * Configuration directory. Null when the configuration was supplied directly.
+     */
+    private final Path directory;
+
+    /**
+     * Current configuration.
+     */
+    private final AtomicReference<PricingConfig> config;
+
+    /**
+     * Constructor. The configuration is never reloaded.
+     * @param config Configuration
+     */
+    public PricingConfigService(final PricingConfig config) {
+        this.directory = null;
+        this.config = new AtomicReference<>(config);
+    }
+
+    /**
+     * Constructor. Loads the configuration directory.
+     * @param directory Configuration directory. See {@link PricingConfig#load(Path)}
+     * @throws IOException exception while reading a file
+     */
+    public PricingConfigService(final Path directory) throws IOException {
+        this.directory = directory;
+        this.config = new AtomicReference<>(PricingConfig.load(directory));
+    }
+
+    /**
+     * Loads the configuration directory again and replaces the current configuration.
+     * @return the new configuration
+     * @throws IOException exception while reading a file
+     * @throws InvalidInputException a file is not valid, or the catalog removes, moves, or changes a current tool
+     * @throws IllegalStateException the service has no configuration directory
+     */
+    public PricingConfig reload() throws IOException {
+        if (directory == null) {
+            throw new IllegalStateException("Pricing config service was not created from a directory");
+        }
+        final PricingConfig reloaded = PricingConfig.load(directory);
+        replace(reloaded);
+        return reloaded;
+    }
+
+    /**
+     * Replaces the current configuration.
+     * @param config Configuration
+     * @throws InvalidInputException the catalog removes, moves, or changes a current tool
+     */
+    public void setConfig(final PricingConfig config) {
+        replace(config);
+    }
+
+    /**
+     * Replaces the current configuration, if its catalog extends the current catalog.
+     * @param next Configuration
+     * @throws InvalidInputException the catalog removes, moves, or changes a current tool
+     */
+    private void replace(final PricingConfig next) {
+        PricingConfig current;
+        do {
+            current = config.get();
+            next.requireExtends(current.getToolCodes());
+        } while (!config.compareAndSet(current, next));
+    }
+
+    /**
+     * Current configuration.
+     * @return configuration
+     */
+    public PricingConfig getConfig() {
+        return config.get();
+    }
+
+    /**
+     * Configuration directory.
+     * @return directory, null when the configuration was supplied directly
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+}
@@ -0,0 +1,173 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.models.PricingConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reloads a {@link PricingConfigService} when the files in its configuration directory change.
+ *
+ * The watcher waits until the directory has been quiet for a moment before it reloads, so a file that is written
+ * in several steps is read once it is complete. Quoting threads never wait on the watcher; they keep the
+ * configuration they started with until the reloaded one is published. A configuration that fails to load is
+ * recorded and the current one stays in place until the files are fixed.
+ */
+public class PricingConfigWatcher implements Closeable {
+
+    /**
+     * Quiet period after the last change before the configuration is reloaded, in milliseconds.
+     */
+    private static final long SETTLE_MILLIS = 100;
+
+    /**
+     * Files that trigger a reload.
+     */
+    private static final Set<Path> CONFIG_FILES = Set.of(Path.of(PricingConfig.TOOLS_FILE),
+            Path.of(PricingConfig.RATES_FILE), Path.of(PricingConfig.TAX_RATES_FILE));
+
+    /**
+     * Service that is reloaded.
+     */
+    private final PricingConfigService pricingConfigService;
+
+    /**
+     * Watch on the configuration directory.
+     */
+    private final WatchService watchService;
+
+    /**
+     * Thread that waits for changes.
+     */
+    private final Thread thread;
+
+    /**
+     * Number of reloads that replaced the configuration.
+     */
+    private final AtomicLong reloads = new AtomicLong();
+
+    /**
+     * Number of reloads that failed.
+     */
+    private final AtomicLong failures = new AtomicLong();
+
+    /**
+     * Exception of the last reload that failed. Null if none has failed.
+     */
+    private final AtomicReference<Exception> lastFailure = new AtomicReference<>();
+
+    /**
+     * Constructor. Starts watching the service's configuration directory.
+     * @param pricingConfigService Service that is reloaded. Must have been created from a directory
+     * @throws IOException exception while watching the directory
+     * @throws IllegalArgumentException the service has no configuration directory
+     */
+    public PricingConfigWatcher(final PricingConfigService pricingConfigService) throws IOException {
+        final Path directory = pricingConfigService.getDirectory();
+        if (directory == null) {
+            throw new IllegalArgumentException("Pricing config service was not created from a directory");
+        }
+        this.pricingConfigService = pricingConfigService;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        this.thread = new Thread(this::watch, "pricing-config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for changes to the configuration files and reloads the configuration after each burst of changes.
+     */
+    private void watch() {
+        try {
+            while (true) {
+                boolean changed = drain(watchService.take());
+                //Keep collecting until the directory is quiet
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //Closed
+        }
+    }
+
+    /**
+     * Reads the events of a watch key and resets it.
+     * @param key Watch key
+     * @return true - a configuration file changed, false - only other files changed
+     */
+    private static boolean drain(final WatchKey key) {
+        boolean changed = false;
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || CONFIG_FILES.contains(event.context());
+        }
+        key.reset();
+        return changed;
+    }
+
+    /**
+     * Reloads the configuration, recording a failure instead of throwing it.
+     * Any exception while reading or parsing a file is a failure, so a file caught half written never stops the
+     * watcher.
+     */
+    private void reload() {
+        try {
+            pricingConfigService.reload();
+            reloads.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failures.incrementAndGet();
+            lastFailure.set(e);
+        }
+    }
+
+    /**
+     * Retrieves the number of reloads that replaced the configuration.
+     * @return number of reloads
+     */
+    public long getReloadCount() {
+        return reloads.get();
+    }
+
+    /**
+     * Retrieves the number of reloads that failed.
+     * @return number of failures
+     */
+    public long getFailureCount() {
+        return failures.get();
+    }
+
+    /**
+     * Retrieves the exception of the last reload that failed.
+     * @return exception, null if no reload has failed
+     */
+    public Exception getLastFailure() {
+        return lastFailure.get();
+    }
+
+    /**
+     * Stops watching the directory.
+     * @throws IOException exception while closing the watch
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,191 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.Tool;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shares one pricing computation between concurrent requests for the same quote.
+ *
+ * The first request for a set of pricing inputs prices the checkout; requests with the same inputs that arrive
+ * while it is running wait for it instead of pricing the checkout again. Every caller receives its own copy of the
+ * agreement, or the exception the pricing threw. Nothing is cached: once a computation finishes, the next request
+ * for the same inputs prices the checkout again, so rate and tax changes are picked up as usual.
+ *
+ * In-flight computations are kept in a concurrent map, so requests for different quotes never wait on each other.
+ */
+public class QuoteCoalescer {
+
+    /**
+     * Engine that prices the checkouts.
+     */
+    private final QuoteEngine quoteEngine;
+
+    /**
+     * Computations in flight, keyed by their pricing inputs.
+     */
+    private final ConcurrentMap<QuoteKey, CompletableFuture<RentalAgreement>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Requests received.
+     */
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * Requests that shared a computation started by another request.
+     */
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Constructor.
+     * @param quoteEngine Engine that prices the checkouts
+     */
+    public QuoteCoalescer(final QuoteEngine quoteEngine) {
+        this.quoteEngine = quoteEngine;
+    }
+
+    /**
+     * Generates the Rental Agreement from the Checkout, sharing the computation with concurrent requests for the
+     * same pricing inputs. See {@link QuoteEngine#generateRentalAgreement(Checkout)}.
+     * @param checkout Checkout object
+     * @return Rental Agreement, owned by the caller
+     * @throws com.msorrell.project.exceptions.InvalidInputException the checkout's jurisdiction has no tax rates
+     */
+    public RentalAgreement generateRentalAgreement(final Checkout checkout) {
+        requests.increment();
+        final QuoteKey key = new QuoteKey(checkout);
+        final CompletableFuture<RentalAgreement> computation = new CompletableFuture<>();
+        final CompletableFuture<RentalAgreement> running = inFlight.putIfAbsent(key, computation);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join().copy();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+        try {
+            final RentalAgreement rentalAgreement = quoteEngine.generateRentalAgreement(checkout);
+            computation.complete(rentalAgreement);
+            return rentalAgreement.copy();
+        } catch (RuntimeException | Error e) {
+            computation.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, computation);
+        }
+    }
+
+    /**
+     * Retrieves the number of requests received.
+     * @return number of requests
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * Retrieves the number of requests that shared a computation started by another request.
+     * @return number of coalesced requests
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Retrieves the number of computations run.
+     * @return number of computations
+     */
+    public long getComputationCount() {
+        return requests.sum() - coalesced.sum();
+    }
+
+    /**
+     * Retrieves the share of the requests that shared a computation started by another request.
+     * @return coalescing ratio between 0 and 1, 0 before the first request
+     */
+    public double getCoalescingRatio() {
+        final long requestCount = requests.sum();
+        return requestCount == 0 ? 0 : (double) coalesced.sum() / requestCount;
+    }
+
+    /**
+     * Pricing inputs of a checkout. Checkouts with equal keys are priced the same.
+     */
+    private static final class QuoteKey {
+
+        /**
+         * Tool.
+         */
+        private final Tool tool;
+
+        /**
+         * Number of rental days.
+         */
+        private final int rentalDayCount;
+
+        /**
+         * Discount percent.
+         */
+        private final int discountPercent;
+
+        /**
+         * Checkout date.
+         */
+        private final LocalDate checkoutDate;
+
+        /**
+         * Customer tier.
+         */
+        private final CustomerTier customerTier;
+
+        /**
+         * Jurisdiction. Null when no tax is charged.
+         */
+        private final String jurisdiction;
+
+        /**
+         * Constructor.
+         * @param checkout Checkout
+         */
+        private QuoteKey(final Checkout checkout) {
+            this.tool = checkout.getTool();
+            this.rentalDayCount = checkout.getRentalDayCount();
+            this.discountPercent = checkout.getDiscountPercent();
+            this.checkoutDate = checkout.getCheckoutDate();
+            this.customerTier = checkout.getCustomerTier();
+            this.jurisdiction = checkout.getJurisdiction();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof QuoteKey)) {
+                return false;
+            }
+            final QuoteKey other = (QuoteKey) o;
+            return rentalDayCount == other.rentalDayCount && discountPercent == other.discountPercent
+                    && tool.equals(other.tool) && checkoutDate.equals(other.checkoutDate)
+                    && customerTier == other.customerTier && Objects.equals(jurisdiction, other.jurisdiction);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tool, rentalDayCount, discountPercent, checkoutDate, customerTier, jurisdiction);
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.enums.CheckoutField;
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.CartCheckout;
+import com.msorrell.project.models.CartRentalAgreement;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.DayBreakdown;
+import com.msorrell.project.models.PricingConfig;
+import com.msorrell.project.models.QuoteResult;
+import com.msorrell.project.models.RateSchedule;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.TaxRateTable;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.models.ValidationError;
+import com.msorrell.project.store.ReferenceDataSnapshot;
+import com.msorrell.project.util.CalendarUtils;
+import com.msorrell.project.util.MoneyUtils;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.msorrell.project.util.ProjectUtils.EMPTY_CART_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_DATE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CUSTOMER_TIER_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_PERCENT_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_JURISDICTION_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_RENTAL_DAY_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_TOOL_CODE;
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
+import static com.msorrell.project.util.ProjectUtils.UNKNOWN_JURISDICTION_MESSAGE;
+import static com.msorrell.project.validators.InputValidator.validateCheckoutDate;
+import static com.msorrell.project.validators.InputValidator.validateDiscountPercent;
+import static com.msorrell.project.validators.InputValidator.validateRentalDays;
+
+/**
+ * Engine that prices checkouts.
+ * Never reads or writes the console and holds no mutable state, so one engine can be shared by any number
+ * of threads.
+ */
+public class QuoteEngine {
+
+    /**
+     * Engine that finds promotional discounts. Null when there are no promotions.
+     */
+    private final DiscountRuleEngine discountRuleEngine;
+
+    /**
+     * Service that holds the tax rates. Null when no jurisdiction has rates.
+     */
+    private final TaxService taxService;
+
+    /**
+     * Snapshot with a precomputed calendar. Null when every breakdown is calculated.
+     */
+    private final ReferenceDataSnapshot referenceDataSnapshot;
+
+    /**
+     * Effective-dated daily charges. Null when every tool type has its fixed daily charge.
+     */
+    private final RateSchedule rateSchedule;
+
+    /**
+     * Service that holds the reloadable catalog and pricing configuration. Null when the engine was configured with a
+     * tax service and rate schedule instead.
+     */
+    private final PricingConfigService pricingConfigService;
+
+    /**
+     * Compiled catalog with this engine's rate schedule and the tax service's rates. Built when the engine is created
+     * and again only when the tax rates are reloaded. Unused when there is a pricing config service.
+     */
+    private volatile PricingConfig compiledConfig;
+
+    /**
+     * Constructor. No promotional discounts are applied and no tax rates are loaded.
+     */
+    public QuoteEngine() {
+        this(null, null);
+    }
+
+    /**
+     * Constructor. No tax rates are loaded.
+     * @param discountRuleEngine Engine that finds promotional discounts. Null when there are no promotions
+     */
+    public QuoteEngine(final DiscountRuleEngine discountRuleEngine) {
+        this(discountRuleEngine, null);
+    }
+
+    /**
+     * Constructor.
+     * @param discountRuleEngine Engine that finds promotional discounts. Null when there are no promotions
+     * @param taxService Service that holds the tax rates. Null when no jurisdiction has rates
+     */
+    public QuoteEngine(final DiscountRuleEngine discountRuleEngine, final TaxService taxService) {
+        this(discountRuleEngine, taxService, null);
+    }
+
+    /**
+     * Constructor.
+     * @param discountRuleEngine Engine that finds promotional discounts. Null when there are no promotions
+     * @param taxService Service that holds the tax rates. Null when no jurisdiction has rates
+     * @param referenceDataSnapshot Snapshot with a precomputed calendar. Null when every breakdown is calculated
+     */
+    public QuoteEngine(final DiscountRuleEngine discountRuleEngine, final TaxService taxService,
+                       final ReferenceDataSnapshot referenceDataSnapshot) {
+        this(discountRuleEngine, taxService, referenceDataSnapshot, null);
+    }
+
+    /**
+     * Constructor.
+     * @param discountRuleEngine Engine that finds promotional discounts. Null when there are no promotions
+     * @param taxService Service that holds the tax rates. Null when no jurisdiction has rates
+     * @param referenceDataSnapshot Snapshot with a precomputed calendar. Null when every breakdown is calculated
+     * @param rateSchedule Effective-dated daily charges. Null when every tool type has its fixed daily charge
+     */
+    public QuoteEngine(final DiscountRuleEngine discountRuleEngine, final TaxService taxService,
+                       final ReferenceDataSnapshot referenceDataSnapshot, final RateSchedule rateSchedule) {
+        this(discountRuleEngine, taxService, referenceDataSnapshot, rateSchedule, null);
+    }
+
+    /**
+     * Constructor. Every quote reads the tools, daily charges, and tax rates from the service's current
+     * configuration, so a reload takes effect with the next quote.
+     * @param discountRuleEngine Engine that finds promotional discounts. Null when there are no promotions
+     * @param referenceDataSnapshot Snapshot with a precomputed calendar. Null when every breakdown is calculated
+     * @param pricingConfigService Service that holds the catalog and pricing configuration
+     */
+    public QuoteEngine(final DiscountRuleEngine discountRuleEngine, final ReferenceDataSnapshot referenceDataSnapshot,
+                       final PricingConfigService pricingConfigService) {
+        this(discountRuleEngine, null, referenceDataSnapshot, null, pricingConfigService);
+    }
+
+    /**
+     * Constructor.
+     * @param discountRuleEngine Engine that finds promotional discounts. Null when there are no promotions
+     * @param taxService Service that holds the tax rates. Null when no jurisdiction has rates
+     * @param referenceDataSnapshot Snapshot with a precomputed calendar. Null when every breakdown is calculated
+     * @param rateSchedule Effective-dated daily charges. Null when every tool type has its fixed daily charge
+     * @param pricingConfigService Service that holds the catalog and pricing configuration. Null when the tax
+     * service and rate schedule are used
+     */
+    private QuoteEngine(final DiscountRuleEngine discountRuleEngine, final TaxService taxService,
+                        final ReferenceDataSnapshot referenceDataSnapshot, final RateSchedule rateSchedule,
+                        final PricingConfigService pricingConfigService) {
+        this.discountRuleEngine = discountRuleEngine;
+        this.taxService = taxService;
+        this.referenceDataSnapshot = referenceDataSnapshot;
+        this.rateSchedule = rateSchedule;
+        this.pricingConfigService = pricingConfigService;
+        this.compiledConfig = new PricingConfig(TOOL_CODES, rateSchedule,
+                taxService == null ? null : taxService.getTable());
+    }
+
+    /**
+     * Validates the checkout parameters and prices the checkout.
+     * Every field is validated, so a failed quote reports all the invalid fields at once.
+     * @param toolCode Tool's code
+     * @param rentalDays Number of rental days
+     * @param discountPercent Discount percent
+     * @param checkoutDate Day the tool is checked out
+     * @return Rental Agreement, or the validation errors
+     */
+    public QuoteResult quote(final String toolCode, final int rentalDays, final int discountPercent,
+                             final LocalDate checkoutDate) {
+        return quote(toolCode, rentalDays, discountPercent, checkoutDate, CustomerTier.STANDARD);
+    }
+
+    /**
+     * Validates the checkout parameters and prices the checkout.
+     * Every field is validated, so a failed quote reports all the invalid fields at once.
+     * @param toolCode Tool's code
+     * @param rentalDays Number of rental days
+     * @param discountPercent Discount percent
+     * @param checkoutDate Day the tool is checked out
+     * @param customerTier The customer's tier. Used to select promotional discounts
+     * @return Rental Agreement, or the validation errors
+     */
+    public QuoteResult quote(final String toolCode, final int rentalDays, final int discountPercent,
+                             final LocalDate checkoutDate, final CustomerTier customerTier) {
+        return quote(toolCode, rentalDays, discountPercent, checkoutDate, customerTier, null);
+    }
+
+    /**
+     * Validates the checkout parameters and prices the checkout, including tax.
+     * Every field is validated, so a failed quote reports all the invalid fields at once.
+     * @param toolCode Tool's code
+     * @param rentalDays Number of rental days
+     * @param discountPercent Discount percent
+     * @param checkoutDate Day the tool is checked out
+     * @param customerTier The customer's tier. Used to select promotional discounts
+     * @param jurisdiction The store's jurisdiction. Used to select tax rates. Null when no tax is charged
+     * @return Rental Agreement, or the validation errors
+     */
+    public QuoteResult quote(final String toolCode, final int rentalDays, final int discountPercent,
+                             final LocalDate checkoutDate, final CustomerTier customerTier,
+                             final String jurisdiction) {
+        final PricingConfig pricingConfig = pricingConfig();
+        final Tool tool = pricingConfig.getToolCodes().find(toolCode);
+        final List<ValidationError> errors = new ArrayList<>();
+        if (tool == null) {
+            errors.add(new ValidationError(CheckoutField.TOOL_CODE, INVALID_TOOL_CODE));
+        }
+        if (!validateRentalDays(rentalDays)) {
+            errors.add(new ValidationError(CheckoutField.RENTAL_DAYS, INVALID_RENTAL_DAY_MESSAGE));
+        }
+        if (!validateDiscountPercent(discountPercent)) {
+            errors.add(new ValidationError(CheckoutField.DISCOUNT_PERCENT, INVALID_DISCOUNT_PERCENT_MESSAGE));
+        }
+        if (!validateCheckoutDate(checkoutDate)) {
+            errors.add(new ValidationError(CheckoutField.CHECKOUT_DATE, INVALID_CHECKOUT_DATE_MESSAGE));
+        }
+        if (customerTier == null) {
+            errors.add(new ValidationError(CheckoutField.CUSTOMER_TIER, INVALID_CUSTOMER_TIER_MESSAGE));
+        }
+        final String normalizedJurisdiction = jurisdiction == null || jurisdiction.isBlank() ? null
+                : TaxRateTable.normalize(jurisdiction);
+        final TaxRateTable taxRateTable = normalizedJurisdiction == null ? null : pricingConfig.getTaxRateTable();
+        if (jurisdiction != null && normalizedJurisdiction == null) {
+            errors.add(new ValidationError(CheckoutField.JURISDICTION, INVALID_JURISDICTION_MESSAGE));
+        } else if (taxRateTable != null && !taxRateTable.hasJurisdiction(normalizedJurisdiction)) {
+            errors.add(new ValidationError(CheckoutField.JURISDICTION, UNKNOWN_JURISDICTION_MESSAGE));
+        }
+        if (!errors.isEmpty()) {
+            return QuoteResult.failure(errors);
+        }
+        final LocalDate dueDate = checkoutDate.plusDays(rentalDays);
+        return QuoteResult.success(generateRentalAgreement(pricingConfig, tool, rentalDays,
+                applyPromotions(tool, rentalDays, discountPercent, checkoutDate, customerTier), checkoutDate,
+                dueDate, calculateChargeDays(checkoutDate, dueDate, tool.getType()), normalizedJurisdiction,
+                taxRateTable));
+    }
+
+    /**
+     * Calculates the number of chargeable days.
+     * Count of chargeable days, from day after checkout through and including due date,
+     * excluding “no charge” days as specified by the tool type.
+     *
+     * A day can only be a holiday, a weekend, or a weekday. It cannot count more than once.
+     *
+     * @param checkoutDate Day the tool is checked out
+     * @param dueDate Day the tool is due
+     * @param toolType The type of tool. Used to determine which days count as chargeable
+     * @return number of chargeable days
+     */
+    public int calculateChargeDays(final LocalDate checkoutDate, final LocalDate dueDate, final ToolType toolType) {
+        return breakdown(checkoutDate, dueDate).chargeDays(toolType);
+    }
+
+    /**
+     * Retrieves the catalog checkouts are validated against: the current configuration's tools.
+     * A tool code accepted here is priced unless a reload removes the tool first.
+     * @return current catalog
+     */
+    public ToolCodeIndex getToolCodes() {
+        return pricingConfig().getToolCodes();
+    }
+
+    /**
+     * Generates the Rental Agreement from the Checkout.
+     * The discount is the larger of the checkout's discount and the best promotional discount.
+     * Tax is charged when the checkout has a jurisdiction.
+     * @param checkout Checkout object
+     * @return Rental Agreement
+     * @throws InvalidInputException the tool is not in the current catalog, or the checkout's jurisdiction has no
+     * tax rates
+     */
+    public RentalAgreement generateRentalAgreement(final Checkout checkout) {
+        final PricingConfig pricingConfig = pricingConfig();
+        requireTool(pricingConfig, checkout.getTool());
+        final LocalDate dueDate = checkout.getCheckoutDate().plusDays(checkout.getRentalDayCount());
+        return generateRentalAgreement(pricingConfig, checkout.getTool(), checkout.getRentalDayCount(),
+                applyPromotions(checkout.getTool(), checkout.getRentalDayCount(), checkout.getDiscountPercent(),
+                        checkout.getCheckoutDate(), checkout.getCustomerTier()),
+                checkout.getCheckoutDate(), dueDate,
+                calculateChargeDays(checkout.getCheckoutDate(), dueDate, checkout.getTool().getType()),
+                checkout.getJurisdiction(), taxRateTable(pricingConfig, checkout.getJurisdiction()));
+    }
+
+    /**
+     * Generates the Cart Rental Agreement from the Cart Checkout.
+     * The breakdown of the rental days is calculated once and shared by every tool in the cart.
+     * Each line's discount is the larger of the cart's discount and the best promotional discount for its tool.
+     * Every line is priced and taxed with the same snapshot of the daily charges and tax rates.
+     * @param cartCheckout Cart Checkout object
+     * @return Cart Rental Agreement
+     * @throws InvalidInputException the cart is empty, a tool is not in the current catalog, or the cart's
+     * jurisdiction has no tax rates
+     */
+    public CartRentalAgreement generateCartRentalAgreement(final CartCheckout cartCheckout) {
+        if (cartCheckout.getTools().isEmpty()) {
+            throw new InvalidInputException(EMPTY_CART_MESSAGE);
+        }
+        final PricingConfig pricingConfig = pricingConfig();
+        for (final Tool tool : cartCheckout.getTools()) {
+            requireTool(pricingConfig, tool);
+        }
+        final LocalDate checkoutDate = cartCheckout.getCheckoutDate();
+        final LocalDate dueDate = checkoutDate.plusDays(cartCheckout.getRentalDayCount());
+        final DayBreakdown dayBreakdown = breakdown(checkoutDate, dueDate);
+        final String jurisdiction = cartCheckout.getJurisdiction();
+        final TaxRateTable taxRateTable = taxRateTable(pricingConfig, jurisdiction);
+
+        final CartRentalAgreement cartRentalAgreement = new CartRentalAgreement();
+        cartRentalAgreement.setCheckoutDate(checkoutDate);
+        cartRentalAgreement.setDueDate(dueDate);
+        cartRentalAgreement.setDayBreakdown(dayBreakdown);
+        cartRentalAgreement.setJurisdiction(jurisdiction);
+        for (final Tool tool : cartCheckout.getTools()) {
+            final int discountPercent = applyPromotions(tool, cartCheckout.getRentalDayCount(),
+                    cartCheckout.getDiscountPercent(), checkoutDate, cartCheckout.getCustomerTier());
+            cartRentalAgreement.addLine(generateRentalAgreement(pricingConfig, tool, cartCheckout.getRentalDayCount(),
+                    discountPercent, checkoutDate, dueDate, dayBreakdown.chargeDays(tool.getType()), jurisdiction,
+                    taxRateTable));
+        }
+        return cartRentalAgreement;
+    }
+
+    /**
+     * Generates a Rental Agreement for a single tool.
+     * @param pricingConfig Configuration the tool is priced with
+     * @param tool Tool that is checked out
+     * @param rentalDays Number of rental days
+     * @param discountPercent Discount percent
+     * @param checkoutDate Day the tool is checked out
+     * @param dueDate Day the tool is due
+     * @param chargeDays Number of chargeable days
+     * @param jurisdiction The store's jurisdiction. Null when no tax is charged
+     * @param taxRateTable Tax rates. Null when no tax is charged
+     * @return Rental Agreement
+     */
+    private RentalAgreement generateRentalAgreement(final PricingConfig pricingConfig, final Tool tool,
+                                                    final int rentalDays, final int discountPercent,
+                                                    final LocalDate checkoutDate, final LocalDate dueDate,
+                                                    final int chargeDays, final String jurisdiction,
+                                                    final TaxRateTable taxRateTable) {
+        final RateSchedule schedule = pricingConfig.getRateSchedule();
+        final RentalAgreement rentalAgreement = new RentalAgreement();
+        rentalAgreement.setTool(tool);
+        rentalAgreement.setRentalDays(rentalDays);
+        rentalAgreement.setCheckoutDate(checkoutDate);
+        rentalAgreement.setDiscountPercent(discountPercent);
+        rentalAgreement.setDueDate(dueDate);
+        rentalAgreement.setChargeDays(chargeDays);
+        if (schedule == null) {
+            rentalAgreement.setDailyRentalCharge(tool.getType().getDailyCharge());
+            //Set pre-discount charge. Formula: charge days X daily charge. Round half up to the nearest cent.
+            rentalAgreement.setPreDiscountCharge(rentalAgreement.getDailyRentalCharge()
+                    .multiply(BigDecimal.valueOf(rentalAgreement.getChargeDays())).setScale(2, RoundingMode.HALF_UP));
+        } else {
+            //The daily charge shown is the one in effect on the first rental day. The pre-discount charge is the
+            //sum of each rate's charge days X its daily charge.
+            final LocalDate firstDay = checkoutDate.plusDays(1);
+            rentalAgreement.setDailyRentalCharge(MoneyUtils.fromCents(
+                    schedule.getDailyChargeCents(tool.getType(), firstDay)));
+            rentalAgreement.setPreDiscountCharge(MoneyUtils.fromCents(schedule.calculateChargeCents(
+                    tool.getType(), firstDay, dueDate, chargeDays, this::breakdownDays)));
+        }
+
+        final double percent = rentalAgreement.getDiscountPercent() * .01;
+        //Set discount amount. Formula: discount % and pre-discount charge. Round half up to the nearest cent.
+        rentalAgreement.setDiscountAmount(rentalAgreement.getPreDiscountCharge()
+                .multiply(BigDecimal.valueOf(percent)).setScale(2, RoundingMode.HALF_UP));
+
+        rentalAgreement.setFinalCharge(rentalAgreement.getPreDiscountCharge()
+                .subtract(rentalAgreement.getDiscountAmount()));
+
+        //Set tax amount. Formula: final charge X the jurisdiction's rate for the tool type. Round half up to the
+        //nearest cent.
+        rentalAgreement.setJurisdiction(jurisdiction);
+        rentalAgreement.setTaxAmount(taxRateTable == null ? MoneyUtils.fromCents(0)
+                : MoneyUtils.fromCents(taxRateTable.calculateTaxCents(jurisdiction, tool.getType(),
+                        MoneyUtils.toCents(rentalAgreement.getFinalCharge()))));
+        rentalAgreement.setTotalCharge(rentalAgreement.getFinalCharge().add(rentalAgreement.getTaxAmount()));
+
+        return rentalAgreement;
+    }
+
+    /**
+     * Applies the promotional discounts.
+     * @param tool Tool that is checked out
+     * @param rentalDays Number of rental days
+     * @param discountPercent Discount percent given at checkout
+     * @param checkoutDate Day the tool is checked out
+     * @param customerTier The customer's tier
+     * @return the larger of the checkout's discount and the best promotional discount
+     */
+    private int applyPromotions(final Tool tool, final int rentalDays, final int discountPercent,
+                                final LocalDate checkoutDate, final CustomerTier customerTier) {
+        if (discountRuleEngine == null) {
+            return discountPercent;
+        }
+        return Math.max(discountPercent, discountRuleEngine.findBestDiscount(tool.getType(), tool.getBrand(),
+                customerTier, rentalDays, checkoutDate));
+    }
+
+    /**
+     * Checks that a tool is in the catalog it is priced with. A tool removed by a reload is no longer rented.
+     * @param pricingConfig Configuration holding the catalog
+     * @param tool Tool that is checked out
+     * @throws InvalidInputException the tool is not in the catalog
+     */
+    private static void requireTool(final PricingConfig pricingConfig, final Tool tool) {
+        if (pricingConfig.getToolCodes().indexOf(tool) == ToolCodeIndex.NOT_A_CODE) {
+            throw new InvalidInputException(INVALID_TOOL_CODE);
+        }
+    }
+
+    /**
+     * Finds the tax rates for a jurisdiction.
+     * @param pricingConfig Configuration holding the tax rates
+     * @param jurisdiction The store's jurisdiction. Null when no tax is charged
+     * @return current tax rates, null when no tax is charged
+     * @throws InvalidInputException the jurisdiction has no tax rates
+     */
+    private TaxRateTable taxRateTable(final PricingConfig pricingConfig, final String jurisdiction) {
+        if (jurisdiction == null) {
+            return null;
+        }
+        final TaxRateTable taxRateTable = pricingConfig.getTaxRateTable();
+        if (!taxRateTable.hasJurisdiction(jurisdiction)) {
+            throw new InvalidInputException(UNKNOWN_JURISDICTION_MESSAGE + ": " + jurisdiction);
+        }
+        return taxRateTable;
+    }
+
+    /**
+     * Current catalog and pricing configuration. Read once per quote, so every part of a quote is priced with the
+     * same configuration.
+     * @return the service's configuration, or the compiled catalog with this engine's rate schedule and current
+     * tax rates
+     */
+    private PricingConfig pricingConfig() {
+        if (pricingConfigService != null) {
+            return pricingConfigService.getConfig();
+        }
+        final PricingConfig config = compiledConfig;
+        if (taxService == null) {
+            return config;
+        }
+        final TaxRateTable current = taxService.getTable();
+        final TaxRateTable taxRateTable = current == null ? TaxRateTable.EMPTY : current;
+        if (config.getTaxRateTable() == taxRateTable) {
+            return config;
+        }
+        //The tax rates were reloaded
+        final PricingConfig reloaded = new PricingConfig(TOOL_CODES, rateSchedule, taxRateTable);
+        compiledConfig = reloaded;
+        return reloaded;
+    }
+
+    /**
+     * Breaks down the days from the day after checkout through and including the due date.
+     * @param checkoutDate Day the tool is checked out
+     * @param dueDate Day the tool is due
+     * @return breakdown of the rental days
+     */
+    private DayBreakdown breakdown(final LocalDate checkoutDate, final LocalDate dueDate) {
+        return breakdownDays(checkoutDate.plusDays(1), dueDate);
+    }
+
+    /**
+     * Breaks down the days of a range. Both dates are inclusive.
+     * Read from the snapshot's calendar when there is one.
+     * @param firstDay First day of the range
+     * @param lastDay Last day of the range
+     * @return breakdown of the range
+     */
+    private DayBreakdown breakdownDays(final LocalDate firstDay, final LocalDate lastDay) {
+        if (referenceDataSnapshot != null) {
+            return referenceDataSnapshot.breakdown(firstDay, lastDay);
+        }
+        return CalendarUtils.breakdown(firstDay, lastDay);
+    }
+}
@@ -0,0 +1,151 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.store.AgreementStore;
+import com.msorrell.project.store.AgreementView;
+import com.msorrell.project.util.CalendarUtils;
+import com.msorrell.project.util.DayTimerWheel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.function.Consumer;
+
+import static com.msorrell.project.util.MoneyUtils.fromCents;
+
+/**
+ * Service that tracks open rentals, reports the ones that become overdue, and calculates late fees.
+ *
+ * Open rentals are agreements in an {@link AgreementStore}, referred to by their record id. Each one is scheduled
+ * in a {@link DayTimerWheel} for the day after its due date, so finding the overdue rentals each day only touches
+ * the rentals that became overdue, not every open rental. Returned rentals are removed lazily: they stay in the
+ * wheel and are skipped when they fire.
+ *
+ * A service is not thread safe.
+ */
+public class ReturnProcessingService {
+
+    /**
+     * Store holding the agreements.
+     */
+    private final AgreementStore store;
+
+    /**
+     * Open rentals, by the day they become overdue.
+     */
+    private final DayTimerWheel wheel;
+
+    /**
+     * Ids of the rentals that have not been returned.
+     */
+    private final BitSet open = new BitSet();
+
+    /**
+     * Ids of the open rentals that are overdue.
+     */
+    private final BitSet overdue = new BitSet();
+
+    /**
+     * View reused to read the agreements.
+     */
+    private final AgreementView view = new AgreementView();
+
+    /**
+     * Number of rentals that have not been returned.
+     */
+    private long openCount;
+
+    /**
+     * Constructor.
+     * @param store Store holding the agreements
+     * @param today The current date. Rentals due before it are reported on the first call to processOverdue
+     */
+    public ReturnProcessingService(final AgreementStore store, final LocalDate today) {
+        this.store = store;
+        this.wheel = new DayTimerWheel(Math.toIntExact(today.toEpochDay()));
+    }
+
+    /**
+     * Starts tracking a rental. It becomes overdue the day after its due date.
+     * @param id Id of the agreement in the store
+     */
+    public void open(final long id) {
+        final int index = Math.toIntExact(id);
+        if (open.get(index)) {
+            throw new IllegalStateException("Rental " + id + " is already open");
+        }
+        store.get(id, view);
+        open.set(index);
+        openCount++;
+        wheel.schedule(id, view.getDueEpochDay() + 1);
+    }
+
+    /**
+     * Advances to the date and reports every open rental that has become overdue since the last call.
+     * The same view is passed for every rental, so it must not be kept after the consumer returns.
+     * @param today The current date
+     * @param consumer Receives each rental that became overdue
+     * @return number of rentals that became overdue
+     */
+    public int processOverdue(final LocalDate today, final Consumer<AgreementView> consumer) {
+        final int[] count = new int[1];
+        wheel.advanceTo(Math.toIntExact(today.toEpochDay()), id -> {
+            final int index = (int) id;
+            if (open.get(index)) {
+                overdue.set(index);
+                count[0]++;
+                consumer.accept(store.get(id, view));
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Stops tracking a rental and calculates its late fee.
+     * @param id Id of the agreement in the store
+     * @param returnDate The date the tool was returned
+     * @return late fee, 0.00 if the tool was returned by the due date
+     */
+    public BigDecimal processReturn(final long id, final LocalDate returnDate) {
+        final int index = Math.toIntExact(id);
+        if (!open.get(index)) {
+            throw new IllegalStateException("Rental " + id + " is not open");
+        }
+        open.clear(index);
+        overdue.clear(index);
+        openCount--;
+        return calculateLateFee(store.get(id, view), returnDate);
+    }
+
+    /**
+     * Calculates the late fee for a rental.
+     * The late days run from the day after the due date through and including the return date.
+     * The fee is the daily rental charge for each late day that is chargeable for the tool type.
+     * The rental's discount is not applied to the late fee.
+     * @param agreement Agreement of the rental
+     * @param returnDate The date the tool was returned
+     * @return late fee, 0.00 if the tool was returned by the due date
+     */
+    public static BigDecimal calculateLateFee(final AgreementView agreement, final LocalDate returnDate) {
+        final LocalDate dueDate = LocalDate.ofEpochDay(agreement.getDueEpochDay());
+        final int lateChargeDays = CalendarUtils.breakdown(dueDate.plusDays(1), returnDate)
+                .chargeDays(agreement.getTool().getType());
+        return fromCents(agreement.getDailyRentalChargeCents() * lateChargeDays);
+    }
+
+    /**
+     * Determines if a rental is overdue.
+     * @param id Id of the agreement in the store
+     * @return true - open and overdue, false - returned or not overdue yet
+     */
+    public boolean isOverdue(final long id) {
+        return overdue.get(Math.toIntExact(id));
+    }
+
+    /**
+     * Returns the number of rentals that have not been returned.
+     * @return number of open rentals
+     */
+    public long getOpenCount() {
+        return openCount;
+    }
+}
@@ -0,0 +1,77 @@
+package com.msorrell.project.services;
+
+import com.msorrell.project.models.TaxRateTable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current tax rate table.
+ *
+ * A reload reads and parses the whole rate file before it replaces the table in one step. Quotes take the table
+ * once and use it to the end, so they never wait on a reload and never see a mix of old and new rates.
+ * A rate file that fails to load leaves the current table in place.
+ */
+public class TaxService {
+
+    /**
+     * Rate file. Null when the table was supplied directly.
+     */
+    private final Path rateFile;
+
+    /**
+     * Current tax rate table.
+     */
+    private final AtomicReference<TaxRateTable> table;
+
+    /**
+     * Constructor. The table is never reloaded.
+     * @param table Tax rate table
+     */
+    public TaxService(final TaxRateTable table) {
+        this.rateFile = null;
+        this.table = new AtomicReference<>(table);
+    }
+
+    /**
+     * Constructor. Loads the rate file.
+     * @param rateFile Rate file
+     * @throws IOException exception while reading the file
+     */
+    public TaxService(final Path rateFile) throws IOException {
+        this.rateFile = rateFile;
+        this.table = new AtomicReference<>(TaxRateTable.load(rateFile));
+    }
+
+    /**
+     * Loads the rate file again and replaces the current table.
+     * @return the new table
+     * @throws IOException exception while reading the file
+     * @throws IllegalStateException the service has no rate file
+     */
+    public TaxRateTable reload() throws IOException {
+        if (rateFile == null) {
+            throw new IllegalStateException("Tax service was not created from a rate file");
+        }
+        final TaxRateTable reloaded = TaxRateTable.load(rateFile);
+        table.set(reloaded);
+        return reloaded;
+    }
+
+    /**
+     * Replaces the current table.
+     * @param table Tax rate table
+     */
+    public void setTable(final TaxRateTable table) {
+        this.table.set(table);
+    }
+
+    /**
+     * Current tax rate table.
+     * @return table
+     */
+    public TaxRateTable getTable() {
+        return table.get();
+    }
+}
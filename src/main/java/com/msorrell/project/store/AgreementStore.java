@@ -0,0 +1,349 @@
+package com.msorrell.project.store;
+
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.msorrell.project.util.MoneyUtils.toCents;
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
+
+/**
+ * Off-heap store of Rental Agreements.
+ *
+ * Every agreement is kept as a fixed-width record in direct or memory-mapped buffers, so the history does not
+ * add objects to the heap. Records are read back through an {@link AgreementView} that is reused instead of
+ * allocating an agreement per record. The id of a record is its position in the store, starting at 0.
+ *
+ * Records can only be appended by one thread at a time. Any number of threads can read records that have
+ * already been appended.
+ *
+ * Tools are stored as their tool index in the catalog the store is given, such as the current configuration's.
+ * Catalogs are append-only, so a record reads back the same tool after the catalog is reloaded.
+ */
+public class AgreementStore implements Closeable {
+
+    /**
+     * Size of a record in bytes.
+     */
+    public static final int RECORD_SIZE = 64;
+
+    /**
+     * Offset of the tool index within a record.
+     */
+    static final int TOOL_INDEX_OFFSET = 0;
+
+    /**
+     * Offset of the rental days within a record.
+     */
+    static final int RENTAL_DAYS_OFFSET = 4;
+
+    /**
+     * Offset of the checkout date, in epoch days, within a record.
+     */
+    static final int CHECKOUT_DAY_OFFSET = 8;
+
+    /**
+     * Offset of the due date, in epoch days, within a record.
+     */
+    static final int DUE_DAY_OFFSET = 12;
+
+    /**
+     * Offset of the charge days within a record.
+     */
+    static final int CHARGE_DAYS_OFFSET = 16;
+
+    /**
+     * Offset of the discount percent within a record.
+     */
+    static final int DISCOUNT_PERCENT_OFFSET = 20;
+
+    /**
+     * Offset of the daily rental charge, in cents, within a record.
+     */
+    static final int DAILY_CHARGE_OFFSET = 24;
+
+    /**
+     * Offset of the pre-discount charge, in cents, within a record.
+     */
+    static final int PRE_DISCOUNT_CHARGE_OFFSET = 32;
+
+    /**
+     * Offset of the discount amount, in cents, within a record.
+     */
+    static final int DISCOUNT_AMOUNT_OFFSET = 40;
+
+    /**
+     * Offset of the final charge, in cents, within a record.
+     */
+    static final int FINAL_CHARGE_OFFSET = 48;
+
+    /**
+     * Number of records in each buffer.
+     */
+    private static final int RECORDS_PER_CHUNK = 1 << 20;
+
+    /**
+     * Size of each buffer in bytes.
+     */
+    private static final long CHUNK_SIZE = (long) RECORDS_PER_CHUNK * RECORD_SIZE;
+
+    /**
+     * Size of the header at the start of a store file.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Identifies a store file.
+     */
+    private static final int MAGIC = 0x524E5441;
+
+    /**
+     * Version of the store file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Offset of the record count within the header.
+     */
+    private static final int COUNT_OFFSET = 8;
+
+    /**
+     * Buffers holding the records.
+     * Replaced with a longer copy when the store grows, so readers on other threads always see a complete array.
+     */
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+
+    /**
+     * Supplies the catalog tool indexes are taken from and looked up in.
+     */
+    private final Supplier<ToolCodeIndex> catalog;
+
+    /**
+     * File the buffers are mapped from. Null for a store in direct buffers.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Header of the store file. Null for a store in direct buffers.
+     */
+    private final MappedByteBuffer header;
+
+    /**
+     * Number of records in the store.
+     * Written after the record, so readers never see a partially written record.
+     */
+    private volatile long size;
+
+    /**
+     * Constructor.
+     * @param catalog Supplies the catalog tool indexes are taken from and looked up in
+     * @param channel File the buffers are mapped from. Null for a store in direct buffers
+     * @param header Header of the store file. Null for a store in direct buffers
+     * @param size Number of records already in the store
+     */
+    private AgreementStore(final Supplier<ToolCodeIndex> catalog, final FileChannel channel,
+                           final MappedByteBuffer header, final long size) {
+        this.catalog = catalog;
+        this.channel = channel;
+        this.header = header;
+        this.size = size;
+    }
+
+    /**
+     * Creates a store held in direct buffers, with tools from the compiled catalog. The records are lost when the
+     * store is garbage collected.
+     * @return empty store
+     */
+    public static AgreementStore allocateDirect() {
+        return allocateDirect(() -> TOOL_CODES);
+    }
+
+    /**
+     * Creates a store held in direct buffers. The records are lost when the store is garbage collected.
+     * @param catalog Supplies the catalog tool indexes are taken from and looked up in
+     * @return empty store
+     */
+    public static AgreementStore allocateDirect(final Supplier<ToolCodeIndex> catalog) {
+        return new AgreementStore(catalog, null, null, 0);
+    }
+
+    /**
+     * Opens a store held in a memory-mapped file, with tools from the compiled catalog. The file is created if it
+     * does not exist, otherwise the records already in it are kept.
+     * @param file Store file
+     * @return store
+     * @throws IOException exception while opening or mapping the file
+     */
+    public static AgreementStore mapped(final Path file) throws IOException {
+        return mapped(file, () -> TOOL_CODES);
+    }
+
+    /**
+     * Opens a store held in a memory-mapped file. The file is created if it does not exist, otherwise the
+     * records already in it are kept.
+     * @param file Store file
+     * @param catalog Supplies the catalog tool indexes are taken from and looked up in
+     * @return store
+     * @throws IOException exception while opening or mapping the file
+     */
+    public static AgreementStore mapped(final Path file, final Supplier<ToolCodeIndex> catalog) throws IOException {
+        final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            final boolean created = channel.size() == 0;
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (created) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putLong(COUNT_OFFSET, 0);
+            } else if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " agreement store: " + file);
+            }
+            final AgreementStore store = new AgreementStore(catalog, channel, header,
+                    header.getLong(COUNT_OFFSET));
+            while ((long) store.chunks.length * RECORDS_PER_CHUNK < store.size) {
+                store.addChunk();
+            }
+            return store;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a Rental Agreement to the store.
+     * Amounts are stored in whole cents and dates in epoch days.
+     * @param rentalAgreement Rental Agreement
+     * @return id of the record
+     * @throws IOException exception while growing a mapped store
+     * @throws IllegalArgumentException the tool is not in the catalog
+     */
+    public long append(final RentalAgreement rentalAgreement) throws IOException {
+        final int toolIndex = catalog.get().indexOf(rentalAgreement.getTool());
+        if (toolIndex < 0) {
+            throw new IllegalArgumentException("Tool is not in the catalog: " + rentalAgreement.getTool().getCode());
+        }
+        final long id = size;
+        if (id == (long) chunks.length * RECORDS_PER_CHUNK) {
+            addChunk();
+        }
+        final ByteBuffer chunk = chunk(id);
+        final int offset = offset(id);
+        chunk.putInt(offset + TOOL_INDEX_OFFSET, toolIndex);
+        chunk.putInt(offset + RENTAL_DAYS_OFFSET, rentalAgreement.getRentalDays());
+        chunk.putInt(offset + CHECKOUT_DAY_OFFSET, Math.toIntExact(rentalAgreement.getCheckoutDate().toEpochDay()));
+        chunk.putInt(offset + DUE_DAY_OFFSET, Math.toIntExact(rentalAgreement.getDueDate().toEpochDay()));
+        chunk.putInt(offset + CHARGE_DAYS_OFFSET, rentalAgreement.getChargeDays());
+        chunk.putInt(offset + DISCOUNT_PERCENT_OFFSET, rentalAgreement.getDiscountPercent());
+        chunk.putLong(offset + DAILY_CHARGE_OFFSET, toCents(rentalAgreement.getDailyRentalCharge()));
+        chunk.putLong(offset + PRE_DISCOUNT_CHARGE_OFFSET, toCents(rentalAgreement.getPreDiscountCharge()));
+        chunk.putLong(offset + DISCOUNT_AMOUNT_OFFSET, toCents(rentalAgreement.getDiscountAmount()));
+        chunk.putLong(offset + FINAL_CHARGE_OFFSET, toCents(rentalAgreement.getFinalCharge()));
+        if (header != null) {
+            header.putLong(COUNT_OFFSET, id + 1);
+        }
+        size = id + 1;
+        return id;
+    }
+
+    /**
+     * Points the view at a record.
+     * @param id Id of the record
+     * @param view View to reuse
+     * @return the view that was passed in
+     */
+    public AgreementView get(final long id, final AgreementView view) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No agreement with id " + id);
+        }
+        view.wrap(id, chunk(id), offset(id), catalog.get());
+        return view;
+    }
+
+    /**
+     * Passes every record from the id to the end of the store to the consumer, in id order.
+     * The same view is passed for every record, so it must not be kept after the consumer returns.
+     * @param fromId Id of the first record
+     * @param consumer Consumer of the records
+     */
+    public void scan(final long fromId, final Consumer<AgreementView> consumer) {
+        final AgreementView view = new AgreementView();
+        final ToolCodeIndex toolCodes = catalog.get();
+        final long end = size;
+        for (long id = Math.max(fromId, 0); id < end; id++) {
+            view.wrap(id, chunk(id), offset(id), toolCodes);
+            consumer.accept(view);
+        }
+    }
+
+    /**
+     * Returns the catalog the store's tool indexes are looked up in.
+     * @return current catalog
+     */
+    public ToolCodeIndex getToolCodes() {
+        return catalog.get();
+    }
+
+    /**
+     * Returns the number of records in the store.
+     * @return number of records
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Flushes a mapped store to its file and closes it. Does nothing for a store in direct buffers.
+     * @throws IOException exception while closing the file
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            for (final ByteBuffer chunk : chunks) {
+                ((MappedByteBuffer) chunk).force();
+            }
+            header.force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Adds a buffer with room for another {@link #RECORDS_PER_CHUNK} records.
+     * @throws IOException exception while mapping the file
+     */
+    private void addChunk() throws IOException {
+        final ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+        grown[chunks.length] = channel == null ? ByteBuffer.allocateDirect((int) CHUNK_SIZE)
+                : channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + chunks.length * CHUNK_SIZE, CHUNK_SIZE);
+        chunks = grown;
+    }
+
+    /**
+     * Retrieves the buffer holding a record.
+     * @param id Id of the record
+     * @return buffer
+     */
+    private ByteBuffer chunk(final long id) {
+        return chunks[(int) (id / RECORDS_PER_CHUNK)];
+    }
+
+    /**
+     * Retrieves the offset of a record within its buffer.
+     * @param id Id of the record
+     * @return offset in bytes
+     */
+    private static int offset(final long id) {
+        return (int) (id % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,128 @@
+package com.msorrell.project.store;
+
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import static com.msorrell.project.store.AgreementStore.CHARGE_DAYS_OFFSET;
+import static com.msorrell.project.store.AgreementStore.CHECKOUT_DAY_OFFSET;
+import static com.msorrell.project.store.AgreementStore.DAILY_CHARGE_OFFSET;
+import static com.msorrell.project.store.AgreementStore.DISCOUNT_AMOUNT_OFFSET;
+import static com.msorrell.project.store.AgreementStore.DISCOUNT_PERCENT_OFFSET;
+import static com.msorrell.project.store.AgreementStore.DUE_DAY_OFFSET;
+import static com.msorrell.project.store.AgreementStore.FINAL_CHARGE_OFFSET;
+import static com.msorrell.project.store.AgreementStore.PRE_DISCOUNT_CHARGE_OFFSET;
+import static com.msorrell.project.store.AgreementStore.RENTAL_DAYS_OFFSET;
+import static com.msorrell.project.store.AgreementStore.TOOL_INDEX_OFFSET;
+import static com.msorrell.project.util.MoneyUtils.fromCents;
+
+/**
+ * Reusable view of one record in an {@link AgreementStore}.
+ * Reads the fields straight from the store's buffer. A view is not thread safe.
+ */
+public class AgreementView {
+
+    /**
+     * Id of the record.
+     */
+    private long id = -1;
+
+    /**
+     * Buffer holding the record.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Offset of the record within the buffer.
+     */
+    private int offset;
+
+    /**
+     * Catalog the record's tool is looked up in.
+     */
+    private ToolCodeIndex toolCodes;
+
+    /**
+     * Points the view at a record.
+     * @param id Id of the record
+     * @param buffer Buffer holding the record
+     * @param offset Offset of the record within the buffer
+     * @param toolCodes Catalog the record's tool is looked up in
+     */
+    void wrap(final long id, final ByteBuffer buffer, final int offset, final ToolCodeIndex toolCodes) {
+        this.id = id;
+        this.buffer = buffer;
+        this.offset = offset;
+        this.toolCodes = toolCodes;
+    }
+
+    /**
+     * Copies the record into a new Rental Agreement.
+     * @return Rental Agreement
+     */
+    public RentalAgreement toRentalAgreement() {
+        final RentalAgreement rentalAgreement = new RentalAgreement();
+        rentalAgreement.setTool(getTool());
+        rentalAgreement.setRentalDays(getRentalDays());
+        rentalAgreement.setCheckoutDate(LocalDate.ofEpochDay(getCheckoutEpochDay()));
+        rentalAgreement.setDueDate(LocalDate.ofEpochDay(getDueEpochDay()));
+        rentalAgreement.setDailyRentalCharge(fromCents(getDailyRentalChargeCents()));
+        rentalAgreement.setChargeDays(getChargeDays());
+        rentalAgreement.setPreDiscountCharge(fromCents(getPreDiscountChargeCents()));
+        rentalAgreement.setDiscountPercent(getDiscountPercent());
+        rentalAgreement.setDiscountAmount(fromCents(getDiscountAmountCents()));
+        rentalAgreement.setFinalCharge(fromCents(getFinalChargeCents()));
+        return rentalAgreement;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getToolIndex() {
+        return buffer.getInt(offset + TOOL_INDEX_OFFSET);
+    }
+
+    public Tool getTool() {
+        return toolCodes.getTools().get(getToolIndex());
+    }
+
+    public int getRentalDays() {
+        return buffer.getInt(offset + RENTAL_DAYS_OFFSET);
+    }
+
+    public int getCheckoutEpochDay() {
+        return buffer.getInt(offset + CHECKOUT_DAY_OFFSET);
+    }
+
+    public int getDueEpochDay() {
+        return buffer.getInt(offset + DUE_DAY_OFFSET);
+    }
+
+    public int getChargeDays() {
+        return buffer.getInt(offset + CHARGE_DAYS_OFFSET);
+    }
+
+    public int getDiscountPercent() {
+        return buffer.getInt(offset + DISCOUNT_PERCENT_OFFSET);
+    }
+
+    public long getDailyRentalChargeCents() {
+        return buffer.getLong(offset + DAILY_CHARGE_OFFSET);
+    }
+
+    public long getPreDiscountChargeCents() {
+        return buffer.getLong(offset + PRE_DISCOUNT_CHARGE_OFFSET);
+    }
+
+    public long getDiscountAmountCents() {
+        return buffer.getLong(offset + DISCOUNT_AMOUNT_OFFSET);
+    }
+
+    public long getFinalChargeCents() {
+        return buffer.getLong(offset + FINAL_CHARGE_OFFSET);
+    }
+}
@@ -0,0 +1,120 @@
+package com.msorrell.project.store;
+
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static com.msorrell.project.validators.InputValidator.findTool;
+
+/**
+ * Agreement store with secondary indexes on the due date and on the tool code.
+ * The indexes are updated as agreements are appended, so queries never scan the store.
+ *
+ * The tool code index is kept per tool and keyed by the checkout date, so the rentals of one tool
+ * can be found for a range of checkout dates. Tools are looked up in the store's catalog, and a tool added to
+ * the catalog gets its index with its first agreement.
+ */
+public class IndexedAgreementStore implements Closeable {
+
+    /**
+     * Store holding the agreements.
+     */
+    private final AgreementStore store;
+
+    /**
+     * Index of the record ids by due date, in epoch days.
+     */
+    private final IntKeyIndex dueDateIndex = new IntKeyIndex();
+
+    /**
+     * Index of the record ids by checkout date, in epoch days, for each tool index. Grows with the catalog.
+     */
+    private IntKeyIndex[] toolIndexes = new IntKeyIndex[0];
+
+    /**
+     * Constructor. Indexes the agreements that are already in the store.
+     * @param store Store holding the agreements
+     */
+    public IndexedAgreementStore(final AgreementStore store) {
+        this.store = store;
+        store.scan(0, view -> index(view.getId(), view.getToolIndex(), view.getCheckoutEpochDay(),
+                view.getDueEpochDay()));
+    }
+
+    /**
+     * Appends a Rental Agreement to the store and adds it to the indexes.
+     * @param rentalAgreement Rental Agreement
+     * @return id of the record
+     * @throws IOException exception while growing a mapped store
+     */
+    public long append(final RentalAgreement rentalAgreement) throws IOException {
+        final long id = store.append(rentalAgreement);
+        index(id, store.getToolCodes().indexOf(rentalAgreement.getTool()),
+                Math.toIntExact(rentalAgreement.getCheckoutDate().toEpochDay()),
+                Math.toIntExact(rentalAgreement.getDueDate().toEpochDay()));
+        return id;
+    }
+
+    /**
+     * Finds the agreements that are due back within the range. Both dates are inclusive.
+     * @param fromDate First due date
+     * @param toDate Last due date
+     * @return record ids in ascending order
+     */
+    public long[] findDueBetween(final LocalDate fromDate, final LocalDate toDate) {
+        return dueDateIndex.find(Math.toIntExact(fromDate.toEpochDay()), Math.toIntExact(toDate.toEpochDay()));
+    }
+
+    /**
+     * Finds the rentals of a tool that were checked out within the range. Both dates are inclusive.
+     * @param toolCode Tool's code
+     * @param fromDate First checkout date
+     * @param toDate Last checkout date
+     * @return record ids in ascending order, empty if the tool code is not valid
+     */
+    public long[] findByToolCode(final String toolCode, final LocalDate fromDate, final LocalDate toDate) {
+        final ToolCodeIndex toolCodes = store.getToolCodes();
+        final int toolIndex = toolCodes.indexOf(findTool(toolCodes, toolCode));
+        if (toolIndex < 0 || toolIndex >= toolIndexes.length) {
+            return new long[0];
+        }
+        return toolIndexes[toolIndex].find(Math.toIntExact(fromDate.toEpochDay()),
+                Math.toIntExact(toDate.toEpochDay()));
+    }
+
+    public AgreementStore getStore() {
+        return store;
+    }
+
+    /**
+     * Closes the underlying store.
+     * @throws IOException exception while closing the store
+     */
+    @Override
+    public void close() throws IOException {
+        store.close();
+    }
+
+    /**
+     * Adds a record to the indexes.
+     * @param id Id of the record
+     * @param toolIndex Tool index of the record
+     * @param checkoutEpochDay Checkout date in epoch days
+     * @param dueEpochDay Due date in epoch days
+     */
+    private void index(final long id, final int toolIndex, final int checkoutEpochDay, final int dueEpochDay) {
+        dueDateIndex.add(dueEpochDay, id);
+        if (toolIndex >= toolIndexes.length) {
+            final int length = toolIndexes.length;
+            toolIndexes = Arrays.copyOf(toolIndexes, toolIndex + 1);
+            for (int i = length; i < toolIndexes.length; i++) {
+                toolIndexes[i] = new IntKeyIndex();
+            }
+        }
+        toolIndexes[toolIndex].add(checkoutEpochDay, id);
+    }
+}
@@ -0,0 +1,201 @@
+package com.msorrell.project.store;
+
+import java.util.Arrays;
+
+/**
+ * Sorted index from an int key, such as an epoch day, to record ids.
+ *
+ * Each entry is packed into one long, the key in the high 32 bits and the id in the low 32 bits, so the whole
+ * index is a sorted primitive array that is searched with a binary search.
+ * Entries that arrive in key order are appended to the sorted run directly. Entries that arrive out of order
+ * are collected in a small tail that is sorted when it is queried and merged into the run once it grows.
+ *
+ * Record ids must be less than 2^32.
+ */
+public class IntKeyIndex {
+
+    /**
+     * Smallest tail that is merged into the sorted run.
+     */
+    private static final int MIN_MERGE_SIZE = 1024;
+
+    /**
+     * The tail is merged once it is larger than the sorted run divided by this.
+     */
+    private static final int MERGE_RATIO = 8;
+
+    /**
+     * Largest record id that fits in an entry.
+     */
+    private static final long MAX_ID = 0xFFFFFFFFL;
+
+    /**
+     * Entries in sorted order.
+     */
+    private long[] sorted = new long[MIN_MERGE_SIZE];
+
+    /**
+     * Number of entries in the sorted run.
+     */
+    private int sortedSize;
+
+    /**
+     * Entries that arrived out of order.
+     */
+    private long[] tail = new long[MIN_MERGE_SIZE];
+
+    /**
+     * Number of entries in the tail.
+     */
+    private int tailSize;
+
+    /**
+     * Is the tail in sorted order.
+     */
+    private boolean tailSorted = true;
+
+    /**
+     * Adds an entry to the index.
+     * @param key Key
+     * @param id Record id
+     */
+    public synchronized void add(final int key, final long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Record id does not fit in the index: " + id);
+        }
+        final long entry = pack(key, id);
+        if (tailSize == 0 && (sortedSize == 0 || entry >= sorted[sortedSize - 1])) {
+            if (sortedSize == sorted.length) {
+                sorted = Arrays.copyOf(sorted, sorted.length * 2);
+            }
+            sorted[sortedSize++] = entry;
+            return;
+        }
+        if (tailSize == tail.length) {
+            tail = Arrays.copyOf(tail, tail.length * 2);
+        }
+        tail[tailSize++] = entry;
+        tailSorted = false;
+        if (tailSize >= Math.max(MIN_MERGE_SIZE, sortedSize / MERGE_RATIO)) {
+            merge();
+        }
+    }
+
+    /**
+     * Finds the ids of the records whose key is within the range. Both ends are inclusive.
+     * @param fromKey Smallest key
+     * @param toKey Largest key
+     * @return record ids in ascending order
+     */
+    public synchronized long[] find(final int fromKey, final int toKey) {
+        if (fromKey > toKey) {
+            return new long[0];
+        }
+        if (!tailSorted) {
+            Arrays.sort(tail, 0, tailSize);
+            tailSorted = true;
+        }
+        final long fromEntry = pack(fromKey, 0);
+        final long toEntry = pack(toKey, MAX_ID);
+        final int sortedFrom = lowerBound(sorted, sortedSize, fromEntry);
+        final int sortedTo = upperBound(sorted, sortedSize, toEntry);
+        final int tailFrom = lowerBound(tail, tailSize, fromEntry);
+        final int tailTo = upperBound(tail, tailSize, toEntry);
+
+        final long[] ids = new long[sortedTo - sortedFrom + tailTo - tailFrom];
+        int count = 0;
+        for (int i = sortedFrom; i < sortedTo; i++) {
+            ids[count++] = sorted[i] & MAX_ID;
+        }
+        for (int i = tailFrom; i < tailTo; i++) {
+            ids[count++] = tail[i] & MAX_ID;
+        }
+        //Entries are in key order, and the ids are only in order within a key
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Returns the number of entries in the index.
+     * @return number of entries
+     */
+    public synchronized int size() {
+        return sortedSize + tailSize;
+    }
+
+    /**
+     * Merges the tail into the sorted run.
+     */
+    private void merge() {
+        Arrays.sort(tail, 0, tailSize);
+        final long[] merged = new long[Math.max(MIN_MERGE_SIZE, (sortedSize + tailSize) * 2)];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < sortedSize && j < tailSize) {
+            merged[k++] = sorted[i] <= tail[j] ? sorted[i++] : tail[j++];
+        }
+        while (i < sortedSize) {
+            merged[k++] = sorted[i++];
+        }
+        while (j < tailSize) {
+            merged[k++] = tail[j++];
+        }
+        sorted = merged;
+        sortedSize = k;
+        tailSize = 0;
+        tailSorted = true;
+    }
+
+    /**
+     * Packs a key and a record id into an entry. Entries sort by key, then by id.
+     * @param key Key
+     * @param id Record id
+     * @return entry
+     */
+    private static long pack(final int key, final long id) {
+        return (long) key << 32 | id;
+    }
+
+    /**
+     * Finds the position of the first entry that is greater than or equal to the value.
+     * @param entries Sorted entries
+     * @param size Number of entries
+     * @param value Value to search for
+     * @return position of the first entry that is not less than the value
+     */
+    private static int lowerBound(final long[] entries, final int size, final long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (entries[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the position of the first entry that is greater than the value.
+     * @param entries Sorted entries
+     * @param size Number of entries
+     * @param value Value to search for
+     * @return position of the first entry that is greater than the value
+     */
+    private static int upperBound(final long[] entries, final int size, final long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (entries[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,321 @@
+package com.msorrell.project.store;
+
+import com.msorrell.project.enums.ToolBrand;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.models.DayBreakdown;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.util.CalendarUtils;
+import com.msorrell.project.util.ProjectUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Memory-mapped snapshot of the tool catalog and a precomputed calendar.
+ *
+ * The calendar holds running counts of weekend days and holidays for every day in a range of years, so the
+ * breakdown of any rental within the range is two subtractions. A snapshot is written once by {@link #write} and
+ * mapped read-only at startup, so a short-lived process can quote without recomputing either table.
+ *
+ * File layout: a 64 byte header, the catalog (8 bytes per tool: 4 byte ASCII code, type ordinal, brand ordinal,
+ * 2 unused bytes), the running weekend counts, then the running holiday counts. The counts are ints, one more than
+ * the number of days, so the count before the first day is 0.
+ *
+ * A snapshot is immutable and can be read by any number of threads.
+ */
+public final class ReferenceDataSnapshot {
+
+    /**
+     * Identifies a snapshot file.
+     */
+    private static final int MAGIC = 0x524E5453;
+
+    /**
+     * Version of the snapshot file format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Size of the header at the start of a snapshot file.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * Offset of the first day, in epoch days, within the header.
+     */
+    private static final int FIRST_DAY_OFFSET = 8;
+
+    /**
+     * Offset of the day count within the header.
+     */
+    private static final int DAY_COUNT_OFFSET = 16;
+
+    /**
+     * Offset of the tool count within the header.
+     */
+    private static final int TOOL_COUNT_OFFSET = 20;
+
+    /**
+     * Offset of the enum fingerprint within the header.
+     */
+    private static final int FINGERPRINT_OFFSET = 24;
+
+    /**
+     * Offset of the checksum of everything after the header within the header.
+     */
+    private static final int CHECKSUM_OFFSET = 32;
+
+    /**
+     * Size of a catalog entry in bytes.
+     */
+    private static final int TOOL_ENTRY_SIZE = 8;
+
+    /**
+     * Length of a tool code.
+     */
+    private static final int TOOL_CODE_LENGTH = 4;
+
+    /**
+     * Mapped snapshot file.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * First day of the calendar, in epoch days.
+     */
+    private final long firstDay;
+
+    /**
+     * Number of days in the calendar.
+     */
+    private final int dayCount;
+
+    /**
+     * Offset of the running weekend counts.
+     */
+    private final int weekendOffset;
+
+    /**
+     * Offset of the running holiday counts.
+     */
+    private final int holidayOffset;
+
+    /**
+     * Tools in the catalog, in tool index order.
+     */
+    private final List<Tool> tools;
+
+    /**
+     * Constructor.
+     * @param buffer Mapped snapshot file
+     */
+    private ReferenceDataSnapshot(final ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.firstDay = buffer.getLong(FIRST_DAY_OFFSET);
+        this.dayCount = buffer.getInt(DAY_COUNT_OFFSET);
+        final int toolCount = buffer.getInt(TOOL_COUNT_OFFSET);
+        this.weekendOffset = HEADER_SIZE + toolCount * TOOL_ENTRY_SIZE;
+        this.holidayOffset = weekendOffset + (dayCount + 1) * Integer.BYTES;
+
+        final ToolType[] toolTypes = ToolType.values();
+        final ToolBrand[] toolBrands = ToolBrand.values();
+        final List<Tool> catalog = new ArrayList<>(toolCount);
+        final byte[] code = new byte[TOOL_CODE_LENGTH];
+        for (int i = 0; i < toolCount; i++) {
+            final int entry = HEADER_SIZE + i * TOOL_ENTRY_SIZE;
+            for (int j = 0; j < TOOL_CODE_LENGTH; j++) {
+                code[j] = buffer.get(entry + j);
+            }
+            catalog.add(new Tool(toolTypes[buffer.get(entry + TOOL_CODE_LENGTH)],
+                    toolBrands[buffer.get(entry + TOOL_CODE_LENGTH + 1)],
+                    new String(code, StandardCharsets.US_ASCII)));
+        }
+        this.tools = Collections.unmodifiableList(catalog);
+    }
+
+    /**
+     * Writes a snapshot of the catalog in {@link ProjectUtils#TOOLS} and the calendar for a range of years.
+     * The file is written beside the target and moved into place, so a process never maps a partial snapshot.
+     * @param file Snapshot file
+     * @param firstYear First year of the calendar
+     * @param lastYear Last year of the calendar, inclusive
+     * @throws IOException exception while writing the file
+     */
+    public static void write(final Path file, final int firstYear, final int lastYear) throws IOException {
+        final LocalDate first = LocalDate.of(firstYear, 1, 1);
+        final int dayCount = Math.toIntExact(LocalDate.of(lastYear + 1, 1, 1).toEpochDay() - first.toEpochDay());
+        final List<Tool> catalog = ProjectUtils.TOOLS;
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + catalog.size() * TOOL_ENTRY_SIZE
+                + 2 * (dayCount + 1) * Integer.BYTES);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putLong(FIRST_DAY_OFFSET, first.toEpochDay());
+        buffer.putInt(DAY_COUNT_OFFSET, dayCount);
+        buffer.putInt(TOOL_COUNT_OFFSET, catalog.size());
+        buffer.putLong(FINGERPRINT_OFFSET, fingerprint());
+
+        buffer.position(HEADER_SIZE);
+        for (final Tool tool : catalog) {
+            buffer.put(tool.getCode().getBytes(StandardCharsets.US_ASCII), 0, TOOL_CODE_LENGTH);
+            buffer.put((byte) tool.getType().ordinal());
+            buffer.put((byte) tool.getBrand().ordinal());
+            buffer.putShort((short) 0);
+        }
+        final int weekendOffset = buffer.position();
+        final int holidayOffset = weekendOffset + (dayCount + 1) * Integer.BYTES;
+        int weekends = 0;
+        int holidays = 0;
+        LocalDate day = first;
+        for (int i = 0; i < dayCount; i++) {
+            buffer.putInt(weekendOffset + i * Integer.BYTES, weekends);
+            buffer.putInt(holidayOffset + i * Integer.BYTES, holidays);
+            if (CalendarUtils.isHoliday(day)) {
+                holidays++;
+            } else if (CalendarUtils.isWeekend(day.getDayOfWeek())) {
+                weekends++;
+            }
+            day = day.plusDays(1);
+        }
+        buffer.putInt(weekendOffset + dayCount * Integer.BYTES, weekends);
+        buffer.putInt(holidayOffset + dayCount * Integer.BYTES, holidays);
+        buffer.putLong(CHECKSUM_OFFSET, checksum(buffer));
+
+        final Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            buffer.clear();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a snapshot file.
+     * @param file Snapshot file
+     * @return snapshot
+     * @throws IOException exception while mapping the file, or the file is not a valid snapshot for this build
+     */
+    public static ReferenceDataSnapshot open(final Path file) throws IOException {
+        final MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a reference data snapshot: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a version " + VERSION + " reference data snapshot: " + file);
+        }
+        if (buffer.getLong(FINGERPRINT_OFFSET) != fingerprint()) {
+            throw new IOException("Reference data snapshot was written for different tool types or brands: " + file);
+        }
+        final long expectedSize = HEADER_SIZE + (long) buffer.getInt(TOOL_COUNT_OFFSET) * TOOL_ENTRY_SIZE
+                + 2L * (buffer.getInt(DAY_COUNT_OFFSET) + 1) * Integer.BYTES;
+        if (buffer.capacity() != expectedSize || buffer.getLong(CHECKSUM_OFFSET) != checksum(buffer)) {
+            throw new IOException("Reference data snapshot is corrupt: " + file);
+        }
+        return new ReferenceDataSnapshot(buffer);
+    }
+
+    /**
+     * Counts the weekdays, weekend days, and holidays between two dates. Both dates are inclusive.
+     * Ranges outside the snapshot's calendar are calculated by {@link CalendarUtils#breakdown}.
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return breakdown of the range
+     */
+    public DayBreakdown breakdown(final LocalDate startDate, final LocalDate endDate) {
+        final long start = startDate.toEpochDay() - firstDay;
+        final long end = endDate.toEpochDay() - firstDay + 1;
+        if (end <= start) {
+            return new DayBreakdown(0, 0, 0);
+        }
+        if (start < 0 || end > dayCount) {
+            return CalendarUtils.breakdown(startDate, endDate);
+        }
+        final int weekends = count(weekendOffset, (int) end) - count(weekendOffset, (int) start);
+        final int holidays = count(holidayOffset, (int) end) - count(holidayOffset, (int) start);
+        return new DayBreakdown((int) (end - start) - weekends - holidays, weekends, holidays);
+    }
+
+    /**
+     * Determines if the calendar covers a range. Both dates are inclusive.
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return true - covered, false - at least one day is outside the calendar
+     */
+    public boolean covers(final LocalDate startDate, final LocalDate endDate) {
+        return startDate.toEpochDay() >= firstDay && endDate.toEpochDay() < firstDay + dayCount;
+    }
+
+    /**
+     * Tools in the catalog, in tool index order.
+     * @return tools
+     */
+    public List<Tool> getTools() {
+        return tools;
+    }
+
+    /**
+     * Reads a running count.
+     * @param offset Offset of the running counts
+     * @param day Day within the calendar
+     * @return count of the days before the day
+     */
+    private int count(final int offset, final int day) {
+        return buffer.getInt(offset + day * Integer.BYTES);
+    }
+
+    /**
+     * Fingerprint of the tool types and brands the catalog ordinals refer to.
+     * @return fingerprint
+     */
+    private static long fingerprint() {
+        long fingerprint = 1;
+        for (final ToolType toolType : ToolType.values()) {
+            fingerprint = 31 * fingerprint + toolType.name().hashCode();
+        }
+        for (final ToolBrand toolBrand : ToolBrand.values()) {
+            fingerprint = 31 * fingerprint + toolBrand.name().hashCode();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Checksum of everything after the header.
+     * @param buffer Snapshot
+     * @return checksum
+     */
+    private static long checksum(final ByteBuffer buffer) {
+        final CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(HEADER_SIZE));
+        return crc.getValue();
+    }
+
+    /**
+     * Writes a snapshot.
+     * Arguments: snapshot file, first year (default 2000), last year (default 2100).
+     * @param args Command line arguments
+     * @throws IOException exception while writing the file
+     */
+    public static void main(final String[] args) throws IOException {
+        final int firstYear = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        final int lastYear = args.length > 2 ? Integer.parseInt(args[2]) : 2100;
+        write(Path.of(args[0]), firstYear, lastYear);
+    }
+}
@@ -0,0 +1,354 @@
+package com.msorrell.project.store;
+
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
+
+/**
+ * Index of the days each tool is out on rent, for fleet utilization reports.
+ *
+ * Every store and tool has a bitset with one bit per day of a fixed range of epoch days. An agreement sets the bits
+ * of its rented days, from the checkout date up to but not including the due date, filling whole 64-day words at
+ * a time. Utilization and overlap are counted with popcounts over the words of a date range. Across stores, a day
+ * counts when the tool is out at any store. Days outside the index's range are ignored.
+ *
+ * Stores are identified by the agreement's jurisdiction; agreements without one are indexed under
+ * {@link #NO_STORE}. Agreements are added under a write lock, and any number of queries run at once. Report
+ * queries count the tools in parallel.
+ *
+ * Tools are looked up in the catalog the index is given, such as the current configuration's, so tools added by a
+ * reload are indexed and reported along with the rest.
+ */
+public class UtilizationIndex {
+
+    /**
+     * Store of the agreements without a jurisdiction.
+     */
+    public static final String NO_STORE = "";
+
+    /**
+     * Number of bits in a word.
+     */
+    private static final int WORD_BITS = Long.SIZE;
+
+    /**
+     * Supplies the catalog tool indexes are looked up in.
+     */
+    private final Supplier<ToolCodeIndex> catalog;
+
+    /**
+     * First day of the range, in epoch days.
+     */
+    private final long firstDay;
+
+    /**
+     * Number of days in the range.
+     */
+    private final int dayCount;
+
+    /**
+     * Bitsets of each store, indexed by tool index. A tool's bitset is created with its first agreement, and the
+     * array grows with the catalog.
+     */
+    private final Map<String, long[][]> stores = new HashMap<>();
+
+    /**
+     * Guards the bitsets.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Constructor. Tools are looked up in the compiled catalog.
+     * @param firstDate First day of the range
+     * @param lastDate Last day of the range
+     */
+    public UtilizationIndex(final LocalDate firstDate, final LocalDate lastDate) {
+        this(firstDate, lastDate, () -> TOOL_CODES);
+    }
+
+    /**
+     * Constructor.
+     * @param firstDate First day of the range
+     * @param lastDate Last day of the range
+     * @param catalog Supplies the catalog tool indexes are looked up in
+     */
+    public UtilizationIndex(final LocalDate firstDate, final LocalDate lastDate,
+                            final Supplier<ToolCodeIndex> catalog) {
+        this.catalog = catalog;
+        if (lastDate.isBefore(firstDate)) {
+            throw new IllegalArgumentException("Last date is before the first date");
+        }
+        this.firstDay = firstDate.toEpochDay();
+        this.dayCount = Math.toIntExact(lastDate.toEpochDay() - firstDay + 1);
+    }
+
+    /**
+     * Adds the rented days of a Rental Agreement.
+     * @param rentalAgreement Rental Agreement
+     */
+    public void add(final RentalAgreement rentalAgreement) {
+        add(rentalAgreement.getJurisdiction(), catalog.get().indexOf(rentalAgreement.getTool()),
+                rentalAgreement.getCheckoutDate().toEpochDay(), rentalAgreement.getDueDate().toEpochDay());
+    }
+
+    /**
+     * Adds rented days. Used to index records without creating agreements, such as those of an
+     * {@link AgreementStore}.
+     * @param store Store, null for {@link #NO_STORE}
+     * @param toolIndex Tool index
+     * @param checkoutDay Checkout date in epoch days. The first rented day
+     * @param dueDay Due date in epoch days. The day after the last rented day
+     */
+    public void add(final String store, final int toolIndex, final long checkoutDay, final long dueDay) {
+        final int toolCount = catalog.get().size();
+        if (toolIndex < 0 || toolIndex >= toolCount) {
+            throw new IllegalArgumentException("No tool with index " + toolIndex);
+        }
+        final int from = (int) Math.max(checkoutDay - firstDay, 0);
+        final int to = (int) Math.min(dueDay - firstDay, dayCount);
+        if (from >= to) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            final String key = store == null ? NO_STORE : store;
+            long[][] tools = stores.get(key);
+            if (tools == null || toolIndex >= tools.length) {
+                tools = tools == null ? new long[toolCount][] : Arrays.copyOf(tools, toolCount);
+                stores.put(key, tools);
+            }
+            if (tools[toolIndex] == null) {
+                tools[toolIndex] = new long[(dayCount + WORD_BITS - 1) / WORD_BITS];
+            }
+            fill(tools[toolIndex], from, to);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the days a tool is out on rent.
+     * @param store Store, null for every store
+     * @param tool Tool
+     * @param fromDate First day counted
+     * @param toDate Last day counted
+     * @return number of rented days
+     */
+    public int rentedDays(final String store, final Tool tool, final LocalDate fromDate, final LocalDate toDate) {
+        lock.readLock().lock();
+        try {
+            return count(bitsets(store, catalog.get().indexOf(tool)), null, start(fromDate), end(toDate));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calculates the share of the days a tool is out on rent.
+     * @param store Store, null for every store
+     * @param tool Tool
+     * @param fromDate First day counted
+     * @param toDate Last day counted
+     * @return share of the days between 0 and 1, 0 if no day of the dates is in the index's range
+     */
+    public double utilization(final String store, final Tool tool, final LocalDate fromDate,
+                              final LocalDate toDate) {
+        final int days = end(toDate) - start(fromDate);
+        return days <= 0 ? 0 : (double) rentedDays(store, tool, fromDate, toDate) / days;
+    }
+
+    /**
+     * Counts the days two tools are both out on rent.
+     * @param store Store, null for every store
+     * @param first Tool
+     * @param second Tool
+     * @param fromDate First day counted
+     * @param toDate Last day counted
+     * @return number of days both tools are rented
+     */
+    public int overlapDays(final String store, final Tool first, final Tool second, final LocalDate fromDate,
+                           final LocalDate toDate) {
+        lock.readLock().lock();
+        try {
+            final ToolCodeIndex toolCodes = catalog.get();
+            return count(bitsets(store, toolCodes.indexOf(first)), bitsets(store, toolCodes.indexOf(second)),
+                    start(fromDate), end(toDate));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Calculates the utilization of every tool in a month. The tools are counted in parallel.
+     * @param store Store, null for every store
+     * @param month Month
+     * @return utilization of each tool, in catalog order
+     */
+    public Map<Tool, Double> monthlyUtilization(final String store, final YearMonth month) {
+        final int from = start(month.atDay(1));
+        final int to = end(month.atEndOfMonth());
+        final int days = to - from;
+        final List<Tool> tools = catalog.get().getTools();
+        final double[] shares = new double[tools.size()];
+        lock.readLock().lock();
+        try {
+            IntStream.range(0, shares.length).parallel().forEach(toolIndex ->
+                    shares[toolIndex] = days <= 0 ? 0 : (double) count(bitsets(store, toolIndex), null, from, to)
+                            / days);
+        } finally {
+            lock.readLock().unlock();
+        }
+        final Map<Tool, Double> utilization = new LinkedHashMap<>();
+        for (int toolIndex = 0; toolIndex < shares.length; toolIndex++) {
+            utilization.put(tools.get(toolIndex), shares[toolIndex]);
+        }
+        return utilization;
+    }
+
+    /**
+     * Calculates the utilization of every tool at every store in a month.
+     * @param month Month
+     * @return utilization of each tool, by store in name order
+     */
+    public Map<String, Map<Tool, Double>> monthlyUtilizationByStore(final YearMonth month) {
+        final List<String> storeNames;
+        lock.readLock().lock();
+        try {
+            storeNames = new ArrayList<>(stores.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        final Map<String, Map<Tool, Double>> report = new TreeMap<>();
+        for (final String store : storeNames) {
+            report.put(store, monthlyUtilization(store, month));
+        }
+        return report;
+    }
+
+    /**
+     * Collects the bitsets of a tool. Called under the read lock.
+     * @param store Store, null for every store
+     * @param toolIndex Tool index
+     * @return bitsets of the tool at the store, or at every store
+     */
+    private List<long[]> bitsets(final String store, final int toolIndex) {
+        if (toolIndex < 0) {
+            throw new IllegalArgumentException("Tool is not in the catalog");
+        }
+        final List<long[]> bitsets = new ArrayList<>();
+        if (store != null) {
+            final long[][] tools = stores.get(store);
+            if (tools != null && toolIndex < tools.length && tools[toolIndex] != null) {
+                bitsets.add(tools[toolIndex]);
+            }
+            return bitsets;
+        }
+        for (final long[][] tools : stores.values()) {
+            if (toolIndex < tools.length && tools[toolIndex] != null) {
+                bitsets.add(tools[toolIndex]);
+            }
+        }
+        return bitsets;
+    }
+
+    /**
+     * Converts the first day of a query into a bit index, clipped to the range.
+     * @param fromDate First day counted
+     * @return index of the first bit counted
+     */
+    private int start(final LocalDate fromDate) {
+        return (int) Math.min(Math.max(fromDate.toEpochDay() - firstDay, 0), dayCount);
+    }
+
+    /**
+     * Converts the last day of a query into a bit index, clipped to the range.
+     * @param toDate Last day counted
+     * @return index just past the last bit counted
+     */
+    private int end(final LocalDate toDate) {
+        return (int) Math.min(Math.max(toDate.toEpochDay() - firstDay + 1, 0), dayCount);
+    }
+
+    /**
+     * Sets a range of bits.
+     * @param words Bitset
+     * @param from Index of the first bit
+     * @param to Index just past the last bit
+     */
+    static void fill(final long[] words, final int from, final int to) {
+        final int firstWord = from / WORD_BITS;
+        final int lastWord = (to - 1) / WORD_BITS;
+        final long firstMask = -1L << from;
+        final long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            words[i] = -1L;
+        }
+        words[lastWord] |= lastMask;
+    }
+
+    /**
+     * Counts the days in a range that are set in any of the first bitsets and, if given, in any of the second.
+     * @param first Bitsets combined with OR
+     * @param second Bitsets combined with OR and then with AND against the first, null to count the first alone
+     * @param from Index of the first bit
+     * @param to Index just past the last bit
+     * @return number of days
+     */
+    static int count(final List<long[]> first, final List<long[]> second, final int from, final int to) {
+        if (from >= to || first.isEmpty() || (second != null && second.isEmpty())) {
+            return 0;
+        }
+        final int firstWord = from / WORD_BITS;
+        final int lastWord = (to - 1) / WORD_BITS;
+        int count = 0;
+        for (int i = firstWord; i <= lastWord; i++) {
+            long word = union(first, i);
+            if (second != null) {
+                word &= union(second, i);
+            }
+            if (i == firstWord) {
+                word &= -1L << from;
+            }
+            if (i == lastWord) {
+                word &= -1L >>> -to;
+            }
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Combines one word of several bitsets with OR.
+     * @param bitsets Bitsets
+     * @param index Index of the word
+     * @return combined word
+     */
+    private static long union(final List<long[]> bitsets, final int index) {
+        long word = 0;
+        for (final long[] bitset : bitsets) {
+            word |= bitset[index];
+        }
+        return word;
+    }
+}
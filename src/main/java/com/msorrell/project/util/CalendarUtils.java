@@ -0,0 +1,131 @@
+package com.msorrell.project.util;
+
+import com.msorrell.project.models.DayBreakdown;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+
+import static java.time.temporal.TemporalAdjusters.firstInMonth;
+
+/**
+ * Utility class for holiday and chargeable day calculations.
+ */
+public final class CalendarUtils {
+
+    /**
+     * Number of days in a week.
+     */
+    private static final int DAYS_PER_WEEK = 7;
+
+    /**
+     * Number of weekend days in a full week.
+     */
+    private static final int WEEKEND_DAYS_PER_WEEK = 2;
+
+    /**
+     * Counts the weekdays, weekend days, and holidays between two dates.
+     * Both dates are inclusive. If the end date is before the start date, every count is 0.
+     *
+     * Holidays are always observed on a weekday, so they are removed from the weekday count.
+     * The counts are calculated arithmetically, so the cost does not grow with the length of the range.
+     *
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return breakdown of the range
+     */
+    public static DayBreakdown breakdown(final LocalDate startDate, final LocalDate endDate) {
+        final long totalDays = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        if (totalDays <= 0) {
+            return new DayBreakdown(0, 0, 0);
+        }
+        final long fullWeeks = totalDays / DAYS_PER_WEEK;
+        long weekendDays = fullWeeks * WEEKEND_DAYS_PER_WEEK;
+        //Only the days after the last full week need to be checked
+        DayOfWeek day = startDate.getDayOfWeek();
+        for (long i = fullWeeks * DAYS_PER_WEEK; i < totalDays; i++) {
+            if (isWeekend(day)) {
+                weekendDays++;
+            }
+            day = day.plus(1);
+        }
+        final long holidays = countHolidays(startDate, endDate);
+        return new DayBreakdown(Math.toIntExact(totalDays - weekendDays - holidays), Math.toIntExact(weekendDays),
+                Math.toIntExact(holidays));
+    }
+
+    /**
+     * Counts the holidays between two dates. Both dates are inclusive.
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return number of holidays
+     */
+    public static int countHolidays(final LocalDate startDate, final LocalDate endDate) {
+        int holidays = 0;
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            if (isBetween(independenceDay(year), startDate, endDate)) {
+                holidays++;
+            }
+            if (isBetween(laborDay(year), startDate, endDate)) {
+                holidays++;
+            }
+        }
+        return holidays;
+    }
+
+    /**
+     * Determines if the day is a weekend day.
+     * @param day DayOfWeek to test
+     * @return true - is weekend day, false - is not weekend day
+     */
+    public static boolean isWeekend(final DayOfWeek day) {
+        return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    }
+
+    /**
+     * Determines if the date is a holiday.
+     * @param date LocalDate to test
+     * @return true - is holiday, false - is not holiday
+     */
+    public static boolean isHoliday(final LocalDate date) {
+        return date.isEqual(independenceDay(date.getYear())) || date.isEqual(laborDay(date.getYear()));
+    }
+
+    /**
+     * Determines the date labor day is observed.
+     * First Monday in September
+     * @param year Year
+     * @return Labor Day
+     */
+    public static LocalDate laborDay(final int year) {
+        return LocalDate.of(year, Month.SEPTEMBER, 1).with(firstInMonth(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * Determines the date independence day is observed.
+     * July 4th - If falls on weekend, it is observed on the closest weekday (if Sat, then
+     * Friday before, if Sunday, then Monday after)
+     * @param year Year
+     * @return Independence Day
+     */
+    public static LocalDate independenceDay(final int year) {
+        final LocalDate independenceDay = LocalDate.of(year, Month.JULY, 4);
+        if (DayOfWeek.SUNDAY.equals(independenceDay.getDayOfWeek())) {
+            return independenceDay.plusDays(1);
+        } else if (DayOfWeek.SATURDAY.equals(independenceDay.getDayOfWeek())) {
+            return independenceDay.minusDays(1);
+        }
+        return independenceDay;
+    }
+
+    /**
+     * Determines if the date falls within the range. Both ends are inclusive.
+     * @param date LocalDate to test
+     * @param startDate First day of the range
+     * @param endDate Last day of the range
+     * @return true - within the range, false - outside the range
+     */
+    private static boolean isBetween(final LocalDate date, final LocalDate startDate, final LocalDate endDate) {
+        return !date.isBefore(startDate) && !date.isAfter(endDate);
+    }
+}
@@ -0,0 +1,224 @@
+package com.msorrell.project.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timer wheel with a resolution of one day.
+ *
+ * Ids are scheduled to fire on an epoch day. The first level has a slot for each of the next 256 days, and each
+ * higher level has a slot for 256 slots of the level below it. When the wheel reaches the start of a higher slot,
+ * that slot's ids are moved down a level. Every id moves at most three times before it fires, so scheduling and
+ * firing cost O(1) amortized no matter how many ids are waiting.
+ *
+ * Ids must be between 0 and 2^32 - 1. A wheel is not thread safe.
+ */
+public class DayTimerWheel {
+
+    /**
+     * Number of bits of the day used by each level.
+     */
+    private static final int LEVEL_BITS = 8;
+
+    /**
+     * Number of slots in each level.
+     */
+    private static final int SLOTS = 1 << LEVEL_BITS;
+
+    /**
+     * Mask selecting a slot within a level.
+     */
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /**
+     * Number of levels. Days further away than the last level are kept in the overflow slot.
+     */
+    private static final int LEVELS = 3;
+
+    /**
+     * Largest id that can be scheduled.
+     */
+    private static final long MAX_ID = 0xFFFFFFFFL;
+
+    /**
+     * Slots of each level. Each entry holds the fire day in the high 32 bits and the id in the low 32 bits.
+     */
+    private final Slot[][] wheel = new Slot[LEVELS][SLOTS];
+
+    /**
+     * Ids that fire beyond the last level.
+     */
+    private final Slot overflow = new Slot();
+
+    /**
+     * Ids that were scheduled for the current day or earlier. They fire on the next advance.
+     */
+    private final Slot late = new Slot();
+
+    /**
+     * The current epoch day. Every id scheduled for this day or earlier has fired or is late.
+     */
+    private int currentDay;
+
+    /**
+     * Number of ids waiting to fire.
+     */
+    private long size;
+
+    /**
+     * Constructor.
+     * @param currentDay The current epoch day
+     */
+    public DayTimerWheel(final int currentDay) {
+        this.currentDay = currentDay;
+        for (final Slot[] level : wheel) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Schedules an id to fire on a day.
+     * An id scheduled for the current day or earlier fires on the next advance.
+     * @param id Id
+     * @param fireDay Epoch day the id fires
+     */
+    public void schedule(final long id, final int fireDay) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalArgumentException("Id does not fit in the wheel: " + id);
+        }
+        final long entry = (long) fireDay << 32 | id;
+        if (fireDay <= currentDay) {
+            late.add(entry);
+        } else {
+            place(entry);
+        }
+        size++;
+    }
+
+    /**
+     * Advances the wheel to a day, firing every id scheduled for that day or earlier.
+     * @param day Epoch day to advance to
+     * @param consumer Receives each id that fires
+     */
+    public void advanceTo(final int day, final LongConsumer consumer) {
+        fire(late, consumer);
+        while (currentDay < day) {
+            currentDay++;
+            //Entering a new block of a higher level moves that block's ids down, starting from the top
+            if ((currentDay & ((1 << (LEVEL_BITS * LEVELS)) - 1)) == 0) {
+                cascade(overflow);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentDay & ((1 << (LEVEL_BITS * level)) - 1)) == 0) {
+                    cascade(wheel[level][(currentDay >> (LEVEL_BITS * level)) & SLOT_MASK]);
+                }
+            }
+            fire(wheel[0][currentDay & SLOT_MASK], consumer);
+        }
+    }
+
+    public int getCurrentDay() {
+        return currentDay;
+    }
+
+    /**
+     * Returns the number of ids waiting to fire.
+     * @return number of ids
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Puts an entry in the slot for its fire day, which must not be before the current day.
+     * The level is the lowest one whose block contains both the current day and the fire day.
+     * An entry moved down for the current day lands in the first level slot that is about to fire.
+     * @param entry Fire day and id
+     */
+    private void place(final long entry) {
+        final int fireDay = (int) (entry >> 32);
+        for (int level = 0; level < LEVELS; level++) {
+            final int shift = LEVEL_BITS * (level + 1);
+            if (fireDay >> shift == currentDay >> shift) {
+                wheel[level][(fireDay >> (LEVEL_BITS * level)) & SLOT_MASK].add(entry);
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    /**
+     * Moves every entry in a slot to a lower level.
+     * @param slot Slot to empty
+     */
+    private void cascade(final Slot slot) {
+        final long[] entries = slot.entries;
+        final int count = slot.size;
+        slot.clear();
+        for (int i = 0; i < count; i++) {
+            place(entries[i]);
+        }
+    }
+
+    /**
+     * Fires every entry in a slot.
+     * @param slot Slot to empty
+     * @param consumer Receives each id that fires
+     */
+    private void fire(final Slot slot, final LongConsumer consumer) {
+        final long[] entries = slot.entries;
+        final int count = slot.size;
+        slot.clear();
+        size -= count;
+        for (int i = 0; i < count; i++) {
+            consumer.accept(entries[i] & MAX_ID);
+        }
+    }
+
+    /**
+     * Growable list of entries.
+     */
+    private static final class Slot {
+
+        /**
+         * Initial capacity of a slot.
+         */
+        private static final int INITIAL_CAPACITY = 8;
+
+        /**
+         * Entries of an empty slot.
+         */
+        private static final long[] EMPTY = new long[0];
+
+        /**
+         * Entries.
+         */
+        private long[] entries = EMPTY;
+
+        /**
+         * Number of entries.
+         */
+        private int size;
+
+        /**
+         * Adds an entry.
+         * @param entry Entry
+         */
+        private void add(final long entry) {
+            if (size == entries.length) {
+                entries = Arrays.copyOf(entries, Math.max(INITIAL_CAPACITY, size * 2));
+            }
+            entries[size++] = entry;
+        }
+
+        /**
+         * Removes every entry. The old array is released so it can be handed to a cascade or a fire.
+         */
+        private void clear() {
+            entries = EMPTY;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.msorrell.project.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds.
+ *
+ * Values are counted in buckets that split every power of two into 16 equal parts, so a percentile is reported
+ * within about 6% of the recorded value while the histogram stays a fixed array of counters.
+ * Recording is thread safe and does not allocate.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Number of bits used to split each power of two.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Number of buckets in each power of two.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of buckets. Covers every positive long.
+     */
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * Count of the values in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     * @param nanos Latency in nanoseconds
+     */
+    public void record(final long nanos) {
+        counts.incrementAndGet(bucket(Math.max(nanos, 0)));
+    }
+
+    /**
+     * Moves every count from this histogram into another one, leaving this histogram empty.
+     * Used to collect the values recorded since the last report.
+     * @param target Histogram that receives the counts
+     */
+    public void drainTo(final LatencyHistogram target) {
+        for (int i = 0; i < BUCKETS; i++) {
+            final long count = counts.getAndSet(i, 0);
+            if (count != 0) {
+                target.counts.addAndGet(i, count);
+            }
+        }
+    }
+
+    /**
+     * Removes every value.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns the number of values recorded.
+     * @return number of values
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value at a percentile.
+     * @param percentile Percentile between 0 and 100
+     * @return highest value of the bucket holding the percentile, 0 if no values were recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return highestValue(i);
+            }
+        }
+        return highestValue(BUCKETS - 1);
+    }
+
+    /**
+     * Returns the largest value recorded.
+     * @return highest value of the highest bucket with a value, 0 if no values were recorded
+     */
+    public long getMax() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Finds the bucket of a value.
+     * @param value Value that is not negative
+     * @return bucket index
+     */
+    private static int bucket(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = highestBit - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Returns the highest value counted in a bucket.
+     * @param bucket Bucket index
+     * @return highest value of the bucket
+     */
+    private static long highestValue(final int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        final int shift = bucket / SUB_BUCKETS - 1;
+        final long lowestValue = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,33 @@
+package com.msorrell.project.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utility class for converting amounts of money between BigDecimal and whole cents.
+ */
+public final class MoneyUtils {
+
+    /**
+     * Number of decimal places in an amount of money.
+     */
+    public static final int CENTS_SCALE = 2;
+
+    /**
+     * Converts an amount of money to whole cents. Rounds half up to the nearest cent.
+     * @param amount Amount of money
+     * @return amount in cents
+     */
+    public static long toCents(final BigDecimal amount) {
+        return amount.setScale(CENTS_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts whole cents to an amount of money with 2 decimal places.
+     * @param cents Amount in cents
+     * @return amount of money
+     */
+    public static BigDecimal fromCents(final long cents) {
+        return BigDecimal.valueOf(cents, CENTS_SCALE);
+    }
+}
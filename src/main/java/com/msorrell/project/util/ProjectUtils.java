@@ -6,6 +6,7 @@ import com.msorrell.project.models.Tool;
 
 import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -55,16 +56,106 @@ public final class ProjectUtils {
      */
     public static final String INVALID_CHECKOUT_DATE_MESSAGE = "Checkout Date must not be null";
 
+    /**
+     * Validation message for a checkout date that is not formatted MM/DD/YY.
+     */
+    public static final String INVALID_CHECKOUT_DATE_FORMAT_MESSAGE = "Checkout Date must be formatted MM/DD/YY";
+
+    /**
+     * Validation message for a checkout line that does not have the expected fields.
+     */
+    public static final String INVALID_CHECKOUT_LINE_MESSAGE =
+            "Checkout line must contain the tool code, rental days, discount percent, and checkout date";
+
+    /**
+     * Separator between the fields of a checkout line.
+     */
+    public static final String CHECKOUT_LINE_SEPARATOR = ",";
+
+    /**
+     * Validation message for invalid customer tier.
+     */
+    public static final String INVALID_CUSTOMER_TIER_MESSAGE = "Customer Tier must not be null";
+
+    /**
+     * Validation message for an invalid discount rule.
+     */
+    public static final String INVALID_DISCOUNT_RULE_MESSAGE =
+            "Discount rule must have a discount between 0 and 100, a valid rental day range, and a valid date range";
+
+    /**
+     * Validation message for a cart without any tools.
+     */
+    public static final String EMPTY_CART_MESSAGE = "Cart must contain at least one tool";
+
+    /**
+     * Validation message for a blank jurisdiction.
+     */
+    public static final String INVALID_JURISDICTION_MESSAGE = "Jurisdiction must not be blank";
+
+    /**
+     * Validation message for a jurisdiction without tax rates.
+     */
+    public static final String UNKNOWN_JURISDICTION_MESSAGE = "No tax rates are loaded for the jurisdiction";
+
+    /**
+     * Validation message for an invalid tax rate.
+     */
+    public static final String INVALID_TAX_RATE_MESSAGE =
+            "Tax rate must have a jurisdiction, a tool type or *, and a rate between 0 and 100 percent";
+
+    /**
+     * Validation message for an invalid catalog tool.
+     */
+    public static final String INVALID_TOOL_MESSAGE =
+            "Tool must have a unique four letter code, a tool type, and a tool brand";
+
+    /**
+     * Validation message for a catalog that does not keep the tools that are already in use.
+     */
+    public static final String CATALOG_CHANGED_MESSAGE =
+            "Tool catalog must list the current tools first, in the same order, and can only add tools after them";
+
+    /**
+     * Message for a checkout that passed validation but could not be priced.
+     */
+    public static final String PRICING_FAILED_MESSAGE = "Checkout could not be priced";
+
+    /**
+     * Validation message for an invalid daily rate.
+     */
+    public static final String INVALID_DAILY_RATE_MESSAGE =
+            "Daily rate must have a tool type, a unique effective date, and a charge of at least 0 in whole cents";
+
+    /**
+     * The available Tools.
+     * A tool's position in the list is its tool index. New tools must be added to the end.
+     */
+    public static final List<Tool> TOOLS = List.of(
+            new Tool(ToolType.LADDER, ToolBrand.WERNER, "LADW"),
+            new Tool(ToolType.CHAINSAW, ToolBrand.STIHL, "CHNS"),
+            new Tool(ToolType.JACKHAMMER, ToolBrand.RIDGID, "JAKR"),
+            new Tool(ToolType.JACKHAMMER, ToolBrand.DEWALT, "JAKD"));
+
+    /**
+     * The available Tools, indexed by tool code.
+     */
+    public static final ToolCodeIndex TOOL_CODES = new ToolCodeIndex(TOOLS);
+
     /**
      * Generates a Set of the available Tools.
      * @return Set of the available Tools
      */
     public static Set<Tool> initializeTools() {
-        final Set<Tool> toolSet = new HashSet<>();
-        toolSet.add(new Tool(ToolType.LADDER, ToolBrand.WERNER, "LADW"));
-        toolSet.add(new Tool(ToolType.CHAINSAW, ToolBrand.STIHL, "CHNS"));
-        toolSet.add(new Tool(ToolType.JACKHAMMER, ToolBrand.RIDGID, "JAKR"));
-        toolSet.add(new Tool(ToolType.JACKHAMMER, ToolBrand.DEWALT, "JAKD"));
-        return toolSet;
+        return new HashSet<>(TOOLS);
+    }
+
+    /**
+     * Retrieves the tool index of the Tool.
+     * @param tool Tool object
+     * @return position of the tool in {@link #TOOLS}, -1 if the tool is not available
+     */
+    public static int toolIndex(final Tool tool) {
+        return TOOL_CODES.indexOf(tool);
     }
 }
@@ -0,0 +1,301 @@
+package com.msorrell.project.util;
+
+import com.msorrell.project.models.CartRentalAgreement;
+import com.msorrell.project.models.ExchangeRate;
+import com.msorrell.project.models.RentalAgreement;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.msorrell.project.util.ProjectUtils.DATE_FORMATTER;
+
+/**
+ * Renders rental agreements as receipts in a locale and currency.
+ *
+ * Number formatters are expensive to create and are not thread safe, so each renderer creates them once per thread
+ * and reuses them for every receipt. Renderers are cached per locale and currency by {@link #of(Locale, Currency)}.
+ * Exchange rates change over time, so a renderer does not hold one. The rate is passed to each render call, and
+ * amounts are converted to the receipt's currency in whole cents before they are formatted.
+ */
+public class ReceiptRenderer {
+
+    /**
+     * Currency every price is charged in.
+     */
+    public static final Currency CHARGE_CURRENCY = Currency.getInstance(Locale.US);
+
+    /**
+     * Renderer for US receipts. Renders the same receipt that has always been printed to the console.
+     */
+    public static final ReceiptRenderer US = new ReceiptRenderer(Locale.US, CHARGE_CURRENCY);
+
+    /**
+     * Renderers by locale and currency.
+     */
+    private static final Map<Locale, Map<Currency, ReceiptRenderer>> RENDERERS = new ConcurrentHashMap<>();
+
+    /**
+     * Locale of the receipt.
+     */
+    private final Locale locale;
+
+    /**
+     * Currency of the receipt.
+     */
+    private final Currency currency;
+
+    /**
+     * Formatter for dates. Thread safe.
+     */
+    private final DateTimeFormatter dateFormatter;
+
+    /**
+     * Formatter for amounts of money, one per thread.
+     */
+    private final ThreadLocal<NumberFormat> currencyFormatter;
+
+    /**
+     * Formatter for day counts, one per thread.
+     */
+    private final ThreadLocal<NumberFormat> dayFormatter;
+
+    /**
+     * Constructor.
+     * US receipts keep the MM/dd/yy date format. Every other locale uses its own short date format.
+     * @param locale Locale of the receipt
+     * @param currency Currency of the receipt
+     */
+    public ReceiptRenderer(final Locale locale, final Currency currency) {
+        this.locale = locale;
+        this.currency = currency;
+        this.dateFormatter = Locale.US.equals(locale) ? DATE_FORMATTER
+                : DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT).withLocale(locale);
+        this.currencyFormatter = ThreadLocal.withInitial(() -> {
+            final NumberFormat formatter = NumberFormat.getCurrencyInstance(locale);
+            formatter.setCurrency(currency);
+            formatter.setMinimumFractionDigits(fractionDigits());
+            formatter.setMaximumFractionDigits(fractionDigits());
+            return formatter;
+        });
+        this.dayFormatter = ThreadLocal.withInitial(() -> {
+            final NumberFormat formatter = NumberFormat.getIntegerInstance(locale);
+            formatter.setGroupingUsed(true);
+            return formatter;
+        });
+    }
+
+    /**
+     * Finds the renderer for a locale and currency, creating it the first time.
+     * @param locale Locale of the receipt
+     * @param currency Currency of the receipt
+     * @return renderer
+     */
+    public static ReceiptRenderer of(final Locale locale, final Currency currency) {
+        return RENDERERS.computeIfAbsent(locale, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(currency, key -> new ReceiptRenderer(locale, currency));
+    }
+
+    /**
+     * Renders a rental agreement in the charge currency.
+     * @param rentalAgreement Rental Agreement
+     * @return receipt
+     * @throws IllegalArgumentException the receipt is not in the charge currency
+     */
+    public String render(final RentalAgreement rentalAgreement) {
+        return render(rentalAgreement, null);
+    }
+
+    /**
+     * Renders a rental agreement. The tax lines are only rendered when the agreement has a jurisdiction.
+     * Every line, including the last, ends with the line separator.
+     * @param rentalAgreement Rental Agreement
+     * @param exchangeRate Rate from the charge currency to the receipt's currency. Null when the receipt is in the
+     *                     charge currency
+     * @return receipt
+     * @throws IllegalArgumentException the exchange rate does not convert from the charge currency to the receipt's
+     *                                  currency
+     */
+    public String render(final RentalAgreement rentalAgreement, final ExchangeRate exchangeRate) {
+        final StringBuilder receipt = new StringBuilder(512);
+        renderTo(rentalAgreement, receipt, exchangeRate);
+        return receipt.toString();
+    }
+
+    /**
+     * Renders a cart rental agreement in the charge currency.
+     * @param cartRentalAgreement Cart Rental Agreement
+     * @return receipt
+     * @throws IllegalArgumentException the receipt is not in the charge currency
+     */
+    public String render(final CartRentalAgreement cartRentalAgreement) {
+        return render(cartRentalAgreement, null);
+    }
+
+    /**
+     * Renders a cart rental agreement: every line followed by a blank line, then the totals.
+     * Every line, including the last, ends with the line separator.
+     * @param cartRentalAgreement Cart Rental Agreement
+     * @param exchangeRate Rate from the charge currency to the receipt's currency. Null when the receipt is in the
+     *                     charge currency
+     * @return receipt
+     * @throws IllegalArgumentException the exchange rate does not convert from the charge currency to the receipt's
+     *                                  currency
+     */
+    public String render(final CartRentalAgreement cartRentalAgreement, final ExchangeRate exchangeRate) {
+        final StringBuilder receipt = new StringBuilder(512 * (cartRentalAgreement.getLines().size() + 1));
+        renderTo(cartRentalAgreement, receipt, exchangeRate);
+        return receipt.toString();
+    }
+
+    /**
+     * Appends a rental agreement to a receipt. Used to render many agreements into one buffer.
+     * @param rentalAgreement Rental Agreement
+     * @param receipt Receipt to append to
+     * @param exchangeRate Rate from the charge currency to the receipt's currency. Null when the receipt is in the
+     *                     charge currency
+     * @throws IllegalArgumentException the exchange rate does not convert from the charge currency to the receipt's
+     *                                  currency
+     */
+    public void renderTo(final RentalAgreement rentalAgreement, final StringBuilder receipt,
+                         final ExchangeRate exchangeRate) {
+        requireExchangeRate(exchangeRate);
+        appendTo(rentalAgreement, receipt, exchangeRate);
+    }
+
+    /**
+     * Appends a cart rental agreement to a receipt.
+     * @param cartRentalAgreement Cart Rental Agreement
+     * @param receipt Receipt to append to
+     * @param exchangeRate Rate from the charge currency to the receipt's currency. Null when the receipt is in the
+     *                     charge currency
+     * @throws IllegalArgumentException the exchange rate does not convert from the charge currency to the receipt's
+     *                                  currency
+     */
+    public void renderTo(final CartRentalAgreement cartRentalAgreement, final StringBuilder receipt,
+                         final ExchangeRate exchangeRate) {
+        requireExchangeRate(exchangeRate);
+        final String lineSeparator = System.lineSeparator();
+        for (final RentalAgreement line : cartRentalAgreement.getLines()) {
+            appendTo(line, receipt, exchangeRate);
+            receipt.append(lineSeparator);
+        }
+        receipt.append("Tools rented: ").append(cartRentalAgreement.getLines().size()).append(lineSeparator)
+                .append("Checkout date: ").append(dateFormatter.format(cartRentalAgreement.getCheckoutDate()))
+                .append(lineSeparator)
+                .append("Due date: ").append(dateFormatter.format(cartRentalAgreement.getDueDate()))
+                .append(lineSeparator)
+                .append("Total pre-discount charge: ")
+                .append(format(cartRentalAgreement.getTotalPreDiscountCharge(), exchangeRate)).append(lineSeparator)
+                .append("Total discount amount: ")
+                .append(format(cartRentalAgreement.getTotalDiscountAmount(), exchangeRate)).append(lineSeparator)
+                .append("Total final charge: ")
+                .append(format(cartRentalAgreement.getTotalFinalCharge(), exchangeRate)).append(lineSeparator);
+        if (cartRentalAgreement.getJurisdiction() != null) {
+            receipt.append("Jurisdiction: ").append(cartRentalAgreement.getJurisdiction()).append(lineSeparator)
+                    .append("Total tax amount: ").append(format(cartRentalAgreement.getTotalTaxAmount(), exchangeRate))
+                    .append(lineSeparator)
+                    .append("Total charge: ").append(format(cartRentalAgreement.getTotalCharge(), exchangeRate))
+                    .append(lineSeparator);
+        }
+    }
+
+    /**
+     * Converts an amount in the charge currency to the receipt's currency and formats it.
+     * @param amount Amount in the charge currency
+     * @param exchangeRate Rate from the charge currency to the receipt's currency. Null when the receipt is in the
+     *                     charge currency
+     * @return formatted amount
+     * @throws IllegalArgumentException the exchange rate does not convert from the charge currency to the receipt's
+     *                                  currency
+     */
+    public String formatMoney(final BigDecimal amount, final ExchangeRate exchangeRate) {
+        requireExchangeRate(exchangeRate);
+        return format(amount, exchangeRate);
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public Currency getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Appends a rental agreement to a receipt. The exchange rate has already been checked.
+     * @param rentalAgreement Rental Agreement
+     * @param receipt Receipt to append to
+     * @param exchangeRate Rate from the charge currency to the receipt's currency. Null for the charge currency
+     */
+    private void appendTo(final RentalAgreement rentalAgreement, final StringBuilder receipt,
+                          final ExchangeRate exchangeRate) {
+        final NumberFormat days = dayFormatter.get();
+        final String lineSeparator = System.lineSeparator();
+        receipt.append("Tool code: ").append(rentalAgreement.getTool().getCode()).append(lineSeparator)
+                .append("Tool type: ").append(rentalAgreement.getTool().getType()).append(lineSeparator)
+                .append("Tool brand: ").append(rentalAgreement.getTool().getBrand()).append(lineSeparator)
+                .append("Rental days: ").append(days.format(rentalAgreement.getRentalDays())).append(lineSeparator)
+                .append("Checkout date: ").append(dateFormatter.format(rentalAgreement.getCheckoutDate()))
+                .append(lineSeparator)
+                .append("Due date: ").append(dateFormatter.format(rentalAgreement.getDueDate())).append(lineSeparator)
+                .append("Daily rental charge: ").append(format(rentalAgreement.getDailyRentalCharge(), exchangeRate))
+                .append(lineSeparator)
+                .append("Charge days: ").append(days.format(rentalAgreement.getChargeDays())).append(lineSeparator)
+                .append("Pre-discount charge: ").append(format(rentalAgreement.getPreDiscountCharge(), exchangeRate))
+                .append(lineSeparator)
+                .append("Discount percent: ").append(rentalAgreement.getDiscountPercent()).append('%')
+                .append(lineSeparator)
+                .append("Discount amount: ").append(format(rentalAgreement.getDiscountAmount(), exchangeRate))
+                .append(lineSeparator)
+                .append("Final charge: ").append(format(rentalAgreement.getFinalCharge(), exchangeRate))
+                .append(lineSeparator);
+        if (rentalAgreement.getJurisdiction() != null) {
+            receipt.append("Jurisdiction: ").append(rentalAgreement.getJurisdiction()).append(lineSeparator)
+                    .append("Tax amount: ").append(format(rentalAgreement.getTaxAmount(), exchangeRate))
+                    .append(lineSeparator)
+                    .append("Total charge: ").append(format(rentalAgreement.getTotalCharge(), exchangeRate))
+                    .append(lineSeparator);
+        }
+    }
+
+    /**
+     * Checks that an exchange rate converts from the charge currency to the receipt's currency.
+     * @param exchangeRate Exchange rate. Null when the receipt is in the charge currency
+     * @throws IllegalArgumentException the exchange rate does not convert from the charge currency to the receipt's
+     *                                  currency
+     */
+    private void requireExchangeRate(final ExchangeRate exchangeRate) {
+        if (exchangeRate == null ? !CHARGE_CURRENCY.equals(currency)
+                : !CHARGE_CURRENCY.equals(exchangeRate.getFrom()) || !currency.equals(exchangeRate.getTo())) {
+            throw new IllegalArgumentException("Exchange rate must convert " + CHARGE_CURRENCY + " to " + currency);
+        }
+    }
+
+    /**
+     * Converts an amount in the charge currency to the receipt's currency and formats it.
+     * @param amount Amount in the charge currency
+     * @param exchangeRate Rate from the charge currency to the receipt's currency. Null for the charge currency
+     * @return formatted amount
+     */
+    private String format(final BigDecimal amount, final ExchangeRate exchangeRate) {
+        long cents = MoneyUtils.toCents(amount);
+        if (exchangeRate != null) {
+            cents = exchangeRate.convert(cents);
+        }
+        return currencyFormatter.get().format(BigDecimal.valueOf(cents, fractionDigits()));
+    }
+
+    /**
+     * Number of decimal places in the receipt's currency.
+     * @return decimal places
+     */
+    private int fractionDigits() {
+        return Math.max(currency.getDefaultFractionDigits(), 0);
+    }
+}
@@ -0,0 +1,170 @@
+package com.msorrell.project.util;
+
+import com.msorrell.project.models.Tool;
+
+import java.util.List;
+
+/**
+ * Index of a tool catalog by tool code.
+ *
+ * A tool code is four ASCII letters, so every code maps to its own slot among the 26^4 possible codes. The code is
+ * encoded in base 26 with its case folded arithmetically, and the slot holds the tool's position in the catalog.
+ * Validating and finding a code is one pass over its four characters and one array read, with no regex and no
+ * String normalization, however many tools the catalog holds.
+ *
+ * The index is immutable once built, and safe to share between threads.
+ */
+public class ToolCodeIndex {
+
+    /**
+     * Length of a tool code.
+     */
+    public static final int CODE_LENGTH = 4;
+
+    /**
+     * Number of letters a code character can be.
+     */
+    private static final int LETTER_COUNT = 26;
+
+    /**
+     * Number of possible tool codes.
+     */
+    public static final int SLOT_COUNT = LETTER_COUNT * LETTER_COUNT * LETTER_COUNT * LETTER_COUNT;
+
+    /**
+     * Returned by {@link #encode(CharSequence, int, int)} when the characters are not a tool code.
+     */
+    public static final int NOT_A_CODE = -1;
+
+    /**
+     * Bit that separates an upper case ASCII letter from its lower case letter.
+     */
+    private static final int CASE_BIT = 0x20;
+
+    /**
+     * Tools in the catalog, in tool index order.
+     */
+    private final List<Tool> tools;
+
+    /**
+     * Tool index plus 1 of the tool in each slot, 0 for an empty slot.
+     */
+    private final int[] slots = new int[SLOT_COUNT];
+
+    /**
+     * Constructor.
+     * @param tools Tools in the catalog, in tool index order
+     * @throws IllegalArgumentException a code is not four letters, or two tools have the same code
+     */
+    public ToolCodeIndex(final List<Tool> tools) {
+        this.tools = List.copyOf(tools);
+        for (int i = 0; i < this.tools.size(); i++) {
+            final String code = this.tools.get(i).getCode();
+            final int slot = encode(code, 0, code.length());
+            if (slot == NOT_A_CODE) {
+                throw new IllegalArgumentException("Tool code is not four letters: " + code);
+            }
+            if (slots[slot] != 0) {
+                throw new IllegalArgumentException("Duplicate tool code: " + code);
+            }
+            slots[slot] = i + 1;
+        }
+    }
+
+    /**
+     * Encodes a tool code into its slot, ignoring case.
+     * @param chars Characters holding the code
+     * @param start Index of the code's first character
+     * @param end Index just past the code's last character
+     * @return slot between 0 and {@link #SLOT_COUNT} - 1, {@link #NOT_A_CODE} if the characters are not four
+     * ASCII letters
+     */
+    public static int encode(final CharSequence chars, final int start, final int end) {
+        if (end - start != CODE_LENGTH) {
+            return NOT_A_CODE;
+        }
+        int slot = 0;
+        for (int i = start; i < end; i++) {
+            //Folds A-Z onto a-z; no other character lands in a-z
+            final int letter = (chars.charAt(i) | CASE_BIT) - 'a';
+            if (letter < 0 || letter >= LETTER_COUNT) {
+                return NOT_A_CODE;
+            }
+            slot = slot * LETTER_COUNT + letter;
+        }
+        return slot;
+    }
+
+    /**
+     * Retrieves the tool index of a tool code, ignoring case.
+     * @param chars Characters holding the code
+     * @param start Index of the code's first character
+     * @param end Index just past the code's last character
+     * @return tool index, -1 if the characters are not the code of a tool in the catalog
+     */
+    public int indexOf(final CharSequence chars, final int start, final int end) {
+        final int slot = encode(chars, start, end);
+        return slot == NOT_A_CODE ? -1 : slots[slot] - 1;
+    }
+
+    /**
+     * Retrieves the tool index of a Tool.
+     * @param tool Tool object
+     * @return tool index, -1 if the tool is not in the catalog
+     */
+    public int indexOf(final Tool tool) {
+        if (tool == null || tool.getCode() == null) {
+            return -1;
+        }
+        final int toolIndex = indexOf(tool.getCode(), 0, tool.getCode().length());
+        return toolIndex >= 0 && tools.get(toolIndex).equals(tool) ? toolIndex : -1;
+    }
+
+    /**
+     * Finds the tool with a code, ignoring case.
+     * @param chars Characters holding the code
+     * @param start Index of the code's first character
+     * @param end Index just past the code's last character
+     * @return Tool, null if the characters are not the code of a tool in the catalog
+     */
+    public Tool find(final CharSequence chars, final int start, final int end) {
+        final int toolIndex = indexOf(chars, start, end);
+        return toolIndex < 0 ? null : tools.get(toolIndex);
+    }
+
+    /**
+     * Finds the tool with a code, ignoring case.
+     * @param toolCode Tool's code
+     * @return Tool, null if the code is null or not the code of a tool in the catalog
+     */
+    public Tool find(final String toolCode) {
+        return toolCode == null ? null : find(toolCode, 0, toolCode.length());
+    }
+
+    /**
+     * Checks that the catalog begins with the tools, each at the same tool index.
+     * A catalog that only adds tools after another one keeps every tool index it had, so records that hold tool
+     * indexes read back the same tools.
+     * @param others Tools, in tool index order
+     * @return true if every tool is at the same tool index in this catalog
+     */
+    public boolean startsWith(final List<Tool> others) {
+        return others.size() <= tools.size() && tools.subList(0, others.size()).equals(others);
+    }
+
+    /**
+     * Retrieves the tools in the catalog.
+     * @return unmodifiable list of the tools, in tool index order
+     */
+    public List<Tool> getTools() {
+        return tools;
+    }
+
+    /**
+     * Retrieves the number of tools in the catalog.
+     * @return number of tools
+     */
+    public int size() {
+        return tools.size();
+    }
+}
@@ -1,13 +1,13 @@
 package com.msorrell.project.validators;
 
 import com.msorrell.project.models.Tool;
+import com.msorrell.project.util.ToolCodeIndex;
 
 import java.time.LocalDate;
 
 import static com.msorrell.project.util.ProjectUtils.CHECKOUT_AGAIN_PATTERN;
 import static com.msorrell.project.util.ProjectUtils.DATE_PATTERN;
-import static com.msorrell.project.util.ProjectUtils.TOOL_CODE_PATTERN;
-import static com.msorrell.project.util.ProjectUtils.initializeTools;
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
 
 /**
  * Validates user input.
@@ -15,39 +15,66 @@ import static com.msorrell.project.util.ProjectUtils.initializeTools;
 public final class InputValidator {
 
     /**
-     * Retrieves the Tool that is associated with the toolCodes passed.
+     * Retrieves the Tool that is associated with the toolCodes passed, from the compiled catalog.
      * Returns null if no tool is associated with the code
      * @param toolCode Tool's code
      * @return Tool object
      */
     public static Tool findTool(final String toolCode) {
-        if (toolCode != null && toolCode.length() == 4) {
-            return initializeTools().stream()
-                    .filter(tool -> toolCode.trim().toUpperCase().equals(tool.getCode())).findFirst()
-                    .orElse(null);
-        }
-        return null;
+        return findTool(TOOL_CODES, toolCode);
+    }
+
+    /**
+     * Retrieves the Tool that is associated with the toolCodes passed, from a catalog.
+     * Returns null if no tool is associated with the code
+     * @param toolCodes Catalog the code is looked up in
+     * @param toolCode Tool's code
+     * @return Tool object
+     */
+    public static Tool findTool(final ToolCodeIndex toolCodes, final String toolCode) {
+        return toolCodes.find(toolCode);
     }
 
     /**
      * Determines if the tool code is valid.
-     * The code needs to be nonnull, not blank, 4 characters long, and one of the provided tool codes.
+     * The code needs to be nonnull, 4 letters long, and one of the compiled catalog's tool codes.
      * @param toolCode String representing the tool code
      * @return true - valid, false - not valid
      */
     public static boolean validateToolCode(final String toolCode) {
-        return toolCode != null && !toolCode.isBlank() && TOOL_CODE_PATTERN.matcher(toolCode).matches()
-                && findTool(toolCode) != null;
+        return validateToolCode(TOOL_CODES, toolCode);
+    }
+
+    /**
+     * Determines if the tool code is valid.
+     * The code needs to be nonnull, 4 letters long, and one of the catalog's tool codes.
+     * @param toolCodes Catalog the code is looked up in
+     * @param toolCode String representing the tool code
+     * @return true - valid, false - not valid
+     */
+    public static boolean validateToolCode(final ToolCodeIndex toolCodes, final String toolCode) {
+        return findTool(toolCodes, toolCode) != null;
     }
 
     /**
      * Determines if the Tool is valid.
-     * The tool needs to have a valid tool code, tool brand, and tool type.
+     * The tool needs to have a valid tool code, tool brand, and tool type in the compiled catalog.
      * @param tool Tool object
      * @return true - valid, false - not valid
      */
     public static boolean validateTool(final Tool tool) {
-        final Tool matchingTool = findTool(tool.getCode());
+        return validateTool(TOOL_CODES, tool);
+    }
+
+    /**
+     * Determines if the Tool is valid.
+     * The tool needs to have a valid tool code, tool brand, and tool type in the catalog.
+     * @param toolCodes Catalog the tool is looked up in
+     * @param tool Tool object
+     * @return true - valid, false - not valid
+     */
+    public static boolean validateTool(final ToolCodeIndex toolCodes, final Tool tool) {
+        final Tool matchingTool = findTool(toolCodes, tool.getCode());
         return  matchingTool != null &&  matchingTool.equals(tool);
     }
 
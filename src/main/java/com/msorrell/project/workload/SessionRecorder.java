@@ -0,0 +1,120 @@
+package com.msorrell.project.workload;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reader that copies every line of an interactive session to a recording, so the session can be replayed by
+ * {@link SessionReplayDriver}.
+ *
+ * Every line read is recorded as it was typed, including answers that fail validation and are asked again.
+ * Recording format: a session starts with a line holding {@link #SESSION_MARKER}, and each line of input follows
+ * with {@link #INPUT_PREFIX} in front of it. Other lines are ignored. Each line is flushed as it is read, so a
+ * session that ends abruptly is still recorded up to its last answer.
+ */
+public class SessionRecorder extends BufferedReader {
+
+    /**
+     * Line that starts a session.
+     */
+    public static final String SESSION_MARKER = "#session";
+
+    /**
+     * Prefix of a line of input.
+     */
+    public static final char INPUT_PREFIX = '>';
+
+    /**
+     * Where the lines are recorded.
+     */
+    private final PrintWriter recording;
+
+    /**
+     * Constructor. Starts a session in the recording.
+     * @param in Input of the session
+     * @param recording Where the lines are recorded. Closed with the reader
+     */
+    public SessionRecorder(final Reader in, final PrintWriter recording) {
+        super(in);
+        this.recording = recording;
+        recording.println(SESSION_MARKER);
+        recording.flush();
+    }
+
+    /**
+     * Creates a recorder that appends the session to a recording file, creating the file if it does not exist.
+     * @param in Input of the session
+     * @param file Recording file
+     * @return recorder
+     * @throws IOException exception while opening the file
+     */
+    public static SessionRecorder append(final Reader in, final Path file) throws IOException {
+        return new SessionRecorder(in, new PrintWriter(Files.newBufferedWriter(file, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND)));
+    }
+
+    /**
+     * Reads a line of input and records it.
+     * @return line, null at the end of the input
+     * @throws IOException exception while reading input
+     */
+    @Override
+    public String readLine() throws IOException {
+        final String line = super.readLine();
+        if (line != null) {
+            recording.print(INPUT_PREFIX);
+            recording.println(line);
+            recording.flush();
+        }
+        return line;
+    }
+
+    /**
+     * Closes the input and the recording.
+     * @throws IOException exception while closing the input
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            recording.close();
+        }
+    }
+
+    /**
+     * Splits a recording into sessions.
+     * @param lines Lines of the recording
+     * @return input lines of each session, in order
+     */
+    public static List<List<String>> parse(final List<String> lines) {
+        final List<List<String>> sessions = new ArrayList<>();
+        List<String> session = null;
+        for (final String line : lines) {
+            if (line.equals(SESSION_MARKER)) {
+                session = new ArrayList<>();
+                sessions.add(session);
+            } else if (session != null && !line.isEmpty() && line.charAt(0) == INPUT_PREFIX) {
+                session.add(line.substring(1));
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Reads a recording file and splits it into sessions.
+     * @param file Recording file
+     * @return input lines of each session, in order
+     * @throws IOException exception while reading the file
+     */
+    public static List<List<String>> load(final Path file) throws IOException {
+        return parse(Files.readAllLines(file));
+    }
+}
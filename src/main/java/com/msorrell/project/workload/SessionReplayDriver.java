@@ -0,0 +1,323 @@
+package com.msorrell.project.workload;
+
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.util.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replays recorded interactive sessions against {@link ToolRentalService#runSession(BufferedReader)} as fast as
+ * they can be answered, and reports how quickly each prompt responds.
+ *
+ * Each session reads its recorded lines from memory and writes its prompts to a console that discards them. A
+ * prompt's response time runs from the moment an answer to it is read until the service writes its next output: the
+ * next prompt, the same prompt asked again after an invalid answer, or the Rental Agreement. Worker threads take the
+ * sessions in turn, so a recording made with {@link SessionRecorder} can be replayed many times over by any number
+ * of concurrent clerks.
+ */
+public class SessionReplayDriver {
+
+    /**
+     * Nanoseconds in a microsecond.
+     */
+    private static final double NANOS_PER_MICRO = 1_000;
+
+    /**
+     * Nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Engine that prices the checkouts.
+     */
+    private final QuoteEngine quoteEngine;
+
+    /**
+     * Number of worker threads.
+     */
+    private final int threads;
+
+    /**
+     * Response times, by the prompt that was answered.
+     */
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * Sessions that ran to the end.
+     */
+    private final AtomicLong completed = new AtomicLong();
+
+    /**
+     * Sessions whose recording ended before the session did.
+     */
+    private final AtomicLong incomplete = new AtomicLong();
+
+    /**
+     * Sessions that failed for any reason other than the recording ending.
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Time spent replaying, in nanoseconds.
+     */
+    private long elapsedNanos;
+
+    /**
+     * Constructor.
+     * @param quoteEngine Engine that prices the checkouts. Shared by every worker
+     * @param threads Number of worker threads
+     */
+    public SessionReplayDriver(final QuoteEngine quoteEngine, final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        this.quoteEngine = quoteEngine;
+        this.threads = threads;
+    }
+
+    /**
+     * Replays the sessions, each of them the given number of times, and waits until every one has finished.
+     * @param sessions Input lines of each session. See {@link SessionRecorder#parse(List)}
+     * @param repetitions Number of times each session is replayed
+     * @throws InterruptedException interrupted while waiting for the workers
+     */
+    public void run(final List<List<String>> sessions, final int repetitions) throws InterruptedException {
+        final List<String> inputs = new ArrayList<>(sessions.size());
+        for (final List<String> session : sessions) {
+            final StringBuilder input = new StringBuilder();
+            for (final String line : session) {
+                input.append(line).append('\n');
+            }
+            inputs.add(input.toString());
+        }
+        final long total = (long) inputs.size() * repetitions;
+        final AtomicLong next = new AtomicLong();
+        final Thread[] workers = new Thread[threads];
+        final long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                long session;
+                while ((session = next.getAndIncrement()) < total) {
+                    replay(inputs.get((int) (session % inputs.size())));
+                }
+            }, "session-replay-" + i);
+            workers[i].start();
+        }
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+        elapsedNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Replays one session. A session that fails is counted, and its worker goes on to the next one.
+     * @param input Recorded input of the session, one line per answer
+     */
+    private void replay(final String input) {
+        final ReplayConsole console = new ReplayConsole();
+        final ToolRentalService toolRentalService = new ToolRentalService(quoteEngine, console);
+        try {
+            toolRentalService.runSession(new ReplayReader(input, console));
+            //The last answer ends the session without another prompt
+            console.respond();
+            completed.incrementAndGet();
+        } catch (EOFException e) {
+            incomplete.incrementAndGet();
+        } catch (IOException | RuntimeException e) {
+            failed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Prints the response times of every prompt, the most answered first, then the overall session rate.
+     * @param out Where the report is written
+     */
+    public void printReport(final PrintStream out) {
+        final List<Map.Entry<String, LatencyHistogram>> prompts = new ArrayList<>(latencies.entrySet());
+        prompts.sort(Comparator.comparingLong((Map.Entry<String, LatencyHistogram> prompt) ->
+                prompt.getValue().getCount()).reversed().thenComparing(Map.Entry::getKey));
+        out.println("prompt,responses,p50_us,p99_us,p99.9_us,max_us");
+        for (final Map.Entry<String, LatencyHistogram> prompt : prompts) {
+            final LatencyHistogram histogram = prompt.getValue();
+            out.printf("\"%s\",%d,%.1f,%.1f,%.1f,%.1f%n", prompt.getKey(), histogram.getCount(),
+                    histogram.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                    histogram.getValueAtPercentile(99) / NANOS_PER_MICRO,
+                    histogram.getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+                    histogram.getMax() / NANOS_PER_MICRO);
+        }
+        out.printf("Sessions: %d, incomplete: %d, failed: %d, sessions per second: %.0f%n", completed.get(),
+                incomplete.get(), failed.get(), getSessionsPerSecond());
+    }
+
+    /**
+     * Retrieves the response times of a prompt.
+     * @param prompt Prompt text
+     * @return response times, null if the prompt was never answered
+     */
+    public LatencyHistogram getLatencies(final String prompt) {
+        return latencies.get(prompt);
+    }
+
+    /**
+     * Retrieves the number of sessions that ran to the end.
+     * @return number of sessions
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * Retrieves the number of sessions whose recording ended before the session did.
+     * @return number of sessions
+     */
+    public long getIncompleteCount() {
+        return incomplete.get();
+    }
+
+    /**
+     * Retrieves the number of sessions that failed for any reason other than the recording ending.
+     * @return number of sessions
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Calculates the rate of sessions replayed, complete or not.
+     * @return sessions per second, 0 before the first run
+     */
+    public double getSessionsPerSecond() {
+        return elapsedNanos == 0 ? 0 : (completed.get() + incomplete.get() + failed.get()) * NANOS_PER_SECOND
+                / elapsedNanos;
+    }
+
+    /**
+     * Replays a recording.
+     * Arguments: recording file, worker threads (default 1), repetitions of each session (default 1).
+     * @param args Command line arguments
+     * @throws IOException exception while reading the recording
+     * @throws InterruptedException interrupted while waiting for the workers
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final List<List<String>> sessions = SessionRecorder.load(Path.of(args[0]));
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        final int repetitions = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        if (sessions.isEmpty()) {
+            System.err.println("No sessions recorded in " + args[0]);
+            return;
+        }
+        final SessionReplayDriver driver = new SessionReplayDriver(new QuoteEngine(), threads);
+        driver.run(sessions, repetitions);
+        driver.printReport(System.out);
+    }
+
+    /**
+     * Console of a replayed session. Discards the output and times the responses to each answer.
+     */
+    private final class ReplayConsole extends PrintStream {
+
+        /**
+         * Last prompt written.
+         */
+        private String prompt;
+
+        /**
+         * Prompt the last answer was given to.
+         */
+        private String answeredPrompt;
+
+        /**
+         * Time the last answer was read, in nanoseconds.
+         */
+        private long answerNanos;
+
+        /**
+         * Is an answer waiting for its response.
+         */
+        private boolean waiting;
+
+        /**
+         * Constructor.
+         */
+        private ReplayConsole() {
+            super(OutputStream.nullOutputStream());
+        }
+
+        /**
+         * Starts timing the response to an answer.
+         */
+        private void answered() {
+            answeredPrompt = prompt;
+            waiting = true;
+            answerNanos = System.nanoTime();
+        }
+
+        /**
+         * Records the response time of the answer that is waiting, if any.
+         */
+        private void respond() {
+            if (waiting) {
+                final long nanos = System.nanoTime() - answerNanos;
+                waiting = false;
+                latencies.computeIfAbsent(String.valueOf(answeredPrompt), key -> new LatencyHistogram())
+                        .record(nanos);
+            }
+        }
+
+        @Override
+        public void print(final String s) {
+            respond();
+            super.print(s);
+        }
+
+        @Override
+        public void println(final String x) {
+            respond();
+            super.println(x);
+            prompt = x;
+        }
+    }
+
+    /**
+     * Reader of a replayed session's recorded input. Tells the console when each answer is read.
+     */
+    private static final class ReplayReader extends BufferedReader {
+
+        /**
+         * Console of the session.
+         */
+        private final ReplayConsole console;
+
+        /**
+         * Constructor.
+         * @param input Recorded input, one line per answer
+         * @param console Console of the session
+         */
+        private ReplayReader(final String input, final ReplayConsole console) {
+            super(new StringReader(input));
+            this.console = console;
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            final String line = super.readLine();
+            if (line != null) {
+                console.answered();
+            }
+            return line;
+        }
+    }
+}
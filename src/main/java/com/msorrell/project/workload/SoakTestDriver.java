@@ -0,0 +1,203 @@
+package com.msorrell.project.workload;
+
+import com.msorrell.project.models.ValidationResult;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.util.LatencyHistogram;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feeds generated checkout lines into the pricing engine for a long run and reports at a fixed interval.
+ *
+ * Each worker thread has its own {@link WorkloadGenerator}, seeded from the run's seed, so a run can be repeated.
+ * Every interval reports the throughput, the rejected lines, the lines that failed to price, the allocation rate of
+ * the workers, and the latency percentiles of parsing and pricing one line. A failure is counted and the worker
+ * moves on to the next line, so one bad line does not end the run.
+ */
+public class SoakTestDriver {
+
+    /**
+     * Nanoseconds in a microsecond.
+     */
+    private static final double NANOS_PER_MICRO = 1_000;
+
+    /**
+     * Bytes in a megabyte.
+     */
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    /**
+     * Service used to price the checkouts.
+     */
+    private final ToolRentalService toolRentalService = new ToolRentalService();
+
+    /**
+     * Seed of the run.
+     */
+    private final long seed;
+
+    /**
+     * Share of the generated lines that are invalid.
+     */
+    private final double invalidRate;
+
+    /**
+     * Number of worker threads.
+     */
+    private final int threads;
+
+    /**
+     * Latencies recorded since the last report.
+     */
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Lines processed since the start of the run.
+     */
+    private final AtomicLong processed = new AtomicLong();
+
+    /**
+     * Lines rejected since the start of the run.
+     */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Valid lines that failed to price since the start of the run.
+     */
+    private final AtomicLong failed = new AtomicLong();
+
+    /**
+     * Set once the run is over.
+     */
+    private volatile boolean stopped;
+
+    /**
+     * Constructor.
+     * @param seed Seed of the run
+     * @param invalidRate Share of the generated lines that are invalid, between 0 and 1
+     * @param threads Number of worker threads
+     */
+    public SoakTestDriver(final long seed, final double invalidRate, final int threads) {
+        this.seed = seed;
+        this.invalidRate = invalidRate;
+        this.threads = threads;
+    }
+
+    /**
+     * Runs the soak test and prints a report line at every interval.
+     * @param durationSeconds Length of the run
+     * @param intervalSeconds Time between reports
+     * @throws InterruptedException interrupted while waiting for the workers
+     */
+    public void run(final long durationSeconds, final long intervalSeconds) throws InterruptedException {
+        final com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final WorkloadGenerator generator = new WorkloadGenerator(seed + i, invalidRate, 2015, 2025);
+            workers[i] = new Thread(() -> work(generator), "soak-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+        final long[] workerIds = new long[threads];
+        for (int i = 0; i < threads; i++) {
+            workerIds[i] = workers[i].getId();
+        }
+
+        final long start = System.nanoTime();
+        final LatencyHistogram interval = new LatencyHistogram();
+        long lastProcessed = 0;
+        long lastAllocated = allocatedBytes(threadBean, workerIds);
+        long lastReport = start;
+        System.out.println("elapsed_s,lines_per_s,rejected,failed,alloc_mb_per_s,p50_us,p99_us,p99.9_us,max_us");
+        while (System.nanoTime() - start < TimeUnit.SECONDS.toNanos(durationSeconds)) {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(intervalSeconds));
+            final long now = System.nanoTime();
+            final double seconds = (now - lastReport) / 1e9;
+            final long currentProcessed = processed.get();
+            final long currentAllocated = allocatedBytes(threadBean, workerIds);
+            latencies.drainTo(interval);
+            System.out.printf("%d,%.0f,%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f%n",
+                    TimeUnit.NANOSECONDS.toSeconds(now - start),
+                    (currentProcessed - lastProcessed) / seconds,
+                    rejected.get(),
+                    failed.get(),
+                    (currentAllocated - lastAllocated) / BYTES_PER_MEGABYTE / seconds,
+                    interval.getValueAtPercentile(50) / NANOS_PER_MICRO,
+                    interval.getValueAtPercentile(99) / NANOS_PER_MICRO,
+                    interval.getValueAtPercentile(99.9) / NANOS_PER_MICRO,
+                    interval.getMax() / NANOS_PER_MICRO);
+            interval.reset();
+            lastProcessed = currentProcessed;
+            lastAllocated = currentAllocated;
+            lastReport = now;
+        }
+        stopped = true;
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+        System.out.println("Total lines: " + processed.get() + ", rejected: " + rejected.get() + ", failed: "
+                + failed.get());
+    }
+
+    /**
+     * Parses and prices generated lines until the run is over.
+     * @param generator Generator of the worker
+     */
+    private void work(final WorkloadGenerator generator) {
+        final ValidationResult result = new ValidationResult();
+        while (!stopped) {
+            final String line = generator.nextLine();
+            final long start = System.nanoTime();
+            final ToolCodeIndex toolCodes = toolRentalService.getToolCodes();
+            if (CheckoutLineParser.validate(line, result, toolCodes)) {
+                try {
+                    toolRentalService.generateRentalAgreement(result.toCheckout(toolCodes));
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                }
+            } else {
+                rejected.incrementAndGet();
+            }
+            latencies.record(System.nanoTime() - start);
+            processed.incrementAndGet();
+        }
+    }
+
+    /**
+     * Sums the bytes allocated by the worker threads since they started.
+     * @param threadBean ThreadMXBean
+     * @param workerIds Ids of the worker threads
+     * @return allocated bytes, 0 if allocation is not measured by the JVM
+     */
+    private static long allocatedBytes(final com.sun.management.ThreadMXBean threadBean, final long[] workerIds) {
+        if (!threadBean.isThreadAllocatedMemorySupported() || !threadBean.isThreadAllocatedMemoryEnabled()) {
+            return 0;
+        }
+        long total = 0;
+        for (final long allocated : threadBean.getThreadAllocatedBytes(workerIds)) {
+            total += Math.max(allocated, 0);
+        }
+        return total;
+    }
+
+    /**
+     * Runs a soak test.
+     * Arguments: seed, duration in seconds, report interval in seconds (default 10), worker threads (default 1),
+     * invalid rate (default 0.05).
+     * @param args Command line arguments
+     * @throws InterruptedException interrupted while waiting for the workers
+     */
+    public static void main(final String[] args) throws InterruptedException {
+        final long seed = Long.parseLong(args[0]);
+        final long durationSeconds = Long.parseLong(args[1]);
+        final long intervalSeconds = args.length > 2 ? Long.parseLong(args[2]) : 10;
+        final int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        final double invalidRate = args.length > 4 ? Double.parseDouble(args[4]) : 0.05;
+        new SoakTestDriver(seed, invalidRate, threads).run(durationSeconds, intervalSeconds);
+    }
+}
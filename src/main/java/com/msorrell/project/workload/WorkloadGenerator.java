@@ -0,0 +1,233 @@
+package com.msorrell.project.workload;
+
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.util.CalendarUtils;
+import com.msorrell.project.util.ProjectUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+
+import static com.msorrell.project.util.ProjectUtils.CHECKOUT_LINE_SEPARATOR;
+import static com.msorrell.project.util.ProjectUtils.DATE_FORMATTER;
+
+/**
+ * Generates a reproducible stream of checkout lines that looks like production traffic.
+ *
+ * The same seed always produces the same lines. Tool codes follow a Zipf distribution, so a few tools make up
+ * most rentals. Rental lengths follow a log-normal distribution: mostly a few days with a long tail of long
+ * rentals. Part of the checkout dates are clustered around the holidays, and a share of the lines can be made
+ * invalid to exercise the rejection path. Lines use the format read by
+ * {@link com.msorrell.project.services.CheckoutLineParser}.
+ *
+ * A generator is not thread safe. Use one generator per thread, each with its own seed.
+ */
+public class WorkloadGenerator {
+
+    /**
+     * Exponent of the Zipf distribution of the tool codes.
+     */
+    private static final double TOOL_SKEW = 1.2;
+
+    /**
+     * Median rental length in days.
+     */
+    private static final double MEDIAN_RENTAL_DAYS = 4;
+
+    /**
+     * Spread of the log-normal rental length.
+     */
+    private static final double RENTAL_DAYS_SIGMA = 0.9;
+
+    /**
+     * Longest rental length generated.
+     */
+    private static final int MAX_RENTAL_DAYS = 730;
+
+    /**
+     * Share of checkouts that are close to a holiday.
+     */
+    private static final double HOLIDAY_SHARE = 0.4;
+
+    /**
+     * Standard deviation, in days, of the checkouts around a holiday.
+     */
+    private static final double HOLIDAY_SPREAD_DAYS = 3;
+
+    /**
+     * Share of checkouts with a discount.
+     */
+    private static final double DISCOUNT_SHARE = 0.3;
+
+    /**
+     * Discounts given to the checkouts with a discount.
+     */
+    private static final int[] DISCOUNTS = {5, 10, 15, 20, 25, 50, 100};
+
+    /**
+     * Number of kinds of invalid lines.
+     */
+    private static final int INVALID_KINDS = 6;
+
+    /**
+     * Source of randomness.
+     */
+    private final Random random;
+
+    /**
+     * Share of the lines that are invalid, between 0 and 1.
+     */
+    private final double invalidRate;
+
+    /**
+     * First year of the checkout dates.
+     */
+    private final int firstYear;
+
+    /**
+     * Number of years of checkout dates.
+     */
+    private final int years;
+
+    /**
+     * Cumulative probability of each tool in {@link ProjectUtils#TOOLS}.
+     */
+    private final double[] toolDistribution;
+
+    /**
+     * Constructor.
+     * @param seed Seed. The same seed produces the same lines
+     * @param invalidRate Share of the lines that are invalid, between 0 and 1
+     * @param firstYear First year of the checkout dates
+     * @param lastYear Last year of the checkout dates
+     */
+    public WorkloadGenerator(final long seed, final double invalidRate, final int firstYear, final int lastYear) {
+        this.random = new Random(seed);
+        this.invalidRate = invalidRate;
+        this.firstYear = firstYear;
+        this.years = lastYear - firstYear + 1;
+        this.toolDistribution = new double[ProjectUtils.TOOLS.size()];
+        double total = 0;
+        for (int rank = 0; rank < toolDistribution.length; rank++) {
+            total += 1 / Math.pow(rank + 1, TOOL_SKEW);
+            toolDistribution[rank] = total;
+        }
+        for (int rank = 0; rank < toolDistribution.length; rank++) {
+            toolDistribution[rank] /= total;
+        }
+    }
+
+    /**
+     * Generates the next checkout line.
+     * @return checkout line
+     */
+    public String nextLine() {
+        final Tool tool = ProjectUtils.TOOLS.get(nextToolIndex());
+        String toolCode = tool.getCode();
+        String rentalDays = String.valueOf(nextRentalDays());
+        String discount = String.valueOf(nextDiscount());
+        String checkoutDate = nextCheckoutDate().format(DATE_FORMATTER);
+        if (random.nextDouble() < invalidRate) {
+            switch (random.nextInt(INVALID_KINDS)) {
+                case 0:
+                    toolCode = "XXXX";
+                    break;
+                case 1:
+                    toolCode = toolCode.substring(1);
+                    break;
+                case 2:
+                    rentalDays = random.nextBoolean() ? "0" : "-" + rentalDays;
+                    break;
+                case 3:
+                    discount = String.valueOf(101 + random.nextInt(100));
+                    break;
+                case 4:
+                    checkoutDate = "13/45/" + checkoutDate.substring(6);
+                    break;
+                default:
+                    return String.join(CHECKOUT_LINE_SEPARATOR, toolCode, rentalDays, discount);
+            }
+        }
+        return String.join(CHECKOUT_LINE_SEPARATOR, toolCode, rentalDays, discount, checkoutDate);
+    }
+
+    /**
+     * Writes checkout lines, one per line.
+     * @param writer Writer
+     * @param count Number of lines
+     * @throws IOException exception while writing
+     */
+    public void writeTo(final Writer writer, final long count) throws IOException {
+        for (long i = 0; i < count; i++) {
+            writer.write(nextLine());
+            writer.write(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Picks a tool index from the Zipf distribution.
+     * @return tool index
+     */
+    private int nextToolIndex() {
+        final double value = random.nextDouble();
+        for (int rank = 0; rank < toolDistribution.length - 1; rank++) {
+            if (value < toolDistribution[rank]) {
+                return rank;
+            }
+        }
+        return toolDistribution.length - 1;
+    }
+
+    /**
+     * Picks a rental length from the log-normal distribution.
+     * @return rental days
+     */
+    private int nextRentalDays() {
+        final double days = MEDIAN_RENTAL_DAYS * Math.exp(RENTAL_DAYS_SIGMA * random.nextGaussian());
+        return (int) Math.max(1, Math.min(MAX_RENTAL_DAYS, Math.round(days)));
+    }
+
+    /**
+     * Picks a discount. Most checkouts do not have one.
+     * @return discount percent
+     */
+    private int nextDiscount() {
+        return random.nextDouble() < DISCOUNT_SHARE ? DISCOUNTS[random.nextInt(DISCOUNTS.length)] : 0;
+    }
+
+    /**
+     * Picks a checkout date. Part of the dates are clustered around a holiday.
+     * @return checkout date
+     */
+    private LocalDate nextCheckoutDate() {
+        final int year = firstYear + random.nextInt(years);
+        if (random.nextDouble() < HOLIDAY_SHARE) {
+            final LocalDate holiday = random.nextBoolean() ? CalendarUtils.independenceDay(year)
+                    : CalendarUtils.laborDay(year);
+            return holiday.plusDays(Math.round(random.nextGaussian() * HOLIDAY_SPREAD_DAYS));
+        }
+        return LocalDate.ofYearDay(year, 1 + random.nextInt(LocalDate.of(year, 1, 1).lengthOfYear()));
+    }
+
+    /**
+     * Writes checkout lines to standard output.
+     * Arguments: seed, number of lines, invalid rate (default 0), first year (default 2015), last year
+     * (default 2025).
+     * @param args Command line arguments
+     * @throws IOException exception while writing
+     */
+    public static void main(final String[] args) throws IOException {
+        final long seed = Long.parseLong(args[0]);
+        final long count = Long.parseLong(args[1]);
+        final double invalidRate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        final int firstYear = args.length > 3 ? Integer.parseInt(args[3]) : 2015;
+        final int lastYear = args.length > 4 ? Integer.parseInt(args[4]) : 2025;
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        new WorkloadGenerator(seed, invalidRate, firstYear, lastYear).writeTo(writer, count);
+        writer.flush();
+    }
+}
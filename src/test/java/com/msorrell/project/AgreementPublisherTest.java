@@ -0,0 +1,151 @@
+package com.msorrell.project;
+
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.pipeline.AgreementPublisher;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+public class AgreementPublisherTest {
+
+    private final ToolRentalService toolRentalService = new ToolRentalService();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testDemandIsHonoredExactly() throws Exception {
+        final List<Checkout> checkouts = checkouts(1_000);
+        final AtomicInteger taken = new AtomicInteger();
+        final Iterator<Checkout> checkoutIterator = checkouts.iterator();
+        final Iterator<Checkout> source = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return checkoutIterator.hasNext();
+            }
+
+            @Override
+            public Checkout next() {
+                taken.incrementAndGet();
+                return checkoutIterator.next();
+            }
+        };
+        final RecordingSubscriber subscriber = new RecordingSubscriber();
+        new AgreementPublisher(toolRentalService, source, executor, 16).subscribe(subscriber);
+
+        subscriber.subscription.request(3);
+        awaitCount(subscriber, 3);
+        Thread.sleep(50);
+        assertEquals(3, subscriber.agreements.size());
+        assertEquals(3, taken.get());
+
+        //Requests from many threads at once add up
+        final List<CompletableFuture<Void>> requests = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            requests.add(CompletableFuture.runAsync(() -> subscriber.subscription.request(5)));
+        }
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).get();
+        awaitCount(subscriber, 503);
+        Thread.sleep(50);
+        assertEquals(503, subscriber.agreements.size());
+        assertEquals(503, taken.get());
+        assertFalse(subscriber.completed.isDone());
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.completed.get(10, TimeUnit.SECONDS);
+        assertEquals(checkouts.size(), subscriber.agreements.size());
+        for (int i = 0; i < checkouts.size(); i++) {
+            assertEquals(toolRentalService.generateRentalAgreement(checkouts.get(i)).toLine(),
+                    subscriber.agreements.get(i).toLine());
+        }
+    }
+
+    @Test
+    void testInvalidRequestAndSecondSubscriber() throws Exception {
+        final AgreementPublisher publisher = new AgreementPublisher(toolRentalService, checkouts(10).iterator(),
+                executor);
+        final RecordingSubscriber first = new RecordingSubscriber();
+        publisher.subscribe(first);
+        first.subscription.request(0);
+        assertInstanceOf(IllegalArgumentException.class, first.error.get(10, TimeUnit.SECONDS));
+
+        final RecordingSubscriber second = new RecordingSubscriber();
+        publisher.subscribe(second);
+        assertInstanceOf(IllegalStateException.class, second.error.get(10, TimeUnit.SECONDS));
+        assertEquals(0, second.agreements.size());
+    }
+
+    private static List<Checkout> checkouts(final int count) {
+        final WorkloadGenerator generator = new WorkloadGenerator(41, 0, 2015, 2025);
+        final List<Checkout> checkouts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            checkouts.add(CheckoutLineParser.parse(generator.nextLine()));
+        }
+        return checkouts;
+    }
+
+    private static void awaitCount(final RecordingSubscriber subscriber, final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (subscriber.agreements.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Subscriber that records every signal and requests nothing on its own.
+     */
+    private static final class RecordingSubscriber implements Flow.Subscriber<RentalAgreement> {
+
+        private final List<RentalAgreement> agreements = new CopyOnWriteArrayList<>();
+
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        private final CompletableFuture<Throwable> error = new CompletableFuture<>();
+
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final RentalAgreement item) {
+            agreements.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error.complete(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            completed.complete(null);
+        }
+    }
+}
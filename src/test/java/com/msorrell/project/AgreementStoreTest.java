@@ -0,0 +1,164 @@
+package com.msorrell.project;
+
+import com.msorrell.project.models.DayBreakdown;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.store.AgreementStore;
+import com.msorrell.project.store.AgreementView;
+import com.msorrell.project.store.IndexedAgreementStore;
+import com.msorrell.project.store.IntKeyIndex;
+import com.msorrell.project.store.ReferenceDataSnapshot;
+import com.msorrell.project.util.CalendarUtils;
+import com.msorrell.project.util.ProjectUtils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AgreementStoreTest {
+
+    private final ToolRentalService toolRentalService = new ToolRentalService();
+
+    @TempDir
+    Path tempDir;
+
+    private RentalAgreement price(final String line) {
+        return toolRentalService.generateRentalAgreement(CheckoutLineParser.parse(line));
+    }
+
+    @Test
+    void testAppendAndGet() throws Exception {
+        try (AgreementStore store = AgreementStore.allocateDirect()) {
+            final RentalAgreement first = price("LADW,3,10,07/02/20");
+            final RentalAgreement second = price("CHNS,5,25,07/02/15");
+            assertEquals(store.append(first), 0);
+            assertEquals(store.append(second), 1);
+            assertEquals(store.size(), 2);
+
+            final AgreementView view = store.get(1, new AgreementView());
+            assertEquals(view.getId(), 1);
+            assertEquals(view.getTool(), second.getTool());
+            assertEquals(view.getChargeDays(), 3);
+            assertEquals(view.getFinalChargeCents(), 335);
+            final RentalAgreement copy = store.get(0, view).toRentalAgreement();
+            assertEquals(copy.getTool(), first.getTool());
+            assertEquals(copy.getCheckoutDate(), first.getCheckoutDate());
+            assertEquals(copy.getDueDate(), first.getDueDate());
+            assertEquals(copy.getDailyRentalCharge(), first.getDailyRentalCharge());
+            assertEquals(copy.getPreDiscountCharge(), first.getPreDiscountCharge());
+            assertEquals(copy.getDiscountAmount(), first.getDiscountAmount());
+            assertEquals(copy.getFinalCharge(), first.getFinalCharge());
+            assertThrows(IndexOutOfBoundsException.class, () -> store.get(2, view));
+        }
+    }
+
+    @Test
+    void testMappedStoreIsReopened() throws Exception {
+        final Path file = tempDir.resolve("agreements.store");
+        final RentalAgreement rentalAgreement = price("JAKR,9,0,07/02/15");
+        try (AgreementStore store = AgreementStore.mapped(file)) {
+            for (int i = 0; i < 1000; i++) {
+                store.append(rentalAgreement);
+            }
+        }
+        try (AgreementStore store = AgreementStore.mapped(file)) {
+            assertEquals(store.size(), 1000);
+            final AtomicLong total = new AtomicLong();
+            store.scan(500, view -> total.addAndGet(view.getFinalChargeCents()));
+            assertEquals(total.get(), 500 * 1495);
+            assertEquals(store.append(rentalAgreement), 1000);
+        }
+    }
+
+    @Test
+    void testIntKeyIndexMatchesFullScan() {
+        final Random random = new Random(42);
+        final IntKeyIndex index = new IntKeyIndex();
+        final int[] keys = new int[20_000];
+        for (int id = 0; id < keys.length; id++) {
+            //Mostly ascending keys with some arriving late, including negative epoch days
+            keys[id] = id / 10 - 500 - (random.nextInt(10) == 0 ? random.nextInt(300) : 0);
+            index.add(keys[id], id);
+            if (id % 5000 == 0) {
+                assertArrayEquals(index.find(-400, -100), scan(keys, id + 1, -400, -100));
+            }
+        }
+        assertEquals(index.size(), keys.length);
+        for (int i = 0; i < 50; i++) {
+            final int from = random.nextInt(2500) - 800;
+            final int to = from + random.nextInt(200);
+            assertArrayEquals(index.find(from, to), scan(keys, keys.length, from, to));
+        }
+        assertEquals(index.find(10, 9).length, 0);
+    }
+
+    @Test
+    void testIndexedAgreementStore() throws Exception {
+        try (IndexedAgreementStore store = new IndexedAgreementStore(AgreementStore.allocateDirect())) {
+            store.append(price("JAKR,5,0,07/02/15"));
+            store.append(price("LADW,4,0,07/01/15"));
+            store.append(price("JAKR,3,0,07/04/15"));
+            store.append(price("JAKR,30,0,10/01/15"));
+            assertArrayEquals(store.findDueBetween(LocalDate.of(2015, 7, 5), LocalDate.of(2015, 7, 7)),
+                    new long[] {0, 1, 2});
+            assertArrayEquals(store.findByToolCode("jakr", LocalDate.of(2015, 7, 1), LocalDate.of(2015, 9, 30)),
+                    new long[] {0, 2});
+            assertEquals(store.findByToolCode("XXXX", LocalDate.of(2015, 1, 1), LocalDate.of(2015, 12, 31)).length,
+                    0);
+        }
+    }
+
+    @Test
+    void testReferenceDataSnapshot() throws Exception {
+        final Path file = tempDir.resolve("reference.snapshot");
+        ReferenceDataSnapshot.write(file, 2014, 2030);
+        final ReferenceDataSnapshot snapshot = ReferenceDataSnapshot.open(file);
+        assertEquals(ProjectUtils.TOOLS, snapshot.getTools());
+        assertTrue(snapshot.covers(LocalDate.of(2014, 1, 1), LocalDate.of(2030, 12, 31)));
+        assertFalse(snapshot.covers(LocalDate.of(2030, 12, 31), LocalDate.of(2031, 1, 1)));
+
+        final Random random = new Random(36);
+        for (int i = 0; i < 10_000; i++) {
+            //Some ranges run past the calendar and are calculated instead
+            final LocalDate start = LocalDate.of(2013, 12, 1).plusDays(random.nextInt(6_400));
+            final LocalDate end = start.plusDays(random.nextInt(800) - 1);
+            final DayBreakdown expected = CalendarUtils.breakdown(start, end);
+            final DayBreakdown actual = snapshot.breakdown(start, end);
+            assertEquals(expected.getWeekdayCount(), actual.getWeekdayCount());
+            assertEquals(expected.getWeekendCount(), actual.getWeekendCount());
+            assertEquals(expected.getHolidayCount(), actual.getHolidayCount());
+        }
+
+        final RentalAgreement rentalAgreement = new QuoteEngine(null, null, snapshot)
+                .generateRentalAgreement(CheckoutLineParser.parse("JAKR,9,0,07/02/15"));
+        assertEquals(price("JAKR,9,0,07/02/15").getFinalCharge(), rentalAgreement.getFinalCharge());
+
+        //Flip one byte of the calendar
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), Files.size(file) - 1);
+        }
+        assertThrows(IOException.class, () -> ReferenceDataSnapshot.open(file));
+    }
+
+    private static long[] scan(final int[] keys, final int count, final int from, final int to) {
+        return LongStream.range(0, count).filter(id -> keys[(int) id] >= from && keys[(int) id] <= to).toArray();
+    }
+}
@@ -0,0 +1,162 @@
+package com.msorrell.project;
+
+import com.msorrell.project.codec.AgreementDecoder;
+import com.msorrell.project.codec.AgreementWriter;
+import com.msorrell.project.codec.BinaryCodec;
+import com.msorrell.project.codec.CsvAgreementWriter;
+import com.msorrell.project.codec.JsonLinesAgreementWriter;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.TaxRateTable;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.TaxService;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AgreementWriterTest {
+
+    @Test
+    void testCsvRowsAreAgreementLines() throws IOException {
+        final List<RentalAgreement> agreements = agreements();
+        //Dates and amounts outside the generated ranges
+        final RentalAgreement unusual = agreements.get(0).copy();
+        unusual.setCheckoutDate(LocalDate.of(-4, 2, 29));
+        unusual.setDueDate(LocalDate.of(12_345, 12, 31));
+        unusual.setDiscountAmount(new BigDecimal("-0.05"));
+        unusual.setFinalCharge(new BigDecimal("-12.30"));
+        unusual.setPreDiscountCharge(new BigDecimal("92233720368547758.07"));
+        agreements.add(unusual);
+        for (long day = LocalDate.of(1899, 12, 25).toEpochDay(); day < LocalDate.of(2101, 1, 5).toEpochDay();
+             day += 7) {
+            final RentalAgreement dated = agreements.get(1).copy();
+            dated.setCheckoutDate(LocalDate.ofEpochDay(day));
+            dated.setDueDate(LocalDate.ofEpochDay(day + 3));
+            agreements.add(dated);
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (CsvAgreementWriter writer = new CsvAgreementWriter(out, 0, true)) {
+            for (final RentalAgreement rentalAgreement : agreements) {
+                writer.write(rentalAgreement);
+            }
+            assertEquals(agreements.size(), writer.getRecordCount());
+        }
+        final StringBuilder expected = new StringBuilder(CsvAgreementWriter.HEADER).append('\n');
+        for (final RentalAgreement rentalAgreement : agreements) {
+            expected.append(rentalAgreement.toLine()).append('\n');
+        }
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testDecoderAndObjectsWriteTheSameBytes() throws IOException {
+        final List<RentalAgreement> agreements = agreements();
+        for (final String jurisdiction : List.of("A,B", "SAY \"HI\"", "LINE\nBREAK", "BACK\\SLASH\t",
+                "ZÜRICH", "東京", "😀")) {
+            final RentalAgreement special = agreements.get(0).copy();
+            special.setJurisdiction(jurisdiction);
+            agreements.add(special);
+        }
+        final ByteBuffer binary = ByteBuffer.allocate(agreements.size() * 64);
+        for (final RentalAgreement rentalAgreement : agreements) {
+            BinaryCodec.writeAgreement(rentalAgreement, binary);
+        }
+        binary.flip();
+
+        for (final Function<ByteArrayOutputStream, AgreementWriter> factory
+                : List.<Function<ByteArrayOutputStream, AgreementWriter>>of(
+                        out -> new JsonLinesAgreementWriter(out, 0), out -> csv(out))) {
+            final ByteArrayOutputStream fromObjects = new ByteArrayOutputStream();
+            try (AgreementWriter writer = factory.apply(fromObjects)) {
+                for (final RentalAgreement rentalAgreement : agreements) {
+                    writer.write(rentalAgreement);
+                }
+            }
+            final ByteArrayOutputStream fromDecoder = new ByteArrayOutputStream();
+            final AgreementDecoder decoder = new AgreementDecoder();
+            try (AgreementWriter writer = factory.apply(fromDecoder)) {
+                for (int offset = 0; offset < binary.limit(); ) {
+                    offset = decoder.wrap(binary, offset);
+                    writer.write(decoder);
+                }
+            }
+            assertArrayEquals(fromObjects.toByteArray(), fromDecoder.toByteArray());
+        }
+
+        final ByteArrayOutputStream json = new ByteArrayOutputStream();
+        try (AgreementWriter writer = new JsonLinesAgreementWriter(json)) {
+            writer.write(agreements.get(agreements.size() - 6));
+            writer.write(agreements.get(agreements.size() - 4));
+        }
+        final String[] lines = json.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("\"jurisdiction\":\"SAY \\\"HI\\\"\"}", lines[0].substring(lines[0].indexOf("\"jurisdiction\"")));
+        assertEquals("\"jurisdiction\":\"BACK\\\\SLASH\\u0009\"}",
+                lines[1].substring(lines[1].indexOf("\"jurisdiction\"")));
+
+        final ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        try (AgreementWriter writer = csv(csv)) {
+            writer.write(agreements.get(agreements.size() - 6));
+        }
+        assertEquals(",\"SAY \"\"HI\"\"\"\n", csv.toString(StandardCharsets.UTF_8).substring(
+                csv.toString(StandardCharsets.UTF_8).lastIndexOf(",\"")));
+    }
+
+    @Test
+    void testJsonLine() throws IOException {
+        final Checkout checkout = CheckoutLineParser.parse("LADW,3,10,07/02/20");
+        checkout.setJurisdiction("ca");
+        final QuoteEngine quoteEngine = new QuoteEngine(null, new TaxService(TaxRateTable.parse(List.of("CA,*,7.25"))));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (AgreementWriter writer = new JsonLinesAgreementWriter(out)) {
+            writer.write(quoteEngine.generateRentalAgreement(checkout));
+            writer.write(new QuoteEngine().generateRentalAgreement(CheckoutLineParser.parse("JAKR,4,0,07/02/20")));
+        }
+        assertEquals("{\"toolCode\":\"LADW\",\"checkoutDate\":\"2020-07-02\",\"dueDate\":\"2020-07-05\","
+                + "\"rentalDays\":3,\"chargeDays\":2,\"dailyRentalCharge\":1.99,\"preDiscountCharge\":3.98,"
+                + "\"discountPercent\":10,\"discountAmount\":0.40,\"finalCharge\":3.58,\"taxAmount\":0.26,"
+                + "\"totalCharge\":3.84,\"jurisdiction\":\"CA\"}\n"
+                + "{\"toolCode\":\"JAKR\",\"checkoutDate\":\"2020-07-02\",\"dueDate\":\"2020-07-06\","
+                + "\"rentalDays\":4,\"chargeDays\":1,\"dailyRentalCharge\":2.99,\"preDiscountCharge\":2.99,"
+                + "\"discountPercent\":0,\"discountAmount\":0.00,\"finalCharge\":2.99,\"taxAmount\":0.00,"
+                + "\"totalCharge\":2.99,\"jurisdiction\":null}\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static AgreementWriter csv(final ByteArrayOutputStream out) {
+        try {
+            return new CsvAgreementWriter(out, 0, false);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<RentalAgreement> agreements() {
+        final QuoteEngine quoteEngine = new QuoteEngine(null, new TaxService(TaxRateTable.parse(List.of("CA,*,7.25"))));
+        final WorkloadGenerator generator = new WorkloadGenerator(47, 0, 2015, 2025);
+        final List<RentalAgreement> agreements = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            final Checkout checkout = CheckoutLineParser.parse(generator.nextLine());
+            if (i % 3 == 0) {
+                checkout.setJurisdiction("CA");
+            }
+            agreements.add(quoteEngine.generateRentalAgreement(checkout));
+        }
+        return agreements;
+    }
+}
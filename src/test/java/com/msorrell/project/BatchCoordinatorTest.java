@@ -0,0 +1,55 @@
+package com.msorrell.project;
+
+import com.msorrell.project.batch.BatchCoordinator;
+import com.msorrell.project.batch.BatchTotals;
+import com.msorrell.project.batch.BatchWorker;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchCoordinatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testShardedRunMatchesSingleRunAndResumes() throws Exception {
+        final Path input = tempDir.resolve("checkouts.csv");
+        try (Writer writer = Files.newBufferedWriter(input, StandardCharsets.UTF_8)) {
+            new WorkloadGenerator(38, 0.05, 2015, 2025).writeTo(writer, 5_000);
+        }
+        final Path expected = tempDir.resolve("expected.csv");
+        final BatchTotals expectedTotals = BatchWorker.price(new ToolRentalService(), input, 0, Files.size(input),
+                expected, tempDir.resolve("expected.rejects"));
+
+        final Path workDirectory = tempDir.resolve("work");
+        final Path output = tempDir.resolve("agreements.csv");
+        final BatchCoordinator coordinator = new BatchCoordinator(input, workDirectory, 3, 2);
+        final BatchTotals totals = coordinator.run(output);
+        assertEquals(3, coordinator.getWorkersStarted());
+        assertEquals(expectedTotals.toString(), totals.toString());
+        assertEquals(5_000, totals.getLines());
+        assertTrue(totals.getRejected() > 0);
+        final List<String> agreements = Files.readAllLines(output);
+        assertEquals(Files.readAllLines(expected), agreements);
+        assertEquals(totals.getRejected(), Files.readAllLines(tempDir.resolve("agreements.csv.rejects")).size());
+
+        //Only the shard without a done marker is priced again
+        Files.delete(workDirectory.resolve("shard-1.done"));
+        final BatchTotals resumed = coordinator.run(output);
+        assertEquals(1, coordinator.getWorkersStarted());
+        assertEquals(totals.toString(), resumed.toString());
+        assertEquals(agreements, Files.readAllLines(output));
+    }
+}
@@ -0,0 +1,137 @@
+package com.msorrell.project;
+
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.Invoice;
+import com.msorrell.project.models.PricingConfig;
+import com.msorrell.project.models.TaxRateTable;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.services.BillingCycleEngine;
+import com.msorrell.project.services.PricingConfigService;
+import com.msorrell.project.services.QuoteEngine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.msorrell.project.util.ProjectUtils.TOOLS;
+import static com.msorrell.project.util.ProjectUtils.TOOL_CODES;
+import static com.msorrell.project.util.ProjectUtils.UNKNOWN_JURISDICTION_MESSAGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BillingCycleEngineTest {
+
+    private final QuoteEngine quoteEngine = new QuoteEngine();
+
+    @Test
+    void testCyclesAddUpToWholeRental() {
+        final Tool ladder = TOOL_CODES.find("LADW");
+        final LocalDate checkoutDate = LocalDate.of(2020, 1, 31);
+        final LocalDate returnDate = LocalDate.of(2021, 1, 10);
+        final BillingCycleEngine engine = new BillingCycleEngine(checkoutDate);
+        final int id = engine.open(ladder, checkoutDate, 0, null);
+
+        final List<String> periods = new ArrayList<>();
+        final long[] totals = new long[2];
+        for (LocalDate day = checkoutDate; day.isBefore(returnDate); day = day.plusDays(1)) {
+            engine.bill(day, invoice -> {
+                periods.add(invoice.getPeriodStart() + ":" + invoice.getPeriodEnd());
+                totals[0] += invoice.getChargeDays();
+                totals[1] += invoice.getTotalChargeCents();
+            });
+        }
+        assertEquals(periods.size(), 11);
+        //Cycles end on the checkout day of the month, or the last day of a shorter month
+        assertEquals(periods.get(0), "2020-02-01:2020-02-29");
+        assertEquals(periods.get(1), "2020-03-01:2020-03-31");
+        assertEquals(periods.get(2), "2020-04-01:2020-04-30");
+        assertEquals(engine.getBilledThrough(id), LocalDate.of(2020, 12, 31));
+
+        final List<Invoice> closing = new ArrayList<>();
+        assertEquals(engine.close(id, returnDate, invoice -> {
+            assertTrue(invoice.isClosing());
+            assertEquals(invoice.getCycle(), 12);
+            totals[0] += invoice.getChargeDays();
+            totals[1] += invoice.getTotalChargeCents();
+            closing.add(invoice);
+        }), 1);
+        assertEquals(closing.get(0).getPeriodStart(), LocalDate.of(2021, 1, 1));
+        assertFalse(engine.isOpen(id));
+        assertEquals(engine.getOpenCount(), 0);
+
+        final int chargeDays = quoteEngine.calculateChargeDays(checkoutDate, returnDate, ladder.getType());
+        assertEquals(totals[0], chargeDays);
+        assertEquals(totals[1], 199L * chargeDays);
+        assertEquals(engine.bill(LocalDate.of(2022, 1, 1), invoice -> { }), 0);
+    }
+
+    @Test
+    void testNightlyRunsBillOnlyDueRentals() {
+        final Random random = new Random(11);
+        final LocalDate start = LocalDate.of(2019, 6, 1);
+        final BillingCycleEngine engine = new BillingCycleEngine(start);
+        final int rentals = 100_000;
+        final LocalDate[] checkoutDates = new LocalDate[rentals];
+        for (int i = 0; i < rentals; i++) {
+            checkoutDates[i] = start.minusDays(random.nextInt(400));
+            assertEquals(engine.open(TOOLS.get(i % TOOLS.size()), checkoutDates[i], i % 30, null), i);
+        }
+        final int[] invoiceCounts = new int[rentals];
+        final LocalDate end = start.plusDays(90);
+        //Rentals checked out before the first run catch up on every missed cycle
+        for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
+            final LocalDate today = day;
+            engine.bill(today, invoice -> {
+                assertFalse(invoice.getPeriodEnd().isAfter(today));
+                assertEquals(invoice.getCycle(), ++invoiceCounts[invoice.getRentalId()]);
+            });
+        }
+        for (int i = 0; i < rentals; i++) {
+            int cycles = 0;
+            while (!checkoutDates[i].plusMonths(cycles + 1).isAfter(end)) {
+                cycles++;
+            }
+            assertEquals(invoiceCounts[i], cycles);
+        }
+
+        assertThrows(InvalidInputException.class, () -> engine.open(TOOLS.get(0), start, 101, null));
+        assertThrows(InvalidInputException.class, () -> engine.open(TOOLS.get(0), start, 0, "Nowhere"));
+        assertThrows(IllegalStateException.class, () -> engine.close(rentals, end, invoice -> { }));
+    }
+
+    @Test
+    void testJurisdictionDroppedByReload() {
+        final LocalDate checkoutDate = LocalDate.of(2020, 1, 15);
+        final PricingConfig taxed = new PricingConfig(TOOL_CODES, null, TaxRateTable.parse(List.of("CA,*,10")));
+        final PricingConfigService service = new PricingConfigService(taxed);
+        final BillingCycleEngine engine = new BillingCycleEngine(checkoutDate, service, null);
+        final int taxedId = engine.open(TOOL_CODES.find("LADW"), checkoutDate, 0, " ca ");
+        final int untaxedId = engine.open(TOOL_CODES.find("LADW"), checkoutDate, 0, null);
+        assertThrows(InvalidInputException.class, () -> engine.open(TOOL_CODES.find("LADW"), checkoutDate, 0, " "));
+
+        //The untaxed rental is billed, the taxed one waits for its rates
+        service.setConfig(PricingConfig.DEFAULT);
+        final List<Integer> billed = new ArrayList<>();
+        final Exception exception = assertThrows(InvalidInputException.class,
+                () -> engine.bill(LocalDate.of(2020, 2, 15), invoice -> billed.add(invoice.getRentalId())));
+        assertEquals(exception.getMessage(), UNKNOWN_JURISDICTION_MESSAGE + ": CA");
+        assertEquals(billed, List.of(untaxedId));
+        assertThrows(InvalidInputException.class, () -> engine.close(taxedId, LocalDate.of(2020, 2, 20),
+                invoice -> billed.add(invoice.getRentalId())));
+        assertTrue(engine.isOpen(taxedId));
+
+        service.setConfig(taxed);
+        final List<Invoice> invoices = new ArrayList<>();
+        assertEquals(engine.bill(LocalDate.of(2020, 2, 16), invoices::add), 1);
+        assertEquals(engine.getBilledThrough(taxedId), LocalDate.of(2020, 2, 15));
+        assertEquals(engine.close(taxedId, LocalDate.of(2020, 2, 20), invoice -> {
+            assertEquals(invoice.getJurisdiction(), "CA");
+            assertTrue(invoice.getTaxAmountCents() > 0);
+        }), 1);
+    }
+}
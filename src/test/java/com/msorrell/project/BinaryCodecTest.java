@@ -0,0 +1,112 @@
+package com.msorrell.project;
+
+import com.msorrell.project.codec.AgreementDecoder;
+import com.msorrell.project.codec.BinaryCodec;
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.TaxRateTable;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.TaxService;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BinaryCodecTest {
+
+    @Test
+    void testAgreementsRoundTrip() {
+        final TaxService taxService = new TaxService(TaxRateTable.parse(List.of("CA,*,7.25")));
+        final QuoteEngine quoteEngine = new QuoteEngine(null, taxService);
+        final WorkloadGenerator generator = new WorkloadGenerator(40, 0, 2015, 2025);
+        final List<RentalAgreement> agreements = new ArrayList<>();
+        final ByteBuffer buffer = ByteBuffer.allocate(64 * 1_000);
+        for (int i = 0; i < 1_000; i++) {
+            final Checkout checkout = CheckoutLineParser.parse(generator.nextLine());
+            if (i % 3 == 0) {
+                checkout.setJurisdiction("CA");
+            }
+            final RentalAgreement rentalAgreement = quoteEngine.generateRentalAgreement(checkout);
+            agreements.add(rentalAgreement);
+            BinaryCodec.writeAgreement(rentalAgreement, buffer);
+        }
+        buffer.flip();
+
+        //Zero-copy scan, then a full decode of the same bytes
+        final AgreementDecoder decoder = new AgreementDecoder();
+        int offset = 0;
+        for (final RentalAgreement rentalAgreement : agreements) {
+            offset = decoder.wrap(buffer, offset);
+            assertEquals(rentalAgreement.toLine(), decoder.toRentalAgreement().toLine());
+        }
+        assertEquals(buffer.limit(), offset);
+        assertEquals(0, buffer.position());
+        for (final RentalAgreement rentalAgreement : agreements) {
+            assertEquals(rentalAgreement.toLine(), BinaryCodec.readAgreement(buffer).toLine());
+        }
+        assertEquals(buffer.limit(), buffer.position());
+    }
+
+    @Test
+    void testCheckoutRoundTrip() {
+        final Checkout checkout = CheckoutLineParser.parse("JAKR,9,15,07/02/20");
+        checkout.setCustomerTier(CustomerTier.values()[CustomerTier.values().length - 1]);
+        checkout.setJurisdiction("ca");
+        final ByteBuffer buffer = ByteBuffer.allocate(32);
+        BinaryCodec.writeCheckout(checkout, buffer);
+        BinaryCodec.writeCheckout(CheckoutLineParser.parse("LADW,3,10,07/02/20"), buffer);
+        buffer.flip();
+
+        final Checkout read = BinaryCodec.readCheckout(buffer);
+        assertEquals(checkout.getTool(), read.getTool());
+        assertEquals(9, read.getRentalDayCount());
+        assertEquals(15, read.getDiscountPercent());
+        assertEquals(checkout.getCheckoutDate(), read.getCheckoutDate());
+        assertEquals(checkout.getCustomerTier(), read.getCustomerTier());
+        assertEquals("CA", read.getJurisdiction());
+        final Checkout second = BinaryCodec.readCheckout(buffer);
+        assertEquals("LADW", second.getTool().getCode());
+        assertEquals(CustomerTier.STANDARD, second.getCustomerTier());
+        assertNull(second.getJurisdiction());
+    }
+
+    @Test
+    void testIncompleteAndUnsupportedRecords() {
+        final RentalAgreement rentalAgreement = new QuoteEngine().generateRentalAgreement(
+                CheckoutLineParser.parse("CHNS,5,25,07/02/15"));
+        final ByteBuffer small = ByteBuffer.allocate(8);
+        assertThrows(BufferOverflowException.class, () -> BinaryCodec.writeAgreement(rentalAgreement, small));
+        assertEquals(0, small.position());
+
+        final ByteBuffer buffer = ByteBuffer.allocate(64);
+        BinaryCodec.writeAgreement(rentalAgreement, buffer);
+        buffer.flip();
+        final ByteBuffer truncated = buffer.duplicate().limit(buffer.limit() - 1);
+        assertThrows(BufferUnderflowException.class, () -> BinaryCodec.readAgreement(truncated));
+        assertEquals(0, truncated.position());
+        //A decoder reused on the same buffer follows its limit
+        final AgreementDecoder decoder = new AgreementDecoder();
+        assertEquals(buffer.limit(), decoder.wrap(buffer, 0));
+        buffer.limit(buffer.limit() - 1);
+        assertThrows(BufferUnderflowException.class, () -> decoder.wrap(buffer, 0));
+        buffer.limit(buffer.limit() + 1);
+        assertEquals(0, buffer.position());
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.readCheckout(buffer.duplicate()));
+
+        //A record written by a later version of the format
+        buffer.put(0, (byte) ((BinaryCodec.VERSION + 1) << 4 | buffer.get(0) & 0x0F));
+        assertThrows(IllegalArgumentException.class, () -> BinaryCodec.readAgreement(buffer));
+        assertEquals(0, buffer.position());
+    }
+}
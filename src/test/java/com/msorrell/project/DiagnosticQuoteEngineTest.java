@@ -0,0 +1,68 @@
+package com.msorrell.project;
+
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.DiagnosticQuoteEngine;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.ToolRentalService;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiagnosticQuoteEngineTest {
+
+    @Test
+    void testCostsAreBucketedByToolTypeAndRentalLength() {
+        final DiagnosticQuoteEngine diagnostics = new DiagnosticQuoteEngine(new QuoteEngine());
+        final ToolRentalService toolRentalService = new ToolRentalService(diagnostics, System.out);
+        final QuoteEngine plain = new QuoteEngine();
+        for (int i = 0; i < 200; i++) {
+            final Checkout week = CheckoutLineParser.parse("LADW,5,10,07/02/20");
+            final Checkout years = CheckoutLineParser.parse("JAKR,2000,0,07/02/20");
+            assertEquals(plain.generateRentalAgreement(week).toLine(),
+                    toolRentalService.generateRentalAgreement(week).toLine());
+            assertEquals(plain.generateRentalAgreement(years).toLine(),
+                    toolRentalService.generateRentalAgreement(years).toLine());
+        }
+        assertTrue(diagnostics.quote("CHNS", 45, 0, LocalDate.of(2020, 7, 2)).isValid());
+        assertFalse(diagnostics.quote("XXXX", 45, 0, LocalDate.of(2020, 7, 2)).isValid());
+
+        assertEquals(200, diagnostics.getSampleCount(ToolType.LADDER, 5));
+        assertEquals(200, diagnostics.getSampleCount(ToolType.LADDER, 1));
+        assertEquals(0, diagnostics.getSampleCount(ToolType.LADDER, 8));
+        assertEquals(200, diagnostics.getSampleCount(ToolType.JACKHAMMER, 1826));
+        assertEquals(1, diagnostics.getSampleCount(ToolType.CHAINSAW, 31));
+        assertEquals(0, diagnostics.getSampleCount(ToolType.CHAINSAW, 30));
+        //Every agreement allocates
+        assertTrue(diagnostics.getAllocatedBytes(ToolType.LADDER, 5) > 0);
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        diagnostics.printSummary(new PrintStream(out, true, StandardCharsets.UTF_8));
+        final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("tool_type,rental_days,samples,avg_alloc_bytes,avg_cpu_us,max_cpu_us,cpu_share", lines[0]);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("JACKHAMMER,1826+,200,"));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("LADDER,1-7,200,"));
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("CHAINSAW,31-90,1,"));
+    }
+
+    @Test
+    void testSampling() {
+        final DiagnosticQuoteEngine diagnostics = new DiagnosticQuoteEngine(new QuoteEngine(), 100);
+        final Checkout checkout = CheckoutLineParser.parse("CHNS,5,25,07/02/15");
+        for (int i = 0; i < 10_000; i++) {
+            diagnostics.generateRentalAgreement(checkout);
+        }
+        final long samples = diagnostics.getSampleCount(ToolType.CHAINSAW, 5);
+        assertTrue(samples > 30 && samples < 300, String.valueOf(samples));
+    }
+}
@@ -0,0 +1,92 @@
+package com.msorrell.project;
+
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.enums.ToolBrand;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.DiscountRule;
+import com.msorrell.project.models.QuoteResult;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.services.DiscountRuleEngine;
+import com.msorrell.project.services.QuoteEngine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_RULE_MESSAGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DiscountRuleEngineTest {
+
+    private static final String RULES = String.join(System.lineSeparator(),
+            "# type,brand,tier,minDays,maxDays,start,end,percent",
+            "LADDER,*,*,*,*,*,*,10",
+            "LADDER,*,CONTRACTOR,7,*,*,*,15",
+            "*,*,PREFERRED,*,*,2020-07-01,2020-07-31,20",
+            "",
+            "JACKHAMMER,DEWALT,*,3,5,*,*,25");
+
+    @Test
+    void testBestOfOverlappingRules(@TempDir final Path directory) throws Exception {
+        final Path file = directory.resolve("rules.csv");
+        Files.writeString(file, RULES);
+        final DiscountRuleEngine engine = DiscountRuleEngine.load(file);
+        final LocalDate july = LocalDate.of(2020, 7, 15);
+        final LocalDate august = LocalDate.of(2020, 8, 1);
+
+        assertEquals(10, engine.findBestDiscount(ToolType.LADDER, ToolBrand.WERNER, CustomerTier.STANDARD, 3, july));
+        assertEquals(10, engine.findBestDiscount(ToolType.LADDER, ToolBrand.WERNER, CustomerTier.CONTRACTOR, 6, july));
+        assertEquals(15, engine.findBestDiscount(ToolType.LADDER, ToolBrand.WERNER, CustomerTier.CONTRACTOR, 7, july));
+        assertEquals(20, engine.findBestDiscount(ToolType.LADDER, ToolBrand.WERNER, CustomerTier.PREFERRED, 7, july));
+        assertEquals(10, engine.findBestDiscount(ToolType.LADDER, ToolBrand.WERNER, CustomerTier.PREFERRED, 7,
+                august));
+        assertEquals(0, engine.findBestDiscount(ToolType.CHAINSAW, ToolBrand.STIHL, CustomerTier.STANDARD, 3, july));
+        assertEquals(20, engine.findBestDiscount(ToolType.CHAINSAW, ToolBrand.STIHL, CustomerTier.PREFERRED, 3,
+                LocalDate.of(2020, 7, 31)));
+        assertEquals(0, engine.findBestDiscount(ToolType.JACKHAMMER, ToolBrand.DEWALT, CustomerTier.STANDARD, 2, july));
+        assertEquals(25, engine.findBestDiscount(ToolType.JACKHAMMER, ToolBrand.DEWALT, CustomerTier.STANDARD, 3, july));
+        assertEquals(25, engine.findBestDiscount(ToolType.JACKHAMMER, ToolBrand.DEWALT, CustomerTier.STANDARD, 5, july));
+        assertEquals(0, engine.findBestDiscount(ToolType.JACKHAMMER, ToolBrand.DEWALT, CustomerTier.STANDARD, 6, july));
+        assertEquals(0, engine.findBestDiscount(ToolType.JACKHAMMER, ToolBrand.RIDGID, CustomerTier.STANDARD, 4, july));
+    }
+
+    @Test
+    void testQuoteUsesBestDiscount() {
+        final DiscountRuleEngine engine = DiscountRuleEngine.compile(List.of(
+                new DiscountRule(ToolType.LADDER, null, null, 1, Integer.MAX_VALUE, null, null, 10)));
+        final QuoteEngine quoteEngine = new QuoteEngine(engine);
+
+        final QuoteResult promotion = quoteEngine.quote("LADW", 3, 0, LocalDate.of(2020, 7, 2));
+        assertTrue(promotion.isValid());
+        final RentalAgreement rentalAgreement = promotion.getRentalAgreement();
+        assertEquals(10, rentalAgreement.getDiscountPercent());
+        assertEquals(new BigDecimal("3.58"), rentalAgreement.getFinalCharge());
+
+        //The clerk's discount is kept when it is larger than every promotion
+        final QuoteResult clerk = quoteEngine.quote("LADW", 3, 50, LocalDate.of(2020, 7, 2),
+                CustomerTier.CONTRACTOR);
+        assertEquals(50, clerk.getRentalAgreement().getDiscountPercent());
+    }
+
+    @Test
+    void testInvalidRules(@TempDir final Path directory) throws Exception {
+        assertThrows(InvalidInputException.class, () -> DiscountRuleEngine.compile(List.of(
+                new DiscountRule(null, null, null, 5, 4, null, null, 10))));
+        assertThrows(InvalidInputException.class, () -> DiscountRuleEngine.compile(List.of(
+                new DiscountRule(null, null, null, 1, 4, null, null, 101))));
+
+        final Path file = directory.resolve("rules.csv");
+        Files.writeString(file, "LADDER,*,GOLD,*,*,*,*,10");
+        final InvalidInputException exception = assertThrows(InvalidInputException.class,
+                () -> DiscountRuleEngine.load(file));
+        assertTrue(exception.getMessage().startsWith(INVALID_DISCOUNT_RULE_MESSAGE));
+    }
+}
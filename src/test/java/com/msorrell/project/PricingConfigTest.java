@@ -0,0 +1,205 @@
+package com.msorrell.project;
+
+import com.msorrell.project.codec.AgreementDecoder;
+import com.msorrell.project.codec.BinaryCodec;
+import com.msorrell.project.enums.CustomerTier;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.PricingConfig;
+import com.msorrell.project.models.QuoteResult;
+import com.msorrell.project.models.RateSchedule;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.TaxRateTable;
+import com.msorrell.project.models.ValidationResult;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.PricingConfigService;
+import com.msorrell.project.services.PricingConfigWatcher;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.store.AgreementStore;
+import com.msorrell.project.store.AgreementView;
+import com.msorrell.project.store.IndexedAgreementStore;
+import com.msorrell.project.store.UtilizationIndex;
+import com.msorrell.project.util.ProjectUtils;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PricingConfigTest {
+
+    private static final LocalDate CHECKOUT_DATE = LocalDate.of(2020, 7, 2);
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testQuotesSeeOneSnapshot() throws Exception {
+        //4 charge days. Under the cheap snapshot both the rate and the tax are low; under the expensive one both
+        //are high
+        final PricingConfig cheap = new PricingConfig(ProjectUtils.TOOL_CODES,
+                RateSchedule.parse(List.of("LADDER,2000-01-01,1.00")), TaxRateTable.parse(List.of("CA,*,1")));
+        final PricingConfig expensive = new PricingConfig(ProjectUtils.TOOL_CODES,
+                RateSchedule.parse(List.of("LADDER,2000-01-01,9.00")), TaxRateTable.parse(List.of("CA,*,9")));
+        final PricingConfigService service = new PricingConfigService(cheap);
+        final QuoteEngine quoteEngine = new QuoteEngine(null, null, service);
+        final BigDecimal cheapTotal = total(quoteEngine);
+        service.setConfig(expensive);
+        final BigDecimal expensiveTotal = total(quoteEngine);
+        assertEquals(new BigDecimal("4.04"), cheapTotal);
+        assertEquals(new BigDecimal("39.24"), expensiveTotal);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Future<?> swapper = executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    service.setConfig(i % 2 == 0 ? cheap : expensive);
+                }
+            });
+            for (int i = 0; i < 3; i++) {
+                executor.submit(() -> {
+                    while (!swapper.isDone()) {
+                        final BigDecimal total = total(quoteEngine);
+                        assertTrue(total.equals(cheapTotal) || total.equals(expensiveTotal), total.toString());
+                    }
+                    return null;
+                }).get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThrows(InvalidInputException.class, () -> PricingConfig.parseTools(List.of("LAD1,LADDER,WERNER")));
+        assertThrows(InvalidInputException.class, () -> PricingConfig.parseTools(List.of("LADW,LADDER")));
+        assertThrows(InvalidInputException.class, () -> PricingConfig.parseTools(List.of("LADW,SAW,WERNER")));
+        assertThrows(InvalidInputException.class,
+                () -> PricingConfig.parseTools(List.of("LADW,LADDER,WERNER", "ladw,LADDER,RIDGID")));
+    }
+
+    @Test
+    void testWatcherReloadsChangedFiles() throws Exception {
+        Files.write(tempDir.resolve(PricingConfig.TOOLS_FILE), List.of("# code,toolType,brand",
+                "LADW,LADDER,WERNER", "CHNS,CHAINSAW,STIHL", "JAKR,JACKHAMMER,RIDGID", "JAKD,JACKHAMMER,DEWALT"));
+        final PricingConfigService service = new PricingConfigService(tempDir);
+        final QuoteEngine quoteEngine = new QuoteEngine(null, null, service);
+        assertFalse(quoteEngine.quote("LADX", 3, 0, CHECKOUT_DATE).isValid());
+
+        try (PricingConfigWatcher watcher = new PricingConfigWatcher(service)) {
+            Files.write(tempDir.resolve(PricingConfig.RATES_FILE), List.of("LADDER,2000-01-01,3.00"));
+            Files.write(tempDir.resolve(PricingConfig.TOOLS_FILE), List.of("LADW,LADDER,WERNER",
+                    "CHNS,CHAINSAW,STIHL", "JAKR,JACKHAMMER,RIDGID", "JAKD,JACKHAMMER,DEWALT", "LADX,LADDER,RIDGID"));
+            awaitCount(watcher::getReloadCount, 1);
+            assertTrue(quoteEngine.quote("jakr", 3, 0, CHECKOUT_DATE).isValid());
+            final QuoteResult result = quoteEngine.quote("LADX", 3, 0, CHECKOUT_DATE);
+            assertEquals(new BigDecimal("3.00"), result.getRentalAgreement().getDailyRentalCharge());
+
+            //Every entry point checks tools against the reloaded catalog
+            final ToolRentalService toolRentalService = new ToolRentalService(quoteEngine,
+                    new PrintStream(OutputStream.nullOutputStream()));
+            final Checkout checkout = toolRentalService.readInput(
+                    new BufferedReader(new StringReader("LADY\nLADX\n3\n0\n07/02/20\n")));
+            assertEquals("LADX", checkout.getTool().getCode());
+            assertEquals(new BigDecimal("3.00"), toolRentalService.generateRentalAgreement(checkout)
+                    .getDailyRentalCharge());
+            assertEquals("LADX", CheckoutLineParser.parse("LADX,3,0,07/02/20", toolRentalService.getToolCodes())
+                    .getTool().getCode());
+            final ValidationResult validated = new ValidationResult();
+            assertTrue(CheckoutLineParser.validate("LADX,3,0,07/02/20", validated, toolRentalService.getToolCodes()));
+            assertEquals("LADX", validated.toCheckout(toolRentalService.getToolCodes()).getTool().getCode());
+            assertThrows(InvalidInputException.class, () -> checkout.setTool(validated.getTool()));
+            assertFalse(CheckoutLineParser.validate("LADX,3,0,07/02/20", new ValidationResult()));
+
+            //The tools already in use keep their tool indexes, so a reload cannot remove, move, or re-brand them
+            final PricingConfig good = service.getConfig();
+            Files.write(tempDir.resolve(PricingConfig.TOOLS_FILE), List.of("LADW,LADDER,WERNER",
+                    "JAKR,JACKHAMMER,RIDGID", "CHNS,CHAINSAW,STIHL", "JAKD,JACKHAMMER,DEWALT", "LADX,LADDER,RIDGID"));
+            awaitCount(watcher::getFailureCount, 1);
+            assertEquals(ProjectUtils.CATALOG_CHANGED_MESSAGE, watcher.getLastFailure().getMessage());
+            assertEquals(good, service.getConfig());
+            assertThrows(InvalidInputException.class, () -> service.setConfig(PricingConfig.DEFAULT));
+
+            //A broken file is reported and the last good configuration stays in place
+            Files.write(tempDir.resolve(PricingConfig.TAX_RATES_FILE), List.of("CA,*,not a rate"));
+            awaitCount(watcher::getFailureCount, 2);
+            assertTrue(watcher.getLastFailure() instanceof InvalidInputException);
+            assertEquals(good, service.getConfig());
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> new PricingConfigWatcher(new PricingConfigService(PricingConfig.DEFAULT)));
+        assertThrows(InvalidInputException.class, () -> new PricingConfig(
+                PricingConfig.parseTools(List.of("LADW,LADDER,RIDGID")), null, null));
+    }
+
+    @Test
+    void testAddedToolsAreStoredAndEncoded() throws Exception {
+        final ToolCodeIndex extended = PricingConfig.parseTools(List.of("LADW,LADDER,WERNER", "CHNS,CHAINSAW,STIHL",
+                "JAKR,JACKHAMMER,RIDGID", "JAKD,JACKHAMMER,DEWALT", "LADX,LADDER,RIDGID"));
+        final PricingConfigService service = new PricingConfigService(PricingConfig.DEFAULT);
+        final QuoteEngine quoteEngine = new QuoteEngine(null, null, service);
+        final RentalAgreement compiled = quoteEngine.quote("LADW", 3, 0, CHECKOUT_DATE).getRentalAgreement();
+        try (IndexedAgreementStore store = new IndexedAgreementStore(AgreementStore.allocateDirect(
+                service::getToolCodes))) {
+            final UtilizationIndex utilization = new UtilizationIndex(CHECKOUT_DATE, CHECKOUT_DATE.plusDays(30),
+                    service::getToolCodes);
+            store.append(compiled);
+            utilization.add(compiled);
+
+            service.setConfig(new PricingConfig(extended, null, null));
+            final RentalAgreement added = quoteEngine.quote("LADX", 3, 0, CHECKOUT_DATE).getRentalAgreement();
+            assertEquals(1, store.append(added));
+            utilization.add(added);
+            assertEquals("LADW", store.getStore().get(0, new AgreementView()).getTool().getCode());
+            assertEquals(added.getTool(), store.getStore().get(1, new AgreementView()).getTool());
+            assertEquals(1, store.findByToolCode("ladx", CHECKOUT_DATE, CHECKOUT_DATE).length);
+            assertEquals(1, store.findByToolCode("LADW", CHECKOUT_DATE, CHECKOUT_DATE).length);
+            assertEquals(3, utilization.rentedDays(null, added.getTool(), CHECKOUT_DATE, CHECKOUT_DATE.plusDays(30)));
+            assertEquals(5, utilization.monthlyUtilization(null, YearMonth.from(CHECKOUT_DATE)).size());
+
+            final ByteBuffer buffer = ByteBuffer.allocate(64);
+            BinaryCodec.writeAgreement(added, buffer, service.getToolCodes());
+            buffer.flip();
+            assertEquals(added.toLine(), BinaryCodec.readAgreement(buffer.duplicate(), service.getToolCodes())
+                    .toLine());
+            final AgreementDecoder decoder = new AgreementDecoder(service::getToolCodes);
+            assertEquals(buffer.limit(), decoder.wrap(buffer, 0));
+            assertEquals(added.getTool(), decoder.getTool());
+            //The compiled catalog does not know the added tool
+            assertThrows(IllegalArgumentException.class, () -> BinaryCodec.readAgreement(buffer.duplicate()));
+        }
+    }
+
+    private static BigDecimal total(final QuoteEngine quoteEngine) {
+        return quoteEngine.quote("LADW", 5, 0, CHECKOUT_DATE, CustomerTier.STANDARD, "CA")
+                .getRentalAgreement().getTotalCharge();
+    }
+
+    private static void awaitCount(final LongSupplier count, final long expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (count.getAsLong() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(expected, count.getAsLong());
+    }
+}
@@ -0,0 +1,105 @@
+package com.msorrell.project;
+
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.TaxRateTable;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteCoalescer;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.TaxService;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class QuoteCoalescerTest {
+
+    private static final int THREADS = 32;
+
+    @Test
+    void testConcurrentIdenticalQuotesShareOneComputation() throws Exception {
+        final AtomicInteger computations = new AtomicInteger();
+        final AtomicReference<QuoteCoalescer> coalescerReference = new AtomicReference<>();
+        //Holds the first computation until every other request has joined it
+        final QuoteEngine slowEngine = new QuoteEngine() {
+            @Override
+            public RentalAgreement generateRentalAgreement(final Checkout checkout) {
+                computations.incrementAndGet();
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                while (coalescerReference.get().getCoalescedCount() < THREADS - 1 && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                return super.generateRentalAgreement(checkout);
+            }
+        };
+        final QuoteCoalescer coalescer = new QuoteCoalescer(slowEngine);
+        coalescerReference.set(coalescer);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final List<Future<RentalAgreement>> results = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> coalescer.generateRentalAgreement(
+                        CheckoutLineParser.parse("CHNS,5,25,07/02/15"))));
+            }
+            final String expected = new QuoteEngine().generateRentalAgreement(
+                    CheckoutLineParser.parse("CHNS,5,25,07/02/15")).toLine();
+            final RentalAgreement first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (final Future<RentalAgreement> result : results) {
+                final RentalAgreement rentalAgreement = result.get(10, TimeUnit.SECONDS);
+                assertEquals(expected, rentalAgreement.toLine());
+                if (result != results.get(0)) {
+                    assertNotSame(first, rentalAgreement);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+        assertEquals(THREADS, coalescer.getRequestCount());
+        assertEquals(THREADS - 1, coalescer.getCoalescedCount());
+        assertEquals(1, coalescer.getComputationCount());
+        assertEquals((double) (THREADS - 1) / THREADS, coalescer.getCoalescingRatio());
+
+        //Finished computations are not cached
+        coalescer.generateRentalAgreement(CheckoutLineParser.parse("CHNS,5,25,07/02/15"));
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void testFailuresReachEveryRequest() throws Exception {
+        final QuoteCoalescer coalescer = new QuoteCoalescer(new QuoteEngine(null,
+                new TaxService(TaxRateTable.parse(List.of("CA,*,7.25")))));
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                results.add(executor.submit(() -> {
+                    final Checkout checkout = CheckoutLineParser.parse("LADW,3,10,07/02/20");
+                    checkout.setJurisdiction("NV");
+                    return assertThrows(InvalidInputException.class,
+                            () -> coalescer.generateRentalAgreement(checkout));
+                }));
+            }
+            for (final Future<?> result : results) {
+                assertTrue(((InvalidInputException) result.get(10, TimeUnit.SECONDS)).getMessage().contains("NV"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(64, coalescer.getRequestCount());
+    }
+}
@@ -0,0 +1,155 @@
+package com.msorrell.project;
+
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.server.QuoteServer;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_LINE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.PRICING_FAILED_MESSAGE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class QuoteServerTest {
+
+    private final ToolRentalService toolRentalService = new ToolRentalService();
+
+    @Test
+    void testByteParserMatchesStringParser() {
+        final List<String> lines = new ArrayList<>(List.of(
+                " ladw , 5 , 10 , 09/03/15 ", "lAdW,1,100,12/31/99", "LADW,+5,010,02/31/16", "JAKR,5,-0,07/02/20",
+                "LADW,2147483647,0,01/01/15", "LADW,2147483648,0,01/01/15", "LADW,-2147483648,0,01/01/15",
+                "LADW,5,0,1/01/15", "LADW,5,0,01/32/15", "LADW,5,0,00/10/15", "LADW,5,0,01-01-15", "LADW,,0,01/01/15",
+                "LADW,5,0,01/01/15,", ",,,", "", "LAD,5,0,01/01/15", "LADWX,5,0,01/01/15", "L DW,5,0,01/01/15",
+                "LADW,5 0,0,01/01/15", "LADW,5,+,01/01/15", "LADW,5,0,\t01/01/15\t"));
+        final WorkloadGenerator generator = new WorkloadGenerator(39, 0.3, 2015, 2025);
+        for (int i = 0; i < 20_000; i++) {
+            lines.add(generator.nextLine());
+        }
+        for (final String line : lines) {
+            //The line sits between other bytes, as it does in a read buffer
+            final byte[] bytes = ("9,9\n" + line + "\n9,9").getBytes(StandardCharsets.UTF_8);
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            final int start = 4;
+            final int end = start + line.length();
+            assertEquals(respond(() -> CheckoutLineParser.parse(line)),
+                    respond(() -> CheckoutLineParser.parse(buffer, start, end)), line);
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    void testPipelinedConnections() throws Exception {
+        final int connections = 200;
+        try (QuoteServer server = new QuoteServer(toolRentalService,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2)) {
+            server.start();
+            final List<Socket> sockets = new ArrayList<>();
+            final List<List<String>> sentLines = new ArrayList<>();
+            try {
+                for (int i = 0; i < connections; i++) {
+                    final WorkloadGenerator generator = new WorkloadGenerator(i, 0.2, 2015, 2025);
+                    final List<String> lines = new ArrayList<>();
+                    final StringBuilder request = new StringBuilder();
+                    for (int j = 0; j < 25; j++) {
+                        lines.add(generator.nextLine());
+                        request.append(lines.get(j)).append(j % 5 == 0 ? "\r\n" : "\n");
+                    }
+                    //Blank lines are not answered
+                    request.append("\n");
+                    final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                    sockets.add(socket);
+                    sentLines.add(lines);
+                    socket.getOutputStream().write(request.toString().getBytes(StandardCharsets.US_ASCII));
+                }
+                for (int i = 0; i < connections; i++) {
+                    final BufferedReader reader = new BufferedReader(new InputStreamReader(
+                            sockets.get(i).getInputStream(), StandardCharsets.UTF_8));
+                    for (final String line : sentLines.get(i)) {
+                        assertEquals(respond(() -> CheckoutLineParser.parse(line)), reader.readLine());
+                    }
+                }
+            } finally {
+                for (final Socket socket : sockets) {
+                    socket.close();
+                }
+            }
+            assertEquals(connections * 25L, server.getRequestCount());
+        }
+    }
+
+    @Test
+    void testLineTooLongClosesConnection() throws Exception {
+        try (QuoteServer server = new QuoteServer(toolRentalService,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1)) {
+            server.start();
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                final OutputStream out = socket.getOutputStream();
+                out.write("LADW,5,0,01/01/15\n".getBytes(StandardCharsets.US_ASCII));
+                //Exactly fills the server's 8 KB read buffer, so every byte sent is read before the close
+                out.write(new byte[8 * 1024]);
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        StandardCharsets.UTF_8));
+                assertEquals(respond(() -> CheckoutLineParser.parse("LADW,5,0,01/01/15")), reader.readLine());
+                assertEquals("ERROR," + INVALID_CHECKOUT_LINE_MESSAGE, reader.readLine());
+                assertNull(reader.readLine());
+            }
+        }
+    }
+
+    @Test
+    void testPricingFailureAnswersWithError() throws Exception {
+        final QuoteEngine failingEngine = new QuoteEngine() {
+            @Override
+            public RentalAgreement generateRentalAgreement(final Checkout checkout) {
+                if (checkout.getTool().getCode().equals("JAKR")) {
+                    throw new IllegalStateException("No rate");
+                }
+                return super.generateRentalAgreement(checkout);
+            }
+        };
+        try (QuoteServer server = new QuoteServer(new ToolRentalService(failingEngine, System.out),
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1)) {
+            server.start();
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+                socket.getOutputStream().write("JAKR,5,0,01/01/15\nLADW,5,0,01/01/15\n"
+                        .getBytes(StandardCharsets.US_ASCII));
+                final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                        StandardCharsets.UTF_8));
+                assertEquals("ERROR," + PRICING_FAILED_MESSAGE, reader.readLine());
+                //The connection keeps serving the lines after the failure
+                assertEquals(respond(() -> CheckoutLineParser.parse("LADW,5,0,01/01/15")), reader.readLine());
+            }
+            assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    /**
+     * Prices a parsed checkout and returns the response the server sends for it.
+     */
+    private String respond(final Supplier<Checkout> parser) {
+        try {
+            return toolRentalService.generateRentalAgreement(parser.get()).toLine();
+        } catch (InvalidInputException e) {
+            return "ERROR," + e.getMessage();
+        }
+    }
+}
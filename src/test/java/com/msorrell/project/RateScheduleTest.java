@@ -0,0 +1,89 @@
+package com.msorrell.project;
+
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.RateSchedule;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.util.CalendarUtils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RateScheduleTest {
+
+    @Test
+    void testRateChangeMidRental() {
+        final RateSchedule rateSchedule = RateSchedule.parse(List.of(
+                "# toolType,effectiveDate,dailyCharge",
+                "LADDER,2015-07-04,2.49"));
+        final QuoteEngine quoteEngine = new QuoteEngine(null, null, null, rateSchedule);
+
+        //07/03/15 is the observed holiday and is free. 07/04 through 07/07 are charged at the new rate.
+        final RentalAgreement rentalAgreement = quoteEngine.generateRentalAgreement(
+                CheckoutLineParser.parse("LADW,5,0,07/02/15"));
+        assertEquals(4, rentalAgreement.getChargeDays());
+        assertEquals(new BigDecimal("1.99"), rentalAgreement.getDailyRentalCharge());
+        assertEquals(new BigDecimal("9.96"), rentalAgreement.getPreDiscountCharge());
+
+        //Rentals before the change, and tool types without rates, keep the fixed daily charge
+        final QuoteEngine fixed = new QuoteEngine();
+        for (final String line : List.of("LADW,3,10,06/02/15", "CHNS,5,25,07/02/15", "JAKR,9,0,07/02/15")) {
+            assertEquals(fixed.generateRentalAgreement(CheckoutLineParser.parse(line)).getFinalCharge(),
+                    quoteEngine.generateRentalAgreement(CheckoutLineParser.parse(line)).getFinalCharge());
+        }
+    }
+
+    @Test
+    void testSegmentsMatchDayByDayCharge() {
+        final Random random = new Random(37);
+        final List<String> lines = new ArrayList<>();
+        for (final ToolType toolType : ToolType.values()) {
+            //Every 75 days on average, with no two rates on the same date
+            LocalDate effectiveDate = LocalDate.of(2015, 1, 1);
+            for (int i = 0; i < 40; i++) {
+                effectiveDate = effectiveDate.plusDays(1 + random.nextInt(150));
+                lines.add(toolType.name() + "," + effectiveDate + ","
+                        + BigDecimal.valueOf(50 + random.nextInt(500), 2));
+            }
+        }
+        final RateSchedule rateSchedule = RateSchedule.parse(lines);
+        for (int i = 0; i < 2_000; i++) {
+            final ToolType toolType = ToolType.values()[random.nextInt(ToolType.values().length)];
+            final LocalDate first = LocalDate.of(2014, 12, 1).plusDays(random.nextInt(3_200));
+            final LocalDate last = first.plusDays(random.nextInt(400));
+            long expected = 0;
+            int chargeDays = 0;
+            for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+                final boolean charged = CalendarUtils.isHoliday(day) ? toolType.isHolidayCharge()
+                        : CalendarUtils.isWeekend(day.getDayOfWeek()) ? toolType.isWeekendCharge()
+                        : toolType.isWeekdayCharge();
+                if (charged) {
+                    expected += rateSchedule.getDailyChargeCents(toolType, day);
+                    chargeDays++;
+                }
+            }
+            assertEquals(expected, rateSchedule.calculateChargeCents(toolType, first, last, chargeDays,
+                    CalendarUtils::breakdown));
+        }
+    }
+
+    @Test
+    void testInvalidRates() {
+        assertThrows(InvalidInputException.class, () -> RateSchedule.parse(List.of("LADDER,2015-07-04")));
+        assertThrows(InvalidInputException.class, () -> RateSchedule.parse(List.of("LADDER,07/04/15,2.49")));
+        assertThrows(InvalidInputException.class, () -> RateSchedule.parse(List.of("LADDER,2015-07-04,-1")));
+        assertThrows(InvalidInputException.class, () -> RateSchedule.parse(List.of("LADDER,2015-07-04,2.495")));
+        assertThrows(InvalidInputException.class, () -> RateSchedule.parse(List.of(
+                "LADDER,2015-07-04,2.49", "LADDER,2015-07-04,2.59")));
+    }
+}
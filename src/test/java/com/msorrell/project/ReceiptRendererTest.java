@@ -0,0 +1,102 @@
+package com.msorrell.project;
+
+import com.msorrell.project.models.ExchangeRate;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.util.ReceiptRenderer;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.Currency;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReceiptRendererTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    private static final Currency CAD = Currency.getInstance("CAD");
+
+    private static final Currency EUR = Currency.getInstance("EUR");
+
+    private static final Currency JPY = Currency.getInstance("JPY");
+
+    private final ToolRentalService toolRentalService = new ToolRentalService();
+
+    @Test
+    void testUsReceipt() {
+        final RentalAgreement rentalAgreement = toolRentalService.generateRentalAgreement(
+                CheckoutLineParser.parse("LADW,3,10,07/02/20"));
+        final String n = System.lineSeparator();
+        assertEquals("Tool code: LADW" + n
+                + "Tool type: Ladder" + n
+                + "Tool brand: Werner" + n
+                + "Rental days: 3" + n
+                + "Checkout date: 07/02/20" + n
+                + "Due date: 07/05/20" + n
+                + "Daily rental charge: $1.99" + n
+                + "Charge days: 2" + n
+                + "Pre-discount charge: $3.98" + n
+                + "Discount percent: 10%" + n
+                + "Discount amount: $0.40" + n
+                + "Final charge: $3.58" + n, rentalAgreement.toConsoleString());
+        assertEquals(rentalAgreement.toConsoleString(), ReceiptRenderer.of(Locale.US, USD).render(rentalAgreement));
+        assertSame(ReceiptRenderer.of(Locale.CANADA_FRENCH, USD), ReceiptRenderer.of(Locale.CANADA_FRENCH, USD));
+    }
+
+    @Test
+    void testConvertedReceipts() {
+        final RentalAgreement rentalAgreement = toolRentalService.generateRentalAgreement(
+                CheckoutLineParser.parse("LADW,3,10,07/02/20"));
+
+        final ReceiptRenderer canada = ReceiptRenderer.of(Locale.CANADA_FRENCH, CAD);
+        assertSame(canada, ReceiptRenderer.of(Locale.CANADA_FRENCH, CAD));
+        final NumberFormat canadianDollars = NumberFormat.getCurrencyInstance(Locale.CANADA_FRENCH);
+        canadianDollars.setCurrency(CAD);
+        final String canadianReceipt = canada.render(rentalAgreement,
+                ExchangeRate.of(USD, CAD, new BigDecimal("1.35")));
+        //3.58 X 1.35 = 4.833
+        assertTrue(canadianReceipt.contains("Final charge: " + canadianDollars.format(new BigDecimal("4.83"))));
+        assertTrue(canadianReceipt.contains("Checkout date: " + LocalDate.of(2020, 7, 2)
+                .format(DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT).withLocale(Locale.CANADA_FRENCH))));
+
+        final ReceiptRenderer germany = ReceiptRenderer.of(Locale.GERMANY, EUR);
+        final NumberFormat euros = NumberFormat.getCurrencyInstance(Locale.GERMANY);
+        //3.98 X 0.92 = 3.6616
+        assertTrue(germany.render(rentalAgreement, new ExchangeRate(USD, EUR, 920_000)).contains(
+                "Pre-discount charge: " + euros.format(new BigDecimal("3.66"))));
+        //The same renderer picks up a new rate: 3.98 X 0.95 = 3.781
+        assertEquals(euros.format(new BigDecimal("3.78")),
+                germany.formatMoney(new BigDecimal("3.98"), new ExchangeRate(USD, EUR, 950_000)));
+
+        assertThrows(IllegalArgumentException.class, () -> germany.render(rentalAgreement));
+        assertThrows(IllegalArgumentException.class, () -> germany.render(rentalAgreement,
+                new ExchangeRate(USD, CAD, 1_350_000)));
+    }
+
+    @Test
+    void testExchangeRateRounding() {
+        final ExchangeRate half = new ExchangeRate(USD, EUR, 500_000);
+        assertEquals(1, half.convert(1));
+        assertEquals(-1, half.convert(-1));
+        assertEquals(1, half.convert(2));
+        assertEquals(2, half.convert(3));
+
+        //Yen have no decimal places: $3.58 X 150 = 537 yen
+        final ExchangeRate yen = ExchangeRate.of(USD, JPY, new BigDecimal("150"));
+        assertEquals(537, yen.convert(358));
+        //499 yen X 0.00999 = 4.98501 dollars, which rounds to 499 cents
+        assertEquals(499, ExchangeRate.of(JPY, USD, new BigDecimal("0.00999")).convert(499));
+        assertThrows(IllegalArgumentException.class, () -> new ExchangeRate(USD, EUR, 0));
+    }
+}
@@ -0,0 +1,77 @@
+package com.msorrell.project;
+
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.ReturnProcessingService;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.store.AgreementStore;
+import com.msorrell.project.util.DayTimerWheel;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReturnProcessingServiceTest {
+
+    private final ToolRentalService toolRentalService = new ToolRentalService();
+
+    @Test
+    void testTimerWheelFiresOnScheduledDay() {
+        final Random random = new Random(7);
+        final int start = 16_000;
+        final DayTimerWheel wheel = new DayTimerWheel(start);
+        final int[] fireDays = new int[50_000];
+        for (int id = 0; id < fireDays.length; id++) {
+            //Spread across every level of the wheel, including days that are already past
+            fireDays[id] = start - 10 + random.nextInt(random.nextBoolean() ? 300 : 80_000);
+            wheel.schedule(id, fireDays[id]);
+        }
+        final int[] fired = new int[fireDays.length];
+        int day = start;
+        while (wheel.size() > 0) {
+            day += 1 + random.nextInt(40);
+            final int today = day;
+            wheel.advanceTo(today, id -> {
+                assertTrue(fireDays[(int) id] <= today);
+                fired[(int) id] = today;
+            });
+        }
+        for (int id = 0; id < fireDays.length; id++) {
+            assertTrue(fired[id] >= fireDays[id]);
+            assertTrue(fired[id] - fireDays[id] <= 40 || fireDays[id] < start);
+        }
+    }
+
+    @Test
+    void testOverdueAndLateFees() throws Exception {
+        try (AgreementStore store = AgreementStore.allocateDirect()) {
+            final long ladder = store.append(toolRentalService.generateRentalAgreement(
+                    CheckoutLineParser.parse("LADW,3,10,07/02/20")));
+            final long jackhammer = store.append(toolRentalService.generateRentalAgreement(
+                    CheckoutLineParser.parse("JAKR,2,0,08/31/15")));
+            final ReturnProcessingService service = new ReturnProcessingService(store, LocalDate.of(2015, 8, 31));
+            service.open(ladder);
+            service.open(jackhammer);
+
+            final List<Long> overdue = new ArrayList<>();
+            assertEquals(service.processOverdue(LocalDate.of(2015, 9, 2), view -> overdue.add(view.getId())), 0);
+            assertEquals(service.processOverdue(LocalDate.of(2015, 9, 3), view -> overdue.add(view.getId())), 1);
+            assertEquals(overdue, List.of(jackhammer));
+            assertTrue(service.isOverdue(jackhammer));
+
+            //Late days are 09/03 to 09/08: Labor Day and the weekend are not charged for a jackhammer
+            assertEquals(service.processReturn(jackhammer, LocalDate.of(2015, 9, 8)), new BigDecimal("8.97"));
+            assertFalse(service.isOverdue(jackhammer));
+            assertEquals(service.processReturn(ladder, LocalDate.of(2020, 7, 4)), new BigDecimal("0.00"));
+            assertEquals(service.getOpenCount(), 0);
+            assertEquals(service.processOverdue(LocalDate.of(2021, 1, 1), view -> overdue.add(view.getId())), 0);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.msorrell.project;
+
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.workload.SessionRecorder;
+import com.msorrell.project.workload.SessionReplayDriver;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionReplayDriverTest {
+
+    private static final List<String> SESSION = List.of("XXXX", "LADW", "0", "5", "10", "07/02/20", "y", "JAKR",
+            "3", "", "0", "13/01/20", "09/02/15", "n");
+
+    @Test
+    void testRecordingKeepsInvalidAnswers() throws Exception {
+        final StringWriter recording = new StringWriter();
+        final ByteArrayOutputStream console = new ByteArrayOutputStream();
+        final ToolRentalService toolRentalService = new ToolRentalService(new QuoteEngine(),
+                new PrintStream(console, true, StandardCharsets.UTF_8));
+        try (SessionRecorder recorder = new SessionRecorder(new StringReader(String.join("\n", SESSION)),
+                new PrintWriter(recording))) {
+            toolRentalService.runSession(recorder);
+        }
+        final String output = console.toString(StandardCharsets.UTF_8);
+        assertTrue(output.contains("Please provide a valid tool code"));
+        assertTrue(output.contains("Please provide a whole number between 0-100"));
+        assertTrue(output.contains("Tool code: JAKR"));
+
+        final String twice = recording + recording.toString();
+        assertEquals(SessionRecorder.parse(twice.lines().collect(Collectors.toList())), List.of(SESSION, SESSION));
+    }
+
+    @Test
+    void testReplayTimesEveryPrompt() throws Exception {
+        final SessionReplayDriver driver = new SessionReplayDriver(new QuoteEngine(), 4);
+        //The second session's recording ends in the middle of a checkout
+        driver.run(List.of(SESSION, List.of("LADW", "3")), 50);
+        assertEquals(driver.getCompletedCount(), 50);
+        assertEquals(driver.getIncompleteCount(), 50);
+        assertTrue(driver.getSessionsPerSecond() > 0);
+
+        assertEquals(driver.getLatencies("Please provide the tool code").getCount(), 150);
+        assertEquals(driver.getLatencies("Please provide the number of rental day").getCount(), 150);
+        assertEquals(driver.getLatencies("Please provide a valid tool code").getCount(), 50);
+        assertEquals(driver.getLatencies("Please provide a whole number greater than 0").getCount(), 50);
+        assertEquals(driver.getLatencies("Please provide a whole number between 0-100").getCount(), 50);
+        assertEquals(driver.getLatencies("Checkout again? (y/n)").getCount(), 100);
+        assertNull(driver.getLatencies("Please provide a valid answer"));
+
+        final ByteArrayOutputStream report = new ByteArrayOutputStream();
+        driver.printReport(new PrintStream(report, true, StandardCharsets.UTF_8));
+        final String[] lines = report.toString(StandardCharsets.UTF_8).split(System.lineSeparator());
+        assertEquals(lines[0], "prompt,responses,p50_us,p99_us,p99.9_us,max_us");
+        //Most answered first, ties by prompt text
+        assertTrue(lines[1].startsWith("\"Please provide the number of rental day\",150,"));
+        assertTrue(lines[2].startsWith("\"Please provide the tool code\",150,"));
+        assertTrue(lines[lines.length - 1].startsWith("Sessions: 50, incomplete: 50"));
+    }
+
+    @Test
+    void testFailedSessionsAreCounted() throws Exception {
+        final QuoteEngine failingEngine = new QuoteEngine() {
+            @Override
+            public RentalAgreement generateRentalAgreement(final Checkout checkout) {
+                if (checkout.getTool().getCode().equals("CHNS")) {
+                    throw new IllegalStateException("No rate");
+                }
+                return super.generateRentalAgreement(checkout);
+            }
+        };
+        //A single worker replays every session, so it must survive the failures
+        final SessionReplayDriver driver = new SessionReplayDriver(failingEngine, 1);
+        driver.run(List.of(List.of("CHNS", "5", "10", "07/02/20", "n"), List.of("LADW", "5", "10", "07/02/20", "n")),
+                20);
+        assertEquals(driver.getCompletedCount(), 20);
+        assertEquals(driver.getFailedCount(), 20);
+        assertEquals(driver.getIncompleteCount(), 0);
+
+        final ByteArrayOutputStream report = new ByteArrayOutputStream();
+        driver.printReport(new PrintStream(report, true, StandardCharsets.UTF_8));
+        assertTrue(report.toString(StandardCharsets.UTF_8).contains("Sessions: 20, incomplete: 0, failed: 20,"));
+    }
+}
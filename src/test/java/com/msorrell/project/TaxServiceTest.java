@@ -0,0 +1,116 @@
+package com.msorrell.project;
+
+import com.msorrell.project.enums.CheckoutField;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.CartCheckout;
+import com.msorrell.project.models.CartRentalAgreement;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.QuoteResult;
+import com.msorrell.project.models.RentalAgreement;
+import com.msorrell.project.models.TaxRateTable;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.services.TaxService;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.msorrell.project.util.ProjectUtils.UNKNOWN_JURISDICTION_MESSAGE;
+import static com.msorrell.project.validators.InputValidator.findTool;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaxServiceTest {
+
+    private static final TaxRateTable RATES = TaxRateTable.parse(List.of(
+            "# jurisdiction,toolType,percent",
+            "TX-AUSTIN,*,8.25",
+            "TX-AUSTIN,LADDER,0",
+            "CA-SF,CHAINSAW,8.625"));
+
+    private final QuoteEngine quoteEngine = new QuoteEngine(null, new TaxService(RATES));
+
+    @Test
+    void testTaxAfterDiscount() {
+        assertEquals(82_500, RATES.getRate("TX-AUSTIN", ToolType.JACKHAMMER));
+        assertEquals(0, RATES.getRate("TX-AUSTIN", ToolType.LADDER));
+        assertEquals(0, RATES.getRate("CA-SF", ToolType.LADDER));
+
+        final Checkout checkout = CheckoutLineParser.parse("CHNS,5,25,07/02/15");
+        checkout.setJurisdiction(" tx-austin ");
+        final RentalAgreement rentalAgreement = quoteEngine.generateRentalAgreement(checkout);
+        //3.35 X 8.25% = 0.276375
+        assertEquals(new BigDecimal("3.35"), rentalAgreement.getFinalCharge());
+        assertEquals("TX-AUSTIN", rentalAgreement.getJurisdiction());
+        assertEquals(new BigDecimal("0.28"), rentalAgreement.getTaxAmount());
+        assertEquals(new BigDecimal("3.63"), rentalAgreement.getTotalCharge());
+        assertTrue(rentalAgreement.toConsoleString().contains("Tax amount: $0.28"));
+        assertTrue(rentalAgreement.toConsoleString().contains("Total charge: $3.63"));
+
+        final RentalAgreement untaxed = quoteEngine.generateRentalAgreement(CheckoutLineParser.parse(
+                "CHNS,5,25,07/02/15"));
+        assertNull(untaxed.getJurisdiction());
+        assertEquals(new BigDecimal("0.00"), untaxed.getTaxAmount());
+        assertEquals(untaxed.getFinalCharge(), untaxed.getTotalCharge());
+        assertFalse(untaxed.toConsoleString().contains("Tax amount"));
+
+        final CartCheckout cartCheckout = new CartCheckout();
+        cartCheckout.addTool(findTool("CHNS"));
+        cartCheckout.addTool(findTool("LADW"));
+        cartCheckout.setRentalDayCount(5);
+        cartCheckout.setDiscountPercent(25);
+        cartCheckout.setCheckoutDate(LocalDate.of(2015, 7, 2));
+        cartCheckout.setJurisdiction("CA-SF");
+        final CartRentalAgreement cartRentalAgreement = quoteEngine.generateCartRentalAgreement(cartCheckout);
+        //Only the chainsaw is taxed: 3.35 X 8.625% = 0.2889375
+        assertEquals(new BigDecimal("0.29"), cartRentalAgreement.getTotalTaxAmount());
+        assertEquals(cartRentalAgreement.getTotalFinalCharge().add(new BigDecimal("0.29")),
+                cartRentalAgreement.getTotalCharge());
+    }
+
+    @Test
+    void testUnknownJurisdiction() {
+        final QuoteResult quoteResult = quoteEngine.quote("CHNS", 5, 25, LocalDate.of(2015, 7, 2), null, "NV-RENO");
+        assertFalse(quoteResult.isValid());
+        assertEquals(2, quoteResult.getErrors().size());
+        assertEquals(CheckoutField.JURISDICTION, quoteResult.getErrors().get(1).getField());
+
+        final Checkout checkout = CheckoutLineParser.parse("CHNS,5,25,07/02/15");
+        checkout.setJurisdiction("NV-RENO");
+        final InvalidInputException exception = assertThrows(InvalidInputException.class,
+                () -> quoteEngine.generateRentalAgreement(checkout));
+        assertTrue(exception.getMessage().startsWith(UNKNOWN_JURISDICTION_MESSAGE));
+        assertThrows(InvalidInputException.class, () -> checkout.setJurisdiction(" "));
+        assertThrows(InvalidInputException.class, () -> TaxRateTable.parse(List.of("TX-AUSTIN,*,101")));
+        assertThrows(InvalidInputException.class, () -> TaxRateTable.parse(List.of("TX-AUSTIN,*,8", "TX-AUSTIN,*,9")));
+    }
+
+    @Test
+    void testReload(@TempDir final Path directory) throws Exception {
+        final Path file = directory.resolve("tax-rates.csv");
+        Files.writeString(file, "TX-AUSTIN,*,8.25");
+        final TaxService taxService = new TaxService(file);
+        final TaxRateTable before = taxService.getTable();
+        assertEquals(82_500, before.getRate("TX-AUSTIN", ToolType.CHAINSAW));
+
+        Files.writeString(file, "TX-AUSTIN,*,6.25");
+        taxService.reload();
+        assertEquals(62_500, taxService.getTable().getRate("TX-AUSTIN", ToolType.CHAINSAW));
+        //A snapshot taken before the reload keeps its rates
+        assertEquals(82_500, before.getRate("TX-AUSTIN", ToolType.CHAINSAW));
+
+        Files.writeString(file, "TX-AUSTIN,*,abc");
+        assertThrows(InvalidInputException.class, taxService::reload);
+        assertEquals(62_500, taxService.getTable().getRate("TX-AUSTIN", ToolType.CHAINSAW));
+    }
+}
@@ -0,0 +1,78 @@
+package com.msorrell.project;
+
+import com.msorrell.project.enums.ToolBrand;
+import com.msorrell.project.enums.ToolType;
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.util.ProjectUtils;
+import com.msorrell.project.util.ToolCodeIndex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ToolCodeIndexTest {
+
+    @Test
+    void testCodesAreEncodedIgnoringCase() {
+        assertEquals(0, ToolCodeIndex.encode("AAAA", 0, 4));
+        assertEquals(ToolCodeIndex.SLOT_COUNT - 1, ToolCodeIndex.encode("zzzz", 0, 4));
+        assertEquals(ToolCodeIndex.encode("LADW", 0, 4), ToolCodeIndex.encode("x,lAdW,", 2, 6));
+        for (final String code : new String[] {"LAD", "LADWX", "LAD1", "LA W", "@ADW", "[ADW", "`ADW", "{ADW",
+                "LADé"}) {
+            assertEquals(ToolCodeIndex.NOT_A_CODE, ToolCodeIndex.encode(code, 0, code.length()), code);
+        }
+
+        assertSame(ProjectUtils.TOOLS.get(2), ProjectUtils.TOOL_CODES.find("jakr"));
+        assertNull(ProjectUtils.TOOL_CODES.find("JAKX"));
+        assertNull(ProjectUtils.TOOL_CODES.find(null));
+        for (int i = 0; i < ProjectUtils.TOOLS.size(); i++) {
+            assertEquals(i, ProjectUtils.toolIndex(ProjectUtils.TOOLS.get(i)));
+        }
+        //Same code, different tool
+        assertEquals(-1, ProjectUtils.toolIndex(new Tool(ToolType.CHAINSAW, ToolBrand.WERNER, "LADW")));
+    }
+
+    @Test
+    void testLargeCatalog() {
+        final Random random = new Random(11);
+        final List<Tool> tools = new ArrayList<>();
+        final boolean[] used = new boolean[ToolCodeIndex.SLOT_COUNT];
+        while (tools.size() < 100_000) {
+            final int slot = random.nextInt(ToolCodeIndex.SLOT_COUNT);
+            if (!used[slot]) {
+                used[slot] = true;
+                tools.add(new Tool(ToolType.LADDER, ToolBrand.WERNER, decode(slot)));
+            }
+        }
+        final ToolCodeIndex index = new ToolCodeIndex(tools);
+        assertEquals(tools.size(), index.size());
+        for (int i = 0; i < tools.size(); i++) {
+            assertEquals(i, index.indexOf(tools.get(i).getCode().toLowerCase(), 0, 4));
+        }
+        for (int slot = 0; slot < ToolCodeIndex.SLOT_COUNT; slot += 97) {
+            assertEquals(used[slot], index.find(decode(slot)) != null);
+        }
+
+        tools.add(new Tool(ToolType.CHAINSAW, ToolBrand.STIHL, tools.get(0).getCode()));
+        assertThrows(IllegalArgumentException.class, () -> new ToolCodeIndex(tools));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ToolCodeIndex(List.of(new Tool(ToolType.LADDER, ToolBrand.WERNER, "LAD1"))));
+    }
+
+    private static String decode(final int slot) {
+        final char[] code = new char[4];
+        int rest = slot;
+        for (int i = 3; i >= 0; i--) {
+            code[i] = (char) ('A' + rest % 26);
+            rest /= 26;
+        }
+        return new String(code);
+    }
+}
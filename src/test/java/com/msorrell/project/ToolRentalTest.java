@@ -1,28 +1,46 @@
 package com.msorrell.project;
 
+import com.msorrell.project.enums.CheckoutField;
 import com.msorrell.project.enums.ToolBrand;
 import com.msorrell.project.enums.ToolType;
 import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.CartCheckout;
+import com.msorrell.project.models.CartRentalAgreement;
 import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.QuoteResult;
 import com.msorrell.project.models.RentalAgreement;
 import com.msorrell.project.models.Tool;
+import com.msorrell.project.pipeline.RentalPipeline;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
 import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.util.CalendarUtils;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.PrintStream;
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 
+import static com.msorrell.project.util.ProjectUtils.EMPTY_CART_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_DATE_FORMAT_MESSAGE;
 import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_DATE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_LINE_MESSAGE;
 import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_PERCENT_MESSAGE;
 import static com.msorrell.project.util.ProjectUtils.INVALID_RENTAL_DAY_MESSAGE;
 import static com.msorrell.project.util.ProjectUtils.INVALID_TOOL_CODE;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -368,4 +386,157 @@ public class ToolRentalTest {
         final String actualMessage = exception.getMessage();
         assertTrue(actualMessage.contains(INVALID_TOOL_CODE));
     }
+
+    @Test
+    void testChargeDaysMatchDayByDayCount() {
+        final LocalDate checkoutDate = LocalDate.of(2014, 6, 20);
+        for (int rentalDays = 1; rentalDays <= 500; rentalDays += 7) {
+            final LocalDate dueDate = checkoutDate.plusDays(rentalDays);
+            for (final ToolType toolType : ToolType.values()) {
+                int expected = 0;
+                for (LocalDate day = checkoutDate.plusDays(1); !day.isAfter(dueDate); day = day.plusDays(1)) {
+                    if (CalendarUtils.isHoliday(day)) {
+                        expected += toolType.isHolidayCharge() ? 1 : 0;
+                    } else if (CalendarUtils.isWeekend(day.getDayOfWeek())) {
+                        expected += toolType.isWeekendCharge() ? 1 : 0;
+                    } else {
+                        expected += toolType.isWeekdayCharge() ? 1 : 0;
+                    }
+                }
+                assertEquals(expected, toolRentalService.calculateChargeDays(checkoutDate, dueDate, toolType));
+            }
+        }
+    }
+
+    @Test
+    void testCartCheckout() {
+        final CartCheckout cartCheckout = new CartCheckout();
+        cartCheckout.addTool(new Tool(ToolType.LADDER, ToolBrand.WERNER, "LADW"));
+        cartCheckout.addTool(new Tool(ToolType.CHAINSAW, ToolBrand.STIHL, "CHNS"));
+        cartCheckout.addTool(new Tool(ToolType.JACKHAMMER, ToolBrand.RIDGID, "JAKR"));
+        cartCheckout.setCheckoutDate(LocalDate.of(2015, 7, 2));
+        cartCheckout.setRentalDayCount(5);
+        cartCheckout.setDiscountPercent(25);
+        final CartRentalAgreement cartRentalAgreement = toolRentalService.generateCartRentalAgreement(cartCheckout);
+        assertEquals(cartRentalAgreement.getLines().size(), 3);
+        assertEquals(cartRentalAgreement.getDueDate(), LocalDate.of(2015, 7, 7));
+        assertEquals(cartRentalAgreement.getDayBreakdown().getWeekdayCount(), 2);
+        assertEquals(cartRentalAgreement.getDayBreakdown().getWeekendCount(), 2);
+        assertEquals(cartRentalAgreement.getDayBreakdown().getHolidayCount(), 1);
+        for (final RentalAgreement line : cartRentalAgreement.getLines()) {
+            checkout.setTool(line.getTool());
+            checkout.setCheckoutDate(cartCheckout.getCheckoutDate());
+            checkout.setRentalDayCount(cartCheckout.getRentalDayCount());
+            checkout.setDiscountPercent(cartCheckout.getDiscountPercent());
+            final RentalAgreement rentalAgreement = toolRentalService.generateRentalAgreement(checkout);
+            assertEquals(line.getChargeDays(), rentalAgreement.getChargeDays());
+            assertEquals(line.getFinalCharge(), rentalAgreement.getFinalCharge());
+        }
+        assertEquals(cartRentalAgreement.getTotalPreDiscountCharge(), convertDoubleToBigDecimal(18.41));
+        assertEquals(cartRentalAgreement.getTotalDiscountAmount(), convertDoubleToBigDecimal(4.61));
+        assertEquals(cartRentalAgreement.getTotalFinalCharge(), convertDoubleToBigDecimal(13.80));
+    }
+
+    @Test
+    void testEmptyCartCheckout() {
+        final CartCheckout cartCheckout = new CartCheckout();
+        cartCheckout.setCheckoutDate(LocalDate.of(2015, 7, 2));
+        cartCheckout.setRentalDayCount(5);
+        final Exception exception = assertThrows(InvalidInputException.class,
+                () -> toolRentalService.generateCartRentalAgreement(cartCheckout));
+        assertTrue(exception.getMessage().contains(EMPTY_CART_MESSAGE));
+    }
+
+    @Test
+    void testCheckoutLineParser() {
+        final Checkout parsed = CheckoutLineParser.parse(" jakr, 9 ,0,07/02/15");
+        assertEquals(parsed.getTool(), new Tool(ToolType.JACKHAMMER, ToolBrand.RIDGID, "JAKR"));
+        assertEquals(parsed.getRentalDayCount(), 9);
+        assertEquals(parsed.getDiscountPercent(), 0);
+        assertEquals(parsed.getCheckoutDate(), LocalDate.of(2015, 7, 2));
+        Exception exception = assertThrows(InvalidInputException.class, () -> CheckoutLineParser.parse("JAKR,9,0"));
+        assertTrue(exception.getMessage().contains(INVALID_CHECKOUT_LINE_MESSAGE));
+        exception = assertThrows(InvalidInputException.class, () -> CheckoutLineParser.parse("JAKR,9,0,7/2/15"));
+        assertTrue(exception.getMessage().contains(INVALID_CHECKOUT_DATE_FORMAT_MESSAGE));
+    }
+
+    @Test
+    void testRentalPipeline() throws Exception {
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            input.append(i % 10 == 0 ? "JAKR,5,101,09/03/15" : "CHNS,5,25,07/02/15").append(System.lineSeparator());
+        }
+        final RentalPipeline pipeline = new RentalPipeline(toolRentalService, 2, 3, 2, 4);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final long lines;
+        try (PrintStream out = new PrintStream(output, true, "UTF-8")) {
+            lines = pipeline.run(new BufferedReader(new StringReader(input.toString())), out);
+        }
+        final String rendered = output.toString("UTF-8");
+        assertEquals(lines, 200);
+        assertEquals(rendered.split("Final charge: \\$3\\.35", -1).length - 1, 180);
+        assertEquals(rendered.split("Invalid checkout: ", -1).length - 1, 20);
+        assertTrue(pipeline.getMaxQueueDepths().values().stream().allMatch(depth -> depth <= 4));
+    }
+
+    @Test
+    void testRentalPipelineRenderFailure() throws Exception {
+        //An agreement with no fields set cannot be rendered
+        final QuoteEngine emptyAgreements = new QuoteEngine() {
+            @Override
+            public RentalAgreement generateRentalAgreement(final Checkout checkout) {
+                return checkout.getTool().getCode().equals("JAKR") ? new RentalAgreement()
+                        : super.generateRentalAgreement(checkout);
+            }
+        };
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            input.append(i % 5 == 0 ? "JAKR,5,0,09/03/15" : "CHNS,5,25,07/02/15").append(System.lineSeparator());
+        }
+        final RentalPipeline pipeline = new RentalPipeline(new ToolRentalService(emptyAgreements, System.out),
+                1, 1, 1, 2);
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(output, true, "UTF-8")) {
+            assertEquals(pipeline.run(new BufferedReader(new StringReader(input.toString())), out), 50);
+        }
+        final String rendered = output.toString("UTF-8");
+        assertEquals(rendered.split("Final charge: \\$3\\.35", -1).length - 1, 40);
+        assertEquals(rendered.split("Invalid checkout: ", -1).length - 1, 10);
+    }
+
+    @Test
+    void testQuoteEngine() {
+        final QuoteEngine quoteEngine = new QuoteEngine();
+        final QuoteResult valid = quoteEngine.quote("LADW", 3, 10, LocalDate.of(2020, 7, 2));
+        assertTrue(valid.isValid());
+        assertTrue(valid.getErrors().isEmpty());
+        assertEquals(valid.getRentalAgreement().getFinalCharge(), convertDoubleToBigDecimal(3.58));
+
+        final QuoteResult invalid = quoteEngine.quote("XXXX", 0, 101, null);
+        assertFalse(invalid.isValid());
+        assertNull(invalid.getRentalAgreement());
+        assertEquals(invalid.getErrors().size(), 4);
+        assertEquals(invalid.getErrors().get(0).getField(), CheckoutField.TOOL_CODE);
+        assertEquals(invalid.getErrors().get(1).getMessage(), INVALID_RENTAL_DAY_MESSAGE);
+        assertEquals(invalid.getErrors().get(2).getMessage(), INVALID_DISCOUNT_PERCENT_MESSAGE);
+        assertEquals(invalid.getErrors().get(3).getMessage(), INVALID_CHECKOUT_DATE_MESSAGE);
+    }
+
+    @Test
+    void testReadInputRetriesInvalidAnswers() throws Exception {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final ToolRentalService service = new ToolRentalService(new QuoteEngine(), new PrintStream(output, true,
+                "UTF-8"));
+        final String input = String.join(System.lineSeparator(), "JAK", "JAKR", "zero", "9", "0", "7/2/15",
+                "07/02/15", "maybe", "n", "");
+        final BufferedReader reader = new BufferedReader(new StringReader(input));
+        final Checkout parsed = service.readInput(reader);
+        assertFalse(service.checkoutAgain(reader));
+        assertEquals(service.generateRentalAgreement(parsed).getFinalCharge(), convertDoubleToBigDecimal(14.95));
+        final String prompts = output.toString("UTF-8");
+        assertTrue(prompts.contains("Please provide a valid tool code"));
+        assertTrue(prompts.contains("Please provide a valid date (Format: MM/DD/YY)"));
+        assertTrue(prompts.contains("Please provide a valid answer"));
+        assertThrows(EOFException.class, () -> service.readInput(reader));
+    }
 }
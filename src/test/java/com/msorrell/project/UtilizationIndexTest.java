@@ -0,0 +1,106 @@
+package com.msorrell.project;
+
+import com.msorrell.project.models.Tool;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.QuoteEngine;
+import com.msorrell.project.store.UtilizationIndex;
+import com.msorrell.project.util.ProjectUtils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class UtilizationIndexTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2020, 1, 1);
+
+    private static final LocalDate LAST = LocalDate.of(2021, 12, 31);
+
+    private static final String[] STORES = {"CA", "NV", UtilizationIndex.NO_STORE};
+
+    @Test
+    void testCountsMatchDayByDay() {
+        final UtilizationIndex index = new UtilizationIndex(FIRST, LAST);
+        final int days = (int) (LAST.toEpochDay() - FIRST.toEpochDay() + 1);
+        final int toolCount = ProjectUtils.TOOLS.size();
+        final boolean[][][] rented = new boolean[STORES.length][toolCount][days];
+        final Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            final int store = random.nextInt(STORES.length);
+            final int tool = random.nextInt(toolCount);
+            //Starts up to a month before the range so clipping is covered
+            final long checkoutDay = FIRST.toEpochDay() - 30 + random.nextInt(days + 30);
+            final long dueDay = checkoutDay + 1 + random.nextInt(120);
+            index.add(STORES[store], tool, checkoutDay, dueDay);
+            for (long day = checkoutDay; day < dueDay; day++) {
+                final long offset = day - FIRST.toEpochDay();
+                if (offset >= 0 && offset < days) {
+                    rented[store][tool][(int) offset] = true;
+                }
+            }
+        }
+
+        for (int i = 0; i < 500; i++) {
+            final int from = random.nextInt(days);
+            final int to = from + random.nextInt(days - from);
+            final LocalDate fromDate = FIRST.plusDays(from);
+            final LocalDate toDate = FIRST.plusDays(to);
+            final int store = random.nextInt(STORES.length + 1);
+            final int first = random.nextInt(toolCount);
+            final int second = random.nextInt(toolCount);
+            int expectedRented = 0;
+            int expectedOverlap = 0;
+            for (int day = from; day <= to; day++) {
+                final boolean firstRented = isRented(rented, store, first, day);
+                expectedRented += firstRented ? 1 : 0;
+                expectedOverlap += firstRented && isRented(rented, store, second, day) ? 1 : 0;
+            }
+            final String storeName = store == STORES.length ? null : STORES[store];
+            final Tool firstTool = ProjectUtils.TOOLS.get(first);
+            assertEquals(expectedRented, index.rentedDays(storeName, firstTool, fromDate, toDate));
+            assertEquals((double) expectedRented / (to - from + 1),
+                    index.utilization(storeName, firstTool, fromDate, toDate), 1e-12);
+            assertEquals(expectedOverlap, index.overlapDays(storeName, firstTool, ProjectUtils.TOOLS.get(second),
+                    fromDate, toDate));
+        }
+
+        final YearMonth month = YearMonth.of(2021, 2);
+        final Map<Tool, Double> monthly = index.monthlyUtilization("NV", month);
+        for (final Tool tool : ProjectUtils.TOOLS) {
+            assertEquals(index.utilization("NV", tool, month.atDay(1), month.atEndOfMonth()), monthly.get(tool));
+        }
+        assertEquals(STORES.length, index.monthlyUtilizationByStore(month).size());
+    }
+
+    @Test
+    void testAgreementMarksRentedDays() {
+        final UtilizationIndex index = new UtilizationIndex(FIRST, LAST);
+        //Checked out 07/02/20 for 5 days, due 07/07/20
+        index.add(new QuoteEngine().generateRentalAgreement(CheckoutLineParser.parse("JAKR,5,0,07/02/20")));
+        final Tool tool = CheckoutLineParser.parse("JAKR,5,0,07/02/20").getTool();
+        final LocalDate july = LocalDate.of(2020, 7, 1);
+        assertEquals(5, index.rentedDays(UtilizationIndex.NO_STORE, tool, july, july.plusDays(30)));
+        assertEquals(5, index.rentedDays(null, tool, july, july.plusDays(30)));
+        assertEquals(0, index.rentedDays("CA", tool, july, july.plusDays(30)));
+        assertEquals(1, index.rentedDays(null, tool, july.plusDays(5), july.plusDays(6)));
+        assertEquals(5.0 / 31, index.monthlyUtilization(null, YearMonth.of(2020, 7)).get(tool), 1e-12);
+        assertEquals(0, index.utilization(null, tool, LAST.plusDays(1), LAST.plusDays(10)));
+    }
+
+    private static boolean isRented(final boolean[][][] rented, final int store, final int tool, final int day) {
+        if (store < STORES.length) {
+            return rented[store][tool][day];
+        }
+        for (final boolean[][] storeDays : rented) {
+            if (storeDays[tool][day]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,96 @@
+package com.msorrell.project;
+
+import com.msorrell.project.batch.BatchTotals;
+import com.msorrell.project.batch.BatchWorker;
+import com.msorrell.project.enums.CheckoutField;
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.models.Checkout;
+import com.msorrell.project.models.ValidationResult;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.services.ToolRentalService;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_DATE_FORMAT_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_CHECKOUT_LINE_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_DISCOUNT_PERCENT_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_RENTAL_DAY_MESSAGE;
+import static com.msorrell.project.util.ProjectUtils.INVALID_TOOL_CODE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ValidationResultTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEveryFieldErrorIsGathered() {
+        final ValidationResult result = new ValidationResult();
+        assertFalse(CheckoutLineParser.validate("XXXX,0,101,13/45/15", result));
+        assertEquals(4, result.getErrorCount());
+        assertEquals(INVALID_TOOL_CODE, result.getFirstMessage());
+        assertEquals(INVALID_RENTAL_DAY_MESSAGE, result.getMessage(CheckoutField.RENTAL_DAYS));
+        assertEquals(INVALID_DISCOUNT_PERCENT_MESSAGE, result.getMessage(CheckoutField.DISCOUNT_PERCENT));
+        assertEquals(INVALID_CHECKOUT_DATE_FORMAT_MESSAGE, result.getMessage(CheckoutField.CHECKOUT_DATE));
+        assertEquals(4, result.getErrors().size());
+        assertEquals("TOOL_CODE: " + INVALID_TOOL_CODE + "; RENTAL_DAYS: " + INVALID_RENTAL_DAY_MESSAGE
+                        + "; DISCOUNT_PERCENT: " + INVALID_DISCOUNT_PERCENT_MESSAGE
+                        + "; CHECKOUT_DATE: " + INVALID_CHECKOUT_DATE_FORMAT_MESSAGE,
+                result.appendReasons(new StringBuilder()).toString());
+
+        //The result is cleared when it is reused
+        assertFalse(CheckoutLineParser.validate("LADW,3,10", result));
+        assertEquals(1, result.getErrorCount());
+        assertEquals(INVALID_CHECKOUT_LINE_MESSAGE, result.getFirstMessage());
+        assertNull(result.getMessage(CheckoutField.TOOL_CODE));
+
+        assertTrue(CheckoutLineParser.validate(" jakr , 9 , 15 , 07/02/20 ", result));
+        final Checkout checkout = result.toCheckout();
+        final Checkout parsed = CheckoutLineParser.parse(" jakr , 9 , 15 , 07/02/20 ");
+        assertEquals(parsed.getTool(), checkout.getTool());
+        assertEquals(parsed.getRentalDayCount(), checkout.getRentalDayCount());
+        assertEquals(parsed.getDiscountPercent(), checkout.getDiscountPercent());
+        assertEquals(parsed.getCheckoutDate(), checkout.getCheckoutDate());
+    }
+
+    @Test
+    void testValidateAgreesWithParse() {
+        final WorkloadGenerator generator = new WorkloadGenerator(42, 0.5, 2015, 2025);
+        final ValidationResult result = new ValidationResult();
+        for (int i = 0; i < 20_000; i++) {
+            final String line = generator.nextLine();
+            String message = null;
+            try {
+                CheckoutLineParser.parse(line);
+            } catch (InvalidInputException e) {
+                message = e.getMessage();
+            }
+            assertEquals(message == null, CheckoutLineParser.validate(line, result), line);
+            assertEquals(message, result.getFirstMessage(), line);
+        }
+    }
+
+    @Test
+    void testRejectFileHasReasons() throws Exception {
+        final Path input = tempDir.resolve("checkouts.csv");
+        Files.write(input, List.of("LADW,3,10,07/02/20", "XXXX,0,10,07/02/20", "JAKR,5,0", "CHNS,5,25,07/02/15"));
+        final BatchTotals totals = BatchWorker.price(new ToolRentalService(), input, 0, Files.size(input),
+                tempDir.resolve("agreements.csv"), tempDir.resolve("rejects.txt"));
+        assertEquals(4, totals.getLines());
+        assertEquals(2, totals.getRejected());
+        assertEquals(List.of(
+                "19\tXXXX,0,10,07/02/20\tTOOL_CODE: " + INVALID_TOOL_CODE + "; RENTAL_DAYS: "
+                        + INVALID_RENTAL_DAY_MESSAGE,
+                "38\tJAKR,5,0\t" + INVALID_CHECKOUT_LINE_MESSAGE),
+                Files.readAllLines(tempDir.resolve("rejects.txt")));
+    }
+}
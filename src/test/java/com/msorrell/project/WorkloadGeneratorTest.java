@@ -0,0 +1,55 @@
+package com.msorrell.project;
+
+import com.msorrell.project.exceptions.InvalidInputException;
+import com.msorrell.project.services.CheckoutLineParser;
+import com.msorrell.project.util.LatencyHistogram;
+import com.msorrell.project.workload.WorkloadGenerator;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkloadGeneratorTest {
+
+    @Test
+    void testSameSeedProducesSameLines() {
+        final WorkloadGenerator first = new WorkloadGenerator(99, 0.1, 2015, 2025);
+        final WorkloadGenerator second = new WorkloadGenerator(99, 0.1, 2015, 2025);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(first.nextLine(), second.nextLine());
+        }
+    }
+
+    @Test
+    void testInvalidRate() {
+        final WorkloadGenerator generator = new WorkloadGenerator(1, 0.2, 2015, 2025);
+        int rejected = 0;
+        for (int i = 0; i < 10_000; i++) {
+            try {
+                CheckoutLineParser.parse(generator.nextLine());
+            } catch (InvalidInputException e) {
+                rejected++;
+            }
+        }
+        assertTrue(rejected > 1800 && rejected < 2200, "rejected " + rejected);
+    }
+
+    @Test
+    void testLatencyHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(histogram.getCount(), 10_000);
+        final long median = histogram.getValueAtPercentile(50);
+        assertTrue(median >= 5_000_000 && median <= 5_000_000 * 1.07, "median " + median);
+        final long max = histogram.getMax();
+        assertTrue(max >= 10_000_000 && max <= 10_000_000 * 1.07, "max " + max);
+
+        final LatencyHistogram target = new LatencyHistogram();
+        histogram.drainTo(target);
+        assertEquals(histogram.getCount(), 0);
+        assertEquals(target.getCount(), 10_000);
+    }
+}